@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2025 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.couchbase.client.benchmarks;
+
+import com.couchbase.client.Durations;
+import com.couchbase.client.ExampleReports;
+import com.couchbase.client.InMemoryRequestTracerHandlerOperations;
+import com.couchbase.client.analysis.ConcurrencyAnalysis;
+import com.couchbase.client.analysis.ConcurrencyProfile;
+import com.couchbase.client.core.deps.com.fasterxml.jackson.core.JsonFactory;
+import com.couchbase.client.core.deps.com.fasterxml.jackson.core.JsonGenerator;
+import com.couchbase.client.core.deps.com.fasterxml.jackson.databind.node.ArrayNode;
+import com.couchbase.client.core.deps.com.fasterxml.jackson.databind.node.ObjectNode;
+import com.couchbase.client.operations.Operation;
+import com.couchbase.client.operations.Operations;
+import com.couchbase.client.spans.InMemoryRequestSpan;
+import com.couchbase.client.spans.SpansForOperation;
+import com.couchbase.client.util.InMemoryRequestTracerHandlerOperationsUtil;
+import com.couchbase.client.util.OperationsToJson;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost of each stage of turning an interval's spans into reports, i.e. what the handler thread does once per interval.
+ * <p>
+ * The spans come from {@link SyntheticWorkload}.  Windows of 10 million operations hold around 30 million spans, so need a
+ * large heap, and are left out by default:
+ * <pre>
+ * java -jar target/benchmarks.jar ReportingPipelineBenchmark -p operations=10000000 -jvmArgsAppend -Xmx24g
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class ReportingPipelineBenchmark {
+  private static final JsonFactory factory = new JsonFactory();
+
+  @Param({"100000", "1000000"})
+  public int operations;
+
+  private List<InMemoryRequestSpan> spans = new ArrayList<>();
+  private Operations ops = new Operations(new ArrayList<>());
+  private InMemoryRequestTracerHandlerOperations handlerOps = new InMemoryRequestTracerHandlerOperations(ops);
+  private Durations durations = new Durations(new long[0]);
+
+  @Setup(Level.Trial)
+  public void setup() {
+    spans = SyntheticWorkload.spans(operations, 42);
+    ops = toOperations(InMemoryRequestTracerHandlerOperationsUtil.associateTopLevelSpansWithChildren(spans).getT1());
+    handlerOps = new InMemoryRequestTracerHandlerOperations(ops);
+    durations = ops.durationsMicroseconds();
+  }
+
+  private static Operations toOperations(List<SpansForOperation> associated) {
+    List<Operation> out = new ArrayList<>(associated.size());
+    for (SpansForOperation op : associated) {
+      out.add(new Operation(op));
+    }
+    return new Operations(out);
+  }
+
+  /**
+   * Grouping the interval's spans into operations, the first thing done with them.
+   */
+  @Benchmark
+  public List<SpansForOperation> associate() {
+    return InMemoryRequestTracerHandlerOperationsUtil.associateTopLevelSpansWithChildren(spans).getT1();
+  }
+
+  @Benchmark
+  public Map<String, Operations> groupByService() {
+    return ops.groupByService();
+  }
+
+  /**
+   * The nested grouping the aggregated report does.
+   */
+  @Benchmark
+  public void groupByServiceTypeAndSuccess(Blackhole bh) {
+    ops.groupByService().forEach((service, forService) ->
+      forService.groupByOperationType().forEach((type, forType) ->
+        bh.consume(forType.groupByIfSucceeded())));
+  }
+
+  @Benchmark
+  public Durations durations() {
+    return ops.durationsMicroseconds();
+  }
+
+  @Benchmark
+  public Map<String, Map<String, ConcurrencyProfile>> concurrencyAnalysis() {
+    return ConcurrencyAnalysis.analyse(ops);
+  }
+
+  @Benchmark
+  public void percentiles(Blackhole bh) {
+    bh.consume(durations.median());
+    bh.consume(durations.percentile(0.95));
+    bh.consume(durations.percentile(0.99));
+    bh.consume(durations.max());
+  }
+
+  @Benchmark
+  public ObjectNode aggregatedReport() {
+    return ExampleReports.exampleAggregatedReport(handlerOps);
+  }
+
+  @Benchmark
+  public long aggregatedReportStreamed() throws IOException {
+    CountingWriter out = new CountingWriter();
+    try (JsonGenerator gen = factory.createGenerator(out)) {
+      ExampleReports.writeExampleAggregatedReport(handlerOps, gen);
+    }
+    return out.count;
+  }
+
+  @Benchmark
+  public ArrayNode operationsToJson() {
+    return OperationsToJson.toJson(ops);
+  }
+
+  @Benchmark
+  public long operationsToJsonStreamed() throws IOException {
+    CountingWriter out = new CountingWriter();
+    try (JsonGenerator gen = factory.createGenerator(out)) {
+      gen.writeStartArray();
+      for (Operation op : ops.operations()) {
+        OperationsToJson.write(gen, op);
+      }
+      gen.writeEndArray();
+    }
+    return out.count;
+  }
+
+  /**
+   * Everything a tracer with the default handler does once per interval: associating, then the aggregated report.
+   */
+  @Benchmark
+  public long fullInterval() throws IOException {
+    InMemoryRequestTracerHandlerOperations collected = new InMemoryRequestTracerHandlerOperations(
+      toOperations(InMemoryRequestTracerHandlerOperationsUtil.associateTopLevelSpansWithChildren(spans).getT1()));
+    CountingWriter out = new CountingWriter();
+    try (JsonGenerator gen = factory.createGenerator(out)) {
+      ExampleReports.writeExampleAggregatedReport(collected, gen);
+    }
+    return out.count;
+  }
+
+  /**
+   * Discards its output, so that serialisation is measured without the cost of I/O or of growing a buffer.
+   */
+  private static final class CountingWriter extends Writer {
+    private long count;
+
+    @Override
+    public void write(char[] cbuf, int off, int len) {
+      count += len;
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+}
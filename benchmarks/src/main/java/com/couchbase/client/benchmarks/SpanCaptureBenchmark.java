@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2025 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.couchbase.client.benchmarks;
+
+import com.couchbase.client.InMemoryRequestTracer;
+import com.couchbase.client.core.cnc.RequestSpan;
+import com.couchbase.client.core.cnc.RequestTracer;
+import com.couchbase.client.core.cnc.TracingIdentifiers;
+import com.couchbase.client.core.cnc.tracing.NoopRequestTracer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static com.couchbase.client.InMemoryTracerOptions.inMemoryTracerOptions;
+
+/**
+ * The per-operation cost of capturing spans, i.e. what the SDK's threads pay, as opposed to the handler thread.
+ * <p>
+ * Each benchmark makes the same calls the SDK does for an operation, against either the {@link InMemoryRequestTracer} or, as a
+ * baseline, the SDK's {@link NoopRequestTracer}.  The difference between the two is the tracer's overhead.  Run with
+ * {@code -t} to vary the number of threads, and {@code -prof gc} for the allocation rate, or use {@link ThreadSweep}.
+ * <p>
+ * The tracer's handlers do nothing, but still run every {@link #INTERVAL}, so captured spans are released as they would be in
+ * production and their garbage collection cost is part of the measurement.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SpanCaptureBenchmark {
+  static final Duration INTERVAL = Duration.ofMillis(100);
+
+  @Param({"inmemory", "noop"})
+  public String tracer;
+
+  private RequestTracer requestTracer = NoopRequestTracer.INSTANCE;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    requestTracer = tracer.equals("inmemory")
+      ? new InMemoryRequestTracer(inMemoryTracerOptions()
+        .handlers(Collections.emptyList())
+        .interval(INTERVAL)
+        .jmx(false))
+      : NoopRequestTracer.INSTANCE;
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    requestTracer.stop(Duration.ofSeconds(1)).block();
+  }
+
+  /**
+   * A top-level span on its own, with the one attribute every operation has.
+   */
+  @Benchmark
+  public RequestSpan topLevelSpan() {
+    RequestSpan span = requestTracer.requestSpan("get", null);
+    span.attribute(TracingIdentifiers.ATTR_SERVICE, TracingIdentifiers.SERVICE_KV);
+    span.end();
+    return span;
+  }
+
+  /**
+   * A top-level span with a child, the shape of the smallest real operation.
+   */
+  @Benchmark
+  public RequestSpan parentAndChild() {
+    RequestSpan parent = requestTracer.requestSpan("get", null);
+    RequestSpan child = requestTracer.requestSpan(TracingIdentifiers.SPAN_DISPATCH, parent);
+    child.end();
+    parent.end();
+    return parent;
+  }
+
+  /**
+   * All the spans and attributes the SDK creates for a successful KV get.
+   */
+  @Benchmark
+  public RequestSpan kvOperation() {
+    RequestSpan op = requestTracer.requestSpan("get", null);
+    op.attribute(TracingIdentifiers.ATTR_SYSTEM, TracingIdentifiers.ATTR_SYSTEM_COUCHBASE);
+    op.attribute(TracingIdentifiers.ATTR_SERVICE, TracingIdentifiers.SERVICE_KV);
+    op.attribute(TracingIdentifiers.ATTR_NAME, "travel-sample");
+    op.attribute(TracingIdentifiers.ATTR_SCOPE, "inventory");
+    op.attribute(TracingIdentifiers.ATTR_COLLECTION, "airline");
+    op.attribute(TracingIdentifiers.ATTR_DOCUMENT_ID, "airline_10");
+    op.attribute(TracingIdentifiers.ATTR_OPERATION, "get");
+
+    RequestSpan encoding = requestTracer.requestSpan(TracingIdentifiers.SPAN_REQUEST_ENCODING, op);
+    encoding.end();
+
+    RequestSpan dispatch = requestTracer.requestSpan(TracingIdentifiers.SPAN_DISPATCH, op);
+    dispatch.attribute(TracingIdentifiers.ATTR_SYSTEM, TracingIdentifiers.ATTR_SYSTEM_COUCHBASE);
+    dispatch.attribute(TracingIdentifiers.ATTR_REMOTE_HOSTNAME, "10.0.0.1");
+    dispatch.attribute(TracingIdentifiers.ATTR_REMOTE_PORT, "11210");
+    dispatch.attribute(TracingIdentifiers.ATTR_LOCAL_ID, "5E8A1D2B/0000000012AB34CD");
+    dispatch.attribute(TracingIdentifiers.ATTR_OPERATION_ID, "0x1f");
+    dispatch.attribute(TracingIdentifiers.ATTR_SERVER_DURATION, 42L);
+    dispatch.end();
+
+    op.attribute(TracingIdentifiers.ATTR_RETRIES, 0L);
+    op.end();
+    return op;
+  }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2025 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.couchbase.client.benchmarks;
+
+import com.couchbase.client.core.cnc.TracingIdentifiers;
+import com.couchbase.client.spans.InMemoryRequestSpan;
+import com.couchbase.client.util.RecordedSpans;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generates the spans of a reporting interval's worth of operations, with a mix resembling a typical application: mostly KV gets
+ * and upserts, some SQL++ queries, a few retries and a few failures.  Durations are roughly log-normal, with a long tail.
+ * <p>
+ * Generation is seeded, so every run of a benchmark sees the same spans.
+ */
+final class SyntheticWorkload {
+  static final double GET = 0.60;
+  static final double UPSERT = 0.25;
+  // The rest are queries
+  static final double RETRIED = 0.03;
+  static final double FAILED = 0.01;
+
+  private static final String[] HOSTS = {"10.0.0.1", "10.0.0.2", "10.0.0.3", "10.0.0.4", "10.0.0.5", "10.0.0.6"};
+  private static final String[] STATEMENTS = {
+    "SELECT * FROM `travel-sample`.inventory.airline WHERE country = $1",
+    "SELECT COUNT(*) FROM `travel-sample`.inventory.route WHERE sourceairport = $1",
+    "UPDATE `travel-sample`.inventory.hotel SET vacancy = false WHERE META().id = $1",
+  };
+  private static final int DOCUMENT_IDS = 100_000;
+
+  private SyntheticWorkload() {
+  }
+
+  /**
+   * Returns the spans of {@code operations} operations, in the order they would have been created.
+   */
+  static List<InMemoryRequestSpan> spans(int operations, long seed) {
+    SplittableRandom random = new SplittableRandom(seed);
+    List<InMemoryRequestSpan> out = new ArrayList<>(operations * 3);
+    Instant start = Instant.parse("2025-01-01T00:00:00Z");
+    for (int i = 0; i < operations; i++) {
+      Instant opStart = start.plusNanos(i * 1_000L);
+      double kind = random.nextDouble();
+      if (kind < GET + UPSERT) {
+        kv(out, random, kind < GET ? TracingIdentifiers.SPAN_REQUEST_KV_GET : TracingIdentifiers.SPAN_REQUEST_KV_UPSERT, opStart);
+      } else {
+        query(out, random, opStart);
+      }
+    }
+    return out;
+  }
+
+  private static void kv(List<InMemoryRequestSpan> out, SplittableRandom random, String name, Instant start) {
+    long retries = random.nextDouble() < RETRIED ? 1 + random.nextInt(3) : 0;
+    boolean failed = random.nextDouble() < FAILED;
+    long serverMicros = logNormalMicros(random, 30);
+    Duration duration = Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(serverMicros + logNormalMicros(random, 200) * (retries + 1)));
+    InMemoryRequestSpan op = RecordedSpans.operation(name, start, duration,
+      TracingIdentifiers.SERVICE_KV,
+      null,
+      "doc-" + random.nextInt(DOCUMENT_IDS),
+      "travel-sample",
+      "inventory",
+      "airline",
+      failed ? "com.couchbase.client.core.error.TimeoutException: Operation timed out" : null,
+      retries);
+    out.add(op);
+    out.add(RecordedSpans.requestEncoding(op, start, Duration.ofNanos(2_000 + random.nextInt(8_000))));
+    for (long attempt = 0; attempt <= retries; attempt++) {
+      out.add(RecordedSpans.networkCall(op, start, duration.dividedBy(retries + 1),
+        HOSTS[random.nextInt(HOSTS.length)], 11210L, null, serverMicros));
+    }
+  }
+
+  private static void query(List<InMemoryRequestSpan> out, SplittableRandom random, Instant start) {
+    long retries = random.nextDouble() < RETRIED ? 1 : 0;
+    boolean failed = random.nextDouble() < FAILED;
+    Duration duration = Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(logNormalMicros(random, 5_000)));
+    InMemoryRequestSpan op = RecordedSpans.operation(TracingIdentifiers.SPAN_REQUEST_QUERY, start, duration,
+      TracingIdentifiers.SERVICE_QUERY,
+      STATEMENTS[random.nextInt(STATEMENTS.length)],
+      null,
+      null,
+      null,
+      null,
+      failed ? "com.couchbase.client.core.error.ParsingFailureException: Parsing of the input failed" : null,
+      retries);
+    out.add(op);
+    for (long attempt = 0; attempt <= retries; attempt++) {
+      out.add(RecordedSpans.networkCall(op, start, duration.dividedBy(retries + 1),
+        HOSTS[random.nextInt(HOSTS.length)], 8093L, null, null));
+    }
+  }
+
+  /**
+   * A log-normally distributed duration with the given median.
+   */
+  private static long logNormalMicros(SplittableRandom random, long medianMicros) {
+    double gaussian = gaussian(random);
+    return Math.max(1, (long) (medianMicros * Math.exp(0.8 * gaussian)));
+  }
+
+  // SplittableRandom has no nextGaussian() before Java 17, so use the Box-Muller transform.
+  private static double gaussian(SplittableRandom random) {
+    double u1 = 1.0 - random.nextDouble();
+    double u2 = random.nextDouble();
+    return Math.sqrt(-2 * Math.log(u1)) * Math.cos(2 * Math.PI * u2);
+  }
+}
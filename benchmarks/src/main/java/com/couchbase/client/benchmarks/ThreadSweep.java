@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2025 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.couchbase.client.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs {@link SpanCaptureBenchmark} at 1 to 64 threads, with the GC profiler, to show how the capture path scales under
+ * contention.  Pass a regex as the first argument to run only some of the benchmarks, e.g. {@code kvOperation}.
+ * <pre>
+ * java -cp target/benchmarks.jar com.couchbase.client.benchmarks.ThreadSweep
+ * </pre>
+ */
+public class ThreadSweep {
+  static final int[] THREADS = {1, 2, 4, 8, 16, 32, 64};
+
+  public static void main(String[] args) throws RunnerException {
+    String include = SpanCaptureBenchmark.class.getSimpleName() + (args.length > 0 ? "." + args[0] : "");
+    for (int threads : THREADS) {
+      Options options = new OptionsBuilder()
+        .include(include)
+        .threads(threads)
+        .addProfiler(GCProfiler.class)
+        .build();
+      new Runner(options).run();
+    }
+  }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2025 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.couchbase.client;
+
+import com.couchbase.client.core.annotation.Stability;
+import com.couchbase.client.core.cnc.TracingIdentifiers;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Decides which operations the {@link InMemoryRequestTracer} captures at all, so the cost of tracing is proportional to what is
+ * of interest.  Set with {@link InMemoryTracerOptions#captureFilter(CaptureFilter)}.
+ * <p>
+ * Each check is made as early as the information is available:
+ * <ul>
+ *   <li>{@link #acceptOperation(String)} when the operation's span is created.  Rejected operations, and all their child spans,
+ *   are handed no-op spans, so cost next to nothing.</li>
+ *   <li>{@link #acceptAttribute(String, String)} as each attribute (e.g. the service or bucket) is set on the operation's span.
+ *   Children created after a rejection get no-op spans, and the operation is dropped before reaching the handlers.</li>
+ *   <li>{@link #acceptDuration(Duration)} when the operation completes.  Rejected operations are dropped before reaching the
+ *   handlers.</li>
+ * </ul>
+ * All methods are called on the SDK's threads, so must be cheap and thread-safe.  All default to accepting.
+ */
+@Stability.Volatile
+public interface CaptureFilter {
+  /**
+   * Whether to capture an operation with this name ("get", "query" etc.).
+   */
+  default boolean acceptOperation(String operationName) {
+    return true;
+  }
+
+  /**
+   * Whether to continue capturing an operation, now it has this string attribute.  The attribute keys are those of
+   * {@link TracingIdentifiers}, e.g. {@link TracingIdentifiers#ATTR_SERVICE} and {@link TracingIdentifiers#ATTR_NAME} (the bucket).
+   */
+  default boolean acceptAttribute(String key, String value) {
+    return true;
+  }
+
+  /**
+   * Whether to keep a completed operation that took this long.
+   */
+  default boolean acceptDuration(Duration duration) {
+    return true;
+  }
+
+  /**
+   * Only captures operations with one of these names.
+   */
+  static CaptureFilter operations(String... operationNames) {
+    Set<String> names = new HashSet<>(Arrays.asList(operationNames));
+    return new CaptureFilter() {
+      @Override
+      public boolean acceptOperation(String operationName) {
+        return names.contains(operationName);
+      }
+    };
+  }
+
+  /**
+   * Only captures operations against one of these services ("kv", "query" etc.).
+   */
+  static CaptureFilter services(String... services) {
+    return attribute(TracingIdentifiers.ATTR_SERVICE, services);
+  }
+
+  /**
+   * Only captures operations against one of these buckets.  Operations not against a bucket (e.g. cluster-level queries) are still
+   * captured.
+   */
+  static CaptureFilter buckets(String... buckets) {
+    return attribute(TracingIdentifiers.ATTR_NAME, buckets);
+  }
+
+  /**
+   * Only keeps operations that take at least this long.
+   */
+  static CaptureFilter slowerThan(Duration threshold) {
+    return new CaptureFilter() {
+      @Override
+      public boolean acceptDuration(Duration duration) {
+        return duration.compareTo(threshold) >= 0;
+      }
+    };
+  }
+
+  /**
+   * Only captures operations accepted by all of these filters.
+   */
+  static CaptureFilter all(CaptureFilter... filters) {
+    // Copied, so later changes to the caller's array don't affect the filter.  Checked with plain loops as this is on the
+    // capture path.
+    CaptureFilter[] all = filters.clone();
+    return new CaptureFilter() {
+      @Override
+      public boolean acceptOperation(String operationName) {
+        for (CaptureFilter f : all) {
+          if (!f.acceptOperation(operationName)) {
+            return false;
+          }
+        }
+        return true;
+      }
+
+      @Override
+      public boolean acceptAttribute(String key, String value) {
+        for (CaptureFilter f : all) {
+          if (!f.acceptAttribute(key, value)) {
+            return false;
+          }
+        }
+        return true;
+      }
+
+      @Override
+      public boolean acceptDuration(Duration duration) {
+        for (CaptureFilter f : all) {
+          if (!f.acceptDuration(duration)) {
+            return false;
+          }
+        }
+        return true;
+      }
+    };
+  }
+
+  /**
+   * Only captures operations where this string attribute, if it is set, has one of these values.
+   */
+  static CaptureFilter attribute(String attributeKey, String... values) {
+    Set<String> accepted = new HashSet<>(Arrays.asList(values));
+    return new CaptureFilter() {
+      @Override
+      public boolean acceptAttribute(String key, String value) {
+        return !key.equals(attributeKey) || accepted.contains(value);
+      }
+    };
+  }
+}
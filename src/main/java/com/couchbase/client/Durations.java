@@ -29,6 +29,30 @@ public class Durations {
     this.values = values;
   }
 
+  /**
+   * Shares the already-sorted values of {@code sorted}, rather than sorting them again.
+   */
+  private Durations(Durations sorted) {
+    this.values = sorted.values;
+  }
+
+  /**
+   * Returns these durations corrected for coordinated omission, as HdrHistogram's {@code recordValueWithExpectedInterval} does.
+   * <p>
+   * A closed-loop worker that issues a request every {@code expectedInterval} issues no requests while one is stalled, so the
+   * stall is only sampled once.  The correction adds the durations the requests that should have been issued during the stall
+   * would have seen: for each duration d, also d - interval, d - 2 * interval, and so on while still at least the interval.
+   * <p>
+   * The added durations are not materialised, so a long stall costs no memory, but each statistic takes a pass over the
+   * durations.  Must be in the same unit as the durations.
+   */
+  public Durations correctedForCoordinatedOmission(long expectedInterval) {
+    if (expectedInterval <= 0) {
+      throw new IllegalArgumentException("Expected interval must be positive, but was " + expectedInterval);
+    }
+    return new CorrectedDurations(this, expectedInterval);
+  }
+
   /**
    * Returns the minimum duration (or 0, if no durations are present).
    */
@@ -104,4 +128,114 @@ public class Durations {
   public long count() {
     return values.length;
   }
+
+  /**
+   * The durations implied by coordinated omission correction, computed from the recorded ones on demand.
+   */
+  private static final class CorrectedDurations extends Durations {
+    private final long[] recorded;
+    private final long interval;
+    private final long count;
+
+    CorrectedDurations(Durations raw, long interval) {
+      super(raw);
+      this.recorded = raw.values;
+      this.interval = interval;
+      long count = recorded.length;
+      for (long value : recorded) {
+        count += added(value);
+      }
+      this.count = count;
+    }
+
+    // How many durations are added for a recorded one.
+    private long added(long value) {
+      return value >= 2 * interval ? value / interval - 1 : 0;
+    }
+
+    // How many of the recorded and added durations are at most x.
+    private long countAtMost(long x) {
+      long out = 0;
+      for (long value : recorded) {
+        if (value <= x) {
+          out++;
+        }
+        long added = added(value);
+        if (added > 0) {
+          // The added durations are value - k * interval for k in [1, added].  Those at most x have k >= (value - x) / interval.
+          long minK = Math.max(1, value <= x ? 1 : (value - x + interval - 1) / interval);
+          out += Math.max(0, added - minK + 1);
+        }
+      }
+      return out;
+    }
+
+    // The duration at the given 1-based rank in sorted order.
+    private long atRank(long rank) {
+      long low = 0;
+      long high = recorded[recorded.length - 1];
+      while (low < high) {
+        long mid = low + (high - low) / 2;
+        if (countAtMost(mid) >= rank) {
+          high = mid;
+        } else {
+          low = mid + 1;
+        }
+      }
+      return low;
+    }
+
+    @Override
+    public double min() {
+      if (recorded.length == 0) {
+        return 0;
+      }
+      long out = recorded[0];
+      for (long value : recorded) {
+        long added = added(value);
+        if (added > 0) {
+          out = Math.min(out, value - added * interval);
+        }
+      }
+      return out;
+    }
+
+    @Override
+    public double mean() {
+      if (recorded.length == 0) {
+        return 0;
+      }
+      double sum = 0;
+      for (long value : recorded) {
+        long added = added(value);
+        sum += value + (double) added * value - (double) interval * added * (added + 1) / 2;
+      }
+      return sum / count;
+    }
+
+    @Override
+    public double median() {
+      if (recorded.length == 0) {
+        return 0;
+      }
+      if (count % 2 == 0) {
+        return (atRank(count / 2) + atRank(count / 2 + 1)) / 2.0;
+      }
+      return atRank(count / 2 + 1);
+    }
+
+    @Override
+    public double percentile(double percentile) {
+      if (recorded.length == 0) {
+        return 0;
+      }
+      long rank = (long) Math.ceil(percentile * count);
+      return atRank(Math.max(1, Math.min(count, rank)));
+    }
+
+    @Override
+    public long count() {
+      return count;
+    }
+  }
 }
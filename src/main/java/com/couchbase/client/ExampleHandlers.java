@@ -15,19 +15,15 @@
  */
 package com.couchbase.client;
 
+import com.couchbase.client.binary.BinaryCaptureWriter;
 import com.couchbase.client.core.annotation.Stability;
-import com.couchbase.client.core.deps.com.fasterxml.jackson.databind.ObjectMapper;
-import com.couchbase.client.core.deps.com.fasterxml.jackson.databind.SerializationFeature;
-import com.couchbase.client.core.deps.com.fasterxml.jackson.databind.json.JsonMapper;
-import com.couchbase.client.core.deps.com.fasterxml.jackson.databind.node.ArrayNode;
-import com.couchbase.client.core.deps.com.fasterxml.jackson.databind.node.ObjectNode;
+import com.couchbase.client.output.JsonOutputFormat;
+import com.couchbase.client.output.OperationsJsonWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardOpenOption;
 import java.time.Duration;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
@@ -42,9 +38,6 @@ import java.time.format.DateTimeFormatter;
 public class ExampleHandlers {
   private static final Logger logger = LoggerFactory.getLogger(ExampleHandlers.class);
 
-  private static final ObjectMapper mapper = JsonMapper.builder()
-    .enable(SerializationFeature.INDENT_OUTPUT)
-    .build();
   private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH-mm-ss.SSSX");
 
   private ExampleHandlers() {
@@ -54,34 +47,88 @@ public class ExampleHandlers {
    * Writes an aggregated JSON-based report of all operations to an SLF4J logger.
    */
   public static void writeAggregatedReport(InMemoryRequestTracerHandlerOperations operations, Duration sinceLastReport) {
-    ObjectNode aggregatedReport = ExampleReports.exampleAggregatedReport(operations);
+    writeAggregatedReport(operations, sinceLastReport, true);
+  }
 
+  /**
+   * As {@link #writeAggregatedReport}, but the report is written as a single compact line, which is friendlier to log shippers.
+   */
+  public static void writeAggregatedReportCompact(InMemoryRequestTracerHandlerOperations operations, Duration sinceLastReport) {
+    writeAggregatedReport(operations, sinceLastReport, false);
+  }
+
+  private static void writeAggregatedReport(InMemoryRequestTracerHandlerOperations operations, Duration sinceLastReport, boolean pretty) {
     try {
-      String repAsStr = mapper.writeValueAsString(aggregatedReport);
+      StringBuilder repAsStr = new StringBuilder();
+      ExampleReports.writeExampleAggregatedReport(operations, repAsStr, pretty);
       logger.info("Aggregated report for {} operations over last {}: {}", operations.operations().size(), sinceLastReport, repAsStr);
     } catch (Exception e) {
-      logger.error("Failed to pretty print JSON", e);
+      logger.error("Failed to write aggregated report JSON", e);
+    }
+  }
+
+  /**
+   * As {@link #writeAggregatedReport}, but grouped first by the cluster (or tenant) tag of the tracer that captured each operation.
+   * This is the default handler of an {@link InMemoryRequestTracerRegistry}.
+   */
+  public static void writeAggregatedClusterReport(InMemoryRequestTracerHandlerOperations operations, Duration sinceLastReport) {
+    try {
+      StringBuilder repAsStr = new StringBuilder();
+      ExampleReports.writeExampleClusterReport(operations, repAsStr, true);
+      logger.info("Aggregated cluster report for {} operations over last {}: {}", operations.operations().size(), sinceLastReport, repAsStr);
+    } catch (Exception e) {
+      logger.error("Failed to write aggregated cluster report JSON", e);
     }
   }
 
   /**
    * Writes all operations in JSON form into a file in the current working directory.
    * <p>
-   * These files can be large when there are many operations.
+   * These files can be large when there are many operations.  Operations are streamed to the file one at a time, so memory use
+   * does not grow with the size of the file.
    */
   public static void writeAllOperations(InMemoryRequestTracerHandlerOperations operations, Duration sinceLastReport) {
-    ArrayNode ops = ExampleReports.exampleOperationsOutput(operations);
+    writeAllOperations(operations, sinceLastReport, JsonOutputFormat.JSON_ARRAY, "_ops_report.json");
+  }
+
+  /**
+   * As {@link #writeAllOperations}, but writes newline-delimited JSON (one compact JSON object per line) instead of a single
+   * JSON array.
+   */
+  public static void writeAllOperationsNdjson(InMemoryRequestTracerHandlerOperations operations, Duration sinceLastReport) {
+    writeAllOperations(operations, sinceLastReport, JsonOutputFormat.NDJSON, "_ops_report.ndjson");
+  }
+
+  /**
+   * As {@link #writeAllOperations}, but writes the compact binary format, which can be read back with
+   * {@link com.couchbase.client.binary.BinaryCaptureReader}.
+   */
+  public static void writeAllOperationsBinary(InMemoryRequestTracerHandlerOperations operations, Duration sinceLastReport) {
+    try {
+      ZonedDateTime now = ZonedDateTime.now();
+      String formattedDate = now.format(FORMATTER);
+      Path filename = Paths.get(formattedDate + "_ops_report.cbops");
+      String currentWorkingDirectory = System.getProperty("user.dir");
+      logger.info("Writing all {} ops over last {} to file {}/{}", operations.operations().size(), sinceLastReport, currentWorkingDirectory, filename);
+      BinaryCaptureWriter.write(operations.operations(), filename);
+    } catch (Exception e) {
+      logger.error("Failed to write operations", e);
+    }
+  }
 
+  private static void writeAllOperations(InMemoryRequestTracerHandlerOperations operations,
+                                         Duration sinceLastReport,
+                                         JsonOutputFormat format,
+                                         String suffix) {
     try {
-      String opsAsStr = mapper.writeValueAsString(ops);
       ZonedDateTime now = ZonedDateTime.now();
       String formattedDate = now.format(FORMATTER);
-      Path filename = Paths.get(formattedDate + "_ops_report.json");
+      Path filename = Paths.get(formattedDate + suffix);
       String currentWorkingDirectory = System.getProperty("user.dir");
-      logger.info("Writing aggregated report for {} ops over last {} to file {}/{}", operations.operations().size(), sinceLastReport, filename, currentWorkingDirectory);
-      Files.write(filename, opsAsStr.getBytes(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+      logger.info("Writing all {} ops over last {} to file {}/{}", operations.operations().size(), sinceLastReport, currentWorkingDirectory, filename);
+      OperationsJsonWriter.write(operations.operations(), filename, format);
     } catch (Exception e) {
-      logger.error("Failed to pretty print JSON", e);
+      logger.error("Failed to write operations JSON", e);
     }
   }
 }
@@ -16,15 +16,33 @@
 package com.couchbase.client;
 
 import com.couchbase.client.core.annotation.Stability;
+import com.couchbase.client.core.deps.com.fasterxml.jackson.core.JsonFactory;
+import com.couchbase.client.core.deps.com.fasterxml.jackson.core.JsonGenerator;
+import com.couchbase.client.core.deps.com.fasterxml.jackson.core.JsonParser;
+import com.couchbase.client.core.deps.com.fasterxml.jackson.core.TreeNode;
 import com.couchbase.client.core.deps.com.fasterxml.jackson.databind.node.ArrayNode;
 import com.couchbase.client.core.deps.com.fasterxml.jackson.databind.node.ObjectNode;
+import com.couchbase.client.core.deps.com.fasterxml.jackson.databind.util.TokenBuffer;
 import com.couchbase.client.core.json.Mapper;
 import com.couchbase.client.operations.ExceptionStats;
 import com.couchbase.client.operations.NetworkCalls;
+import com.couchbase.client.operations.Operation;
+import com.couchbase.client.operations.Operations;
 import com.couchbase.client.operations.RequestEncodings;
+import com.couchbase.client.util.AppendableWriter;
 import com.couchbase.client.util.OperationsToJson;
+import org.jspecify.annotations.Nullable;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static com.couchbase.client.util.DurationUtil.toMicros;
 
 /**
  * Example reports, for use by {@link ExampleHandlers}.
@@ -34,6 +52,9 @@ import java.util.Map;
  */
 @Stability.Volatile
 public class ExampleReports {
+  private static final JsonFactory factory = new JsonFactory();
+  private static final String TRACER_FIELD = "_tracer";
+
   private ExampleReports() {
   }
 
@@ -44,65 +65,222 @@ public class ExampleReports {
   /**
    * All of this library is at a volatile status, and this report should be regarded as particularly volatile.
    * If a stable interface is required, users should copy this method and modify it to suit their needs.
+   * <p>
+   * This is the report written by {@link #writeExampleAggregatedReport(InMemoryRequestTracerHandlerOperations, JsonGenerator)},
+   * read back as a JSON tree.
    */
   public static ObjectNode exampleAggregatedReport(InMemoryRequestTracerHandlerOperations operations) {
-    ObjectNode out = Mapper.createObjectNode();
+    return toTree(gen -> writeExampleAggregatedReport(operations, gen));
+  }
+
+  public static ArrayNode metricsFrom(Durations durations) {
+    return toTree(gen -> writeMetricsArray(gen, durations));
+  }
+
+  private interface JsonWriter {
+    void write(JsonGenerator gen) throws IOException;
+  }
+
+  private static <T extends TreeNode> T toTree(JsonWriter writer) {
+    try (TokenBuffer buffer = new TokenBuffer(null, false)) {
+      writer.write(buffer);
+      try (JsonParser parser = buffer.asParser()) {
+        return Mapper.reader().readTree(parser);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Writes the aggregated report straight to the generator, without building a JSON tree first.  The tracer's measurements of
+   * its own cost, if any, are included under "_tracer".
+   */
+  public static void writeExampleAggregatedReport(InMemoryRequestTracerHandlerOperations operations, JsonGenerator gen) throws IOException {
+    writeAggregatedReport(operations.operations(), operations.overhead(), operations.expectedIntervals(), gen);
+  }
+
+  /**
+   * Writes the same report as {@link #writeExampleAggregatedReport(InMemoryRequestTracerHandlerOperations, JsonGenerator)}, but
+   * with an extra top level grouping by the cluster (or tenant) tag of the tracer that captured each operation.  All clusters are
+   * reported in one pass, which suits the operations handed to an {@link InMemoryRequestTracerRegistry}'s handlers.
+   * <p>
+   * Operations without a cluster tag are reported under "".  The tracers' combined overhead is reported under "_tracer".
+   */
+  public static void writeExampleClusterReport(InMemoryRequestTracerHandlerOperations operations, JsonGenerator gen) throws IOException {
+    Map<String, Operations> byCluster = new TreeMap<>(operations.operations().groupByCluster());
+    List<Operation> untagged = operations.operations().operations().stream()
+      .filter(op -> op.cluster() == null)
+      .collect(Collectors.toList());
+    if (!untagged.isEmpty()) {
+      byCluster.put("", new Operations(untagged));
+    }
+
+    gen.writeStartObject();
+    for (Map.Entry<String, Operations> clusterEntry : byCluster.entrySet()) {
+      gen.writeFieldName(clusterEntry.getKey());
+      writeAggregatedReport(clusterEntry.getValue(), null, operations.expectedIntervals(), gen);
+    }
+    TracerOverhead overhead = operations.overhead();
+    if (overhead != null) {
+      gen.writeFieldName(TRACER_FIELD);
+      writeTracerOverhead(gen, overhead);
+    }
+    gen.writeEndObject();
+  }
+
+  /**
+   * Writes the report from {@link #writeExampleClusterReport(InMemoryRequestTracerHandlerOperations, JsonGenerator)} to the
+   * output, either pretty-printed or as a single compact line.
+   */
+  public static void writeExampleClusterReport(InMemoryRequestTracerHandlerOperations operations, Appendable out, boolean pretty) throws IOException {
+    try (JsonGenerator gen = factory.createGenerator(new AppendableWriter(out))) {
+      if (pretty) {
+        gen.useDefaultPrettyPrinter();
+      }
+      writeExampleClusterReport(operations, gen);
+    }
+  }
 
-    operations.operations().groupByService().forEach((service, operationsForService) -> {
-      ObjectNode jsonForService = Mapper.createObjectNode();
+  private static void writeAggregatedReport(Operations operations,
+                                            @Nullable TracerOverhead overhead,
+                                            Map<String, Duration> expectedIntervals,
+                                            JsonGenerator gen) throws IOException {
+    gen.writeStartObject();
 
-      operationsForService.groupByOperationType().forEach((operationType, operationsForOperationType) -> {
-        ObjectNode jsonForOperation = Mapper.createObjectNode();
+    for (Map.Entry<String, Operations> serviceEntry : operations.groupByService().entrySet()) {
+      gen.writeObjectFieldStart(serviceEntry.getKey());
 
-        operationsForOperationType.groupByIfSucceeded().forEach((didSucceed, operationsForIfSucceeded) -> {
+      for (Map.Entry<String, Operations> operationTypeEntry : serviceEntry.getValue().groupByOperationType().entrySet()) {
+        gen.writeObjectFieldStart(operationTypeEntry.getKey());
+
+        for (Map.Entry<Boolean, Operations> succeededEntry : operationTypeEntry.getValue().groupByIfSucceeded().entrySet()) {
+          boolean didSucceed = succeededEntry.getKey();
+          Operations operationsForIfSucceeded = succeededEntry.getValue();
 
           Durations durations = operationsForIfSucceeded.durationsMicroseconds();
           NetworkCalls networkCalls = operationsForIfSucceeded.networkCalls();
           RequestEncodings requestEncodings = operationsForIfSucceeded.requestEncodings();
 
-          ObjectNode leaf = Mapper.createObjectNode()
-            .set("counts", Mapper.createObjectNode()
-              .put("uniqueDocumentIds", operationsForIfSucceeded.documentIds().size())
-              .put("operations", durations.count()));
+          gen.writeObjectFieldStart(didSucceed ? "successfulOps" : "failedOps");
 
-          if (!didSucceed) {
-            Map<String, ExceptionStats> exceptionCounts = operationsForIfSucceeded.exceptionStats();
+          gen.writeObjectFieldStart("counts");
+          gen.writeNumberField("uniqueDocumentIds", operationsForIfSucceeded.documentIds().size());
+          gen.writeNumberField("operations", durations.count());
+          // Only present when sampling, re-weighting each operation by the rate it was captured at
+          double estimatedOperations = operationsForIfSucceeded.estimatedCount();
+          if (estimatedOperations != durations.count()) {
+            gen.writeNumberField("estimatedOperations", estimatedOperations);
+          }
+          gen.writeEndObject();
 
-            ObjectNode exceptionsJson = Mapper.createObjectNode();
-            exceptionCounts.forEach((k, v) -> exceptionsJson.set(k,
-              Mapper.createObjectNode().put("count", v.count())));
-            leaf.set("exceptions", exceptionsJson);
+          if (!didSucceed) {
+            gen.writeObjectFieldStart("exceptions");
+            for (Map.Entry<String, ExceptionStats> exception : operationsForIfSucceeded.exceptionStats().entrySet()) {
+              gen.writeObjectFieldStart(exception.getKey());
+              gen.writeNumberField("count", exception.getValue().count());
+              gen.writeEndObject();
+            }
+            gen.writeEndObject();
           }
 
-          leaf.set("operationDurationsMicros", Mapper.createObjectNode().set("metrics", metricsFrom(durations)));
-          jsonForOperation.set(didSucceed ? "successfulOps" : "failedOps", leaf);
+          writeMetrics(gen, "operationDurationsMicros", durations);
+
+          Duration expectedInterval = expectedIntervals.get(operationTypeEntry.getKey());
+          if (expectedInterval != null) {
+            writeMetrics(gen, "correctedOperationDurationsMicros", durations.correctedForCoordinatedOmission(toMicros(expectedInterval)));
+          }
 
           Durations serverDurations = networkCalls.serverDurationsMicroseconds();
           if (serverDurations.count() > 0) {
-            leaf.set("serverDurationsMicros", Mapper.createObjectNode().set("metrics", metricsFrom(serverDurations)));
+            writeMetrics(gen, "serverDurationsMicros", serverDurations);
           }
 
           if (requestEncodings.size() > 0) {
-            Durations requestEncodingsDurations = requestEncodings.durationsMicroseconds();
-            leaf.set("requestEncodingDurationsMicros", Mapper.createObjectNode().set("metrics", metricsFrom(requestEncodingsDurations)));
+            writeMetrics(gen, "requestEncodingDurationsMicros", requestEncodings.durationsMicroseconds());
           }
-        });
 
-        jsonForService.set(operationType, jsonForOperation);
-      });
+          gen.writeEndObject();
+        }
 
-      out.set(service, jsonForService);
-    });
+        gen.writeEndObject();
+      }
 
-    return out;
+      gen.writeEndObject();
+    }
+
+    if (overhead != null) {
+      gen.writeFieldName(TRACER_FIELD);
+      writeTracerOverhead(gen, overhead);
+    }
+
+    gen.writeEndObject();
   }
 
-  public static ArrayNode metricsFrom(Durations durations) {
-    return Mapper.createArrayNode()
-      .add(Mapper.createObjectNode().put("name", "count").put("value", durations.count()))
-      .add(Mapper.createObjectNode().put("name", "min").put("value", durations.min()))
-      .add(Mapper.createObjectNode().put("name", "median").put("value", durations.median()))
-      .add(Mapper.createObjectNode().put("name", "p95").put("value", durations.percentile(0.95)))
-      .add(Mapper.createObjectNode().put("name", "max").put("value", durations.max()));
+  private static void writeTracerOverhead(JsonGenerator gen, TracerOverhead overhead) throws IOException {
+    gen.writeStartObject();
+    gen.writeNumberField("spansCreated", overhead.spansCreated());
+    gen.writeNumberField("spansCreatedPerSecond", overhead.spansCreatedPerSecond());
+    gen.writeNumberField("spanCreationSamples", overhead.spanCreationSamples());
+    gen.writeNumberField("spanCreationMeanNanos", overhead.spanCreationMeanNanos());
+    gen.writeNumberField("spanCreationMaxNanos", overhead.spanCreationMaxNanos());
+    gen.writeNumberField("retainedSpans", overhead.retainedSpans());
+    gen.writeNumberField("estimatedRetainedBytes", overhead.estimatedRetainedBytes());
+    gen.writeNumberField("droppedSpans", overhead.droppedSpans());
+    gen.writeNumberField("rotationMicros", TimeUnit.NANOSECONDS.toMicros(overhead.rotationNanos()));
+    gen.writeNumberField("associationMicros", TimeUnit.NANOSECONDS.toMicros(overhead.associationNanos()));
+    gen.writeArrayFieldStart("handlerMicros");
+    for (long nanos : overhead.handlerNanos()) {
+      gen.writeNumber(TimeUnit.NANOSECONDS.toMicros(nanos));
+    }
+    gen.writeEndArray();
+    gen.writeEndObject();
+  }
+
+  /**
+   * Writes the report from {@link #writeExampleAggregatedReport(InMemoryRequestTracerHandlerOperations, JsonGenerator)} to the
+   * output, either pretty-printed or as a single compact line (which suits log shippers).
+   */
+  public static void writeExampleAggregatedReport(InMemoryRequestTracerHandlerOperations operations, Appendable out, boolean pretty) throws IOException {
+    try (JsonGenerator gen = factory.createGenerator(new AppendableWriter(out))) {
+      if (pretty) {
+        gen.useDefaultPrettyPrinter();
+      }
+      writeExampleAggregatedReport(operations, gen);
+    }
+  }
+
+  /**
+   * Streaming equivalent of {@link #metricsFrom}, writing the metrics wrapped in an object under the given field name.
+   */
+  public static void writeMetrics(JsonGenerator gen, String fieldName, Durations durations) throws IOException {
+    gen.writeObjectFieldStart(fieldName);
+    gen.writeFieldName("metrics");
+    writeMetricsArray(gen, durations);
+    gen.writeEndObject();
+  }
+
+  private static void writeMetricsArray(JsonGenerator gen, Durations durations) throws IOException {
+    gen.writeStartArray();
+    writeMetric(gen, "count", durations.count());
+    writeMetric(gen, "min", durations.min());
+    writeMetric(gen, "median", durations.median());
+    writeMetric(gen, "p95", durations.percentile(0.95));
+    writeMetric(gen, "max", durations.max());
+    gen.writeEndArray();
+  }
+
+  private static void writeMetric(JsonGenerator gen, String name, long value) throws IOException {
+    gen.writeStartObject();
+    gen.writeStringField("name", name);
+    gen.writeNumberField("value", value);
+    gen.writeEndObject();
+  }
+
+  private static void writeMetric(JsonGenerator gen, String name, double value) throws IOException {
+    gen.writeStartObject();
+    gen.writeStringField("name", name);
+    gen.writeNumberField("value", value);
+    gen.writeEndObject();
   }
 }
@@ -19,9 +19,19 @@ import com.couchbase.client.core.annotation.Stability;
 import com.couchbase.client.core.cnc.RequestSpan;
 import com.couchbase.client.core.cnc.RequestTracer;
 import com.couchbase.client.core.cnc.tracing.NoopRequestSpan;
+import com.couchbase.client.jmx.InMemoryRequestTracerJmx;
+import com.couchbase.client.metrics.JfrEvents;
+import com.couchbase.client.operations.Operation;
+import com.couchbase.client.operations.Operations;
+import com.couchbase.client.sampling.AdaptiveSamplingController;
+import com.couchbase.client.sampling.AdaptiveSamplingOptions;
 import com.couchbase.client.spans.InMemoryRequestSpan;
+import com.couchbase.client.spans.SpanListener;
 import com.couchbase.client.spans.SpansForOperation;
 import com.couchbase.client.util.InMemoryRequestTracerHandlerOperationsUtil;
+import com.couchbase.client.util.OverheadRecorder;
+import com.couchbase.client.util.SpanBuffer;
+import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import reactor.core.publisher.Mono;
@@ -31,8 +41,11 @@ import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
@@ -44,30 +57,88 @@ import java.util.stream.Collectors;
 @Stability.Volatile
 public class InMemoryRequestTracer implements RequestTracer {
   private static final Logger logger = LoggerFactory.getLogger(InMemoryRequestTracer.class);
+  // Longer than any SDK timeout, so operations are only dropped as still in flight if they are never going to end.
+  private static final Duration MAX_IN_FLIGHT = Duration.ofMinutes(10);
 
-  private List<InMemoryRequestSpan> spans = new ArrayList<>();
-  private final InMemoryTracerOptions.Built options;
+  private final AtomicReference<SpanBuffer> spans = new AtomicReference<>(new SpanBuffer());
   private final AtomicReference<Instant> lastUpdate = new AtomicReference<>(Instant.now());
-  private final ScheduledExecutorService cleanupExecutor = Executors.newSingleThreadScheduledExecutor();
+  // Null when the tracer is part of a registry, which then schedules the handlers for all its tracers.
+  private final @Nullable ScheduledExecutorService cleanupExecutor;
+  private final @Nullable InMemoryRequestTracerRegistry registry;
+  private final @Nullable String cluster;
+  private final Object configLock = new Object();
+  private final @Nullable InMemoryRequestTracerJmx jmx;
+  private final OverheadRecorder overhead = new OverheadRecorder();
+  // Replaced wholesale on reconfiguration, so the capture path sees a consistent configuration with a single volatile read.
+  private volatile Config config;
+  // Only written from the thread calling the handlers, and never modified once written, so snapshot() can read it.
+  private volatile List<InMemoryRequestSpan> carriedOver = new ArrayList<>();
+  // Only accessed from the thread calling the handlers
+  private List<Long> lastHandlerNanos = new ArrayList<>();
+  // Only accessed from the thread calling the handlers
+  private @Nullable TracerOverhead collectedOverhead;
+  // Guarded by configLock
+  private @Nullable ScheduledFuture<?> scheduledHandlers;
 
   public InMemoryRequestTracer() {
     this(InMemoryTracerOptions.inMemoryTracerOptions());
   }
 
   public InMemoryRequestTracer(InMemoryTracerOptions options) {
-    this.options = options.build();
+    this.config = new Config(options.build());
+    this.registry = null;
+    this.cluster = null;
+    this.cleanupExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "inmemory-tracer");
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.jmx = config.options.jmx() ? InMemoryRequestTracerJmx.register(this) : null;
 
-    cleanupExecutor.scheduleAtFixedRate(this::callHandler, 0, this.options.interval().toMillis(), TimeUnit.MILLISECONDS);
+    synchronized (configLock) {
+      long intervalMillis = config.options.interval().toMillis();
+      scheduledHandlers = cleanupExecutor.scheduleAtFixedRate(this::callHandler, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Creates a tracer whose handlers are called by the registry, together with those of its other tracers.
+   */
+  InMemoryRequestTracer(InMemoryTracerOptions options, InMemoryRequestTracerRegistry registry, String cluster) {
+    this.config = new Config(options.build());
+    this.registry = registry;
+    this.cluster = cluster;
+    this.cleanupExecutor = null;
+    this.jmx = config.options.jmx() ? InMemoryRequestTracerJmx.register(this) : null;
   }
 
   @Stability.Internal
   @Override
-  public synchronized RequestSpan requestSpan(String name, RequestSpan parent) {
+  public RequestSpan requestSpan(String name, RequestSpan parent) {
+    Config config = this.config;
+    // Children of spans we did not capture (e.g. while capture was disabled) would otherwise be mistaken for top-level spans.
+    if (!config.options.captureEnabled() || parent instanceof NoopRequestSpan) {
+      return NoopRequestSpan.INSTANCE;
+    }
     // Intentionally discarding non-DebugRequestSpan parents here.  This means we don't need to worry about app-provided parent spans
     // on operation spans, and can simplify the logic.
     try {
-      InMemoryRequestSpan out = new InMemoryRequestSpan(name, parent instanceof InMemoryRequestSpan ? (InMemoryRequestSpan) parent : null);
-      spans.add(out);
+      InMemoryRequestSpan parentSpan = parent instanceof InMemoryRequestSpan ? (InMemoryRequestSpan) parent : null;
+      if (parentSpan == null ? !config.capture(name) : parentSpan.excluded()) {
+        return NoopRequestSpan.INSTANCE;
+      }
+      boolean timed = OverheadRecorder.sampleCreation();
+      long start = timed ? System.nanoTime() : 0;
+      InMemoryRequestSpan out = new InMemoryRequestSpan(name, parentSpan, config.listenerFor(name, parentSpan));
+      if (parentSpan == null) {
+        out.samplingRate(config.samplingRate);
+      }
+      SpanBuffer.add(spans, out);
+      if (timed) {
+        overhead.spanCreated(System.nanoTime() - start);
+      } else {
+        overhead.spanCreated();
+      }
       return out;
     } catch (Exception e) {
       logger.warn("Error creating DebugRequestSpan: ", e);
@@ -84,45 +155,380 @@ public class InMemoryRequestTracer implements RequestTracer {
   @Stability.Internal
   @Override
   public Mono<Void> stop(Duration timeout) {
-    cleanupExecutor.shutdown();
-    try {
-      cleanupExecutor.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS);
-    } catch (InterruptedException e) {
-      Thread.currentThread().interrupt();
+    if (jmx != null) {
+      jmx.unregister();
+    }
+    if (registry != null) {
+      registry.remove(this);
+    }
+    if (cleanupExecutor != null) {
+      cleanupExecutor.shutdown();
+      try {
+        cleanupExecutor.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
     }
     return Mono.empty();
   }
 
-  private synchronized void callHandler() {
+  /**
+   * Changes the tracer's options while it is running, without needing to recreate the {@code Cluster}.
+   * <p>
+   * {@code changes} is applied to a copy of the current options, and the result replaces them atomically: spans being created
+   * concurrently see either all of the old options or all of the new.  If the interval changes, the handlers are rescheduled,
+   * with the next call one new interval from now.  Whether JMX is enabled can not be changed.
+   * <p>
+   * For tracers created by an {@link InMemoryRequestTracerRegistry}, the handlers and interval are the registry's, so changing
+   * them here has no effect.
+   * <p>
+   * E.g. {@code tracer.reconfigure(options -> options.samplingRate(0.1).interval(Duration.ofSeconds(1)))}.
+   */
+  public void reconfigure(Consumer<InMemoryTracerOptions> changes) {
+    synchronized (configLock) {
+      Config previous = config;
+      InMemoryTracerOptions updated = InMemoryTracerOptions.inMemoryTracerOptions(previous.options);
+      changes.accept(updated);
+      InMemoryTracerOptions.Built built = updated.build();
+      // Adaptive sampling carries on from where it had got to, rather than starting again from the configured rate.
+      config = built.adaptiveSampling() != null && previous.options.adaptiveSampling() != null
+        ? new Config(built, Math.min(previous.samplingRate, built.samplingRate()))
+        : new Config(built);
+
+      Duration interval = config.options.interval();
+      if (cleanupExecutor != null && scheduledHandlers != null && !interval.equals(previous.options.interval())) {
+        scheduledHandlers.cancel(false);
+        scheduledHandlers = cleanupExecutor.scheduleAtFixedRate(this::callHandler, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+      }
+    }
+  }
+
+  /**
+   * Returns a snapshot of the tracer's current options.
+   */
+  @Stability.Internal
+  public InMemoryTracerOptions.Built options() {
+    return config.options;
+  }
+
+  /**
+   * Adds a handler, to be called after the existing handlers from the next interval on.
+   */
+  public void addHandler(InMemoryRequestTracerHandler handler) {
+    reconfigure(options -> {
+      List<InMemoryRequestTracerHandler> handlers = new ArrayList<>(config.options.handlers());
+      handlers.add(handler);
+      options.handlers(handlers);
+    });
+  }
+
+  /**
+   * Removes a handler.  This must be the same instance that was provided: note that each evaluation of a method reference such as
+   * {@code ExampleHandlers::writeAggregatedReport} creates a new instance.
+   *
+   * @return whether the handler was found.
+   */
+  public boolean removeHandler(InMemoryRequestTracerHandler handler) {
+    synchronized (configLock) {
+      List<InMemoryRequestTracerHandler> handlers = new ArrayList<>(config.options.handlers());
+      if (!handlers.remove(handler)) {
+        return false;
+      }
+      reconfigure(options -> options.handlers(handlers));
+      return true;
+    }
+  }
+
+  /**
+   * Changes how often the handlers are called.  Takes effect immediately, with the next call one new interval from now.
+   */
+  public void interval(Duration interval) {
+    reconfigure(options -> options.interval(interval));
+  }
+
+  /**
+   * Returns how often the handlers are called.
+   */
+  public Duration interval() {
+    return config.options.interval();
+  }
+
+  /**
+   * Returns the probability with which operations are currently captured.  This is the configured sampling rate, unless adaptive
+   * sampling is enabled, in which case it is the rate chosen for the current interval.
+   */
+  public double samplingRate() {
+    return config.samplingRate;
+  }
+
+  /**
+   * Enables or disables capturing spans.  While disabled, the SDK is handed no-op spans, so the tracer has close to zero overhead.
+   * <p>
+   * Operations already in flight when capture is disabled are still reported.
+   */
+  public void captureEnabled(boolean captureEnabled) {
+    reconfigure(options -> options.captureEnabled(captureEnabled));
+  }
+
+  /**
+   * Returns whether spans are currently being captured.
+   */
+  public boolean captureEnabled() {
+    return config.options.captureEnabled();
+  }
+
+  /**
+   * Calls the handlers as soon as possible, on the handler thread, rather than waiting for the interval.
+   */
+  public void reportNow() {
+    if (registry != null) {
+      registry.reportNow();
+    } else if (cleanupExecutor != null) {
+      cleanupExecutor.execute(this::callHandler);
+    }
+  }
+
+  /**
+   * The cluster (or tenant) tag the tracer was created with by an {@link InMemoryRequestTracerRegistry}, or null.
+   */
+  public @Nullable String cluster() {
+    return cluster;
+  }
+
+  // Only ever runs on the cleanupExecutor thread.
+  private void callHandler() {
     Instant now = Instant.now();
     Duration sinceLastUpdate = Duration.between(lastUpdate.get(), now);
-    Tuple2<List<SpansForOperation>, List<InMemoryRequestSpan>> ops =
-      InMemoryRequestTracerHandlerOperationsUtil.associateTopLevelSpansWithChildren(spans);
+    List<Operation> collected = collect(sinceLastUpdate);
+    InMemoryTracerOptions.Built options = config.options;
+    InMemoryRequestTracerHandlerOperations ops = new InMemoryRequestTracerHandlerOperations(new Operations(collected),
+      collectedOverhead, options.expectedIntervals());
+    lastHandlerNanos = callHandlers(options.handlers(), ops, sinceLastUpdate);
+    lastUpdate.set(now);
+  }
 
-    options.handlers().forEach(handler -> {
+  /**
+   * Calls each handler in turn, isolating failures, and returns the time spent in each.
+   */
+  static List<Long> callHandlers(List<InMemoryRequestTracerHandler> handlers, InMemoryRequestTracerHandlerOperations ops, Duration sinceLastUpdate) {
+    List<Long> handlerNanos = new ArrayList<>(handlers.size());
+    for (InMemoryRequestTracerHandler handler : handlers) {
+      long start = System.nanoTime();
       try {
-        handler.evaluate(new InMemoryRequestTracerHandlerOperations(ops.getT1()), sinceLastUpdate);
+        handler.evaluate(ops, sinceLastUpdate);
       } catch (Exception e) {
         logger.error("Handler failed: ", e);
       }
-    });
+      handlerNanos.add(System.nanoTime() - start);
+    }
+    return handlerNanos;
+  }
 
-    // As a precaution against bugs, kill any old dangling spans.
+  /**
+   * Ends the current interval: takes all spans captured in it, and returns those of completed operations grouped into
+   * operations, tagged with this tracer's cluster.  Operations still in flight are carried over to the interval in which they
+   * end.  Also updates the JMX statistics, and the tracer's measurements of its own overhead, which are then available from
+   * {@link #collectedOverhead()}.
+   * <p>
+   * Must only be called from one thread at a time, which is the tracer's own, or its registry's, handler thread.
+   */
+  @Stability.Internal
+  List<Operation> collect(Duration sinceLastUpdate) {
+    long rotationStart = System.nanoTime();
+    List<InMemoryRequestSpan> retained = SpanBuffer.rotate(spans, carriedOver);
+    long associationStart = System.nanoTime();
+    // Operations still in flight are held back until the interval in which they end, so they are reported complete.
+    Tuple2<List<InMemoryRequestSpan>, List<InMemoryRequestSpan>> partitioned =
+      InMemoryRequestTracerHandlerOperationsUtil.partitionByCompleted(retained);
+    Tuple2<List<SpansForOperation>, List<InMemoryRequestSpan>> ops =
+      InMemoryRequestTracerHandlerOperationsUtil.associateTopLevelSpansWithChildren(partitioned.getT1());
+    List<Operation> out = new ArrayList<>(ops.getT1().size());
+    for (SpansForOperation op : ops.getT1()) {
+      out.add(new Operation(op, cluster));
+    }
+    long associationNanos = System.nanoTime() - associationStart;
+
+    if (jmx != null) {
+      try {
+        jmx.evaluate(new InMemoryRequestTracerHandlerOperations(new Operations(out)), sinceLastUpdate);
+      } catch (Exception e) {
+        logger.error("JMX statistics failed: ", e);
+      }
+    }
+
+    // As a precaution against bugs, kill any old dangling spans, and operations that look like they will never end.
     Instant tooOld = Instant.now().minus(sinceLastUpdate.multipliedBy(2));
-    spans = ops.getT2()
+    Instant tooOldInFlight = Instant.now().minus(max(MAX_IN_FLIGHT, sinceLastUpdate.multipliedBy(2)));
+    List<InMemoryRequestSpan> nextCarriedOver = new ArrayList<>(partitioned.getT2().size() + ops.getT2().size());
+    for (InMemoryRequestSpan span : partitioned.getT2()) {
+      InMemoryRequestSpan topLevel = span.parent() == null ? span : span.parent();
+      if (topLevel.startInstant().isAfter(tooOldInFlight)) {
+        nextCarriedOver.add(span);
+      }
+    }
+    for (InMemoryRequestSpan span : ops.getT2()) {
+      if (span.startInstant().isAfter(tooOld)) {
+        nextCarriedOver.add(span);
+      }
+    }
+    long dropped = partitioned.getT2().size() + ops.getT2().size() - nextCarriedOver.size();
+    carriedOver = nextCarriedOver;
+
+    TracerOverhead measured = overhead.snapshotAndReset(sinceLastUpdate.toNanos() / 1e9,
+      retained.size(),
+      OverheadRecorder.estimateBytes(retained),
+      dropped,
+      associationStart - rotationStart,
+      associationNanos,
+      lastHandlerNanos);
+    collectedOverhead = measured;
+    adaptSamplingRate(out.size(), measured);
+    return out;
+  }
+
+  private void adaptSamplingRate(long operations, TracerOverhead overhead) {
+    synchronized (configLock) {
+      Config current = config;
+      AdaptiveSamplingOptions.Built budget = current.options.adaptiveSampling();
+      if (budget == null) {
+        return;
+      }
+      double next = AdaptiveSamplingController.nextRate(budget, current.samplingRate, current.options.samplingRate(), operations, overhead);
+      if (next != current.samplingRate) {
+        logger.debug("Adaptive sampling rate changed from {} to {}", current.samplingRate, next);
+        config = current.withSamplingRate(next);
+      }
+    }
+  }
+
+  /**
+   * The tracer's overhead, as measured by the last call to {@link #collect(Duration)}.
+   */
+  @Nullable TracerOverhead collectedOverhead() {
+    return collectedOverhead;
+  }
+
+  /**
+   * Returns the operations that have completed so far in the current interval, without waiting for or affecting the handlers.
+   * <p>
+   * This neither takes a lock nor resets the interval, so is cheap enough for health checks and admin endpoints to call
+   * frequently.  Operations still in flight are not included, but those that started in an earlier interval and have since
+   * completed are, as they will be in the next report.  Spans captured concurrently with the call may or may not be.
+   */
+  public InMemoryRequestTracerHandlerOperations snapshot() {
+    List<InMemoryRequestSpan> completed = InMemoryRequestTracerHandlerOperationsUtil.partitionByCompleted(currentSpans()).getT1();
+    List<Operation> out = InMemoryRequestTracerHandlerOperationsUtil.associateTopLevelSpansWithChildren(completed).getT1()
       .stream()
-      .filter(v -> v.startInstant().isAfter(tooOld))
+      .map(op -> new Operation(op, cluster))
       .collect(Collectors.toList());
-    lastUpdate.set(now);
+    return new InMemoryRequestTracerHandlerOperations(new Operations(out));
+  }
+
+  /**
+   * Returns the spans the next interval will be reported from so far: those carried over from earlier intervals, as
+   * {@link SpanBuffer#rotate} combines them, followed by those captured in this one.
+   */
+  private List<InMemoryRequestSpan> currentSpans() {
+    // Read before the buffer: carriedOver is only replaced after the buffer is rotated, so this never sees a span twice.
+    List<InMemoryRequestSpan> carried = carriedOver;
+    List<InMemoryRequestSpan> current = spans.get().copy();
+    List<InMemoryRequestSpan> out = new ArrayList<>(carried.size() + current.size());
+    out.addAll(carried);
+    out.addAll(current);
+    return out;
+  }
+
+  private static Duration max(Duration a, Duration b) {
+    return a.compareTo(b) >= 0 ? a : b;
   }
 
   /**
    * Returns a list of all spans currently stored in memory.
    * <p>
-   * Generally users should prefer to use the handler mechanism to access spans
+   * Generally users should prefer to use the handler mechanism, or {@link #snapshot()}, to access spans
    */
-  public synchronized List<InMemoryRequestSpan> spans() {
+  public List<InMemoryRequestSpan> spans() {
     // defensive copy
-    return new ArrayList<>(spans);
+    return spans.get().copy();
+  }
+
+  /**
+   * The parts of the configuration the capture path needs, derived from one immutable set of options.
+   */
+  private static final class Config {
+    private final InMemoryTracerOptions.Built options;
+    private final @Nullable JfrEvents jfrEvents;
+    private final @Nullable CaptureFilter captureFilter;
+    private final @Nullable SpanListener captureFilterListener;
+    // The configured rate, or with adaptive sampling, the rate chosen for the current interval.
+    private final double samplingRate;
+
+    Config(InMemoryTracerOptions.Built options) {
+      this(options, options.samplingRate());
+    }
+
+    Config(InMemoryTracerOptions.Built options, double samplingRate) {
+      this.options = options;
+      this.jfrEvents = options.jfrEvents() ? JfrEvents.create(options.jfrNetworkCallEvents()) : null;
+      this.captureFilter = options.captureFilter();
+      this.captureFilterListener = captureFilter == null ? null : new CaptureFilterListener(captureFilter);
+      this.samplingRate = samplingRate;
+    }
+
+    private Config(Config from, double samplingRate) {
+      this.options = from.options;
+      this.jfrEvents = from.jfrEvents;
+      this.captureFilter = from.captureFilter;
+      this.captureFilterListener = from.captureFilterListener;
+      this.samplingRate = samplingRate;
+    }
+
+    Config withSamplingRate(double samplingRate) {
+      return new Config(this, samplingRate);
+    }
+
+    /**
+     * Whether to capture a new top-level span.
+     */
+    boolean capture(String name) {
+      if (samplingRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= samplingRate) {
+        return false;
+      }
+      return captureFilter == null || captureFilter.acceptOperation(name);
+    }
+
+    @Nullable SpanListener listenerFor(String name, @Nullable InMemoryRequestSpan parentSpan) {
+      SpanListener jfr = jfrEvents == null ? null : jfrEvents.listenerFor(name, parentSpan);
+      if (parentSpan != null || captureFilterListener == null) {
+        return jfr;
+      }
+      return jfr == null ? captureFilterListener : SpanListener.both(captureFilterListener, jfr);
+    }
+  }
+
+  /**
+   * Applies the {@link CaptureFilter} to top-level spans as their attributes arrive and when they end.  Stateless, so one instance
+   * is shared by all spans.
+   */
+  private static final class CaptureFilterListener implements SpanListener {
+    private final CaptureFilter filter;
+
+    CaptureFilterListener(CaptureFilter filter) {
+      this.filter = filter;
+    }
+
+    @Override
+    public void onAttribute(InMemoryRequestSpan span, String key, String value) {
+      if (!filter.acceptAttribute(key, value)) {
+        span.exclude();
+      }
+    }
+
+    @Override
+    public void onEnd(InMemoryRequestSpan span) {
+      if (!span.excluded() && !filter.acceptDuration(span.duration())) {
+        span.exclude();
+      }
+    }
   }
 }
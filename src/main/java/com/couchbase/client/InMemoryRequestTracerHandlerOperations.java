@@ -19,8 +19,12 @@ import com.couchbase.client.core.annotation.Stability;
 import com.couchbase.client.spans.SpansForOperation;
 import com.couchbase.client.operations.Operation;
 import com.couchbase.client.operations.Operations;
+import org.jspecify.annotations.Nullable;
 
+import java.time.Duration;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -29,12 +33,35 @@ import java.util.stream.Collectors;
 @Stability.Volatile
 public class InMemoryRequestTracerHandlerOperations {
   private final Operations operations;
+  private final @Nullable TracerOverhead overhead;
+  private final Map<String, Duration> expectedIntervals;
 
   @Stability.Internal
   public InMemoryRequestTracerHandlerOperations(List<SpansForOperation> spans) {
     this.operations = new Operations(spans.stream()
       .map(Operation::new)
       .collect(Collectors.toList()));
+    this.overhead = null;
+    this.expectedIntervals = Collections.emptyMap();
+  }
+
+  @Stability.Internal
+  public InMemoryRequestTracerHandlerOperations(Operations operations) {
+    this(operations, null);
+  }
+
+  @Stability.Internal
+  public InMemoryRequestTracerHandlerOperations(Operations operations, @Nullable TracerOverhead overhead) {
+    this(operations, overhead, Collections.emptyMap());
+  }
+
+  @Stability.Internal
+  public InMemoryRequestTracerHandlerOperations(Operations operations,
+                                                @Nullable TracerOverhead overhead,
+                                                Map<String, Duration> expectedIntervals) {
+    this.operations = operations;
+    this.overhead = overhead;
+    this.expectedIntervals = expectedIntervals;
   }
 
   /**
@@ -43,4 +70,20 @@ public class InMemoryRequestTracerHandlerOperations {
   public Operations operations() {
     return operations;
   }
+
+  /**
+   * The tracer's measurements of its own cost over the interval, or null if these operations did not come from a tracer (e.g.
+   * they were read from a file).
+   */
+  public @Nullable TracerOverhead overhead() {
+    return overhead;
+  }
+
+  /**
+   * The expected intervals between operations, by operation name, for those whose durations should also be reported corrected
+   * for coordinated omission.  See {@link InMemoryTracerOptions#expectedInterval(String, Duration)}.
+   */
+  public Map<String, Duration> expectedIntervals() {
+    return expectedIntervals;
+  }
 }
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2025 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.couchbase.client;
+
+import com.couchbase.client.core.annotation.Stability;
+import com.couchbase.client.core.util.CbCollections;
+import com.couchbase.client.operations.Operation;
+import com.couchbase.client.operations.Operations;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shares one handler thread, one timer and one set of handlers between several {@link InMemoryRequestTracer}s, e.g. one per
+ * cluster an application connects to.
+ * <p>
+ * Each interval, the operations of all the registry's tracers are collected, tagged with the cluster (or tenant) each tracer was
+ * created for (see {@link com.couchbase.client.operations.Operation#cluster()}), and passed to the handlers together, so
+ * cross-cluster reports are produced in one pass.  The default handler is
+ * {@link ExampleHandlers#writeAggregatedClusterReport(InMemoryRequestTracerHandlerOperations, Duration)}.
+ * <pre>
+ * InMemoryRequestTracerRegistry registry = new InMemoryRequestTracerRegistry();
+ * Cluster east = Cluster.connect("east", ClusterOptions.clusterOptions("username", "password")
+ *     .environment(env -> env.requestTracer(registry.tracer("east"))));
+ * Cluster west = Cluster.connect("west", ClusterOptions.clusterOptions("username", "password")
+ *     .environment(env -> env.requestTracer(registry.tracer("west"))));
+ * </pre>
+ * The handler thread is a daemon thread, so does not stop the JVM from exiting.
+ */
+@Stability.Volatile
+public class InMemoryRequestTracerRegistry implements Closeable {
+  private static final Logger logger = LoggerFactory.getLogger(InMemoryRequestTracerRegistry.class);
+
+  private final InMemoryTracerOptions.Built options;
+  private final CopyOnWriteArrayList<InMemoryRequestTracer> tracers = new CopyOnWriteArrayList<>();
+  private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "inmemory-tracer-registry");
+    thread.setDaemon(true);
+    return thread;
+  });
+  // Only accessed from the executor thread
+  private Instant lastUpdate = Instant.now();
+  // Only accessed from the executor thread
+  private List<Long> lastHandlerNanos = new ArrayList<>();
+
+  public InMemoryRequestTracerRegistry() {
+    this(InMemoryTracerOptions.inMemoryTracerOptions()
+      .handlers(CbCollections.listOf(ExampleHandlers::writeAggregatedClusterReport)));
+  }
+
+  /**
+   * The handlers and interval are used by the registry.  The other options are the defaults for the tracers it creates.
+   */
+  public InMemoryRequestTracerRegistry(InMemoryTracerOptions options) {
+    this.options = options.build();
+    long intervalMillis = this.options.interval().toMillis();
+    executor.scheduleAtFixedRate(this::callHandlers, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Creates a tracer whose operations are tagged with the given cluster (or tenant), using the registry's options.
+   */
+  public InMemoryRequestTracer tracer(String cluster) {
+    return tracer(cluster, InMemoryTracerOptions.inMemoryTracerOptions(options));
+  }
+
+  /**
+   * Creates a tracer whose operations are tagged with the given cluster (or tenant).  The capture-related options, such as the
+   * capture filter and sampling rate, come from {@code options}; its handlers and interval are ignored in favour of the registry's.
+   */
+  public InMemoryRequestTracer tracer(String cluster, InMemoryTracerOptions options) {
+    if (executor.isShutdown()) {
+      throw new IllegalStateException("Registry has been closed");
+    }
+    InMemoryRequestTracer tracer = new InMemoryRequestTracer(options, this, cluster);
+    tracers.add(tracer);
+    return tracer;
+  }
+
+  /**
+   * Returns the tracers currently in the registry.  Tracers leave it when they are stopped.
+   */
+  public List<InMemoryRequestTracer> tracers() {
+    return new ArrayList<>(tracers);
+  }
+
+  void remove(InMemoryRequestTracer tracer) {
+    tracers.remove(tracer);
+  }
+
+  /**
+   * Calls the handlers as soon as possible, on the handler thread, rather than waiting for the interval.
+   */
+  public void reportNow() {
+    executor.execute(this::callHandlers);
+  }
+
+  private void callHandlers() {
+    Instant now = Instant.now();
+    Duration sinceLastUpdate = Duration.between(lastUpdate, now);
+    List<Operation> all = new ArrayList<>();
+    List<TracerOverhead> overheads = new ArrayList<>();
+    for (InMemoryRequestTracer tracer : tracers) {
+      try {
+        all.addAll(tracer.collect(sinceLastUpdate));
+        TracerOverhead overhead = tracer.collectedOverhead();
+        if (overhead != null) {
+          overheads.add(overhead);
+        }
+      } catch (Exception e) {
+        logger.error("Failed to collect operations for cluster {}: ", tracer.cluster(), e);
+      }
+    }
+
+    TracerOverhead overhead = TracerOverhead.sum(overheads, sinceLastUpdate.toNanos() / 1e9, lastHandlerNanos);
+    InMemoryRequestTracerHandlerOperations ops = new InMemoryRequestTracerHandlerOperations(new Operations(all), overhead,
+      options.expectedIntervals());
+    lastHandlerNanos = InMemoryRequestTracer.callHandlers(options.handlers(), ops, sinceLastUpdate);
+    lastUpdate = now;
+  }
+
+  /**
+   * Stops calling the handlers, and stops the tracers still in the registry, disabling their capture so they do not keep buffering
+   * spans that would never be reported.  Operations captured since the last interval are not reported.
+   */
+  @Override
+  public void close() {
+    executor.shutdown();
+    for (InMemoryRequestTracer tracer : tracers) {
+      tracer.captureEnabled(false);
+      tracer.stop(Duration.ZERO);
+    }
+  }
+}
@@ -17,10 +17,15 @@ package com.couchbase.client;
 
 import com.couchbase.client.core.annotation.Stability;
 import com.couchbase.client.core.util.CbCollections;
+import com.couchbase.client.sampling.AdaptiveSamplingOptions;
+import org.jspecify.annotations.Nullable;
 
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Allows customizing options for the {@link InMemoryRequestTracer}.
@@ -32,6 +37,14 @@ public class InMemoryTracerOptions {
 
   private List<InMemoryRequestTracerHandler> handlers = DEFAULT_HANDLERS;
   private Duration interval = DEFAULT_INTERVAL;
+  private boolean jfrEvents = false;
+  private boolean jfrNetworkCallEvents = false;
+  private boolean jmx = false;
+  private @Nullable CaptureFilter captureFilter = null;
+  private boolean captureEnabled = true;
+  private double samplingRate = 1.0;
+  private AdaptiveSamplingOptions.@Nullable Built adaptiveSampling = null;
+  private Map<String, Duration> expectedIntervals = new HashMap<>();
 
   /**
    * The options should only be instantiated through the {@link #inMemoryTracerOptions()} static method.
@@ -46,6 +59,25 @@ public class InMemoryTracerOptions {
     return new InMemoryTracerOptions();
   }
 
+  /**
+   * Returns an options builder starting from existing options, e.g. a tracer's current options.
+   */
+  @Stability.Internal
+  public static InMemoryTracerOptions inMemoryTracerOptions(Built from) {
+    InMemoryTracerOptions out = new InMemoryTracerOptions();
+    out.handlers = from.handlers;
+    out.interval = from.interval;
+    out.jfrEvents = from.jfrEvents;
+    out.jfrNetworkCallEvents = from.jfrNetworkCallEvents;
+    out.jmx = from.jmx;
+    out.captureFilter = from.captureFilter;
+    out.captureEnabled = from.captureEnabled;
+    out.samplingRate = from.samplingRate;
+    out.adaptiveSampling = from.adaptiveSampling;
+    out.expectedIntervals = new HashMap<>(from.expectedIntervals);
+    return out;
+  }
+
   /**
    * Sets the handlers, which will be called on a periodic basic ({@link #interval(Duration)}) with the operations
    * that have occurred since the last time it was called.
@@ -67,17 +99,150 @@ public class InMemoryTracerOptions {
    * @return the same {@link InMemoryTracerOptions} for chaining purposes.
    */
   public InMemoryTracerOptions interval(final Duration interval) {
+    if (interval.isNegative() || interval.isZero()) {
+      throw new IllegalArgumentException("Interval must be positive, but was " + interval);
+    }
     this.interval = interval;
     return this;
   }
 
+  /**
+   * Sets whether a Java Flight Recorder event is emitted for each completed operation, as it completes.  Defaults to false.
+   * <p>
+   * The {@code com.couchbase.inmemory.Operation} event carries the service, operation name, bucket, node, server duration and
+   * exception class, and lines up with GC, lock and I/O events on the same JFR timeline.  Whether an event is recorded is
+   * controlled by the JFR recording's settings for it, including {@code enabled} and {@code threshold}.
+   * <p>
+   * Has no effect on JVMs without JFR.
+   *
+   * @return the same {@link InMemoryTracerOptions} for chaining purposes.
+   */
+  public InMemoryTracerOptions jfrEvents(boolean jfrEvents) {
+    this.jfrEvents = jfrEvents;
+    return this;
+  }
+
+  /**
+   * When {@link #jfrEvents(boolean)} is enabled, sets whether a {@code com.couchbase.inmemory.NetworkCall} JFR event is also
+   * emitted for each network call.  Defaults to false.
+   *
+   * @return the same {@link InMemoryTracerOptions} for chaining purposes.
+   */
+  public InMemoryTracerOptions jfrNetworkCallEvents(boolean jfrNetworkCallEvents) {
+    this.jfrNetworkCallEvents = jfrNetworkCallEvents;
+    return this;
+  }
+
+  /**
+   * Sets whether an {@link com.couchbase.client.jmx.InMemoryRequestTracerMXBean} is registered for the tracer with the platform
+   * MBean server.  Defaults to false.
+   * <p>
+   * The MBean aggregates each interval's operations once more, on the handler thread, and keeps a small histogram per service
+   * and operation type for its rolling window.  This is only read when the tracer is created.
+   *
+   * @return the same {@link InMemoryTracerOptions} for chaining purposes.
+   */
+  public InMemoryTracerOptions jmx(boolean jmx) {
+    this.jmx = jmx;
+    return this;
+  }
+
+  /**
+   * Sets a filter deciding which operations are captured at all, e.g. {@code CaptureFilter.services("query")}.  By default, all
+   * operations are captured.
+   * <p>
+   * Unlike filtering inside a handler, operations rejected by the filter cost close to nothing.  See {@link CaptureFilter} for
+   * when each check is made.
+   *
+   * @return the same {@link InMemoryTracerOptions} for chaining purposes.
+   */
+  public InMemoryTracerOptions captureFilter(@Nullable CaptureFilter captureFilter) {
+    this.captureFilter = captureFilter;
+    return this;
+  }
+
+  /**
+   * Sets whether spans are captured at all.  While disabled, the SDK is handed no-op spans, so the tracer has close to zero
+   * overhead.  Defaults to true.
+   *
+   * @return the same {@link InMemoryTracerOptions} for chaining purposes.
+   */
+  public InMemoryTracerOptions captureEnabled(boolean captureEnabled) {
+    this.captureEnabled = captureEnabled;
+    return this;
+  }
+
+  /**
+   * Sets the fraction of operations that are captured, between 0 and 1.  Unsampled operations, and their child spans, are handed
+   * no-op spans.  Defaults to 1, capturing every operation.
+   * <p>
+   * Each operation records the rate it was captured at ({@link com.couchbase.client.operations.Operation#samplingRate()}), so
+   * that counts can be re-weighted, as {@link com.couchbase.client.operations.Operations#estimatedCount()} does.
+   * <p>
+   * With {@link #adaptiveSampling(AdaptiveSamplingOptions)}, this is the highest rate that will be used.
+   *
+   * @return the same {@link InMemoryTracerOptions} for chaining purposes.
+   */
+  public InMemoryTracerOptions samplingRate(double samplingRate) {
+    if (!(samplingRate >= 0 && samplingRate <= 1)) {
+      throw new IllegalArgumentException("Sampling rate must be between 0 and 1, but was " + samplingRate);
+    }
+    this.samplingRate = samplingRate;
+    return this;
+  }
+
+  /**
+   * Enables adaptive sampling: at the end of each interval, the tracer compares what the interval cost it (see
+   * {@link TracerOverhead}) against the budget, and raises or lowers the rate for the next one accordingly, up to
+   * {@link #samplingRate(double)}.  Null (the default) disables it.
+   *
+   * @return the same {@link InMemoryTracerOptions} for chaining purposes.
+   */
+  public InMemoryTracerOptions adaptiveSampling(@Nullable AdaptiveSamplingOptions adaptiveSampling) {
+    this.adaptiveSampling = adaptiveSampling == null ? null : adaptiveSampling.build();
+    return this;
+  }
+
+  /**
+   * Declares that operations with this name (e.g. "get" or "query") are issued by closed-loop workers, one every
+   * {@code expectedInterval}, and so should also be reported with durations corrected for coordinated omission.  Can be called
+   * once per operation name.  By default, no durations are corrected.
+   * <p>
+   * When a worker stalls on a slow request, it does not issue the requests it otherwise would have, so the stall is under-sampled.
+   * The correction accounts for those requests, as HdrHistogram does: see {@link Durations#correctedForCoordinatedOmission(long)}.
+   * The aggregated reports then show corrected percentiles alongside the raw ones.
+   *
+   * @return the same {@link InMemoryTracerOptions} for chaining purposes.
+   */
+  public InMemoryTracerOptions expectedInterval(String operationName, Duration expectedInterval) {
+    if (expectedInterval.isNegative() || expectedInterval.isZero()) {
+      throw new IllegalArgumentException("Expected interval must be positive, but was " + expectedInterval);
+    }
+    this.expectedIntervals.put(operationName, expectedInterval);
+    return this;
+  }
+
   @Stability.Internal
   public Built build() {
     return new Built();
   }
 
+  /**
+   * An immutable snapshot of the options at the time {@link #build()} was called.
+   */
   @Stability.Internal
   public class Built {
+    private final List<InMemoryRequestTracerHandler> handlers = Collections.unmodifiableList(new ArrayList<>(InMemoryTracerOptions.this.handlers));
+    private final Duration interval = InMemoryTracerOptions.this.interval;
+    private final boolean jfrEvents = InMemoryTracerOptions.this.jfrEvents;
+    private final boolean jfrNetworkCallEvents = InMemoryTracerOptions.this.jfrNetworkCallEvents;
+    private final boolean jmx = InMemoryTracerOptions.this.jmx;
+    private final @Nullable CaptureFilter captureFilter = InMemoryTracerOptions.this.captureFilter;
+    private final boolean captureEnabled = InMemoryTracerOptions.this.captureEnabled;
+    private final double samplingRate = InMemoryTracerOptions.this.samplingRate;
+    private final AdaptiveSamplingOptions.@Nullable Built adaptiveSampling = InMemoryTracerOptions.this.adaptiveSampling;
+    private final Map<String, Duration> expectedIntervals = Collections.unmodifiableMap(new HashMap<>(InMemoryTracerOptions.this.expectedIntervals));
+
     public List<InMemoryRequestTracerHandler> handlers() {
       return handlers;
     }
@@ -85,5 +250,37 @@ public class InMemoryTracerOptions {
     public Duration interval() {
       return interval;
     }
+
+    public boolean jfrEvents() {
+      return jfrEvents;
+    }
+
+    public boolean jfrNetworkCallEvents() {
+      return jfrNetworkCallEvents;
+    }
+
+    public boolean jmx() {
+      return jmx;
+    }
+
+    public @Nullable CaptureFilter captureFilter() {
+      return captureFilter;
+    }
+
+    public boolean captureEnabled() {
+      return captureEnabled;
+    }
+
+    public double samplingRate() {
+      return samplingRate;
+    }
+
+    public AdaptiveSamplingOptions.@Nullable Built adaptiveSampling() {
+      return adaptiveSampling;
+    }
+
+    public Map<String, Duration> expectedIntervals() {
+      return expectedIntervals;
+    }
   }
 } 
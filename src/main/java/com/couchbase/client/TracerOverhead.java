@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2025 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.couchbase.client;
+
+import com.couchbase.client.core.annotation.Stability;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The tracer's measurements of its own cost, for one reporting interval.  Available to handlers through
+ * {@link InMemoryRequestTracerHandlerOperations#overhead()}, and included in the example aggregated report.
+ * <p>
+ * Everything covers the interval being reported, apart from {@link #handlerNanos()}: handlers are timed as they run, so those
+ * are from the previous interval.
+ */
+@Stability.Volatile
+public class TracerOverhead {
+  private final double intervalSeconds;
+  private final long spansCreated;
+  private final long creationSamples;
+  private final long creationSampledNanos;
+  private final long creationMaxNanos;
+  private final long retainedSpans;
+  private final long estimatedRetainedBytes;
+  private final long droppedSpans;
+  private final long rotationNanos;
+  private final long associationNanos;
+  private final List<Long> handlerNanos;
+
+  @Stability.Internal
+  public TracerOverhead(double intervalSeconds,
+                        long spansCreated,
+                        long creationSamples,
+                        long creationSampledNanos,
+                        long creationMaxNanos,
+                        long retainedSpans,
+                        long estimatedRetainedBytes,
+                        long droppedSpans,
+                        long rotationNanos,
+                        long associationNanos,
+                        List<Long> handlerNanos) {
+    this.intervalSeconds = intervalSeconds;
+    this.spansCreated = spansCreated;
+    this.creationSamples = creationSamples;
+    this.creationSampledNanos = creationSampledNanos;
+    this.creationMaxNanos = creationMaxNanos;
+    this.retainedSpans = retainedSpans;
+    this.estimatedRetainedBytes = estimatedRetainedBytes;
+    this.droppedSpans = droppedSpans;
+    this.rotationNanos = rotationNanos;
+    this.associationNanos = associationNanos;
+    this.handlerNanos = Collections.unmodifiableList(new ArrayList<>(handlerNanos));
+  }
+
+  /**
+   * Sums the overheads of several tracers over the same interval, e.g. those of an {@link InMemoryRequestTracerRegistry}.
+   */
+  @Stability.Internal
+  public static TracerOverhead sum(List<TracerOverhead> overheads, double intervalSeconds, List<Long> handlerNanos) {
+    long spansCreated = 0;
+    long creationSamples = 0;
+    long creationSampledNanos = 0;
+    long creationMaxNanos = 0;
+    long retainedSpans = 0;
+    long estimatedRetainedBytes = 0;
+    long droppedSpans = 0;
+    long rotationNanos = 0;
+    long associationNanos = 0;
+    for (TracerOverhead o : overheads) {
+      spansCreated += o.spansCreated;
+      creationSamples += o.creationSamples;
+      creationSampledNanos += o.creationSampledNanos;
+      creationMaxNanos = Math.max(creationMaxNanos, o.creationMaxNanos);
+      retainedSpans += o.retainedSpans;
+      estimatedRetainedBytes += o.estimatedRetainedBytes;
+      droppedSpans += o.droppedSpans;
+      rotationNanos += o.rotationNanos;
+      associationNanos += o.associationNanos;
+    }
+    return new TracerOverhead(intervalSeconds, spansCreated, creationSamples, creationSampledNanos, creationMaxNanos,
+      retainedSpans, estimatedRetainedBytes, droppedSpans, rotationNanos, associationNanos, handlerNanos);
+  }
+
+  /**
+   * How many spans the tracer created (excluding no-op spans for uncaptured operations).
+   */
+  public long spansCreated() {
+    return spansCreated;
+  }
+
+  public double spansCreatedPerSecond() {
+    return intervalSeconds <= 0 ? 0 : spansCreated / intervalSeconds;
+  }
+
+  /**
+   * How many span creations were timed.  Only a sample are, to keep the cost of measuring down.
+   */
+  public long spanCreationSamples() {
+    return creationSamples;
+  }
+
+  /**
+   * The mean time to create and store a span, over the sampled creations.
+   */
+  public double spanCreationMeanNanos() {
+    return creationSamples == 0 ? 0 : (double) creationSampledNanos / creationSamples;
+  }
+
+  /**
+   * The slowest sampled span creation.
+   */
+  public long spanCreationMaxNanos() {
+    return creationMaxNanos;
+  }
+
+  /**
+   * How many spans were held in memory at the end of the interval, waiting to be reported.
+   */
+  public long retainedSpans() {
+    return retainedSpans;
+  }
+
+  /**
+   * A rough estimate of the heap used by the retained spans.
+   */
+  public long estimatedRetainedBytes() {
+    return estimatedRetainedBytes;
+  }
+
+  /**
+   * Spans discarded because they could not be associated with an operation in time, or because their operation was still in
+   * flight after 10 minutes.  The capture path itself never drops spans.
+   */
+  public long droppedSpans() {
+    return droppedSpans;
+  }
+
+  /**
+   * Time spent swapping out the interval's span buffer, including waiting for span creations that were part-way through.  The
+   * capture path takes no locks, so this is the nearest equivalent of lock wait time.
+   */
+  public long rotationNanos() {
+    return rotationNanos;
+  }
+
+  /**
+   * Time spent grouping spans into operations.
+   */
+  public long associationNanos() {
+    return associationNanos;
+  }
+
+  /**
+   * Time spent in each handler, in the order they are configured, during the previous interval.  This includes any
+   * serialisation the handlers do.
+   */
+  public List<Long> handlerNanos() {
+    return handlerNanos;
+  }
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 2025 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.couchbase.client.analysis;
+
+import com.couchbase.client.Durations;
+import com.couchbase.client.InMemoryRequestTracerHandler;
+import com.couchbase.client.InMemoryRequestTracerHandlerOperations;
+import com.couchbase.client.core.annotation.Stability;
+import com.couchbase.client.core.cnc.TracingIdentifiers;
+import com.couchbase.client.core.deps.com.fasterxml.jackson.core.JsonFactory;
+import com.couchbase.client.core.deps.com.fasterxml.jackson.core.JsonGenerator;
+import com.couchbase.client.operations.Operations;
+import com.couchbase.client.util.AppendableWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+import static com.couchbase.client.util.DurationUtil.toEpochMicros;
+import static com.couchbase.client.util.DurationUtil.toMicros;
+
+/**
+ * A handler that reports how many operations were in flight to each service and node over the window, and how latency varied
+ * with that, to show whether the latency tail follows bursts of concurrent requests.
+ * <p>
+ * A sweep over the operations' start and end times gives the number in flight over time, and so its maximum and time-weighted
+ * mean.  Each operation's latency is then grouped by how many were in flight when it was submitted.
+ * <p>
+ * This takes O(n log n) time, in sorting, and works on primitive arrays, so it scales to windows of millions of operations.
+ */
+@Stability.Volatile
+public class ConcurrencyAnalysis implements InMemoryRequestTracerHandler {
+  private static final Logger logger = LoggerFactory.getLogger(ConcurrencyAnalysis.class);
+  private static final JsonFactory factory = new JsonFactory();
+
+  @Override
+  public void evaluate(InMemoryRequestTracerHandlerOperations operations, Duration sinceLastReport) {
+    if (operations.operations().size() == 0) {
+      return;
+    }
+    try {
+      StringBuilder out = new StringBuilder();
+      write(analyse(operations.operations()), out);
+      logger.info("Concurrency of {} operations over last {}: {}", operations.operations().size(), sinceLastReport, out);
+    } catch (Exception e) {
+      logger.error("Failed to write concurrency analysis JSON", e);
+    }
+  }
+
+  /**
+   * Profiles the operations, grouped by service and then node (as in {@link com.couchbase.client.operations.Operation#node()}).
+   */
+  public static Map<String, Map<String, ConcurrencyProfile>> analyse(Operations operations) {
+    Map<String, Map<String, Intervals>> groups = new TreeMap<>();
+    operations.forEach(op -> groups
+      .computeIfAbsent(Objects.toString(op.service(), TracingIdentifiers.SERVICE_UNKNOWN), k -> new TreeMap<>())
+      .computeIfAbsent(Objects.toString(op.node(), RegressionDetector.NO_NODE), k -> new Intervals())
+      .add(toEpochMicros(op.start()), toMicros(op.duration())));
+
+    Map<String, Map<String, ConcurrencyProfile>> out = new TreeMap<>();
+    groups.forEach((service, byNode) -> {
+      Map<String, ConcurrencyProfile> profiles = new TreeMap<>();
+      byNode.forEach((node, intervals) -> profiles.put(node, profile(
+        Arrays.copyOf(intervals.starts, intervals.size),
+        Arrays.copyOf(intervals.durations, intervals.size))));
+      out.put(service, profiles);
+    });
+    return out;
+  }
+
+  /**
+   * Profiles operations given by their start times (in any order, in microseconds since the epoch) and durations (in
+   * microseconds).
+   */
+  public static ConcurrencyProfile profile(long[] starts, long[] durations) {
+    int n = starts.length;
+    long[] sortedStarts = starts.clone();
+    long[] sortedEnds = new long[n];
+    for (int i = 0; i < n; i++) {
+      sortedEnds[i] = starts[i] + Math.max(0, durations[i]);
+    }
+    Arrays.sort(sortedStarts);
+    Arrays.sort(sortedEnds);
+
+    // Sweep the starts and ends in time order.  All events at the same time are applied together, so an operation ending just
+    // as another starts does not count as concurrent with it.
+    long[] times = new long[2 * n];
+    int[] concurrency = new int[2 * n];
+    int points = 0;
+    int level = 0;
+    int max = 0;
+    double area = 0;
+    int s = 0;
+    int e = 0;
+    while (s < n || e < n) {
+      long t = s < n && sortedStarts[s] < sortedEnds[e] ? sortedStarts[s] : sortedEnds[e];
+      while (e < n && sortedEnds[e] == t) {
+        level--;
+        e++;
+      }
+      while (s < n && sortedStarts[s] == t) {
+        level++;
+        s++;
+      }
+      if (points > 0 && concurrency[points - 1] == level) {
+        continue;
+      }
+      if (points > 0) {
+        area += (double) concurrency[points - 1] * (t - times[points - 1]);
+      }
+      times[points] = t;
+      concurrency[points] = level;
+      points++;
+      max = Math.max(max, level);
+    }
+    long span = n == 0 ? 0 : sortedEnds[n - 1] - sortedStarts[0];
+    double mean = span > 0 ? area / span : 0;
+
+    return new ConcurrencyProfile(n, max, mean, Arrays.copyOf(times, points), Arrays.copyOf(concurrency, points),
+      levels(starts, durations, sortedStarts, sortedEnds));
+  }
+
+  /**
+   * Groups the durations by the number in flight when each operation started, with a counting sort into ranges that double
+   * in width.
+   */
+  private static List<ConcurrencyProfile.Level> levels(long[] starts, long[] durations, long[] sortedStarts, long[] sortedEnds) {
+    int n = starts.length;
+    byte[] levelOf = new byte[n];
+    int[] counts = new int[33];
+    for (int i = 0; i < n; i++) {
+      // Started at or before, less ended at or before, which includes this operation unless it took no time at all.
+      int inFlight = Math.max(1, upperBound(sortedStarts, starts[i]) - upperBound(sortedEnds, starts[i]));
+      int level = 32 - Integer.numberOfLeadingZeros(inFlight - 1);
+      levelOf[i] = (byte) level;
+      counts[level]++;
+    }
+
+    long[][] byLevel = new long[counts.length][];
+    for (int level = 0; level < counts.length; level++) {
+      byLevel[level] = new long[counts[level]];
+    }
+    int[] filled = new int[counts.length];
+    for (int i = 0; i < n; i++) {
+      int level = levelOf[i];
+      byLevel[level][filled[level]++] = durations[i];
+    }
+
+    List<ConcurrencyProfile.Level> out = new ArrayList<>();
+    for (int level = 0; level < counts.length; level++) {
+      if (counts[level] > 0) {
+        int min = level == 0 ? 1 : (1 << (level - 1)) + 1;
+        int max = level == 0 ? 1 : (int) Math.min(Integer.MAX_VALUE, 1L << level);
+        out.add(new ConcurrencyProfile.Level(min, max, new Durations(byLevel[level])));
+      }
+    }
+    return out;
+  }
+
+  /**
+   * How many of the sorted values are at most the key.
+   */
+  private static int upperBound(long[] sorted, long key) {
+    int low = 0;
+    int high = sorted.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (sorted[mid] <= key) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Writes the profiles as a compact JSON object keyed by service, then node.
+   */
+  public static void write(Map<String, Map<String, ConcurrencyProfile>> profiles, Appendable out) throws IOException {
+    try (JsonGenerator gen = factory.createGenerator(new AppendableWriter(out))) {
+      gen.writeStartObject();
+      for (Map.Entry<String, Map<String, ConcurrencyProfile>> service : profiles.entrySet()) {
+        gen.writeObjectFieldStart(service.getKey());
+        for (Map.Entry<String, ConcurrencyProfile> node : service.getValue().entrySet()) {
+          gen.writeFieldName(node.getKey());
+          node.getValue().writeJson(gen);
+        }
+        gen.writeEndObject();
+      }
+      gen.writeEndObject();
+    }
+  }
+
+  /**
+   * The start times and durations of a group's operations, in growable primitive arrays.
+   */
+  private static final class Intervals {
+    private long[] starts = new long[64];
+    private long[] durations = new long[64];
+    private int size = 0;
+
+    private void add(long start, long duration) {
+      if (size == starts.length) {
+        starts = Arrays.copyOf(starts, size * 2);
+        durations = Arrays.copyOf(durations, size * 2);
+      }
+      starts[size] = start;
+      durations[size] = duration;
+      size++;
+    }
+  }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2025 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.couchbase.client.analysis;
+
+import com.couchbase.client.Durations;
+import com.couchbase.client.core.annotation.Stability;
+import com.couchbase.client.core.deps.com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * How many operations to one service and node were in flight over a window, and how their latency varied with it.  See
+ * {@link ConcurrencyAnalysis}.
+ */
+@Stability.Volatile
+public class ConcurrencyProfile {
+  private final long operations;
+  private final int maxConcurrency;
+  private final double meanConcurrency;
+  private final long[] timesEpochMicros;
+  private final int[] concurrency;
+  private final List<Level> levels;
+
+  @Stability.Internal
+  public ConcurrencyProfile(long operations,
+                            int maxConcurrency,
+                            double meanConcurrency,
+                            long[] timesEpochMicros,
+                            int[] concurrency,
+                            List<Level> levels) {
+    this.operations = operations;
+    this.maxConcurrency = maxConcurrency;
+    this.meanConcurrency = meanConcurrency;
+    this.timesEpochMicros = timesEpochMicros;
+    this.concurrency = concurrency;
+    this.levels = levels;
+  }
+
+  public long operations() {
+    return operations;
+  }
+
+  /**
+   * The most operations in flight at once.
+   */
+  public int maxConcurrency() {
+    return maxConcurrency;
+  }
+
+  /**
+   * The mean number of operations in flight, weighted by time, from when the first started to when the last ended.
+   */
+  public double meanConcurrency() {
+    return meanConcurrency;
+  }
+
+  /**
+   * The times, in microseconds since the epoch, at which the number of operations in flight changed.  The number from each
+   * time until the next is at the same index in {@link #concurrency()}.
+   */
+  public long[] timesEpochMicros() {
+    return timesEpochMicros;
+  }
+
+  /**
+   * The number of operations in flight from each of {@link #timesEpochMicros()}.
+   */
+  public int[] concurrency() {
+    return concurrency;
+  }
+
+  /**
+   * The operations' latencies, grouped by how many operations were in flight when each was submitted (including itself), in
+   * ranges that double in width: 1, 2, 3-4, 5-8, and so on.  Ranges with no operations are left out.
+   */
+  public List<Level> levels() {
+    return levels;
+  }
+
+  /**
+   * Writes the profile as a compact JSON object.  The time series is left out, as it is as long as the operations.
+   */
+  public void writeJson(JsonGenerator gen) throws IOException {
+    gen.writeStartObject();
+    gen.writeNumberField("operations", operations);
+    gen.writeNumberField("maxConcurrency", maxConcurrency);
+    gen.writeNumberField("meanConcurrency", meanConcurrency);
+    gen.writeArrayFieldStart("byConcurrencyAtSubmission");
+    for (Level level : levels) {
+      gen.writeStartObject();
+      gen.writeNumberField("minConcurrency", level.minConcurrency());
+      gen.writeNumberField("maxConcurrency", level.maxConcurrency());
+      gen.writeNumberField("operations", level.durationsMicroseconds().count());
+      gen.writeNumberField("p50Us", level.durationsMicroseconds().median());
+      gen.writeNumberField("p90Us", level.durationsMicroseconds().percentile(0.9));
+      gen.writeNumberField("p99Us", level.durationsMicroseconds().percentile(0.99));
+      gen.writeNumberField("maxUs", level.durationsMicroseconds().max());
+      gen.writeEndObject();
+    }
+    gen.writeEndArray();
+    gen.writeEndObject();
+  }
+
+  /**
+   * The latencies of the operations submitted while between {@link #minConcurrency()} and {@link #maxConcurrency()} operations
+   * were in flight.
+   */
+  public static class Level {
+    private final int minConcurrency;
+    private final int maxConcurrency;
+    private final Durations durationsMicroseconds;
+
+    @Stability.Internal
+    public Level(int minConcurrency, int maxConcurrency, Durations durationsMicroseconds) {
+      this.minConcurrency = minConcurrency;
+      this.maxConcurrency = maxConcurrency;
+      this.durationsMicroseconds = durationsMicroseconds;
+    }
+
+    public int minConcurrency() {
+      return minConcurrency;
+    }
+
+    public int maxConcurrency() {
+      return maxConcurrency;
+    }
+
+    public Durations durationsMicroseconds() {
+      return durationsMicroseconds;
+    }
+  }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2025 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.couchbase.client.analysis;
+
+import com.couchbase.client.core.annotation.Stability;
+import com.couchbase.client.core.deps.com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+
+/**
+ * A metric of one (service, operation, node) that regressed in a window, compared to its baseline.
+ */
+@Stability.Volatile
+public class RegressionAlert {
+  /**
+   * The metrics that are compared against their baselines.
+   */
+  public enum Metric {
+    /**
+     * The median operation duration, in microseconds.
+     */
+    P50("p50Micros"),
+
+    /**
+     * The 99th percentile operation duration, in microseconds.
+     */
+    P99("p99Micros"),
+
+    /**
+     * The fraction of operations that failed.
+     */
+    ERROR_RATE("errorRate"),
+
+    /**
+     * Operations per second, re-weighted by their sampling rate.
+     */
+    THROUGHPUT("opsPerSecond");
+
+    private final String jsonName;
+
+    Metric(String jsonName) {
+      this.jsonName = jsonName;
+    }
+
+    /**
+     * The name the metric is written as in JSON.
+     */
+    public String jsonName() {
+      return jsonName;
+    }
+  }
+
+  private final String service;
+  private final String operation;
+  private final String node;
+  private final Metric metric;
+  private final double baseline;
+  private final double observed;
+  private final long samples;
+
+  @Stability.Internal
+  public RegressionAlert(String service, String operation, String node, Metric metric, double baseline, double observed, long samples) {
+    this.service = service;
+    this.operation = operation;
+    this.node = node;
+    this.metric = metric;
+    this.baseline = baseline;
+    this.observed = observed;
+    this.samples = samples;
+  }
+
+  /**
+   * The service, such as "kv" or "query".
+   */
+  public String service() {
+    return service;
+  }
+
+  /**
+   * The operation type, such as "get" or "query".
+   */
+  public String operation() {
+    return operation;
+  }
+
+  /**
+   * The node, as in {@link com.couchbase.client.operations.Operation#node()}.
+   */
+  public String node() {
+    return node;
+  }
+
+  public Metric metric() {
+    return metric;
+  }
+
+  /**
+   * The baseline, before this window was folded into it.
+   */
+  public double baseline() {
+    return baseline;
+  }
+
+  public double observed() {
+    return observed;
+  }
+
+  /**
+   * How many operations were captured in the window.
+   */
+  public long samples() {
+    return samples;
+  }
+
+  /**
+   * Writes the alert as a JSON object.
+   */
+  public void writeJson(JsonGenerator gen) throws IOException {
+    gen.writeStartObject();
+    gen.writeStringField("service", service);
+    gen.writeStringField("operation", operation);
+    gen.writeStringField("node", node);
+    gen.writeStringField("metric", metric.jsonName());
+    gen.writeNumberField("baseline", baseline);
+    gen.writeNumberField("observed", observed);
+    gen.writeNumberField("samples", samples);
+    gen.writeEndObject();
+  }
+
+  @Override
+  public String toString() {
+    return service + "/" + operation + "@" + node + " " + metric.jsonName() + " " + baseline + " -> " + observed + " (" + samples + " samples)";
+  }
+}
@@ -0,0 +1,275 @@
+/*
+ * Copyright (c) 2025 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.couchbase.client.analysis;
+
+import com.couchbase.client.Durations;
+import com.couchbase.client.InMemoryRequestTracerHandler;
+import com.couchbase.client.InMemoryRequestTracerHandlerOperations;
+import com.couchbase.client.core.annotation.Stability;
+import com.couchbase.client.core.deps.com.fasterxml.jackson.core.JsonFactory;
+import com.couchbase.client.core.deps.com.fasterxml.jackson.core.JsonGenerator;
+import com.couchbase.client.operations.ExceptionStats;
+import com.couchbase.client.operations.Operations;
+import com.couchbase.client.util.AppendableWriter;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import static com.couchbase.client.analysis.RegressionDetectorOptions.regressionDetectorOptions;
+
+/**
+ * A handler that tells you when things get worse, rather than reporting numbers.
+ * <p>
+ * It keeps exponentially weighted baselines of the p50 and p99 durations, error rate and throughput of each (service,
+ * operation, node), and compares each window against them before folding it in.  Only changes beyond the configured
+ * thresholds raise a {@link RegressionAlert}.  Windows with too few operations are neither compared nor folded in, and error
+ * rates must also be statistically significant, so quiet periods do not raise false alarms.
+ * <p>
+ * As a sustained change is absorbed into the baselines after a few windows, alerts mark when things changed rather than
+ * repeating while they stay changed.  Likewise, a (service, operation, node) that stops appearing raises one throughput alert,
+ * not one per window it is missing.
+ * <p>
+ * Only a handful of numbers are kept per (service, operation, node), and those not seen for a while are forgotten.
+ */
+@Stability.Volatile
+public class RegressionDetector implements InMemoryRequestTracerHandler {
+  private static final Logger logger = LoggerFactory.getLogger(RegressionDetector.class);
+  private static final JsonFactory factory = new JsonFactory();
+  private static final Operations NO_OPERATIONS = new Operations(Collections.emptyList());
+
+  /**
+   * The node of operations that made no network call.
+   */
+  static final String NO_NODE = "none";
+
+  private final RegressionDetectorOptions.Built options;
+  private final Map<Key, Baseline> baselines = new HashMap<>();
+  private long window = 0;
+
+  public RegressionDetector() {
+    this(regressionDetectorOptions());
+  }
+
+  public RegressionDetector(RegressionDetectorOptions options) {
+    this.options = options.build();
+  }
+
+  @Override
+  public void evaluate(InMemoryRequestTracerHandlerOperations operations, Duration sinceLastReport) {
+    List<RegressionAlert> alerts = analyse(operations.operations(), sinceLastReport);
+    if (!alerts.isEmpty()) {
+      try {
+        options.alertHandler().accept(alerts);
+      } catch (RuntimeException e) {
+        logger.error("Failed to handle regression alerts", e);
+      }
+    }
+  }
+
+  /**
+   * Compares a window of operations against the baselines, then folds it into them.
+   *
+   * @param sinceLastReport how long the window was, for throughput.
+   * @return the regressions found, if any.
+   */
+  public synchronized List<RegressionAlert> analyse(Operations operations, Duration sinceLastReport) {
+    double seconds = sinceLastReport.toNanos() / 1e9;
+    List<RegressionAlert> alerts = new ArrayList<>();
+    window++;
+
+    operations.groupByService().forEach((service, byService) ->
+      byService.groupByOperationType().forEach((name, byName) ->
+        groupByNode(byName).forEach((node, ops) -> {
+          Key key = new Key(service, name, node);
+          Baseline baseline = baselines.computeIfAbsent(key, k -> new Baseline());
+          baseline.lastSeen = window;
+          baseline.absent = false;
+          compare(key, baseline, ops, seconds, alerts);
+        })));
+
+    // Those not seen had no throughput at all, which is the biggest drop there is.
+    Iterator<Map.Entry<Key, Baseline>> it = baselines.entrySet().iterator();
+    while (it.hasNext()) {
+      Map.Entry<Key, Baseline> entry = it.next();
+      Baseline baseline = entry.getValue();
+      if (baseline.lastSeen == window) {
+        continue;
+      }
+      if (window - baseline.lastSeen >= options.expireAfterWindows()) {
+        it.remove();
+      } else {
+        // The throughput baseline still decays, but only the first window of an absence can raise an alert.
+        compare(entry.getKey(), baseline, NO_OPERATIONS, seconds, baseline.absent ? new ArrayList<>() : alerts);
+        baseline.absent = true;
+      }
+    }
+
+    return alerts;
+  }
+
+  /**
+   * How many (service, operation, node) baselines are currently kept.
+   */
+  synchronized int trackedKeys() {
+    return baselines.size();
+  }
+
+  private void compare(Key key, Baseline baseline, Operations ops, double seconds, List<RegressionAlert> alerts) {
+    int samples = ops.size();
+    boolean warm;
+
+    if (samples >= options.minSamples()) {
+      Durations durations = ops.durationsMicroseconds();
+      double p50 = durations.median();
+      double p99 = durations.percentile(0.99);
+      long errors = ops.exceptionStats().values().stream().mapToLong(ExceptionStats::count).sum();
+      double errorRate = (double) errors / samples;
+
+      warm = baseline.latencyWindows >= options.warmupWindows();
+      if (warm && p50 >= baseline.p50 * options.latencyIncreaseRatio()) {
+        alerts.add(alert(key, RegressionAlert.Metric.P50, baseline.p50, p50, samples));
+      }
+      if (warm && p99 >= baseline.p99 * options.latencyIncreaseRatio()) {
+        alerts.add(alert(key, RegressionAlert.Metric.P99, baseline.p99, p99, samples));
+      }
+      if (warm && errorRateRegressed(baseline.errorRate, errorRate, samples)) {
+        alerts.add(alert(key, RegressionAlert.Metric.ERROR_RATE, baseline.errorRate, errorRate, samples));
+      }
+
+      baseline.p50 = ewma(baseline.p50, p50, baseline.latencyWindows);
+      baseline.p99 = ewma(baseline.p99, p99, baseline.latencyWindows);
+      baseline.errorRate = ewma(baseline.errorRate, errorRate, baseline.latencyWindows);
+      baseline.latencyWindows++;
+    }
+
+    double throughput = seconds > 0 ? ops.estimatedCount() / seconds : 0;
+    warm = baseline.throughputWindows >= options.warmupWindows();
+    // Only once enough operations are expected that a drop is not just noise.
+    if (warm
+      && baseline.throughput * seconds >= options.minSamples()
+      && throughput <= baseline.throughput * options.throughputDropRatio()) {
+      alerts.add(alert(key, RegressionAlert.Metric.THROUGHPUT, baseline.throughput, throughput, samples));
+    }
+    baseline.throughput = ewma(baseline.throughput, throughput, baseline.throughputWindows);
+    baseline.throughputWindows++;
+  }
+
+  private boolean errorRateRegressed(double baselineRate, double errorRate, int samples) {
+    double increase = errorRate - baselineRate;
+    if (increase < options.errorRateIncrease()) {
+      return false;
+    }
+    // The standard error of a proportion.  A baseline of no errors at all would make any error infinitely significant, so
+    // assume at least one in the window.
+    double p = Math.max(baselineRate, 1.0 / samples);
+    double standardError = Math.sqrt(p * (1 - p) / samples);
+    return increase >= options.errorRateZScore() * standardError;
+  }
+
+  private double ewma(double baseline, double observed, int windows) {
+    if (windows == 0) {
+      return observed;
+    }
+    return baseline + options.smoothing() * (observed - baseline);
+  }
+
+  private static RegressionAlert alert(Key key, RegressionAlert.Metric metric, double baseline, double observed, int samples) {
+    return new RegressionAlert(key.service, key.operation, key.node, metric, baseline, observed, samples);
+  }
+
+  private static Map<String, Operations> groupByNode(Operations operations) {
+    return operations.operations().stream()
+      .collect(Collectors.groupingBy(
+        op -> Objects.toString(op.node(), NO_NODE),
+        Collectors.collectingAndThen(
+          Collectors.toList(),
+          Operations::new
+        )
+      ));
+  }
+
+  /**
+   * The default alert handler, which logs the window's alerts as a single line of compact JSON.
+   */
+  static void logAlerts(List<RegressionAlert> alerts) {
+    try {
+      StringBuilder out = new StringBuilder();
+      try (JsonGenerator gen = factory.createGenerator(new AppendableWriter(out))) {
+        gen.writeStartObject();
+        gen.writeArrayFieldStart("regressions");
+        for (RegressionAlert alert : alerts) {
+          alert.writeJson(gen);
+        }
+        gen.writeEndArray();
+        gen.writeEndObject();
+      }
+      logger.warn("{} regressions detected: {}", alerts.size(), out);
+    } catch (Exception e) {
+      logger.error("Failed to write regression alerts JSON", e);
+    }
+  }
+
+  private static final class Key {
+    private final String service;
+    private final String operation;
+    private final String node;
+
+    private Key(String service, String operation, String node) {
+      this.service = service;
+      this.operation = operation;
+      this.node = node;
+    }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) o;
+      return service.equals(other.service) && operation.equals(other.operation) && node.equals(other.node);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(service, operation, node);
+    }
+  }
+
+  private static final class Baseline {
+    private double p50;
+    private double p99;
+    private double errorRate;
+    private double throughput;
+    private int latencyWindows;
+    private int throughputWindows;
+    private long lastSeen;
+    // Whether the key has been missing since its first absent window was compared.
+    private boolean absent;
+  }
+}
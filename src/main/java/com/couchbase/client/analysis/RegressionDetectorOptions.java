@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) 2025 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.couchbase.client.analysis;
+
+import com.couchbase.client.core.annotation.Stability;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Allows customizing options for the {@link RegressionDetector}.
+ */
+@Stability.Volatile
+public class RegressionDetectorOptions {
+  private double smoothing = 0.2;
+  private int warmupWindows = 5;
+  private int minSamples = 100;
+  private double latencyIncreaseRatio = 1.5;
+  private double errorRateIncrease = 0.05;
+  private double errorRateZScore = 3.0;
+  private double throughputDropRatio = 0.5;
+  private int expireAfterWindows = 60;
+  private Consumer<List<RegressionAlert>> alertHandler = RegressionDetector::logAlerts;
+
+  /**
+   * The options should only be instantiated through the {@link #regressionDetectorOptions()} static method.
+   */
+  protected RegressionDetectorOptions() {
+  }
+
+  /**
+   * Returns an options builder.
+   */
+  public static RegressionDetectorOptions regressionDetectorOptions() {
+    return new RegressionDetectorOptions();
+  }
+
+  /**
+   * The weight each new window is given in the exponentially weighted baselines, between 0 (exclusive) and 1.  Higher values
+   * follow recent windows more closely, and absorb a sustained change sooner.  Defaults to 0.2.
+   *
+   * @return the same {@link RegressionDetectorOptions} for chaining purposes.
+   */
+  public RegressionDetectorOptions smoothing(double smoothing) {
+    if (!(smoothing > 0 && smoothing <= 1)) {
+      throw new IllegalArgumentException("Smoothing must be greater than 0 and at most 1, but was " + smoothing);
+    }
+    this.smoothing = smoothing;
+    return this;
+  }
+
+  /**
+   * How many windows a baseline must have been built from before it is compared against.  Defaults to 5.
+   *
+   * @return the same {@link RegressionDetectorOptions} for chaining purposes.
+   */
+  public RegressionDetectorOptions warmupWindows(int warmupWindows) {
+    if (warmupWindows < 1) {
+      throw new IllegalArgumentException("Warmup windows must be at least 1, but was " + warmupWindows);
+    }
+    this.warmupWindows = warmupWindows;
+    return this;
+  }
+
+  /**
+   * The fewest operations a window must have for its latency and error rate to be compared against, or folded into, the
+   * baseline.  Also, throughput is only compared when the baseline expects at least this many.  Defaults to 100, which is the
+   * fewest for which a p99 is more than the maximum.
+   *
+   * @return the same {@link RegressionDetectorOptions} for chaining purposes.
+   */
+  public RegressionDetectorOptions minSamples(int minSamples) {
+    if (minSamples < 1) {
+      throw new IllegalArgumentException("Min samples must be at least 1, but was " + minSamples);
+    }
+    this.minSamples = minSamples;
+    return this;
+  }
+
+  /**
+   * A p50 or p99 at least this multiple of its baseline is a regression.  Defaults to 1.5.
+   *
+   * @return the same {@link RegressionDetectorOptions} for chaining purposes.
+   */
+  public RegressionDetectorOptions latencyIncreaseRatio(double latencyIncreaseRatio) {
+    if (!(latencyIncreaseRatio > 1)) {
+      throw new IllegalArgumentException("Latency increase ratio must be greater than 1, but was " + latencyIncreaseRatio);
+    }
+    this.latencyIncreaseRatio = latencyIncreaseRatio;
+    return this;
+  }
+
+  /**
+   * An error rate at least this much above its baseline (e.g. 0.05 for 5 percentage points) is a regression, provided it is
+   * also significant: see {@link #errorRateZScore(double)}.  Defaults to 0.05.
+   *
+   * @return the same {@link RegressionDetectorOptions} for chaining purposes.
+   */
+  public RegressionDetectorOptions errorRateIncrease(double errorRateIncrease) {
+    if (!(errorRateIncrease > 0 && errorRateIncrease <= 1)) {
+      throw new IllegalArgumentException("Error rate increase must be greater than 0 and at most 1, but was " + errorRateIncrease);
+    }
+    this.errorRateIncrease = errorRateIncrease;
+    return this;
+  }
+
+  /**
+   * How many standard errors above its baseline an error rate must be to be a regression, given the number of operations in
+   * the window.  This stops a handful of errors in a small window raising an alert.  Defaults to 3.
+   *
+   * @return the same {@link RegressionDetectorOptions} for chaining purposes.
+   */
+  public RegressionDetectorOptions errorRateZScore(double errorRateZScore) {
+    if (!(errorRateZScore >= 0)) {
+      throw new IllegalArgumentException("Error rate z-score must not be negative, but was " + errorRateZScore);
+    }
+    this.errorRateZScore = errorRateZScore;
+    return this;
+  }
+
+  /**
+   * A throughput at most this fraction of its baseline is a regression.  Defaults to 0.5.
+   *
+   * @return the same {@link RegressionDetectorOptions} for chaining purposes.
+   */
+  public RegressionDetectorOptions throughputDropRatio(double throughputDropRatio) {
+    if (!(throughputDropRatio > 0 && throughputDropRatio < 1)) {
+      throw new IllegalArgumentException("Throughput drop ratio must be greater than 0 and less than 1, but was " + throughputDropRatio);
+    }
+    this.throughputDropRatio = throughputDropRatio;
+    return this;
+  }
+
+  /**
+   * The baselines of a (service, operation, node) not seen for this many windows are forgotten, so nodes that have left the
+   * cluster do not accumulate.  Defaults to 60.
+   *
+   * @return the same {@link RegressionDetectorOptions} for chaining purposes.
+   */
+  public RegressionDetectorOptions expireAfterWindows(int expireAfterWindows) {
+    if (expireAfterWindows < 1) {
+      throw new IllegalArgumentException("Expire after windows must be at least 1, but was " + expireAfterWindows);
+    }
+    this.expireAfterWindows = expireAfterWindows;
+    return this;
+  }
+
+  /**
+   * Called with each window's alerts, if there are any.  Defaults to logging them as a single line of compact JSON.
+   *
+   * @return the same {@link RegressionDetectorOptions} for chaining purposes.
+   */
+  public RegressionDetectorOptions alertHandler(Consumer<List<RegressionAlert>> alertHandler) {
+    this.alertHandler = alertHandler;
+    return this;
+  }
+
+  @Stability.Internal
+  public Built build() {
+    return new Built();
+  }
+
+  /**
+   * An immutable snapshot of the options at the time {@link #build()} was called.
+   */
+  @Stability.Internal
+  public class Built {
+    private final double smoothing = RegressionDetectorOptions.this.smoothing;
+    private final int warmupWindows = RegressionDetectorOptions.this.warmupWindows;
+    private final int minSamples = RegressionDetectorOptions.this.minSamples;
+    private final double latencyIncreaseRatio = RegressionDetectorOptions.this.latencyIncreaseRatio;
+    private final double errorRateIncrease = RegressionDetectorOptions.this.errorRateIncrease;
+    private final double errorRateZScore = RegressionDetectorOptions.this.errorRateZScore;
+    private final double throughputDropRatio = RegressionDetectorOptions.this.throughputDropRatio;
+    private final int expireAfterWindows = RegressionDetectorOptions.this.expireAfterWindows;
+    private final Consumer<List<RegressionAlert>> alertHandler = RegressionDetectorOptions.this.alertHandler;
+
+    public double smoothing() {
+      return smoothing;
+    }
+
+    public int warmupWindows() {
+      return warmupWindows;
+    }
+
+    public int minSamples() {
+      return minSamples;
+    }
+
+    public double latencyIncreaseRatio() {
+      return latencyIncreaseRatio;
+    }
+
+    public double errorRateIncrease() {
+      return errorRateIncrease;
+    }
+
+    public double errorRateZScore() {
+      return errorRateZScore;
+    }
+
+    public double throughputDropRatio() {
+      return throughputDropRatio;
+    }
+
+    public int expireAfterWindows() {
+      return expireAfterWindows;
+    }
+
+    public Consumer<List<RegressionAlert>> alertHandler() {
+      return alertHandler;
+    }
+  }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2025 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.couchbase.client.binary;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Constants and primitive encodings shared by {@link BinaryCaptureWriter} and {@link BinaryCaptureReader}.
+ * <p>
+ * A capture file is a 5-byte header (the magic bytes "CBOP" then a version byte), followed by any number of blocks.  Each block is
+ * a 4-byte big-endian length followed by that many bytes of payload, so files can be appended to and truncated trailing blocks
+ * detected.
+ * <p>
+ * A block payload holds a batch of operations, sorted by start time, stored column by column:
+ * <ul>
+ *   <li>varint operation count.</li>
+ *   <li>The dictionary: varint entry count, then each entry as a varint byte length and UTF-8 bytes.  All strings in the block
+ *   (names, services, hosts, buckets, statements, document ids, exceptions...) are stored once here and referenced by index.</li>
+ *   <li>varint column count, then each column as a varint byte length and its varint-encoded values, in the order of the
+ *   {@code COL_} constants below.  Readers ignore columns they do not know about.</li>
+ * </ul>
+ * Nullable dictionary references and numbers are stored as value+1, with 0 meaning null.  Start times are epoch microseconds,
+ * zigzag delta-encoded against the previous operation; child span starts are zigzag offsets from their operation's start.
+ * Network call columns hold one value per network call, across all operations in order.
+ */
+final class BinaryCaptureFormat {
+  static final byte[] MAGIC = new byte[]{'C', 'B', 'O', 'P'};
+  static final byte VERSION = 1;
+  static final int HEADER_LENGTH = MAGIC.length + 1;
+
+  static final int COL_START = 0;
+  static final int COL_DURATION = 1;
+  static final int COL_NAME = 2;
+  static final int COL_SERVICE = 3;
+  static final int COL_BUCKET = 4;
+  static final int COL_SCOPE = 5;
+  static final int COL_COLLECTION = 6;
+  static final int COL_STATEMENT = 7;
+  static final int COL_DOCUMENT_ID = 8;
+  static final int COL_EXCEPTION = 9;
+  static final int COL_RETRIES = 10;
+  static final int COL_ENCODING_DURATION = 11;
+  static final int COL_ENCODING_START = 12;
+  static final int COL_CALL_COUNT = 13;
+  static final int COL_CALL_START = 14;
+  static final int COL_CALL_DURATION = 15;
+  static final int COL_CALL_HOST = 16;
+  static final int COL_CALL_PORT = 17;
+  static final int COL_CALL_DURABILITY = 18;
+  static final int COL_CALL_SERVER_DURATION = 19;
+  static final int COLUMN_COUNT = 20;
+
+  private BinaryCaptureFormat() {
+  }
+
+  static long zigzag(long value) {
+    return (value << 1) ^ (value >> 63);
+  }
+
+  static long unzigzag(long value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  /**
+   * Reads an unsigned LEB128 varint at the buffer's current position, advancing it.
+   */
+  static long readVarLong(ByteBuffer buffer) {
+    long out = 0;
+    int shift = 0;
+    while (true) {
+      byte b = buffer.get();
+      out |= (long) (b & 0x7F) << shift;
+      if (b >= 0) {
+        return out;
+      }
+      shift += 7;
+    }
+  }
+
+  static String readString(ByteBuffer buffer, int length) {
+    byte[] bytes = new byte[length];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * A growable byte array that varints can be appended to.
+   */
+  static final class VarIntOutput {
+    private byte[] bytes = new byte[64];
+    private int length = 0;
+
+    void writeVarLong(long value) {
+      ensureCapacity(10);
+      while ((value & ~0x7FL) != 0) {
+        bytes[length++] = (byte) ((value & 0x7F) | 0x80);
+        value >>>= 7;
+      }
+      bytes[length++] = (byte) value;
+    }
+
+    void writeZigZag(long value) {
+      writeVarLong(zigzag(value));
+    }
+
+    void writeBytes(byte[] value) {
+      ensureCapacity(value.length);
+      System.arraycopy(value, 0, bytes, length, value.length);
+      length += value.length;
+    }
+
+    void writeTo(VarIntOutput other) {
+      other.ensureCapacity(length);
+      System.arraycopy(bytes, 0, other.bytes, other.length, length);
+      other.length += length;
+    }
+
+    int length() {
+      return length;
+    }
+
+    byte[] array() {
+      return bytes;
+    }
+
+    private void ensureCapacity(int extra) {
+      if (length + extra > bytes.length) {
+        bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+      }
+    }
+  }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2025 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.couchbase.client.binary;
+
+import com.couchbase.client.core.annotation.Stability;
+import com.couchbase.client.operations.Operation;
+import com.couchbase.client.operations.Operations;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static com.couchbase.client.binary.BinaryCaptureFormat.HEADER_LENGTH;
+import static com.couchbase.client.binary.BinaryCaptureFormat.MAGIC;
+import static com.couchbase.client.binary.BinaryCaptureFormat.VERSION;
+
+/**
+ * Reads files written by {@link BinaryCaptureWriter}.
+ * <p>
+ * Each block is memory-mapped as it is reached, and exposed as a {@link CapturedBlock} whose columns are only decoded when first
+ * accessed.  This allows large captures to be scanned without materializing {@link Operation} objects, with
+ * {@link CapturedBlock#toOperations()} available when the full object model is wanted.
+ * <p>
+ * A trailing block that was only partially written (e.g. because the writing process was killed) is ignored.
+ */
+@Stability.Volatile
+public class BinaryCaptureReader implements Closeable, Iterable<CapturedBlock> {
+  private final FileChannel channel;
+  private final long size;
+
+  public BinaryCaptureReader(Path path) throws IOException {
+    this.channel = FileChannel.open(path, StandardOpenOption.READ);
+    this.size = channel.size();
+
+    ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+    readFully(header, 0);
+    byte[] magic = new byte[MAGIC.length];
+    header.get(magic);
+    if (!Arrays.equals(magic, MAGIC)) {
+      channel.close();
+      throw new IOException(path + " is not a binary capture file");
+    }
+    byte version = header.get();
+    if (version != VERSION) {
+      channel.close();
+      throw new IOException(path + " has unsupported binary capture version " + version);
+    }
+  }
+
+  /**
+   * Returns whether the file starts with the binary capture header.
+   */
+  public static boolean isBinaryCapture(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      ByteBuffer magic = ByteBuffer.allocate(MAGIC.length);
+      while (magic.hasRemaining()) {
+        if (channel.read(magic) == -1) {
+          return false;
+        }
+      }
+      return Arrays.equals(magic.array(), MAGIC);
+    }
+  }
+
+  /**
+   * Iterates the blocks in the file.  Each is mapped lazily as it is reached.
+   */
+  @Override
+  public Iterator<CapturedBlock> iterator() {
+    return new Iterator<CapturedBlock>() {
+      private long position = HEADER_LENGTH;
+      private int nextLength = -1;
+
+      @Override
+      public boolean hasNext() {
+        if (nextLength >= 0) {
+          return true;
+        }
+        if (position + 4 > size) {
+          return false;
+        }
+        try {
+          ByteBuffer length = ByteBuffer.allocate(4);
+          readFully(length, position);
+          int candidate = length.getInt();
+          if (candidate < 0 || position + 4 + candidate > size) {
+            // Partially written trailing block
+            return false;
+          }
+          nextLength = candidate;
+          return true;
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }
+
+      @Override
+      public CapturedBlock next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        try {
+          MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, position + 4, nextLength);
+          position += 4 + nextLength;
+          nextLength = -1;
+          return new CapturedBlock(mapped);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }
+    };
+  }
+
+  /**
+   * Reads every operation in the file into memory.
+   * <p>
+   * Prefer iterating the blocks for large files.
+   */
+  public Operations readAll() {
+    List<Operation> out = new ArrayList<>();
+    for (CapturedBlock block : this) {
+      out.addAll(block.toOperations().operations());
+    }
+    return new Operations(out);
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  private void readFully(ByteBuffer buffer, long position) throws IOException {
+    while (buffer.hasRemaining()) {
+      int read = channel.read(buffer, position + buffer.position());
+      if (read == -1) {
+        throw new IOException("Unexpected end of binary capture file");
+      }
+    }
+    buffer.flip();
+  }
+}
@@ -0,0 +1,239 @@
+/*
+ * Copyright (c) 2025 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.couchbase.client.binary;
+
+import com.couchbase.client.InMemoryRequestTracerHandler;
+import com.couchbase.client.InMemoryRequestTracerHandlerOperations;
+import com.couchbase.client.core.annotation.Stability;
+import com.couchbase.client.operations.NetworkCall;
+import com.couchbase.client.operations.Operation;
+import com.couchbase.client.operations.Operations;
+import com.couchbase.client.operations.RequestEncoding;
+import com.couchbase.client.spans.InMemoryRequestSpan;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.couchbase.client.binary.BinaryCaptureFormat.COLUMN_COUNT;
+import static com.couchbase.client.binary.BinaryCaptureFormat.COL_BUCKET;
+import static com.couchbase.client.binary.BinaryCaptureFormat.COL_CALL_COUNT;
+import static com.couchbase.client.binary.BinaryCaptureFormat.COL_CALL_DURABILITY;
+import static com.couchbase.client.binary.BinaryCaptureFormat.COL_CALL_DURATION;
+import static com.couchbase.client.binary.BinaryCaptureFormat.COL_CALL_HOST;
+import static com.couchbase.client.binary.BinaryCaptureFormat.COL_CALL_PORT;
+import static com.couchbase.client.binary.BinaryCaptureFormat.COL_CALL_SERVER_DURATION;
+import static com.couchbase.client.binary.BinaryCaptureFormat.COL_CALL_START;
+import static com.couchbase.client.binary.BinaryCaptureFormat.COL_COLLECTION;
+import static com.couchbase.client.binary.BinaryCaptureFormat.COL_DOCUMENT_ID;
+import static com.couchbase.client.binary.BinaryCaptureFormat.COL_DURATION;
+import static com.couchbase.client.binary.BinaryCaptureFormat.COL_ENCODING_DURATION;
+import static com.couchbase.client.binary.BinaryCaptureFormat.COL_ENCODING_START;
+import static com.couchbase.client.binary.BinaryCaptureFormat.COL_EXCEPTION;
+import static com.couchbase.client.binary.BinaryCaptureFormat.COL_NAME;
+import static com.couchbase.client.binary.BinaryCaptureFormat.COL_RETRIES;
+import static com.couchbase.client.binary.BinaryCaptureFormat.COL_SCOPE;
+import static com.couchbase.client.binary.BinaryCaptureFormat.COL_SERVICE;
+import static com.couchbase.client.binary.BinaryCaptureFormat.COL_START;
+import static com.couchbase.client.binary.BinaryCaptureFormat.COL_STATEMENT;
+import static com.couchbase.client.binary.BinaryCaptureFormat.HEADER_LENGTH;
+import static com.couchbase.client.binary.BinaryCaptureFormat.MAGIC;
+import static com.couchbase.client.binary.BinaryCaptureFormat.VERSION;
+import static com.couchbase.client.util.DurationUtil.toEpochMicros;
+import static com.couchbase.client.util.DurationUtil.toMicros;
+
+/**
+ * Appends operations to a file in a compact, columnar binary format, which can be read back with {@link BinaryCaptureReader}.
+ * <p>
+ * Files are typically several times smaller than the equivalent JSON output, and much faster to read back.  See
+ * {@link BinaryCaptureFormat} for the layout.
+ * <p>
+ * Can be used directly as a handler, in which case each interval's operations are appended as one block.
+ */
+@Stability.Volatile
+public class BinaryCaptureWriter implements InMemoryRequestTracerHandler, Closeable {
+  private static final Logger logger = LoggerFactory.getLogger(BinaryCaptureWriter.class);
+
+  private final Path path;
+  private final FileChannel channel;
+
+  /**
+   * Opens the file for appending, creating it if it does not exist.
+   */
+  public BinaryCaptureWriter(Path path) throws IOException {
+    this.path = path;
+    this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    if (channel.size() == 0) {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+      header.put(MAGIC).put(VERSION).flip();
+      writeFully(header);
+    }
+  }
+
+  /**
+   * Writes the operations as a new file, replacing it if it exists.
+   */
+  public static void write(Operations operations, Path path) throws IOException {
+    Files.deleteIfExists(path);
+    try (BinaryCaptureWriter writer = new BinaryCaptureWriter(path)) {
+      writer.append(operations);
+    }
+  }
+
+  @Override
+  public void evaluate(InMemoryRequestTracerHandlerOperations operations, Duration sinceLastReport) {
+    try {
+      append(operations.operations());
+    } catch (Exception e) {
+      logger.error("Failed to append operations to {}", path, e);
+    }
+  }
+
+  /**
+   * Appends the operations to the file as a single block.
+   */
+  public synchronized void append(Operations operations) throws IOException {
+    if (operations.size() == 0) {
+      return;
+    }
+    BinaryCaptureFormat.VarIntOutput payload = encodeBlock(operations);
+    ByteBuffer length = ByteBuffer.allocate(4).putInt(0, payload.length());
+    ByteBuffer body = ByteBuffer.wrap(payload.array(), 0, payload.length());
+    // A single gathering write, so a block is less likely to be torn by a crash.
+    ByteBuffer[] buffers = new ByteBuffer[]{length, body};
+    while (body.hasRemaining()) {
+      channel.write(buffers);
+    }
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    channel.close();
+  }
+
+  private void writeFully(ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+
+  static BinaryCaptureFormat.VarIntOutput encodeBlock(Operations operations) {
+    List<Operation> ops = new ArrayList<>(operations.operations());
+    ops.sort(Comparator.comparing(Operation::start));
+
+    Dictionary dictionary = new Dictionary();
+    BinaryCaptureFormat.VarIntOutput[] columns = new BinaryCaptureFormat.VarIntOutput[COLUMN_COUNT];
+    for (int i = 0; i < COLUMN_COUNT; i++) {
+      columns[i] = new BinaryCaptureFormat.VarIntOutput();
+    }
+
+    long previousStart = 0;
+    for (Operation op : ops) {
+      long start = toEpochMicros(op.start());
+      columns[COL_START].writeZigZag(start - previousStart);
+      previousStart = start;
+      columns[COL_DURATION].writeVarLong(Math.max(0, toMicros(op.duration())));
+      columns[COL_NAME].writeVarLong(dictionary.index(op.name()));
+      columns[COL_SERVICE].writeVarLong(dictionary.nullableIndex(op.service()));
+      columns[COL_BUCKET].writeVarLong(dictionary.nullableIndex(op.bucket()));
+      columns[COL_SCOPE].writeVarLong(dictionary.nullableIndex(op.scope()));
+      columns[COL_COLLECTION].writeVarLong(dictionary.nullableIndex(op.collection()));
+      columns[COL_STATEMENT].writeVarLong(dictionary.nullableIndex(op.statement()));
+      columns[COL_DOCUMENT_ID].writeVarLong(dictionary.nullableIndex(op.documentId()));
+      Throwable exception = op.exception();
+      columns[COL_EXCEPTION].writeVarLong(dictionary.nullableIndex(exception == null ? null : exception.toString()));
+      columns[COL_RETRIES].writeVarLong(nullableNumber(op.retries()));
+
+      RequestEncoding encoding = op.requestEncoding();
+      if (encoding == null) {
+        columns[COL_ENCODING_DURATION].writeVarLong(0);
+      } else {
+        columns[COL_ENCODING_DURATION].writeVarLong(Math.max(0, toMicros(encoding.duration())) + 1);
+        columns[COL_ENCODING_START].writeZigZag(toEpochMicros(encoding.start()) - start);
+      }
+
+      List<InMemoryRequestSpan> calls = op.networkCalls().spans();
+      columns[COL_CALL_COUNT].writeVarLong(calls.size());
+      for (InMemoryRequestSpan span : calls) {
+        NetworkCall call = new NetworkCall(span);
+        columns[COL_CALL_START].writeZigZag(toEpochMicros(call.start()) - start);
+        columns[COL_CALL_DURATION].writeVarLong(Math.max(0, toMicros(call.duration())));
+        columns[COL_CALL_HOST].writeVarLong(dictionary.nullableIndex(call.remoteHost()));
+        columns[COL_CALL_PORT].writeVarLong(nullableNumber(call.remotePort()));
+        columns[COL_CALL_DURABILITY].writeVarLong(dictionary.nullableIndex(call.durability()));
+        Duration serverDuration = call.serverDuration();
+        columns[COL_CALL_SERVER_DURATION].writeVarLong(serverDuration == null ? 0 : toMicros(serverDuration) + 1);
+      }
+    }
+
+    BinaryCaptureFormat.VarIntOutput out = new BinaryCaptureFormat.VarIntOutput();
+    out.writeVarLong(ops.size());
+    dictionary.writeTo(out);
+    out.writeVarLong(COLUMN_COUNT);
+    for (BinaryCaptureFormat.VarIntOutput column : columns) {
+      out.writeVarLong(column.length());
+      column.writeTo(out);
+    }
+    return out;
+  }
+
+  private static long nullableNumber(@Nullable Long value) {
+    return value == null ? 0 : value + 1;
+  }
+
+  private static class Dictionary {
+    private final Map<String, Integer> indexes = new HashMap<>();
+    private final List<String> entries = new ArrayList<>();
+
+    int index(String value) {
+      Integer existing = indexes.get(value);
+      if (existing != null) {
+        return existing;
+      }
+      int index = entries.size();
+      entries.add(value);
+      indexes.put(value, index);
+      return index;
+    }
+
+    int nullableIndex(@Nullable String value) {
+      return value == null ? 0 : index(value) + 1;
+    }
+
+    void writeTo(BinaryCaptureFormat.VarIntOutput out) {
+      out.writeVarLong(entries.size());
+      for (String entry : entries) {
+        byte[] bytes = entry.getBytes(StandardCharsets.UTF_8);
+        out.writeVarLong(bytes.length);
+        out.writeBytes(bytes);
+      }
+    }
+  }
+}
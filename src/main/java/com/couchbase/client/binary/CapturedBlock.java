@@ -0,0 +1,358 @@
+/*
+ * Copyright (c) 2025 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.couchbase.client.binary;
+
+import com.couchbase.client.core.annotation.Stability;
+import com.couchbase.client.operations.Operation;
+import com.couchbase.client.operations.Operations;
+import com.couchbase.client.spans.InMemoryRequestSpan;
+import com.couchbase.client.spans.SpansForOperation;
+import com.couchbase.client.util.RecordedSpans;
+import org.jspecify.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.couchbase.client.binary.BinaryCaptureFormat.COLUMN_COUNT;
+import static com.couchbase.client.binary.BinaryCaptureFormat.COL_BUCKET;
+import static com.couchbase.client.binary.BinaryCaptureFormat.COL_CALL_COUNT;
+import static com.couchbase.client.binary.BinaryCaptureFormat.COL_CALL_DURABILITY;
+import static com.couchbase.client.binary.BinaryCaptureFormat.COL_CALL_DURATION;
+import static com.couchbase.client.binary.BinaryCaptureFormat.COL_CALL_HOST;
+import static com.couchbase.client.binary.BinaryCaptureFormat.COL_CALL_PORT;
+import static com.couchbase.client.binary.BinaryCaptureFormat.COL_CALL_SERVER_DURATION;
+import static com.couchbase.client.binary.BinaryCaptureFormat.COL_CALL_START;
+import static com.couchbase.client.binary.BinaryCaptureFormat.COL_COLLECTION;
+import static com.couchbase.client.binary.BinaryCaptureFormat.COL_DOCUMENT_ID;
+import static com.couchbase.client.binary.BinaryCaptureFormat.COL_DURATION;
+import static com.couchbase.client.binary.BinaryCaptureFormat.COL_ENCODING_DURATION;
+import static com.couchbase.client.binary.BinaryCaptureFormat.COL_ENCODING_START;
+import static com.couchbase.client.binary.BinaryCaptureFormat.COL_EXCEPTION;
+import static com.couchbase.client.binary.BinaryCaptureFormat.COL_NAME;
+import static com.couchbase.client.binary.BinaryCaptureFormat.COL_RETRIES;
+import static com.couchbase.client.binary.BinaryCaptureFormat.COL_SCOPE;
+import static com.couchbase.client.binary.BinaryCaptureFormat.COL_SERVICE;
+import static com.couchbase.client.binary.BinaryCaptureFormat.COL_START;
+import static com.couchbase.client.binary.BinaryCaptureFormat.COL_STATEMENT;
+import static com.couchbase.client.binary.BinaryCaptureFormat.readString;
+import static com.couchbase.client.binary.BinaryCaptureFormat.readVarLong;
+import static com.couchbase.client.binary.BinaryCaptureFormat.unzigzag;
+import static com.couchbase.client.util.DurationUtil.durationOfMicros;
+import static com.couchbase.client.util.DurationUtil.instantOfEpochMicros;
+
+/**
+ * A block of operations read from a binary capture file by {@link BinaryCaptureReader}.
+ * <p>
+ * Operations are addressed by index, from 0 to {@link #size()}, and network calls by the operation index plus an index from 0 to
+ * {@link #networkCallCount(int)}.  Each column is only decoded, into a primitive array, the first time it is accessed, so a scan that
+ * only needs e.g. names and durations never touches the rest of the block.
+ * <p>
+ * Not thread-safe.
+ */
+@Stability.Volatile
+public class CapturedBlock {
+  private final ByteBuffer buffer;
+  private final int size;
+  private final int[] dictionaryOffsets;
+  private final int[] dictionaryLengths;
+  private final @Nullable String[] dictionary;
+  private final int[] columnOffsets = new int[COLUMN_COUNT];
+  private final int[] columnLengths = new int[COLUMN_COUNT];
+  private final long[][] columns = new long[COLUMN_COUNT][];
+  private int @Nullable [] firstCallIndex;
+  private int @Nullable [] encodingIndex;
+
+  CapturedBlock(ByteBuffer buffer) {
+    this.buffer = buffer;
+    ByteBuffer reader = buffer.duplicate();
+    this.size = (int) readVarLong(reader);
+
+    int dictionarySize = (int) readVarLong(reader);
+    dictionaryOffsets = new int[dictionarySize];
+    dictionaryLengths = new int[dictionarySize];
+    dictionary = new String[dictionarySize];
+    for (int i = 0; i < dictionarySize; i++) {
+      int length = (int) readVarLong(reader);
+      dictionaryOffsets[i] = reader.position();
+      dictionaryLengths[i] = length;
+      reader.position(reader.position() + length);
+    }
+
+    int columnCount = (int) readVarLong(reader);
+    for (int i = 0; i < columnCount; i++) {
+      int length = (int) readVarLong(reader);
+      if (i < COLUMN_COUNT) {
+        columnOffsets[i] = reader.position();
+        columnLengths[i] = length;
+      }
+      reader.position(reader.position() + length);
+    }
+  }
+
+  /**
+   * The number of operations in this block.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * When the operation started, in microseconds since the epoch.
+   */
+  public long startMicros(int op) {
+    return column(COL_START)[op];
+  }
+
+  /**
+   * How long the operation took, in microseconds.
+   */
+  public long durationMicros(int op) {
+    return column(COL_DURATION)[op];
+  }
+
+  public String name(int op) {
+    return string((int) column(COL_NAME)[op]);
+  }
+
+  public @Nullable String service(int op) {
+    return nullableString(COL_SERVICE, op);
+  }
+
+  public @Nullable String bucket(int op) {
+    return nullableString(COL_BUCKET, op);
+  }
+
+  public @Nullable String scope(int op) {
+    return nullableString(COL_SCOPE, op);
+  }
+
+  public @Nullable String collection(int op) {
+    return nullableString(COL_COLLECTION, op);
+  }
+
+  public @Nullable String statement(int op) {
+    return nullableString(COL_STATEMENT, op);
+  }
+
+  public @Nullable String documentId(int op) {
+    return nullableString(COL_DOCUMENT_ID, op);
+  }
+
+  /**
+   * The {@link Throwable#toString()} of the exception the operation failed with, or null if it succeeded.
+   */
+  public @Nullable String exception(int op) {
+    return nullableString(COL_EXCEPTION, op);
+  }
+
+  public boolean succeeded(int op) {
+    return column(COL_EXCEPTION)[op] == 0;
+  }
+
+  /**
+   * How often the operation was retried, or -1 if that is unknown.
+   */
+  public long retries(int op) {
+    return column(COL_RETRIES)[op] - 1;
+  }
+
+  public boolean hasRequestEncoding(int op) {
+    return column(COL_ENCODING_DURATION)[op] != 0;
+  }
+
+  /**
+   * Only valid if {@link #hasRequestEncoding(int)}.
+   */
+  public long requestEncodingStartMicros(int op) {
+    return startMicros(op) + column(COL_ENCODING_START)[encodingIndex()[op]];
+  }
+
+  /**
+   * Only valid if {@link #hasRequestEncoding(int)}.
+   */
+  public long requestEncodingDurationMicros(int op) {
+    return column(COL_ENCODING_DURATION)[op] - 1;
+  }
+
+  public int networkCallCount(int op) {
+    return (int) column(COL_CALL_COUNT)[op];
+  }
+
+  public long networkCallStartMicros(int op, int call) {
+    return startMicros(op) + column(COL_CALL_START)[callIndex(op, call)];
+  }
+
+  public long networkCallDurationMicros(int op, int call) {
+    return column(COL_CALL_DURATION)[callIndex(op, call)];
+  }
+
+  public @Nullable String networkCallHost(int op, int call) {
+    return nullableString(COL_CALL_HOST, callIndex(op, call));
+  }
+
+  /**
+   * The remote port, or -1 if unknown.
+   */
+  public long networkCallPort(int op, int call) {
+    return column(COL_CALL_PORT)[callIndex(op, call)] - 1;
+  }
+
+  public @Nullable String networkCallDurability(int op, int call) {
+    return nullableString(COL_CALL_DURABILITY, callIndex(op, call));
+  }
+
+  /**
+   * The server-reported duration in microseconds, or -1 if not reported.
+   */
+  public long networkCallServerDurationMicros(int op, int call) {
+    return column(COL_CALL_SERVER_DURATION)[callIndex(op, call)] - 1;
+  }
+
+  /**
+   * Recreates the full {@link Operations} object model for this block.
+   */
+  public Operations toOperations() {
+    List<Operation> out = new ArrayList<>(size);
+    for (int op = 0; op < size; op++) {
+      out.add(toOperation(op));
+    }
+    return new Operations(out);
+  }
+
+  public Operation toOperation(int op) {
+    long retries = retries(op);
+    InMemoryRequestSpan span = RecordedSpans.operation(name(op),
+      instantOfEpochMicros(startMicros(op)),
+      durationOfMicros(durationMicros(op)),
+      service(op),
+      statement(op),
+      documentId(op),
+      bucket(op),
+      scope(op),
+      collection(op),
+      exception(op),
+      retries < 0 ? null : retries);
+
+    int callCount = networkCallCount(op);
+    List<InMemoryRequestSpan> children = new ArrayList<>(callCount + 1);
+    if (hasRequestEncoding(op)) {
+      children.add(RecordedSpans.requestEncoding(span,
+        instantOfEpochMicros(requestEncodingStartMicros(op)),
+        durationOfMicros(requestEncodingDurationMicros(op))));
+    }
+    for (int call = 0; call < callCount; call++) {
+      long port = networkCallPort(op, call);
+      long serverDuration = networkCallServerDurationMicros(op, call);
+      children.add(RecordedSpans.networkCall(span,
+        instantOfEpochMicros(networkCallStartMicros(op, call)),
+        durationOfMicros(networkCallDurationMicros(op, call)),
+        networkCallHost(op, call),
+        port < 0 ? null : port,
+        networkCallDurability(op, call),
+        serverDuration < 0 ? null : serverDuration));
+    }
+    return new Operation(new SpansForOperation(span, children));
+  }
+
+  private int callIndex(int op, int call) {
+    return firstCallIndex()[op] + call;
+  }
+
+  private int[] firstCallIndex() {
+    int[] out = firstCallIndex;
+    if (out == null) {
+      long[] counts = column(COL_CALL_COUNT);
+      out = new int[size];
+      int total = 0;
+      for (int i = 0; i < size; i++) {
+        out[i] = total;
+        total += (int) counts[i];
+      }
+      firstCallIndex = out;
+    }
+    return out;
+  }
+
+  private int[] encodingIndex() {
+    int[] out = encodingIndex;
+    if (out == null) {
+      long[] durations = column(COL_ENCODING_DURATION);
+      out = new int[size];
+      int total = 0;
+      for (int i = 0; i < size; i++) {
+        out[i] = total;
+        if (durations[i] != 0) {
+          total++;
+        }
+      }
+      encodingIndex = out;
+    }
+    return out;
+  }
+
+  private @Nullable String nullableString(int column, int index) {
+    long ref = column(column)[index];
+    return ref == 0 ? null : string((int) ref - 1);
+  }
+
+  private String string(int index) {
+    String out = dictionary[index];
+    if (out == null) {
+      ByteBuffer reader = buffer.duplicate();
+      reader.position(dictionaryOffsets[index]);
+      out = readString(reader, dictionaryLengths[index]);
+      dictionary[index] = out;
+    }
+    return out;
+  }
+
+  private long[] column(int column) {
+    long[] out = columns[column];
+    if (out == null) {
+      out = decodeColumn(column);
+      columns[column] = out;
+    }
+    return out;
+  }
+
+  private long[] decodeColumn(int column) {
+    ByteBuffer reader = buffer.duplicate();
+    reader.position(columnOffsets[column]);
+    int end = columnOffsets[column] + columnLengths[column];
+    long[] out = new long[Math.max(16, size)];
+    int count = 0;
+    while (reader.position() < end) {
+      if (count == out.length) {
+        out = Arrays.copyOf(out, out.length * 2);
+      }
+      out[count++] = readVarLong(reader);
+    }
+    if (column == COL_START) {
+      long previous = 0;
+      for (int i = 0; i < count; i++) {
+        previous += unzigzag(out[i]);
+        out[i] = previous;
+      }
+    } else if (column == COL_ENCODING_START || column == COL_CALL_START) {
+      for (int i = 0; i < count; i++) {
+        out[i] = unzigzag(out[i]);
+      }
+    }
+    return out;
+  }
+}
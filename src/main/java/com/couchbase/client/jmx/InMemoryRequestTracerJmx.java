@@ -0,0 +1,304 @@
+/*
+ * Copyright (c) 2025 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.couchbase.client.jmx;
+
+import com.couchbase.client.InMemoryRequestTracer;
+import com.couchbase.client.InMemoryRequestTracerHandler;
+import com.couchbase.client.InMemoryRequestTracerHandlerOperations;
+import com.couchbase.client.core.annotation.Stability;
+import com.couchbase.client.operations.Operation;
+import com.couchbase.client.util.LatencyBuckets;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The {@link InMemoryRequestTracerMXBean} implementation.
+ * <p>
+ * The tracer calls this like a handler, after its own handlers, on its handler thread.  That is the only thread that touches the
+ * per-interval history; JMX reads just return the last published, immutable, statistics.
+ */
+@Stability.Internal
+public class InMemoryRequestTracerJmx implements InMemoryRequestTracerMXBean, InMemoryRequestTracerHandler {
+  private static final Logger logger = LoggerFactory.getLogger(InMemoryRequestTracerJmx.class);
+  private static final AtomicInteger COUNTER = new AtomicInteger();
+  static final int ROLLING_WINDOW_INTERVALS = 6;
+
+  private final InMemoryRequestTracer tracer;
+  private final @Nullable ObjectName objectName;
+  private final Map<Key, ArrayDeque<Sample>> history = new HashMap<>();
+  private volatile List<OperationStats> stats = Collections.emptyList();
+  private volatile String lastReportTime = "";
+
+  private InMemoryRequestTracerJmx(InMemoryRequestTracer tracer, @Nullable ObjectName objectName) {
+    this.tracer = tracer;
+    this.objectName = objectName;
+  }
+
+  /**
+   * Creates the MBean and registers it with the platform MBean server.  If registration fails, it is logged, and the returned
+   * instance will still aggregate statistics but not be visible over JMX.
+   */
+  public static InMemoryRequestTracerJmx register(InMemoryRequestTracer tracer) {
+    String name = "com.couchbase.client:type=InMemoryRequestTracer,name=tracer-" + COUNTER.incrementAndGet();
+    try {
+      ObjectName objectName = new ObjectName(name);
+      InMemoryRequestTracerJmx out = new InMemoryRequestTracerJmx(tracer, objectName);
+      ManagementFactory.getPlatformMBeanServer().registerMBean(out, objectName);
+      return out;
+    } catch (JMException | RuntimeException e) {
+      logger.warn("Failed to register JMX MBean {}: ", name, e);
+      return new InMemoryRequestTracerJmx(tracer, null);
+    }
+  }
+
+  public @Nullable ObjectName objectName() {
+    return objectName;
+  }
+
+  public void unregister() {
+    if (objectName == null) {
+      return;
+    }
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    try {
+      if (server.isRegistered(objectName)) {
+        server.unregisterMBean(objectName);
+      }
+    } catch (JMException e) {
+      logger.warn("Failed to unregister JMX MBean {}: ", objectName, e);
+    }
+  }
+
+  @Override
+  public void evaluate(InMemoryRequestTracerHandlerOperations operations, Duration sinceLastReport) {
+    Map<Key, SampleBuilder> window = new HashMap<>();
+    for (Operation op : operations.operations().operations()) {
+      String service = op.service();
+      Key key = new Key(service == null ? "" : service, op.name());
+      window.computeIfAbsent(key, k -> new SampleBuilder()).add(op);
+    }
+
+    long lengthNanos = Math.max(1, sinceLastReport.toNanos());
+    for (Map.Entry<Key, SampleBuilder> e : window.entrySet()) {
+      history.computeIfAbsent(e.getKey(), k -> new ArrayDeque<>());
+    }
+
+    TreeMap<Key, OperationStats> out = new TreeMap<>();
+    Iterator<Map.Entry<Key, ArrayDeque<Sample>>> it = history.entrySet().iterator();
+    while (it.hasNext()) {
+      Map.Entry<Key, ArrayDeque<Sample>> e = it.next();
+      SampleBuilder builder = window.get(e.getKey());
+      Sample current = builder == null ? new Sample(new double[0], 0, 0, lengthNanos) : builder.build(lengthNanos);
+      ArrayDeque<Sample> samples = e.getValue();
+      samples.addLast(current);
+      while (samples.size() > ROLLING_WINDOW_INTERVALS) {
+        samples.removeFirst();
+      }
+      if (samples.stream().allMatch(s -> s.count == 0)) {
+        it.remove();
+        continue;
+      }
+      out.put(e.getKey(), new OperationStats(e.getKey().service, e.getKey().operation, current.window(), rolling(samples)));
+    }
+
+    stats = Collections.unmodifiableList(new ArrayList<>(out.values()));
+    lastReportTime = Instant.now().toString();
+  }
+
+  private static OperationStats.Window rolling(ArrayDeque<Sample> samples) {
+    int buckets = 0;
+    for (Sample sample : samples) {
+      buckets = Math.max(buckets, sample.histogram.length);
+    }
+    double[] histogram = new double[buckets];
+    double count = 0;
+    double errors = 0;
+    long lengthNanos = 0;
+    for (Sample sample : samples) {
+      for (int b = 0; b < sample.histogram.length; b++) {
+        histogram[b] += sample.histogram[b];
+      }
+      count += sample.count;
+      errors += sample.errors;
+      lengthNanos += sample.lengthNanos;
+    }
+    return new Sample(histogram, count, errors, lengthNanos).window();
+  }
+
+  @Override
+  public List<OperationStats> getOperationStats() {
+    return stats;
+  }
+
+  @Override
+  public String getLastReportTime() {
+    return lastReportTime;
+  }
+
+  @Override
+  public int getRollingWindowIntervals() {
+    return ROLLING_WINDOW_INTERVALS;
+  }
+
+  @Override
+  public long getIntervalMillis() {
+    return tracer.interval().toMillis();
+  }
+
+  @Override
+  public boolean isCaptureEnabled() {
+    return tracer.captureEnabled();
+  }
+
+  @Override
+  public void changeIntervalMillis(long intervalMillis) {
+    tracer.interval(Duration.ofMillis(intervalMillis));
+  }
+
+  @Override
+  public void enableCapture() {
+    tracer.captureEnabled(true);
+  }
+
+  @Override
+  public void disableCapture() {
+    tracer.captureEnabled(false);
+  }
+
+  @Override
+  public void reportNow() {
+    tracer.reportNow();
+  }
+
+  private static final class Key implements Comparable<Key> {
+    private final String service;
+    private final String operation;
+
+    Key(String service, String operation) {
+      this.service = service;
+      this.operation = operation;
+    }
+
+    @Override
+    public int compareTo(Key o) {
+      int c = service.compareTo(o.service);
+      return c != 0 ? c : operation.compareTo(o.operation);
+    }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key key = (Key) o;
+      return service.equals(key.service) && operation.equals(key.operation);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(service, operation);
+    }
+  }
+
+  private static final class SampleBuilder {
+    private double[] histogram = new double[0];
+    private double count;
+    private double errors;
+
+    void add(Operation op) {
+      // Each captured operation stands for 1 / samplingRate the application performed.
+      double weight = 1.0 / op.samplingRate();
+      int bucket = LatencyBuckets.bucket(TimeUnit.NANOSECONDS.toMicros(op.duration().toNanos()));
+      if (bucket >= histogram.length) {
+        histogram = Arrays.copyOf(histogram, bucket + 1);
+      }
+      histogram[bucket] += weight;
+      count += weight;
+      if (op.exception() != null) {
+        errors += weight;
+      }
+    }
+
+    Sample build(long lengthNanos) {
+      return new Sample(histogram, count, errors, lengthNanos);
+    }
+  }
+
+  /**
+   * One interval's statistics.  Durations are kept as a histogram over {@link LatencyBuckets}, rather than individually, so a
+   * sample is a fixed size however many operations it covers, and samples can be merged for the rolling window.
+   * <p>
+   * Operations are weighted by the inverse of the rate they were sampled at, so counts estimate what the application did.
+   */
+  private static final class Sample {
+    // Weighted counts per latency bucket, in microseconds.  Trimmed after the highest bucket used.
+    private final double[] histogram;
+    private final double count;
+    private final double errors;
+    private final long lengthNanos;
+
+    Sample(double[] histogram, double count, double errors, long lengthNanos) {
+      this.histogram = histogram;
+      this.count = count;
+      this.errors = errors;
+      this.lengthNanos = lengthNanos;
+    }
+
+    OperationStats.Window window() {
+      double seconds = lengthNanos / (double) TimeUnit.SECONDS.toNanos(1);
+      return new OperationStats.Window(Math.round(count), Math.round(errors), count / seconds,
+        percentile(0.5), percentile(0.95), percentile(0.99));
+    }
+
+    /**
+     * The midpoint of the bucket the percentile falls in, so within 12.5% of the true value.
+     */
+    private double percentile(double percentile) {
+      if (count == 0) {
+        return 0;
+      }
+      double rank = percentile * count;
+      double seen = 0;
+      for (int b = 0; b < histogram.length; b++) {
+        seen += histogram[b];
+        if (histogram[b] > 0 && seen >= rank) {
+          return LatencyBuckets.midpoint(b);
+        }
+      }
+      return LatencyBuckets.midpoint(histogram.length - 1);
+    }
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2025 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.couchbase.client.jmx;
+
+import com.couchbase.client.core.annotation.Stability;
+
+import java.util.List;
+
+/**
+ * The management interface registered for each {@link com.couchbase.client.InMemoryRequestTracer}, under
+ * {@code com.couchbase.client:type=InMemoryRequestTracer,name=<name>}.
+ * <p>
+ * All attributes are served from aggregates computed once per interval, so reading them never blocks or slows the capture path.
+ */
+@Stability.Volatile
+public interface InMemoryRequestTracerMXBean {
+  /**
+   * Latency, throughput and error statistics per service and operation type, for the last interval and for the rolling window.
+   */
+  List<OperationStats> getOperationStats();
+
+  /**
+   * When the statistics were last computed, as an ISO-8601 timestamp, or empty if they have not been yet.
+   */
+  String getLastReportTime();
+
+  /**
+   * How many intervals make up the rolling window.
+   */
+  int getRollingWindowIntervals();
+
+  /**
+   * How often the tracer's handlers are called, in milliseconds.
+   */
+  long getIntervalMillis();
+
+  /**
+   * Whether the tracer is currently capturing spans.
+   */
+  boolean isCaptureEnabled();
+
+  /**
+   * Changes how often the tracer's handlers are called.  Takes effect immediately.
+   */
+  void changeIntervalMillis(long intervalMillis);
+
+  /**
+   * Resumes capturing spans.
+   */
+  void enableCapture();
+
+  /**
+   * Stops capturing spans.  The SDK is handed no-op spans until capture is re-enabled.
+   */
+  void disableCapture();
+
+  /**
+   * Calls the tracer's handlers now, with the operations captured since the last report, rather than waiting for the interval.
+   */
+  void reportNow();
+}
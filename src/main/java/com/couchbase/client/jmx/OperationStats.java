@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2025 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.couchbase.client.jmx;
+
+import com.couchbase.client.core.annotation.Stability;
+
+/**
+ * Statistics for one service and operation type, as exposed over JMX.
+ * <p>
+ * The "window" values cover the last interval, and the "rolling" values the last
+ * {@link InMemoryRequestTracerMXBean#getRollingWindowIntervals()} intervals.  Latencies are in microseconds.
+ * <p>
+ * With sampling, counts and throughput are estimates: each captured operation counts as {@code 1 / samplingRate} operations.
+ */
+@Stability.Volatile
+public class OperationStats {
+  private final String service;
+  private final String operation;
+  private final Window window;
+  private final Window rolling;
+
+  @Stability.Internal
+  public OperationStats(String service, String operation, Window window, Window rolling) {
+    this.service = service;
+    this.operation = operation;
+    this.window = window;
+    this.rolling = rolling;
+  }
+
+  public String getService() {
+    return service;
+  }
+
+  public String getOperation() {
+    return operation;
+  }
+
+  public long getWindowCount() {
+    return window.count;
+  }
+
+  public double getWindowThroughputPerSecond() {
+    return window.throughputPerSecond;
+  }
+
+  public double getWindowErrorRate() {
+    return window.errorRate();
+  }
+
+  public double getWindowP50Micros() {
+    return window.p50;
+  }
+
+  public double getWindowP95Micros() {
+    return window.p95;
+  }
+
+  public double getWindowP99Micros() {
+    return window.p99;
+  }
+
+  public long getRollingCount() {
+    return rolling.count;
+  }
+
+  public double getRollingThroughputPerSecond() {
+    return rolling.throughputPerSecond;
+  }
+
+  public double getRollingErrorRate() {
+    return rolling.errorRate();
+  }
+
+  public double getRollingP50Micros() {
+    return rolling.p50;
+  }
+
+  public double getRollingP95Micros() {
+    return rolling.p95;
+  }
+
+  public double getRollingP99Micros() {
+    return rolling.p99;
+  }
+
+  @Stability.Internal
+  public static class Window {
+    private final long count;
+    private final long errors;
+    private final double throughputPerSecond;
+    private final double p50;
+    private final double p95;
+    private final double p99;
+
+    public Window(long count, long errors, double throughputPerSecond, double p50, double p95, double p99) {
+      this.count = count;
+      this.errors = errors;
+      this.throughputPerSecond = throughputPerSecond;
+      this.p50 = p50;
+      this.p95 = p95;
+      this.p99 = p99;
+    }
+
+    double errorRate() {
+      return count == 0 ? 0 : (double) errors / count;
+    }
+  }
+}
@@ -0,0 +1,331 @@
+/*
+ * Copyright (c) 2025 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.couchbase.client.metrics;
+
+import com.couchbase.client.core.annotation.Stability;
+import com.couchbase.client.core.cnc.TracingIdentifiers;
+import com.couchbase.client.spans.InMemoryRequestSpan;
+import com.couchbase.client.spans.SpanListener;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Emits a Java Flight Recorder event per completed operation, and optionally per network call, directly from the span lifecycle.
+ * <p>
+ * The events are {@code com.couchbase.inmemory.Operation} and {@code com.couchbase.inmemory.NetworkCall}, and are controlled
+ * by the usual JFR settings: nothing beyond a cheap enablement check is done unless a recording has enabled them, and the
+ * {@code threshold} setting decides which are committed.  E.g. {@code -XX:StartFlightRecording:settings=profile} plus
+ * {@code com.couchbase.inmemory.Operation#threshold=10 ms} in a custom .jfc.
+ * <p>
+ * This library targets Java 8, so the event types are defined at runtime through {@code jdk.jfr.EventFactory}, via reflection,
+ * and emitted through method handles looked up when they are defined.  On JVMs without JFR, {@link #create(boolean)} returns null and the tracer carries on without it.
+ */
+@Stability.Internal
+public class JfrEvents {
+  private static final Logger logger = LoggerFactory.getLogger(JfrEvents.class);
+
+  public static final String OPERATION_EVENT = "com.couchbase.inmemory.Operation";
+  public static final String NETWORK_CALL_EVENT = "com.couchbase.inmemory.NetworkCall";
+
+  // Field indexes, in the order the fields are declared in create().
+  private static final int OP_SERVICE = 0;
+  private static final int OP_OPERATION = 1;
+  private static final int OP_BUCKET = 2;
+  private static final int OP_NODE = 3;
+  private static final int OP_SERVER_DURATION = 4;
+  private static final int OP_EXCEPTION = 5;
+  private static final int OP_RETRIES = 6;
+
+  private static final int NC_SERVICE = 0;
+  private static final int NC_OPERATION = 1;
+  private static final int NC_NODE = 2;
+  private static final int NC_PORT = 3;
+  private static final int NC_SERVER_DURATION = 4;
+
+  // JFR event types are registered once per JVM, however many tracers or reconfigurations there are.  Guarded by JfrEvents.class.
+  private static @Nullable JfrEvents withoutNetworkCalls;
+  private static @Nullable JfrEvents withNetworkCalls;
+  private static boolean unavailable;
+
+  private final EventType operation;
+  private final @Nullable EventType networkCall;
+
+  private JfrEvents(EventType operation, @Nullable EventType networkCall) {
+    this.operation = operation;
+    this.networkCall = networkCall;
+  }
+
+  /**
+   * Registers the event types with JFR, if they have not been already.
+   *
+   * @param networkCalls whether to also emit an event per network call.
+   * @return null if JFR is not available on this JVM.
+   */
+  public static synchronized @Nullable JfrEvents create(boolean networkCalls) {
+    if (unavailable) {
+      return null;
+    }
+    JfrEvents existing = networkCalls ? withNetworkCalls : withoutNetworkCalls;
+    if (existing != null) {
+      return existing;
+    }
+    JfrEvents created = register(networkCalls);
+    if (created == null) {
+      unavailable = true;
+    } else if (networkCalls) {
+      withNetworkCalls = created;
+    } else {
+      withoutNetworkCalls = created;
+    }
+    return created;
+  }
+
+  private static @Nullable JfrEvents register(boolean networkCalls) {
+    try {
+      Reflection r = new Reflection();
+      // Both variants share the one operation event type.
+      EventType operation = withNetworkCalls != null ? withNetworkCalls.operation
+        : withoutNetworkCalls != null ? withoutNetworkCalls.operation
+        : r.eventType(OPERATION_EVENT, "Couchbase Operation", "An SDK operation traced by the in-memory tracer",
+        r.field(String.class, "service", "Service", null),
+        r.field(String.class, "operation", "Operation", null),
+        r.field(String.class, "bucket", "Bucket", null),
+        r.field(String.class, "node", "Node", null),
+        r.field(long.class, "serverDuration", "Server Duration", "MICROSECONDS"),
+        r.field(String.class, "exception", "Exception Class", null),
+        r.field(long.class, "retries", "Retries", null));
+      EventType networkCall = !networkCalls ? null : r.eventType(NETWORK_CALL_EVENT, "Couchbase Network Call", "A network call made as part of an SDK operation",
+        r.field(String.class, "service", "Service", null),
+        r.field(String.class, "operation", "Operation", null),
+        r.field(String.class, "node", "Node", null),
+        r.field(long.class, "port", "Port", null),
+        r.field(long.class, "serverDuration", "Server Duration", "MICROSECONDS"));
+      return new JfrEvents(operation, networkCall);
+    } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+      logger.info("Java Flight Recorder events are not available on this JVM, so will not be emitted: {}", e.toString());
+      return null;
+    }
+  }
+
+  /**
+   * Returns the listener to attach to a newly created span, or null if no event is currently enabled for it.
+   */
+  public @Nullable SpanListener listenerFor(String name, @Nullable InMemoryRequestSpan parent) {
+    if (parent == null) {
+      Object event = operation.begin();
+      return event == null ? null : new OperationListener(event);
+    }
+    if (name.equals(TracingIdentifiers.SPAN_DISPATCH)) {
+      SpanListener parentListener = parent.listener();
+      // The operation's listener may be combined with others, e.g. the capture filter's.
+      OperationListener op = parentListener == null ? null : parentListener.find(OperationListener.class);
+      Object event = networkCall == null ? null : networkCall.begin();
+      if (op == null && event == null) {
+        return null;
+      }
+      return new NetworkCallListener(op, event);
+    }
+    return null;
+  }
+
+  private final class OperationListener implements SpanListener {
+    private final Object event;
+    // Written by the dispatch spans, which end before the operation does.
+    private volatile @Nullable String node;
+    private volatile long serverDurationMicros;
+
+    OperationListener(Object event) {
+      this.event = event;
+    }
+
+    @Override
+    public void onEnd(InMemoryRequestSpan span) {
+      if (span.excluded() || !operation.endAndShouldCommit(event)) {
+        return;
+      }
+      Throwable exception = span.exception();
+      Long retries = span.attributeLong(TracingIdentifiers.ATTR_RETRIES);
+      operation.set(event, OP_SERVICE, span.attributeString(TracingIdentifiers.ATTR_SERVICE));
+      operation.set(event, OP_OPERATION, span.name());
+      operation.set(event, OP_BUCKET, span.attributeString(TracingIdentifiers.ATTR_NAME));
+      operation.set(event, OP_NODE, node);
+      operation.set(event, OP_SERVER_DURATION, serverDurationMicros);
+      operation.set(event, OP_EXCEPTION, exception == null ? null : exception.getClass().getName());
+      operation.set(event, OP_RETRIES, retries == null ? 0L : retries);
+      operation.commit(event);
+    }
+  }
+
+  private final class NetworkCallListener implements SpanListener {
+    private final @Nullable OperationListener parent;
+    private final @Nullable Object event;
+
+    NetworkCallListener(@Nullable OperationListener parent, @Nullable Object event) {
+      this.parent = parent;
+      this.event = event;
+    }
+
+    @Override
+    public void onEnd(InMemoryRequestSpan span) {
+      String node = span.attributeString(TracingIdentifiers.ATTR_REMOTE_HOSTNAME);
+      Long serverDuration = span.attributeLong(TracingIdentifiers.ATTR_SERVER_DURATION);
+      if (parent != null) {
+        parent.node = node;
+        if (serverDuration != null) {
+          parent.serverDurationMicros = serverDuration;
+        }
+      }
+      if (event != null && networkCall != null && networkCall.endAndShouldCommit(event)) {
+        InMemoryRequestSpan op = span.parent();
+        Long port = span.attributeLong(TracingIdentifiers.ATTR_REMOTE_PORT);
+        networkCall.set(event, NC_SERVICE, op == null ? null : op.attributeString(TracingIdentifiers.ATTR_SERVICE));
+        networkCall.set(event, NC_OPERATION, op == null ? null : op.name());
+        networkCall.set(event, NC_NODE, node);
+        networkCall.set(event, NC_PORT, port == null ? 0L : port);
+        networkCall.set(event, NC_SERVER_DURATION, serverDuration == null ? 0L : serverDuration);
+        networkCall.commit(event);
+      }
+    }
+  }
+
+  /**
+   * A handle on one {@code jdk.jfr.EventFactory}.  The methods are looked up reflectively once, as method handles, so emitting
+   * an event makes no reflective calls.
+   */
+  private static final class EventType {
+    private static final MethodType OBJECT_TO_VOID = MethodType.methodType(void.class, Object.class);
+    private static final MethodType OBJECT_TO_BOOLEAN = MethodType.methodType(boolean.class, Object.class);
+
+    // Bound to the factory and its event type, so take no arguments.
+    private final MethodHandle isEnabled;
+    private final MethodHandle newEvent;
+    private final MethodHandle begin;
+    private final MethodHandle end;
+    private final MethodHandle shouldCommit;
+    private final MethodHandle commit;
+    private final MethodHandle set;
+
+    EventType(Object factory, Reflection r) throws ReflectiveOperationException {
+      MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+      Object type = factory.getClass().getMethod("getEventType").invoke(factory);
+      this.isEnabled = lookup.unreflect(type.getClass().getMethod("isEnabled")).bindTo(type)
+        .asType(MethodType.methodType(boolean.class));
+      this.newEvent = lookup.unreflect(factory.getClass().getMethod("newEvent")).bindTo(factory)
+        .asType(MethodType.methodType(Object.class));
+      this.begin = lookup.unreflect(r.event.getMethod("begin")).asType(OBJECT_TO_VOID);
+      this.end = lookup.unreflect(r.event.getMethod("end")).asType(OBJECT_TO_VOID);
+      this.shouldCommit = lookup.unreflect(r.event.getMethod("shouldCommit")).asType(OBJECT_TO_BOOLEAN);
+      this.commit = lookup.unreflect(r.event.getMethod("commit")).asType(OBJECT_TO_VOID);
+      this.set = lookup.unreflect(r.event.getMethod("set", int.class, Object.class))
+        .asType(MethodType.methodType(void.class, Object.class, int.class, Object.class));
+    }
+
+    /**
+     * Returns a begun event, or null if no recording has enabled this type.
+     */
+    @Nullable Object begin() {
+      try {
+        if (!(boolean) isEnabled.invokeExact()) {
+          return null;
+        }
+        Object event = (Object) newEvent.invokeExact();
+        begin.invokeExact(event);
+        return event;
+      } catch (Throwable e) {
+        logger.debug("Failed to begin JFR event: ", e);
+        return null;
+      }
+    }
+
+    boolean endAndShouldCommit(Object event) {
+      try {
+        end.invokeExact(event);
+        return (boolean) shouldCommit.invokeExact(event);
+      } catch (Throwable e) {
+        logger.debug("Failed to end JFR event: ", e);
+        return false;
+      }
+    }
+
+    void set(Object event, int index, @Nullable Object value) {
+      try {
+        set.invokeExact(event, index, value);
+      } catch (Throwable e) {
+        logger.debug("Failed to set JFR event field: ", e);
+      }
+    }
+
+    void commit(Object event) {
+      try {
+        commit.invokeExact(event);
+      } catch (Throwable e) {
+        logger.debug("Failed to commit JFR event: ", e);
+      }
+    }
+  }
+
+  /**
+   * Builds event types through {@code jdk.jfr.EventFactory}, which is only present on JVMs that ship JFR.
+   */
+  private static final class Reflection {
+    private final Class<?> event = Class.forName("jdk.jfr.Event");
+    private final Class<?> eventFactory = Class.forName("jdk.jfr.EventFactory");
+    private final Class<?> annotationElement = Class.forName("jdk.jfr.AnnotationElement");
+    private final Class<?> valueDescriptor = Class.forName("jdk.jfr.ValueDescriptor");
+    private final Constructor<?> newAnnotation = annotationElement.getConstructor(Class.class, Object.class);
+    private final Constructor<?> newValueDescriptor = valueDescriptor.getConstructor(Class.class, String.class, List.class);
+
+    Reflection() throws ReflectiveOperationException {
+    }
+
+    EventType eventType(String name, String label, String description, Object... fields) throws ReflectiveOperationException {
+      List<Object> annotations = new ArrayList<>();
+      annotations.add(annotation("jdk.jfr.Name", name));
+      annotations.add(annotation("jdk.jfr.Label", label));
+      annotations.add(annotation("jdk.jfr.Description", description));
+      annotations.add(annotation("jdk.jfr.Category", new String[]{"Couchbase", "SDK"}));
+      Object factory = eventFactory.getMethod("create", List.class, List.class)
+        .invoke(null, annotations, Arrays.asList(fields));
+      return new EventType(factory, this);
+    }
+
+    Object field(Class<?> type, String name, String label, @Nullable String timespan) throws ReflectiveOperationException {
+      List<Object> annotations = new ArrayList<>();
+      annotations.add(annotation("jdk.jfr.Label", label));
+      if (timespan != null) {
+        annotations.add(annotation("jdk.jfr.Timespan", timespan));
+      }
+      return newValueDescriptor.newInstance(type, name, Collections.unmodifiableList(annotations));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object annotation(String className, Object value) throws ReflectiveOperationException {
+      Class<? extends Annotation> annotation = (Class<? extends Annotation>) Class.forName(className);
+      return newAnnotation.newInstance(annotation, value);
+    }
+  }
+}
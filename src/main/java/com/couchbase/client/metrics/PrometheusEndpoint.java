@@ -0,0 +1,316 @@
+/*
+ * Copyright (c) 2025 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.couchbase.client.metrics;
+
+import com.couchbase.client.InMemoryRequestTracerHandler;
+import com.couchbase.client.InMemoryRequestTracerHandlerOperations;
+import com.couchbase.client.core.annotation.Stability;
+import com.couchbase.client.operations.NetworkCall;
+import com.couchbase.client.operations.Operation;
+import com.couchbase.client.spans.InMemoryRequestSpan;
+import com.couchbase.client.spans.RecordedException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A handler that exposes latency histograms and counters over HTTP, in the OpenMetrics text format, for scraping by Prometheus or
+ * compatible systems.
+ * <p>
+ * Each interval, the handler folds that interval's operations into cumulative per-(service, operation, success, node) histograms,
+ * and renders the scrape response once.  Scrapes only ever return that cached response, so they never touch the capture path or
+ * the tracer's lock, however often they happen.
+ * <p>
+ * The node is the remote host of the operation's last network call, or empty if there was none.
+ * <p>
+ * Each operation is weighted by the inverse of the rate it was sampled at, so with sampling enabled the counts estimate what the
+ * application did, and may be fractional.
+ * <p>
+ * Uses the JDK's built-in HTTP server, so adds no dependencies.  The response is served on {@code /metrics}.
+ */
+@Stability.Volatile
+public class PrometheusEndpoint implements InMemoryRequestTracerHandler, Closeable {
+  private static final Logger logger = LoggerFactory.getLogger(PrometheusEndpoint.class);
+  private static final String CONTENT_TYPE = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+  private static final String DURATION_METRIC = "couchbase_inmemory_operation_duration_seconds";
+  private static final String SERVER_DURATION_METRIC = "couchbase_inmemory_server_duration_seconds";
+  private static final String RETRIES_METRIC = "couchbase_inmemory_operation_retries";
+  private static final String EXCEPTIONS_METRIC = "couchbase_inmemory_operation_exceptions";
+
+  // Upper bounds in seconds, covering sub-100us KV operations through to multi-second queries.
+  private static final double[] BUCKETS = new double[]{
+    0.0001, 0.00025, 0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10
+  };
+  private static final String[] BUCKET_LABELS = new String[BUCKETS.length + 1];
+
+  static {
+    for (int i = 0; i < BUCKETS.length; i++) {
+      BUCKET_LABELS[i] = BigDecimal.valueOf(BUCKETS[i]).stripTrailingZeros().toPlainString();
+    }
+    BUCKET_LABELS[BUCKETS.length] = "+Inf";
+  }
+
+  private final HttpServer server;
+  private final ExecutorService executor;
+
+  // Only accessed under the lock in evaluate.  TreeMaps keep the output in a stable order.
+  private final Map<Labels, Histogram> durations = new TreeMap<>();
+  private final Map<Labels, Histogram> serverDurations = new TreeMap<>();
+  private final Map<Labels, double[]> retries = new TreeMap<>();
+  private final Map<Labels, Map<String, double[]>> exceptions = new TreeMap<>();
+
+  private volatile byte[] response = "# EOF\n".getBytes(StandardCharsets.UTF_8);
+
+  /**
+   * Starts serving on the given address.  Use port 0 to pick any free port, which can then be found with {@link #port()}.
+   */
+  public PrometheusEndpoint(InetSocketAddress address) throws IOException {
+    this.executor = Executors.newSingleThreadExecutor(r -> {
+      Thread thread = new Thread(r, "inmemory-tracer-prometheus");
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.server = HttpServer.create(address, 0);
+    this.server.createContext("/metrics", this::handleScrape);
+    this.server.setExecutor(executor);
+    this.server.start();
+  }
+
+  /**
+   * The port the endpoint is listening on.
+   */
+  public int port() {
+    return server.getAddress().getPort();
+  }
+
+  @Override
+  public synchronized void evaluate(InMemoryRequestTracerHandlerOperations operations, Duration sinceLastReport) {
+    for (Operation op : operations.operations().operations()) {
+      Throwable exception = op.exception();
+      double weight = 1.0 / op.samplingRate();
+      Labels labels = new Labels(Objects.toString(op.service(), ""), op.name(), exception == null, Objects.toString(op.node(), ""));
+
+      durations.computeIfAbsent(labels, k -> new Histogram()).record(op.duration().toNanos() / 1e9, weight);
+
+      for (InMemoryRequestSpan span : op.networkCalls().spans()) {
+        Duration serverDuration = new NetworkCall(span).serverDuration();
+        if (serverDuration != null) {
+          serverDurations.computeIfAbsent(labels, k -> new Histogram()).record(serverDuration.toNanos() / 1e9, weight);
+        }
+      }
+
+      Long opRetries = op.retries();
+      if (opRetries != null) {
+        retries.computeIfAbsent(labels, k -> new double[1])[0] += opRetries * weight;
+      }
+
+      if (exception != null) {
+        exceptions.computeIfAbsent(labels, k -> new TreeMap<>())
+          .computeIfAbsent(RecordedException.simpleName(exception), k -> new double[1])[0] += weight;
+      }
+    }
+
+    response = render().getBytes(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * The current scrape response.  Mainly intended for testing.
+   */
+  public String scrape() {
+    return new String(response, StandardCharsets.UTF_8);
+  }
+
+  private String render() {
+    StringBuilder sb = new StringBuilder(8192);
+
+    renderHistograms(sb, DURATION_METRIC, "How long operations took, from the SDK's point of view.", durations);
+    renderHistograms(sb, SERVER_DURATION_METRIC, "How long the server reported network calls took.  KV only.", serverDurations);
+
+    sb.append("# TYPE ").append(RETRIES_METRIC).append(" counter\n");
+    sb.append("# HELP ").append(RETRIES_METRIC).append(" How many times operations were retried.\n");
+    retries.forEach((labels, value) -> {
+      sb.append(RETRIES_METRIC).append("_total{");
+      labels.appendTo(sb);
+      sb.append("} ");
+      appendNumber(sb, value[0]);
+      sb.append('\n');
+    });
+
+    sb.append("# TYPE ").append(EXCEPTIONS_METRIC).append(" counter\n");
+    sb.append("# HELP ").append(EXCEPTIONS_METRIC).append(" How many operations failed, by exception.\n");
+    exceptions.forEach((labels, byException) -> byException.forEach((exception, value) -> {
+      sb.append(EXCEPTIONS_METRIC).append("_total{");
+      labels.appendTo(sb);
+      sb.append(",exception=\"");
+      appendEscaped(sb, exception);
+      sb.append("\"} ");
+      appendNumber(sb, value[0]);
+      sb.append('\n');
+    }));
+
+    sb.append("# EOF\n");
+    return sb.toString();
+  }
+
+  private static void renderHistograms(StringBuilder sb, String metric, String help, Map<Labels, Histogram> histograms) {
+    sb.append("# TYPE ").append(metric).append(" histogram\n");
+    sb.append("# UNIT ").append(metric).append(" seconds\n");
+    sb.append("# HELP ").append(metric).append(' ').append(help).append('\n');
+    histograms.forEach((labels, histogram) -> {
+      double cumulative = 0;
+      for (int i = 0; i <= BUCKETS.length; i++) {
+        cumulative += histogram.counts[i];
+        sb.append(metric).append("_bucket{");
+        labels.appendTo(sb);
+        sb.append(",le=\"").append(BUCKET_LABELS[i]).append("\"} ");
+        appendNumber(sb, cumulative);
+        sb.append('\n');
+      }
+      sb.append(metric).append("_count{");
+      labels.appendTo(sb);
+      sb.append("} ");
+      appendNumber(sb, cumulative);
+      sb.append('\n');
+      sb.append(metric).append("_sum{");
+      labels.appendTo(sb);
+      sb.append("} ").append(histogram.sum).append('\n');
+    });
+  }
+
+  private void handleScrape(HttpExchange exchange) throws IOException {
+    try {
+      byte[] body = response;
+      exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+      exchange.sendResponseHeaders(200, body.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(body);
+      }
+    } catch (IOException e) {
+      logger.debug("Failed to serve scrape", e);
+    } finally {
+      exchange.close();
+    }
+  }
+
+  /**
+   * Stops the HTTP server.
+   */
+  @Override
+  public void close() {
+    server.stop(0);
+    executor.shutdownNow();
+  }
+
+  // Whole numbers, which all counts are without sampling, are written without a trailing ".0".
+  private static void appendNumber(StringBuilder sb, double value) {
+    if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+      sb.append((long) value);
+    } else {
+      sb.append(value);
+    }
+  }
+
+  private static void appendEscaped(StringBuilder sb, String value) {
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '\\' || c == '"') {
+        sb.append('\\').append(c);
+      } else if (c == '\n') {
+        sb.append("\\n");
+      } else {
+        sb.append(c);
+      }
+    }
+  }
+
+  private static class Histogram {
+    private final double[] counts = new double[BUCKETS.length + 1];
+    private double sum = 0;
+
+    void record(double seconds, double weight) {
+      int i = 0;
+      while (i < BUCKETS.length && seconds > BUCKETS[i]) {
+        i++;
+      }
+      counts[i] += weight;
+      sum += seconds * weight;
+    }
+  }
+
+  private static class Labels implements Comparable<Labels> {
+    private final String service;
+    private final String operation;
+    private final boolean success;
+    private final String node;
+
+    Labels(String service, String operation, boolean success, String node) {
+      this.service = service;
+      this.operation = operation;
+      this.success = success;
+      this.node = node;
+    }
+
+    void appendTo(StringBuilder sb) {
+      sb.append("service=\"");
+      appendEscaped(sb, service);
+      sb.append("\",operation=\"");
+      appendEscaped(sb, operation);
+      sb.append("\",success=\"").append(success).append("\",node=\"");
+      appendEscaped(sb, node);
+      sb.append('"');
+    }
+
+    @Override
+    public int compareTo(Labels o) {
+      int c = service.compareTo(o.service);
+      if (c == 0) {
+        c = operation.compareTo(o.operation);
+      }
+      if (c == 0) {
+        c = Boolean.compare(success, o.success);
+      }
+      if (c == 0) {
+        c = node.compareTo(o.node);
+      }
+      return c;
+    }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+      return o instanceof Labels && compareTo((Labels) o) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(service, operation, success, node);
+    }
+  }
+}
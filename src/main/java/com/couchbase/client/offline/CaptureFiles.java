@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2025 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.couchbase.client.offline;
+
+import com.couchbase.client.binary.BinaryCaptureReader;
+import com.couchbase.client.binary.CapturedBlock;
+import com.couchbase.client.core.annotation.Stability;
+import com.couchbase.client.core.deps.com.fasterxml.jackson.core.JsonParser;
+import com.couchbase.client.core.deps.com.fasterxml.jackson.core.JsonToken;
+import com.couchbase.client.core.deps.com.fasterxml.jackson.databind.JsonNode;
+import com.couchbase.client.core.deps.com.fasterxml.jackson.databind.ObjectMapper;
+import com.couchbase.client.core.deps.com.fasterxml.jackson.databind.json.JsonMapper;
+import com.couchbase.client.operations.Operation;
+import com.couchbase.client.operations.Operations;
+import com.couchbase.client.util.OperationsFromJson;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads operations back from files written by this library, so they can be analysed offline.
+ * <p>
+ * The format is detected from the file contents: the binary format written by
+ * {@link com.couchbase.client.binary.BinaryCaptureWriter}, or JSON arrays and NDJSON as written by
+ * {@link com.couchbase.client.output.OperationsJsonWriter}, optionally gzipped as done by
+ * {@link com.couchbase.client.output.RollingFileSink}.
+ */
+@Stability.Volatile
+public class CaptureFiles {
+  private static final ObjectMapper mapper = JsonMapper.builder().build();
+
+  private CaptureFiles() {
+  }
+
+  /**
+   * Reads all operations in the file.
+   */
+  public static Operations read(Path path) throws IOException {
+    return read(path, op -> true);
+  }
+
+  /**
+   * Reads the operations in the file that match the filter.  Non-matching operations are discarded as they are read, so memory
+   * use is proportional to the operations kept.
+   */
+  public static Operations read(Path path, Predicate<Operation> filter) throws IOException {
+    List<Operation> out = new ArrayList<>();
+
+    if (BinaryCaptureReader.isBinaryCapture(path)) {
+      try (BinaryCaptureReader reader = new BinaryCaptureReader(path)) {
+        for (CapturedBlock block : reader) {
+          for (int i = 0; i < block.size(); i++) {
+            Operation op = block.toOperation(i);
+            if (filter.test(op)) {
+              out.add(op);
+            }
+          }
+        }
+      }
+      return new Operations(out);
+    }
+
+    try (InputStream in = open(path); JsonParser parser = mapper.getFactory().createParser(in)) {
+      JsonToken token;
+      while ((token = parser.nextToken()) != null) {
+        // Operations are either elements of a top-level array, or (for NDJSON) a sequence of top-level objects.
+        if (token == JsonToken.START_OBJECT) {
+          JsonNode json = mapper.readTree(parser);
+          Operation op = OperationsFromJson.fromJson(json);
+          if (filter.test(op)) {
+            out.add(op);
+          }
+        }
+      }
+    }
+    return new Operations(out);
+  }
+
+  /**
+   * Reads the operations in all files that match the filter, parsing up to {@code parallelism} files concurrently.
+   * <p>
+   * The returned operations are sorted by start time.
+   */
+  public static Operations readAll(List<Path> paths, Predicate<Operation> filter, int parallelism) throws IOException {
+    ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, paths.size())));
+    try {
+      List<Future<Operations>> futures = new ArrayList<>();
+      for (Path path : paths) {
+        futures.add(executor.submit(() -> read(path, filter)));
+      }
+
+      List<Operation> out = new ArrayList<>();
+      for (int i = 0; i < futures.size(); i++) {
+        try {
+          out.addAll(futures.get(i).get().operations());
+        } catch (ExecutionException e) {
+          throw new IOException("Failed to read " + paths.get(i), e.getCause());
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new IOException("Interrupted while reading " + paths.get(i), e);
+        }
+      }
+      out.sort(Comparator.comparing(Operation::start));
+      return new Operations(out);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static InputStream open(Path path) throws IOException {
+    BufferedInputStream in = new BufferedInputStream(Files.newInputStream(path), 64 * 1024);
+    in.mark(2);
+    int first = in.read();
+    int second = in.read();
+    in.reset();
+    if (first == 0x1f && second == 0x8b) {
+      return new BufferedInputStream(new GZIPInputStream(in, 64 * 1024), 64 * 1024);
+    }
+    return in;
+  }
+}
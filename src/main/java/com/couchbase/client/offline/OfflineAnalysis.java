@@ -0,0 +1,312 @@
+/*
+ * Copyright (c) 2025 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.couchbase.client.offline;
+
+import com.couchbase.client.ExampleReports;
+import com.couchbase.client.InMemoryRequestTracerHandler;
+import com.couchbase.client.InMemoryRequestTracerHandlerOperations;
+import com.couchbase.client.core.annotation.Stability;
+import com.couchbase.client.core.deps.com.fasterxml.jackson.databind.ObjectMapper;
+import com.couchbase.client.core.deps.com.fasterxml.jackson.databind.SerializationFeature;
+import com.couchbase.client.core.deps.com.fasterxml.jackson.databind.json.JsonMapper;
+import com.couchbase.client.core.deps.com.fasterxml.jackson.databind.node.ObjectNode;
+import com.couchbase.client.core.json.Mapper;
+import com.couchbase.client.operations.Operation;
+import com.couchbase.client.operations.Operations;
+import com.couchbase.client.output.JsonOutputFormat;
+import com.couchbase.client.output.OperationsJsonWriter;
+import org.jspecify.annotations.Nullable;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import static com.couchbase.client.util.DurationUtil.instantOfEpochMicros;
+import static com.couchbase.client.util.DurationUtil.toEpochMicros;
+import static com.couchbase.client.util.DurationUtil.toMicros;
+
+/**
+ * A command-line entry point for re-analysing previously captured operations, e.g. on a developer machine rather than the
+ * production host that captured them.
+ * <p>
+ * Reads any number of files (see {@link CaptureFiles} for the supported formats) in parallel, filters them, optionally splits them
+ * into fixed windows, and runs a report or custom handler over each window.  Run with {@code --help} for the options.
+ * <p>
+ * core-io is a provided dependency of this library, so it must be on the classpath alongside this library's jar.
+ */
+@Stability.Volatile
+public class OfflineAnalysis {
+  private static final ObjectMapper mapper = JsonMapper.builder()
+    .enable(SerializationFeature.INDENT_OUTPUT)
+    .build();
+
+  private static final String USAGE = String.join("\n",
+    "Usage: OfflineAnalysis [options] <file>...",
+    "",
+    "Options:",
+    "  --from <instant>      Only include operations starting at or after this ISO-8601 instant",
+    "  --to <instant>        Only include operations starting before this ISO-8601 instant",
+    "  --service <name>      Only include operations for this service, e.g. kv or query (repeatable)",
+    "  --operation <name>    Only include operations with this name, e.g. get or query (repeatable)",
+    "  --bucket <name>       Only include operations against this bucket (repeatable)",
+    "  --failed-only         Only include operations that failed",
+    "  --min-duration <dur>  Only include operations taking at least this ISO-8601 duration, e.g. PT0.5S",
+    "  --window <dur>        Split operations into windows of this ISO-8601 duration and report on each",
+    "  --report <type>       'aggregated' (the default) or 'operations', which can not be split into windows",
+    "  --handler <class>     Instead of a report, run this InMemoryRequestTracerHandler (needs a public no-arg constructor)",
+    "  --threads <n>         How many files to parse in parallel.  Defaults to the number of processors",
+    "  --help                Show this message");
+
+  private final List<Path> files = new ArrayList<>();
+  private @Nullable Instant from;
+  private @Nullable Instant to;
+  private final Set<String> services = new HashSet<>();
+  private final Set<String> operationNames = new HashSet<>();
+  private final Set<String> buckets = new HashSet<>();
+  private boolean failedOnly = false;
+  private @Nullable Duration minDuration;
+  private @Nullable Duration window;
+  private String report = "aggregated";
+  private @Nullable String handlerClass;
+  private int threads = Runtime.getRuntime().availableProcessors();
+
+  private OfflineAnalysis() {
+  }
+
+  public static void main(String[] args) {
+    try {
+      OfflineAnalysis analysis = parse(args);
+      if (analysis == null) {
+        System.out.println(USAGE);
+        return;
+      }
+      analysis.run(System.out);
+    } catch (IllegalArgumentException e) {
+      System.err.println(e.getMessage());
+      System.err.println(USAGE);
+      System.exit(2);
+    } catch (Exception e) {
+      e.printStackTrace();
+      System.exit(1);
+    }
+  }
+
+  /**
+   * Returns null if help was requested.
+   */
+  static @Nullable OfflineAnalysis parse(String[] args) {
+    OfflineAnalysis out = new OfflineAnalysis();
+    for (int i = 0; i < args.length; i++) {
+      String arg = args[i];
+      switch (arg) {
+        case "--help":
+        case "-h":
+          return null;
+        case "--from":
+          out.from = Instant.parse(value(args, ++i, arg));
+          break;
+        case "--to":
+          out.to = Instant.parse(value(args, ++i, arg));
+          break;
+        case "--service":
+          out.services.add(value(args, ++i, arg));
+          break;
+        case "--operation":
+          out.operationNames.add(value(args, ++i, arg));
+          break;
+        case "--bucket":
+          out.buckets.add(value(args, ++i, arg));
+          break;
+        case "--failed-only":
+          out.failedOnly = true;
+          break;
+        case "--min-duration":
+          out.minDuration = Duration.parse(value(args, ++i, arg));
+          break;
+        case "--window":
+          out.window = Duration.parse(value(args, ++i, arg));
+          break;
+        case "--report":
+          out.report = value(args, ++i, arg);
+          if (!out.report.equals("aggregated") && !out.report.equals("operations")) {
+            throw new IllegalArgumentException("Unknown report type " + out.report);
+          }
+          break;
+        case "--handler":
+          out.handlerClass = value(args, ++i, arg);
+          break;
+        case "--threads":
+          out.threads = Integer.parseInt(value(args, ++i, arg));
+          break;
+        default:
+          if (arg.startsWith("--")) {
+            throw new IllegalArgumentException("Unknown option " + arg);
+          }
+          out.files.add(Paths.get(arg));
+      }
+    }
+    if (out.files.isEmpty()) {
+      throw new IllegalArgumentException("No files provided");
+    }
+    if (out.window != null && (out.window.isZero() || out.window.isNegative())) {
+      throw new IllegalArgumentException("--window must be positive");
+    }
+    if (out.window != null && out.handlerClass == null && out.report.equals("operations")) {
+      throw new IllegalArgumentException("--window can not be used with --report operations");
+    }
+    return out;
+  }
+
+  private static String value(String[] args, int index, String option) {
+    if (index >= args.length) {
+      throw new IllegalArgumentException("Missing value for " + option);
+    }
+    return args[index];
+  }
+
+  Predicate<Operation> filter() {
+    return op -> {
+      Instant start = op.start();
+      if (from != null && start.isBefore(from)) {
+        return false;
+      }
+      if (to != null && !start.isBefore(to)) {
+        return false;
+      }
+      if (!services.isEmpty() && !services.contains(op.service())) {
+        return false;
+      }
+      if (!operationNames.isEmpty() && !operationNames.contains(op.name())) {
+        return false;
+      }
+      if (!buckets.isEmpty() && !buckets.contains(op.bucket())) {
+        return false;
+      }
+      if (failedOnly && op.exception() == null) {
+        return false;
+      }
+      return minDuration == null || op.duration().compareTo(minDuration) >= 0;
+    };
+  }
+
+  void run(OutputStream out) throws Exception {
+    Operations operations = CaptureFiles.readAll(files, filter(), threads);
+    Map<Instant, Operations> windows = windows(operations);
+
+    if (handlerClass != null) {
+      InMemoryRequestTracerHandler handler = (InMemoryRequestTracerHandler) Class.forName(handlerClass)
+        .getConstructor()
+        .newInstance();
+      for (Map.Entry<Instant, Operations> entry : windows.entrySet()) {
+        handler.evaluate(new InMemoryRequestTracerHandlerOperations(entry.getValue()), windowDuration(entry.getValue()));
+      }
+      return;
+    }
+
+    if (report.equals("operations")) {
+      try (OperationsJsonWriter writer = new OperationsJsonWriter(new NonClosingOutputStream(out), JsonOutputFormat.JSON_ARRAY)) {
+        writer.write(operations);
+      }
+      out.write('\n');
+      out.flush();
+      return;
+    }
+
+    ObjectNode result = Mapper.createObjectNode();
+    for (Map.Entry<Instant, Operations> entry : windows.entrySet()) {
+      ObjectNode aggregated = ExampleReports.exampleAggregatedReport(new InMemoryRequestTracerHandlerOperations(entry.getValue()));
+      if (window == null) {
+        result = aggregated;
+      } else {
+        result.set(entry.getKey().toString(), Mapper.createObjectNode()
+          .put("operations", entry.getValue().size())
+          .set("report", aggregated));
+      }
+    }
+    out.write(mapper.writeValueAsBytes(result));
+    out.write('\n');
+    out.flush();
+  }
+
+  /**
+   * Splits the (sorted) operations into consecutive windows keyed by window start.  Empty windows are omitted.
+   */
+  private Map<Instant, Operations> windows(Operations operations) {
+    Map<Instant, Operations> out = new LinkedHashMap<>();
+    List<Operation> ops = operations.operations();
+    if (window == null || ops.isEmpty()) {
+      out.put(ops.isEmpty() ? Instant.EPOCH : ops.get(0).start(), operations);
+      return out;
+    }
+
+    long windowMicros = Math.max(1, toMicros(window));
+    List<Operation> current = new ArrayList<>();
+    long currentWindow = Long.MIN_VALUE;
+    for (Operation op : ops) {
+      long opWindow = Math.floorDiv(toEpochMicros(op.start()), windowMicros);
+      if (opWindow != currentWindow && !current.isEmpty()) {
+        out.put(windowStart(currentWindow, windowMicros), new Operations(current));
+        current = new ArrayList<>();
+      }
+      currentWindow = opWindow;
+      current.add(op);
+    }
+    out.put(windowStart(currentWindow, windowMicros), new Operations(current));
+    return out;
+  }
+
+  private static Instant windowStart(long window, long windowMicros) {
+    return instantOfEpochMicros(window * windowMicros);
+  }
+
+  private Duration windowDuration(Operations operations) {
+    if (window != null) {
+      return window;
+    }
+    List<Operation> ops = operations.operations();
+    if (ops.isEmpty()) {
+      return Duration.ZERO;
+    }
+    return Duration.between(ops.get(0).start(), ops.get(ops.size() - 1).start());
+  }
+
+  private static class NonClosingOutputStream extends FilterOutputStream {
+    NonClosingOutputStream(OutputStream out) {
+      super(out);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      out.write(b, off, len);
+    }
+
+    @Override
+    public void close() throws IOException {
+      flush();
+    }
+  }
+}
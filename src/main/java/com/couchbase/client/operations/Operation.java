@@ -32,10 +32,17 @@ import java.util.stream.Collectors;
 @Stability.Volatile
 public class Operation {
   private final SpansForOperation spans;
+  private final @Nullable String cluster;
 
   @Stability.Internal
   public Operation(SpansForOperation spans) {
+    this(spans, null);
+  }
+
+  @Stability.Internal
+  public Operation(SpansForOperation spans, @Nullable String cluster) {
     this.spans = spans;
+    this.cluster = cluster;
   }
 
   /**
@@ -55,6 +62,22 @@ public class Operation {
     return spans.span().name();
   }
 
+  /**
+   * The cluster (or tenant) tag of the tracer that captured the operation, if it was created through an
+   * {@link com.couchbase.client.InMemoryRequestTracerRegistry}.
+   */
+  public @Nullable String cluster() {
+    return cluster;
+  }
+
+  /**
+   * The probability with which the operation was captured, which is below 1 when sampling.  Each captured operation stands for
+   * {@code 1 / samplingRate()} operations the application performed.
+   */
+  public double samplingRate() {
+    return spans.span().samplingRate();
+  }
+
   /**
    * The service the operation was sent to, such as "kv" or "query".
    */
@@ -62,6 +85,19 @@ public class Operation {
     return spans.span().attributeString(TracingIdentifiers.ATTR_SERVICE);
   }
 
+  /**
+   * The node the operation was sent to, being the remote host of its last network call, or null if it made none.
+   */
+  public @Nullable String node() {
+    InMemoryRequestSpan last = null;
+    for (InMemoryRequestSpan child : spans.children()) {
+      if (child.name().equals(TracingIdentifiers.SPAN_DISPATCH)) {
+        last = child;
+      }
+    }
+    return last == null ? null : last.attributeString(TracingIdentifiers.ATTR_REMOTE_HOSTNAME);
+  }
+
   /**
    * Returns all the underlying OpenTelemetry spans that make up this operation.
    * <p>
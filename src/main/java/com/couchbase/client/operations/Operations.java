@@ -20,6 +20,7 @@ import com.couchbase.client.InMemoryRequestTracerHandlerOperations;
 import com.couchbase.client.core.annotation.Stability;
 import com.couchbase.client.core.cnc.TracingIdentifiers;
 import com.couchbase.client.spans.InMemoryRequestSpan;
+import com.couchbase.client.spans.RecordedException;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -28,6 +29,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import static com.couchbase.client.util.DurationUtil.toMicros;
@@ -86,6 +88,24 @@ public class Operations {
       ));
   }
 
+  /**
+   * Groups the operations by the cluster (or tenant) tag of the tracer that captured them.  Operations without a tag are left out.
+   * <p>
+   * Returns a Map where the key is the cluster, and the value for each key are all the operations for that cluster,
+   * that are inside this Operations object.
+   */
+  public Map<String, Operations> groupByCluster() {
+    return operations.stream()
+      .filter(op -> op.cluster() != null)
+      .collect(Collectors.groupingBy(
+        Operation::cluster,
+        Collectors.collectingAndThen(
+          Collectors.toList(),
+          Operations::new
+        )
+      ));
+  }
+
   /**
    * Groups the operations by whether they succeeded or not.
    * <p>
@@ -139,7 +159,7 @@ public class Operations {
     operations.forEach(op -> {
       Throwable exception = op.spans().span().exception();
       if (exception != null) {
-        String exceptionName = exception.getClass().getSimpleName();
+        String exceptionName = RecordedException.simpleName(exception);
         exceptionCounts.merge(exceptionName, 1, Integer::sum);
       }
     });
@@ -178,10 +198,30 @@ public class Operations {
     return new ArrayList<>(operations);
   }
 
+  /**
+   * Calls the consumer with each operation in turn.  Unlike {@link #operations()}, this does not copy the underlying list, so
+   * is the cheaper way to scan for the few operations of interest.
+   */
+  public void forEach(Consumer<? super Operation> consumer) {
+    operations.forEach(consumer);
+  }
+
   /**
    * Returns the number of operations in this object.
    */
   public int size() {
     return operations.size();
   }
+
+  /**
+   * Returns an estimate of how many operations the application performed, re-weighting each captured operation by the sampling
+   * rate it was captured at.  The same as {@link #size()} when not sampling.
+   */
+  public double estimatedCount() {
+    double out = 0;
+    for (Operation op : operations) {
+      out += 1.0 / op.samplingRate();
+    }
+    return out;
+  }
 }
@@ -0,0 +1,279 @@
+/*
+ * Copyright (c) 2025 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.couchbase.client.output;
+
+import com.couchbase.client.InMemoryRequestTracerHandler;
+import com.couchbase.client.InMemoryRequestTracerHandlerOperations;
+import com.couchbase.client.core.annotation.Stability;
+import com.couchbase.client.core.deps.com.fasterxml.jackson.core.JsonFactory;
+import com.couchbase.client.core.deps.com.fasterxml.jackson.core.JsonGenerator;
+import com.couchbase.client.operations.NetworkCall;
+import com.couchbase.client.operations.Operation;
+import com.couchbase.client.operations.Operations;
+import com.couchbase.client.operations.RequestEncoding;
+import com.couchbase.client.spans.InMemoryRequestSpan;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+
+import static com.couchbase.client.util.DurationUtil.toEpochMicros;
+import static com.couchbase.client.util.DurationUtil.toMicros;
+
+/**
+ * A handler that writes each interval's operations as a timeline, in the Chrome Trace Event JSON format.  The files can be opened
+ * in Perfetto (https://ui.perfetto.dev) or chrome://tracing, to see what was happening concurrently when an operation was slow.
+ * <p>
+ * Each operation is a slice, with its request encoding and network calls as nested slices.  Slices are grouped into one process
+ * per node or per service (see {@link Layout}), and within that spread over as many tracks as are needed for no two operations on a
+ * track to overlap.
+ * <p>
+ * The output is streamed to file.  For very busy windows, only the slowest N operations can be written, to keep files loadable.
+ */
+@Stability.Volatile
+public class ChromeTraceHandler implements InMemoryRequestTracerHandler {
+  private static final Logger logger = LoggerFactory.getLogger(ChromeTraceHandler.class);
+  private static final JsonFactory factory = new JsonFactory();
+  private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH-mm-ss.SSSX");
+
+  /**
+   * How operations are grouped into processes on the timeline.
+   */
+  public enum Layout {
+    /**
+     * One process per node, being the remote host of the operation's last network call.
+     */
+    BY_NODE,
+
+    /**
+     * One process per service ("kv", "query", etc.).
+     */
+    BY_SERVICE
+  }
+
+  private final Path directory;
+  private final int topN;
+  private final Layout layout;
+
+  /**
+   * @param directory where files are written.
+   * @param topN if positive, only the slowest this-many operations of each interval are written.
+   * @param layout how operations are grouped on the timeline.
+   */
+  public ChromeTraceHandler(Path directory, int topN, Layout layout) {
+    this.directory = directory;
+    this.topN = topN;
+    this.layout = layout;
+  }
+
+  @Override
+  public void evaluate(InMemoryRequestTracerHandlerOperations operations, Duration sinceLastReport) {
+    if (operations.operations().size() == 0) {
+      return;
+    }
+    Path filename = directory.resolve(ZonedDateTime.now().format(FORMATTER) + "_trace.json");
+    try (OutputStream out = Files.newOutputStream(filename, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      logger.info("Writing timeline of {} ops over last {} to file {}", operations.operations().size(), sinceLastReport, filename);
+      write(operations.operations(), out, topN, layout);
+    } catch (Exception e) {
+      logger.error("Failed to write timeline", e);
+    }
+  }
+
+  /**
+   * Writes the operations to the stream as Chrome Trace Event JSON.
+   *
+   * @param topN if positive, only the slowest this-many operations are written.
+   */
+  public static void write(Operations operations, OutputStream out, int topN, Layout layout) throws IOException {
+    List<Operation> ops = selectOperations(operations, topN);
+
+    try (JsonGenerator gen = factory.createGenerator(out)) {
+      gen.writeStartObject();
+      gen.writeStringField("displayTimeUnit", "ms");
+      gen.writeArrayFieldStart("traceEvents");
+
+      Map<String, Process> processes = new HashMap<>();
+      for (Operation op : ops) {
+        String processName = processName(op, layout);
+        Process process = processes.get(processName);
+        if (process == null) {
+          process = new Process(processes.size() + 1);
+          processes.put(processName, process);
+          writeMetadata(gen, "process_name", process.pid, 0, processName);
+        }
+
+        long start = toEpochMicros(op.start());
+        long end = start + toMicros(op.duration());
+        int tid = process.assignTrack(start, end);
+        if (tid > process.namedTracks) {
+          process.namedTracks = tid;
+          writeMetadata(gen, "thread_name", process.pid, tid, "track " + tid);
+        }
+
+        writeOperation(gen, op, process.pid, tid, start);
+      }
+
+      gen.writeEndArray();
+      gen.writeEndObject();
+    }
+  }
+
+  /**
+   * Returns the operations to write, sorted by start time.
+   */
+  private static List<Operation> selectOperations(Operations operations, int topN) {
+    List<Operation> ops;
+    if (topN > 0 && operations.size() > topN) {
+      // Min-heap on duration, so the fastest of the current top N is the one evicted.
+      PriorityQueue<Operation> slowest = new PriorityQueue<>(topN + 1, Comparator.comparing(Operation::duration));
+      for (Operation op : operations.operations()) {
+        slowest.add(op);
+        if (slowest.size() > topN) {
+          slowest.poll();
+        }
+      }
+      ops = new ArrayList<>(slowest);
+    } else {
+      ops = operations.operations();
+    }
+    ops.sort(Comparator.comparing(Operation::start));
+    return ops;
+  }
+
+  private static String processName(Operation op, Layout layout) {
+    if (layout == Layout.BY_SERVICE) {
+      return Objects.toString(op.service(), "unknown");
+    }
+    if (op.networkCalls().spans().isEmpty()) {
+      return "no network call";
+    }
+    return Objects.toString(op.node(), "unknown");
+  }
+
+  private static void writeOperation(JsonGenerator gen, Operation op, int pid, int tid, long start) throws IOException {
+    gen.writeStartObject();
+    writeSlice(gen, op.name(), Objects.toString(op.service(), "unknown"), start, toMicros(op.duration()), pid, tid);
+    gen.writeObjectFieldStart("args");
+    writeIfNonNull(gen, "documentId", op.documentId());
+    writeIfNonNull(gen, "statement", op.statement());
+    writeIfNonNull(gen, "bucket", op.bucket());
+    Throwable exception = op.exception();
+    if (exception != null) {
+      gen.writeStringField("exception", exception.toString());
+    }
+    Long retries = op.retries();
+    if (retries != null) {
+      gen.writeNumberField("retries", retries);
+    }
+    gen.writeEndObject();
+    gen.writeEndObject();
+
+    RequestEncoding encoding = op.requestEncoding();
+    if (encoding != null) {
+      gen.writeStartObject();
+      writeSlice(gen, "request_encoding", "encoding", toEpochMicros(encoding.start()), toMicros(encoding.duration()), pid, tid);
+      gen.writeEndObject();
+    }
+
+    for (InMemoryRequestSpan span : op.networkCalls().spans()) {
+      NetworkCall call = new NetworkCall(span);
+      gen.writeStartObject();
+      writeSlice(gen, "dispatch_to_server", "network", toEpochMicros(call.start()), toMicros(call.duration()), pid, tid);
+      gen.writeObjectFieldStart("args");
+      writeIfNonNull(gen, "host", call.remoteHost());
+      Long port = call.remotePort();
+      if (port != null) {
+        gen.writeNumberField("port", port);
+      }
+      Duration serverDuration = call.serverDuration();
+      if (serverDuration != null) {
+        gen.writeNumberField("serverDurationUs", toMicros(serverDuration));
+      }
+      gen.writeEndObject();
+      gen.writeEndObject();
+    }
+  }
+
+  private static void writeSlice(JsonGenerator gen, String name, String category, long start, long duration, int pid, int tid) throws IOException {
+    gen.writeStringField("name", name);
+    gen.writeStringField("cat", category);
+    gen.writeStringField("ph", "X");
+    gen.writeNumberField("ts", start);
+    gen.writeNumberField("dur", duration);
+    gen.writeNumberField("pid", pid);
+    gen.writeNumberField("tid", tid);
+  }
+
+  private static void writeMetadata(JsonGenerator gen, String name, int pid, int tid, String value) throws IOException {
+    gen.writeStartObject();
+    gen.writeStringField("name", name);
+    gen.writeStringField("ph", "M");
+    gen.writeNumberField("pid", pid);
+    gen.writeNumberField("tid", tid);
+    gen.writeObjectFieldStart("args");
+    gen.writeStringField("name", value);
+    gen.writeEndObject();
+    gen.writeEndObject();
+  }
+
+  private static void writeIfNonNull(JsonGenerator gen, String field, @Nullable String value) throws IOException {
+    if (value != null) {
+      gen.writeStringField(field, value);
+    }
+  }
+
+  /**
+   * Assigns operations, in start order, to the lowest-numbered track that is free, so no two operations on a track overlap.
+   */
+  private static class Process {
+    private final int pid;
+    // Each entry is {end, tid}, ordered by end time.
+    private final PriorityQueue<long[]> busyTracks = new PriorityQueue<>(Comparator.comparingLong(t -> t[0]));
+    private final PriorityQueue<Integer> freeTracks = new PriorityQueue<>();
+    private int trackCount = 0;
+    private int namedTracks = 0;
+
+    Process(int pid) {
+      this.pid = pid;
+    }
+
+    int assignTrack(long start, long end) {
+      while (!busyTracks.isEmpty() && busyTracks.peek()[0] <= start) {
+        freeTracks.add((int) busyTracks.poll()[1]);
+      }
+      Integer free = freeTracks.poll();
+      int tid = free != null ? free : ++trackCount;
+      busyTracks.add(new long[]{end, tid});
+      return tid;
+    }
+  }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2025 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.couchbase.client.output;
+
+import com.couchbase.client.core.annotation.Stability;
+
+/**
+ * The layouts that {@link OperationsJsonWriter} can produce.
+ */
+@Stability.Volatile
+public enum JsonOutputFormat {
+  /**
+   * A single pretty-printed JSON array containing every operation.  This is the format historically produced by
+   * {@link com.couchbase.client.ExampleHandlers#writeAllOperations}.
+   */
+  JSON_ARRAY,
+
+  /**
+   * Newline-delimited JSON: one compact JSON object per operation, one per line.  Files in this format can be appended to,
+   * concatenated, and processed line-by-line by most log tooling.
+   */
+  NDJSON
+}
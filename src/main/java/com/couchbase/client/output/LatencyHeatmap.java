@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2025 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.couchbase.client.output;
+
+import com.couchbase.client.core.annotation.Stability;
+import com.couchbase.client.core.deps.com.fasterxml.jackson.core.JsonGenerator;
+import com.couchbase.client.util.LatencyBuckets;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+
+import static com.couchbase.client.util.DurationUtil.instantOfEpochMicros;
+import static com.couchbase.client.util.DurationUtil.toMicros;
+
+/**
+ * Counts operations in a matrix of fixed-width time buckets crossed with log-scale latency buckets.
+ * <p>
+ * Where percentiles over a reporting interval summarise latency into a few numbers, a heatmap shows how it was distributed
+ * through the interval, so bimodal latency, short spikes and periodic bands (e.g. from GC pauses or rebalances) stand out.
+ * <p>
+ * Latency buckets are a quarter of a power of two wide, so each is within 25% of its lower bound.  Recording is a couple of
+ * shifts and an increment, and memory grows only with the time and latency ranges actually seen.
+ */
+@Stability.Volatile
+public class LatencyHeatmap {
+  private final long originEpochMicros;
+  private final long timeBucketMicros;
+  // Indexed by time bucket, then latency bucket.  Rows are allocated, and grown, only as needed.
+  private int[][] rows = new int[16][];
+  private int timeBuckets = 0;
+  private int minLatencyBucket = Integer.MAX_VALUE;
+  private int maxLatencyBucket = -1;
+  private long count = 0;
+
+  /**
+   * @param originEpochMicros the start of the first time bucket, in microseconds since the epoch.
+   * @param timeBucket how wide each time bucket is.
+   */
+  public LatencyHeatmap(long originEpochMicros, Duration timeBucket) {
+    this.timeBucketMicros = toMicros(timeBucket);
+    if (timeBucketMicros <= 0) {
+      throw new IllegalArgumentException("Time bucket must be at least a microsecond, but was " + timeBucket);
+    }
+    this.originEpochMicros = originEpochMicros;
+  }
+
+  /**
+   * Returns the latency bucket a duration falls in.  Buckets below 4 microseconds are exact.
+   */
+  public static int latencyBucket(long durationMicros) {
+    return LatencyBuckets.bucket(durationMicros);
+  }
+
+  /**
+   * Returns the smallest duration, in microseconds, that falls in the latency bucket.
+   */
+  public static long latencyBucketLowerBoundMicros(int latencyBucket) {
+    return LatencyBuckets.lowerBound(latencyBucket);
+  }
+
+  /**
+   * Records an operation.  Operations starting before the origin are counted in the first time bucket.
+   */
+  public void record(long startEpochMicros, long durationMicros) {
+    int timeBucket = (int) Math.max(0, (startEpochMicros - originEpochMicros) / timeBucketMicros);
+    int latencyBucket = latencyBucket(durationMicros);
+
+    if (timeBucket >= rows.length) {
+      rows = Arrays.copyOf(rows, Math.max(rows.length * 2, timeBucket + 1));
+    }
+    int[] row = rows[timeBucket];
+    if (row == null) {
+      row = new int[latencyBucket + 1];
+      rows[timeBucket] = row;
+    } else if (latencyBucket >= row.length) {
+      row = Arrays.copyOf(row, latencyBucket + 1);
+      rows[timeBucket] = row;
+    }
+    row[latencyBucket]++;
+
+    timeBuckets = Math.max(timeBuckets, timeBucket + 1);
+    minLatencyBucket = Math.min(minLatencyBucket, latencyBucket);
+    maxLatencyBucket = Math.max(maxLatencyBucket, latencyBucket);
+    count++;
+  }
+
+  /**
+   * How many operations have been recorded.
+   */
+  public long count() {
+    return count;
+  }
+
+  /**
+   * How many time buckets there are, from the origin to the last one with an operation in it.
+   */
+  public int timeBuckets() {
+    return timeBuckets;
+  }
+
+  /**
+   * How many operations were recorded in the time and latency bucket.
+   */
+  public int count(int timeBucket, int latencyBucket) {
+    if (timeBucket < 0 || timeBucket >= rows.length || latencyBucket < 0) {
+      return 0;
+    }
+    int[] row = rows[timeBucket];
+    return row == null || latencyBucket >= row.length ? 0 : row[latencyBucket];
+  }
+
+  /**
+   * Writes the heatmap as a compact JSON object.
+   * <p>
+   * Only the range of latency buckets seen is written: "latencyBucketsUs" lists the lower bound of each, and "counts" has one
+   * array of counts per time bucket, in the same order.  A time bucket with no operations is an empty array.
+   */
+  public void writeJson(JsonGenerator gen) throws IOException {
+    gen.writeStartObject();
+    gen.writeStringField("start", instantOfEpochMicros(originEpochMicros).toString());
+    gen.writeNumberField("timeBucketUs", timeBucketMicros);
+    gen.writeNumberField("operations", count);
+    gen.writeArrayFieldStart("latencyBucketsUs");
+    for (int b = minLatencyBucket; b <= maxLatencyBucket; b++) {
+      gen.writeNumber(latencyBucketLowerBoundMicros(b));
+    }
+    gen.writeEndArray();
+    gen.writeArrayFieldStart("counts");
+    for (int t = 0; t < timeBuckets; t++) {
+      gen.writeStartArray();
+      if (rows[t] != null) {
+        for (int b = minLatencyBucket; b <= maxLatencyBucket; b++) {
+          gen.writeNumber(count(t, b));
+        }
+      }
+      gen.writeEndArray();
+    }
+    gen.writeEndArray();
+    gen.writeEndObject();
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2025 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.couchbase.client.output;
+
+import com.couchbase.client.InMemoryRequestTracerHandler;
+import com.couchbase.client.InMemoryRequestTracerHandlerOperations;
+import com.couchbase.client.core.annotation.Stability;
+import com.couchbase.client.core.cnc.TracingIdentifiers;
+import com.couchbase.client.core.deps.com.fasterxml.jackson.core.JsonFactory;
+import com.couchbase.client.core.deps.com.fasterxml.jackson.core.JsonGenerator;
+import com.couchbase.client.operations.Operations;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+import static com.couchbase.client.util.DurationUtil.toEpochMicros;
+import static com.couchbase.client.util.DurationUtil.toMicros;
+
+/**
+ * A handler that writes each interval's operations as a {@link LatencyHeatmap} per service and operation type, to a compact
+ * JSON file.
+ * <p>
+ * The time buckets are aligned to the epoch, so the heatmaps of consecutive intervals can be laid side by side.
+ */
+@Stability.Volatile
+public class LatencyHeatmapHandler implements InMemoryRequestTracerHandler {
+  private static final Logger logger = LoggerFactory.getLogger(LatencyHeatmapHandler.class);
+  private static final JsonFactory factory = new JsonFactory();
+  private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH-mm-ss.SSSX");
+
+  private final Path directory;
+  private final Duration timeBucket;
+
+  /**
+   * @param directory where files are written.
+   * @param timeBucket how wide each time bucket is, e.g. 100 milliseconds.
+   */
+  public LatencyHeatmapHandler(Path directory, Duration timeBucket) {
+    if (toMicros(timeBucket) <= 0) {
+      throw new IllegalArgumentException("Time bucket must be at least a microsecond, but was " + timeBucket);
+    }
+    this.directory = directory;
+    this.timeBucket = timeBucket;
+  }
+
+  @Override
+  public void evaluate(InMemoryRequestTracerHandlerOperations operations, Duration sinceLastReport) {
+    if (operations.operations().size() == 0) {
+      return;
+    }
+    Path filename = directory.resolve(ZonedDateTime.now().format(FORMATTER) + "_heatmap.json");
+    try (OutputStream out = Files.newOutputStream(filename, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      logger.info("Writing latency heatmap of {} ops over last {} to file {}", operations.operations().size(), sinceLastReport, filename);
+      write(heatmaps(operations.operations(), timeBucket), out);
+    } catch (Exception e) {
+      logger.error("Failed to write latency heatmap", e);
+    }
+  }
+
+  /**
+   * Builds a heatmap per service and operation type.  They share an origin: the start of the time bucket the earliest operation
+   * started in.
+   */
+  public static Map<String, Map<String, LatencyHeatmap>> heatmaps(Operations operations, Duration timeBucket) {
+    long timeBucketMicros = toMicros(timeBucket);
+    long[] earliest = {Long.MAX_VALUE};
+    operations.forEach(op -> earliest[0] = Math.min(earliest[0], toEpochMicros(op.start())));
+    long origin = Math.floorDiv(earliest[0], timeBucketMicros) * timeBucketMicros;
+
+    Map<String, Map<String, LatencyHeatmap>> out = new TreeMap<>();
+    operations.forEach(op -> out
+      .computeIfAbsent(Objects.toString(op.service(), TracingIdentifiers.SERVICE_UNKNOWN), k -> new TreeMap<>())
+      .computeIfAbsent(op.name(), k -> new LatencyHeatmap(origin, timeBucket))
+      .record(toEpochMicros(op.start()), toMicros(op.duration())));
+    return out;
+  }
+
+  /**
+   * Writes the heatmaps as a JSON object keyed by service, then operation type.
+   */
+  public static void write(Map<String, Map<String, LatencyHeatmap>> heatmaps, OutputStream out) throws IOException {
+    try (JsonGenerator gen = factory.createGenerator(out)) {
+      gen.writeStartObject();
+      for (Map.Entry<String, Map<String, LatencyHeatmap>> service : heatmaps.entrySet()) {
+        gen.writeObjectFieldStart(service.getKey());
+        for (Map.Entry<String, LatencyHeatmap> operation : service.getValue().entrySet()) {
+          gen.writeFieldName(operation.getKey());
+          operation.getValue().writeJson(gen);
+        }
+        gen.writeEndObject();
+      }
+      gen.writeEndObject();
+    }
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2025 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.couchbase.client.output;
+
+import com.couchbase.client.core.annotation.Stability;
+import com.couchbase.client.core.deps.com.fasterxml.jackson.core.JsonFactory;
+import com.couchbase.client.core.deps.com.fasterxml.jackson.core.JsonGenerator;
+import com.couchbase.client.core.deps.com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.couchbase.client.operations.Operation;
+import com.couchbase.client.operations.Operations;
+import com.couchbase.client.util.OperationsToJson;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streams operations as JSON directly onto an {@link OutputStream}, one operation at a time.
+ * <p>
+ * Unlike {@link com.couchbase.client.ExampleReports#exampleOperationsOutput}, no JSON tree or intermediate String is built, so
+ * peak memory is independent of how many operations are written.
+ */
+@Stability.Volatile
+public class OperationsJsonWriter implements Closeable {
+  private static final JsonFactory factory = new JsonFactory();
+
+  private final JsonGenerator gen;
+  private final JsonOutputFormat format;
+
+  public OperationsJsonWriter(OutputStream out, JsonOutputFormat format) throws IOException {
+    this.format = format;
+    this.gen = factory.createGenerator(out);
+    if (format == JsonOutputFormat.JSON_ARRAY) {
+      gen.useDefaultPrettyPrinter();
+      gen.writeStartArray();
+    } else {
+      // Separators are written explicitly, one newline after each operation.
+      gen.setPrettyPrinter(new MinimalPrettyPrinter(""));
+    }
+  }
+
+  /**
+   * Writes all operations to the given file, replacing it if it exists.
+   */
+  public static void write(Operations operations, Path path, JsonOutputFormat format) throws IOException {
+    try (OperationsJsonWriter writer = new OperationsJsonWriter(Files.newOutputStream(path,
+      StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE), format)) {
+      writer.write(operations);
+    }
+  }
+
+  public void write(Operations operations) throws IOException {
+    for (Operation operation : operations.operations()) {
+      write(operation);
+    }
+  }
+
+  public void write(Operation operation) throws IOException {
+    OperationsToJson.write(gen, operation);
+    if (format == JsonOutputFormat.NDJSON) {
+      gen.writeRaw('\n');
+    }
+  }
+
+  /**
+   * Flushes any buffered output to the underlying stream.
+   */
+  public void flush() throws IOException {
+    gen.flush();
+  }
+
+  /**
+   * Completes the document and closes the underlying stream.
+   */
+  @Override
+  public void close() throws IOException {
+    if (format == JsonOutputFormat.JSON_ARRAY) {
+      gen.writeEndArray();
+    }
+    gen.close();
+  }
+}
@@ -0,0 +1,298 @@
+/*
+ * Copyright (c) 2025 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.couchbase.client.output;
+
+import com.couchbase.client.InMemoryRequestTracerHandler;
+import com.couchbase.client.InMemoryRequestTracerHandlerOperations;
+import com.couchbase.client.core.annotation.Stability;
+import com.couchbase.client.operations.Operations;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A handler that appends all operations, as newline-delimited JSON, to a rolling set of files.
+ * <p>
+ * Unlike {@link com.couchbase.client.ExampleHandlers#writeAllOperations}, no disk I/O is done on the tracer's thread: each interval's
+ * operations are handed to a bounded queue and written by a dedicated background thread.  The active file is rotated by size or age,
+ * optionally compressed once rotated, and the oldest rotated files are deleted once a total size limit is exceeded, so long-running
+ * captures cannot fill the disk.
+ * <p>
+ * The sink should be {@link #close() closed} once the tracer has been stopped, to flush and rotate the final file.
+ */
+@Stability.Volatile
+public class RollingFileSink implements InMemoryRequestTracerHandler, Closeable {
+  private static final Logger logger = LoggerFactory.getLogger(RollingFileSink.class);
+  private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH-mm-ss.SSSX");
+  private static final String ACTIVE_SUFFIX = ".ndjson";
+  private static final String COMPRESSED_SUFFIX = ".ndjson.gz";
+
+  // Reference-compared marker telling the writer thread to finish up.
+  private static final Operations POISON_PILL = new Operations(Collections.emptyList());
+
+  private final RollingFileSinkOptions.Built options;
+  private final BlockingQueue<Operations> queue;
+  private final Thread writerThread;
+  private final AtomicLong droppedIntervals = new AtomicLong();
+  private volatile boolean closed = false;
+
+  // Only accessed from the writer thread.
+  private @Nullable Path activePath;
+  private @Nullable CountingOutputStream activeStream;
+  private @Nullable OperationsJsonWriter activeWriter;
+  private Instant activeOpenedAt = Instant.EPOCH;
+
+  public RollingFileSink() {
+    this(RollingFileSinkOptions.rollingFileSinkOptions());
+  }
+
+  public RollingFileSink(RollingFileSinkOptions options) {
+    this.options = options.build();
+    this.queue = new ArrayBlockingQueue<>(this.options.queueCapacity());
+    this.writerThread = new Thread(this::run, "inmemory-tracer-rolling-file-sink");
+    this.writerThread.setDaemon(true);
+    this.writerThread.start();
+  }
+
+  /**
+   * Hands the operations to the background writer.  Never blocks: if the writer has fallen behind and the queue is full, the
+   * operations are dropped.
+   */
+  @Override
+  public void evaluate(InMemoryRequestTracerHandlerOperations operations, Duration sinceLastReport) {
+    if (closed) {
+      return;
+    }
+    if (!queue.offer(operations.operations())) {
+      long dropped = droppedIntervals.incrementAndGet();
+      logger.warn("Rolling file sink is falling behind, dropped {} operations ({} intervals dropped in total)",
+        operations.operations().size(), dropped);
+    }
+  }
+
+  /**
+   * How many intervals' worth of operations have been dropped because the writer could not keep up.
+   */
+  public long droppedIntervals() {
+    return droppedIntervals.get();
+  }
+
+  /**
+   * Writes out anything still queued, rotates the active file, and stops the background thread.
+   */
+  @Override
+  public void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      queue.put(POISON_PILL);
+      writerThread.join(TimeUnit.SECONDS.toMillis(30));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void run() {
+    while (true) {
+      Operations operations;
+      try {
+        operations = queue.take();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+
+      if (operations == POISON_PILL) {
+        closeActiveFile();
+        return;
+      }
+
+      try {
+        write(operations);
+      } catch (Exception e) {
+        logger.error("Failed to write operations to {}", activePath, e);
+        // Start afresh on the next interval rather than appending to a possibly-broken file.
+        closeActiveFile();
+      }
+    }
+  }
+
+  private void write(Operations operations) throws IOException {
+    // Checked before anything is written, so that an active file is still rotated on age through a quiet spell.
+    if (activeWriter != null && tooOld()) {
+      closeActiveFile();
+    }
+    if (operations.size() == 0) {
+      return;
+    }
+
+    if (activeWriter == null) {
+      openActiveFile();
+    }
+    OperationsJsonWriter writer = activeWriter;
+    writer.write(operations);
+    writer.flush();
+
+    if (activeStream.count() >= options.maxFileSizeBytes() || tooOld()) {
+      closeActiveFile();
+    }
+  }
+
+  private boolean tooOld() {
+    return Duration.between(activeOpenedAt, Instant.now()).compareTo(options.maxFileAge()) >= 0;
+  }
+
+  private void openActiveFile() throws IOException {
+    Files.createDirectories(options.directory());
+    String base = options.filePrefix() + "-" + ZonedDateTime.now().format(FORMATTER);
+    Path path = options.directory().resolve(base + ACTIVE_SUFFIX);
+    // Files rotated within the same millisecond may already have been compressed, so check for those too.
+    for (int i = 1; Files.exists(path) || Files.exists(path.resolveSibling(path.getFileName() + ".gz")); i++) {
+      path = options.directory().resolve(base + "-" + i + ACTIVE_SUFFIX);
+    }
+
+    activePath = path;
+    activeStream = new CountingOutputStream(Files.newOutputStream(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE));
+    activeWriter = new OperationsJsonWriter(activeStream, JsonOutputFormat.NDJSON);
+    activeOpenedAt = Instant.now();
+  }
+
+  private void closeActiveFile() {
+    Path path = activePath;
+    OperationsJsonWriter writer = activeWriter;
+    activePath = null;
+    activeStream = null;
+    activeWriter = null;
+
+    if (path == null || writer == null) {
+      return;
+    }
+
+    try {
+      writer.close();
+      if (options.compression() == RollingFileSinkOptions.Compression.GZIP) {
+        compress(path);
+      }
+    } catch (Exception e) {
+      logger.error("Failed to rotate {}", path, e);
+    }
+
+    try {
+      applyRetention();
+    } catch (Exception e) {
+      logger.error("Failed to apply retention policy in {}", options.directory(), e);
+    }
+  }
+
+  private static void compress(Path path) throws IOException {
+    Path compressed = path.resolveSibling(path.getFileName().toString() + ".gz");
+    try (InputStream in = Files.newInputStream(path);
+         OutputStream out = new GZIPOutputStream(Files.newOutputStream(compressed), 64 * 1024)) {
+      byte[] buffer = new byte[64 * 1024];
+      int read;
+      while ((read = in.read(buffer)) != -1) {
+        out.write(buffer, 0, read);
+      }
+    }
+    Files.delete(path);
+  }
+
+  private void applyRetention() throws IOException {
+    List<Path> rotated = new ArrayList<>();
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(options.directory(), options.filePrefix() + "-*")) {
+      for (Path path : stream) {
+        String name = path.getFileName().toString();
+        if (!path.equals(activePath) && (name.endsWith(ACTIVE_SUFFIX) || name.endsWith(COMPRESSED_SUFFIX))) {
+          rotated.add(path);
+        }
+      }
+    }
+
+    long total = 0;
+    for (Path path : rotated) {
+      total += Files.size(path);
+    }
+    if (total <= options.maxTotalSizeBytes()) {
+      return;
+    }
+
+    rotated.sort(Comparator.comparing(path -> {
+      try {
+        return Files.getLastModifiedTime(path);
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    }));
+    for (Path path : rotated) {
+      if (total <= options.maxTotalSizeBytes()) {
+        break;
+      }
+      long size = Files.size(path);
+      Files.delete(path);
+      total -= size;
+      logger.info("Deleted {} to keep rolling file sink under {} bytes", path, options.maxTotalSizeBytes());
+    }
+  }
+
+  private static class CountingOutputStream extends FilterOutputStream {
+    private long count = 0;
+
+    CountingOutputStream(OutputStream out) {
+      super(out);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      out.write(b);
+      count++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      out.write(b, off, len);
+      count += len;
+    }
+
+    long count() {
+      return count;
+    }
+  }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2025 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.couchbase.client.output;
+
+import com.couchbase.client.core.annotation.Stability;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+/**
+ * Allows customizing options for the {@link RollingFileSink}.
+ */
+@Stability.Volatile
+public class RollingFileSinkOptions {
+  /**
+   * How rotated files are compressed.
+   */
+  public enum Compression {
+    NONE,
+    GZIP
+  }
+
+  private Path directory = Paths.get(System.getProperty("user.dir"));
+  private String filePrefix = "ops";
+  private long maxFileSizeBytes = 100L * 1024 * 1024;
+  private Duration maxFileAge = Duration.ofHours(1);
+  private Compression compression = Compression.GZIP;
+  private long maxTotalSizeBytes = 1024L * 1024 * 1024;
+  private int queueCapacity = 16;
+
+  /**
+   * The options should only be instantiated through the {@link #rollingFileSinkOptions()} static method.
+   */
+  protected RollingFileSinkOptions() {
+  }
+
+  /**
+   * Returns an options builder.
+   */
+  public static RollingFileSinkOptions rollingFileSinkOptions() {
+    return new RollingFileSinkOptions();
+  }
+
+  /**
+   * The directory files are written into.  Defaults to the current working directory.
+   *
+   * @return the same {@link RollingFileSinkOptions} for chaining purposes.
+   */
+  public RollingFileSinkOptions directory(Path directory) {
+    this.directory = directory;
+    return this;
+  }
+
+  /**
+   * The prefix of all files written by the sink.  Defaults to "ops".
+   * <p>
+   * Retention only ever deletes files carrying this prefix, so each sink sharing a directory should use a distinct prefix.
+   *
+   * @return the same {@link RollingFileSinkOptions} for chaining purposes.
+   */
+  public RollingFileSinkOptions filePrefix(String filePrefix) {
+    this.filePrefix = filePrefix;
+    return this;
+  }
+
+  /**
+   * The active file is rotated once it reaches this size.  Defaults to 100 MiB.
+   *
+   * @return the same {@link RollingFileSinkOptions} for chaining purposes.
+   */
+  public RollingFileSinkOptions maxFileSizeBytes(long maxFileSizeBytes) {
+    this.maxFileSizeBytes = maxFileSizeBytes;
+    return this;
+  }
+
+  /**
+   * The active file is rotated once it has been open this long.  Defaults to 1 hour.
+   *
+   * @return the same {@link RollingFileSinkOptions} for chaining purposes.
+   */
+  public RollingFileSinkOptions maxFileAge(Duration maxFileAge) {
+    this.maxFileAge = maxFileAge;
+    return this;
+  }
+
+  /**
+   * How files are compressed when they are rotated.  Defaults to GZIP.
+   *
+   * @return the same {@link RollingFileSinkOptions} for chaining purposes.
+   */
+  public RollingFileSinkOptions compression(Compression compression) {
+    this.compression = compression;
+    return this;
+  }
+
+  /**
+   * Once the rotated files exceed this total size, the oldest are deleted.  Defaults to 1 GiB.
+   *
+   * @return the same {@link RollingFileSinkOptions} for chaining purposes.
+   */
+  public RollingFileSinkOptions maxTotalSizeBytes(long maxTotalSizeBytes) {
+    this.maxTotalSizeBytes = maxTotalSizeBytes;
+    return this;
+  }
+
+  /**
+   * How many reporting intervals' worth of operations can be waiting to be written.  If the disk cannot keep up and the queue is
+   * full, further intervals are dropped (and logged) rather than blocking the tracer.  Defaults to 16.
+   *
+   * @return the same {@link RollingFileSinkOptions} for chaining purposes.
+   */
+  public RollingFileSinkOptions queueCapacity(int queueCapacity) {
+    this.queueCapacity = queueCapacity;
+    return this;
+  }
+
+  @Stability.Internal
+  public Built build() {
+    return new Built();
+  }
+
+  @Stability.Internal
+  public class Built {
+    public Path directory() {
+      return directory;
+    }
+
+    public String filePrefix() {
+      return filePrefix;
+    }
+
+    public long maxFileSizeBytes() {
+      return maxFileSizeBytes;
+    }
+
+    public Duration maxFileAge() {
+      return maxFileAge;
+    }
+
+    public Compression compression() {
+      return compression;
+    }
+
+    public long maxTotalSizeBytes() {
+      return maxTotalSizeBytes;
+    }
+
+    public int queueCapacity() {
+      return queueCapacity;
+    }
+  }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2025 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.couchbase.client.output;
+
+import com.couchbase.client.InMemoryRequestTracerHandler;
+import com.couchbase.client.InMemoryRequestTracerHandlerOperations;
+import com.couchbase.client.core.annotation.Stability;
+import com.couchbase.client.core.cnc.TracingIdentifiers;
+import com.couchbase.client.core.deps.com.fasterxml.jackson.core.JsonFactory;
+import com.couchbase.client.core.deps.com.fasterxml.jackson.core.JsonGenerator;
+import com.couchbase.client.operations.Operation;
+import com.couchbase.client.operations.Operations;
+import com.couchbase.client.util.AppendableWriter;
+import com.couchbase.client.util.OperationsToJson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static com.couchbase.client.output.SlowOperationLogOptions.slowOperationLogOptions;
+import static com.couchbase.client.util.DurationUtil.toMicros;
+
+/**
+ * A handler that logs every operation slower than its service's threshold, in full: its network calls with their nodes and
+ * server durations, its retries, and its (redactable) document ID or statement.  This complements the SDK's own threshold
+ * logging, which only gives a summary.
+ * <p>
+ * To keep the log readable when many operations are slow, at most a configured number are logged per service per interval.
+ * Beyond that a uniformly random sample is logged, followed by a count of those that were not.
+ * <p>
+ * The operations are scanned without being copied, and only those over the threshold are ever looked at in detail, so the
+ * handler is cheap when, as usual, only a handful are.
+ */
+@Stability.Volatile
+public class SlowOperationLog implements InMemoryRequestTracerHandler {
+  private static final Logger logger = LoggerFactory.getLogger(SlowOperationLog.class);
+  private static final JsonFactory factory = new JsonFactory();
+
+  private final SlowOperationLogOptions.Built options;
+
+  public SlowOperationLog() {
+    this(slowOperationLogOptions());
+  }
+
+  public SlowOperationLog(SlowOperationLogOptions options) {
+    this.options = options.build();
+  }
+
+  @Override
+  public void evaluate(InMemoryRequestTracerHandlerOperations operations, Duration sinceLastReport) {
+    Selection selection = select(operations.operations());
+    for (Operation op : selection.logged()) {
+      try {
+        logger.warn("Slow operation: {}", toJson(op, Objects.requireNonNull(options.threshold(op.service()))));
+      } catch (Exception e) {
+        logger.error("Failed to write slow operation JSON", e);
+      }
+    }
+    if (!selection.notLogged().isEmpty()) {
+      long total = selection.notLogged().values().stream().mapToLong(Long::longValue).sum();
+      logger.warn("A further {} slow operations over last {} were not logged, by service: {}", total, sinceLastReport, selection.notLogged());
+    }
+  }
+
+  /**
+   * Picks the operations over their service's threshold to log, at most {@link SlowOperationLogOptions#maxLoggedPerService(int)}
+   * of each service.
+   */
+  Selection select(Operations operations) {
+    Map<String, Reservoir> byService = new HashMap<>();
+    operations.forEach(op -> {
+      String service = op.service();
+      Duration threshold = options.threshold(service);
+      if (threshold != null && op.duration().compareTo(threshold) > 0) {
+        byService.computeIfAbsent(Objects.toString(service, TracingIdentifiers.SERVICE_UNKNOWN),
+          k -> new Reservoir(options.maxLoggedPerService())).offer(op);
+      }
+    });
+
+    List<Operation> logged = new ArrayList<>();
+    Map<String, Long> notLogged = new TreeMap<>();
+    byService.forEach((service, reservoir) -> {
+      logged.addAll(reservoir.sample);
+      if (reservoir.seen > reservoir.sample.size()) {
+        notLogged.put(service, reservoir.seen - reservoir.sample.size());
+      }
+    });
+    logged.sort(Comparator.comparing(Operation::start));
+    return new Selection(logged, notLogged);
+  }
+
+  /**
+   * Writes an over-threshold operation as a single line of compact JSON.
+   */
+  static String toJson(Operation op, Duration threshold) throws IOException {
+    StringBuilder out = new StringBuilder();
+    try (JsonGenerator gen = factory.createGenerator(new AppendableWriter(out))) {
+      gen.writeStartObject();
+      gen.writeNumberField("thresholdUs", toMicros(threshold));
+      String node = op.node();
+      if (node != null) {
+        gen.writeStringField("node", node);
+      } else {
+        gen.writeNullField("node");
+      }
+      gen.writeFieldName("operation");
+      OperationsToJson.write(gen, op);
+      gen.writeEndObject();
+    }
+    return out.toString();
+  }
+
+  static final class Selection {
+    private final List<Operation> logged;
+    private final Map<String, Long> notLogged;
+
+    private Selection(List<Operation> logged, Map<String, Long> notLogged) {
+      this.logged = logged;
+      this.notLogged = notLogged;
+    }
+
+    /**
+     * The operations to log, in the order they started.
+     */
+    List<Operation> logged() {
+      return logged;
+    }
+
+    /**
+     * By service, how many operations were over the threshold but not logged.
+     */
+    Map<String, Long> notLogged() {
+      return notLogged;
+    }
+  }
+
+  /**
+   * Keeps a uniformly random sample of the operations offered to it (Vitter's algorithm R).
+   */
+  private static final class Reservoir {
+    private final int capacity;
+    private final List<Operation> sample = new ArrayList<>();
+    private long seen = 0;
+
+    private Reservoir(int capacity) {
+      this.capacity = capacity;
+    }
+
+    private void offer(Operation op) {
+      seen++;
+      if (sample.size() < capacity) {
+        sample.add(op);
+      } else if (capacity > 0) {
+        long index = ThreadLocalRandom.current().nextLong(seen);
+        if (index < capacity) {
+          sample.set((int) index, op);
+        }
+      }
+    }
+  }
+}
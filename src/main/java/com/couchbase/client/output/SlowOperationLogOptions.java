@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2025 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.couchbase.client.output;
+
+import com.couchbase.client.core.annotation.Stability;
+import com.couchbase.client.core.cnc.TracingIdentifiers;
+import org.jspecify.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Allows customizing options for the {@link SlowOperationLog}.
+ */
+@Stability.Volatile
+public class SlowOperationLogOptions {
+  private final Map<String, Duration> thresholds = new HashMap<>();
+  private @Nullable Duration defaultThreshold = null;
+  private int maxLoggedPerService = 10;
+
+  /**
+   * The options should only be instantiated through the {@link #slowOperationLogOptions()} static method.
+   */
+  protected SlowOperationLogOptions() {
+    // The same defaults as the SDK's own threshold logging.
+    thresholds.put(TracingIdentifiers.SERVICE_KV, Duration.ofMillis(500));
+    thresholds.put(TracingIdentifiers.SERVICE_QUERY, Duration.ofSeconds(1));
+    thresholds.put(TracingIdentifiers.SERVICE_SEARCH, Duration.ofSeconds(1));
+    thresholds.put(TracingIdentifiers.SERVICE_ANALYTICS, Duration.ofSeconds(1));
+    thresholds.put(TracingIdentifiers.SERVICE_VIEWS, Duration.ofSeconds(1));
+    thresholds.put(TracingIdentifiers.SERVICE_EVENTING, Duration.ofSeconds(1));
+    thresholds.put(TracingIdentifiers.SERVICE_MGMT, Duration.ofSeconds(1));
+    thresholds.put(TracingIdentifiers.SERVICE_TRANSACTIONS, Duration.ofSeconds(5));
+  }
+
+  /**
+   * Returns an options builder.
+   */
+  public static SlowOperationLogOptions slowOperationLogOptions() {
+    return new SlowOperationLogOptions();
+  }
+
+  /**
+   * Operations of this service ("kv", "query", etc.) that take longer than this are logged.  Null reverts the service to the
+   * {@link #defaultThreshold(Duration)}.
+   * <p>
+   * Defaults to 500 milliseconds for KV, 5 seconds for transactions, and 1 second for the other services.
+   *
+   * @return the same {@link SlowOperationLogOptions} for chaining purposes.
+   */
+  public SlowOperationLogOptions threshold(String service, @Nullable Duration threshold) {
+    if (threshold == null) {
+      thresholds.remove(service);
+    } else {
+      if (threshold.isNegative()) {
+        throw new IllegalArgumentException("Threshold must not be negative, but was " + threshold);
+      }
+      thresholds.put(service, threshold);
+    }
+    return this;
+  }
+
+  /**
+   * The threshold for services that have not been given their own with {@link #threshold(String, Duration)}.  Null (the default)
+   * means operations of such services are not logged.
+   *
+   * @return the same {@link SlowOperationLogOptions} for chaining purposes.
+   */
+  public SlowOperationLogOptions defaultThreshold(@Nullable Duration defaultThreshold) {
+    if (defaultThreshold != null && defaultThreshold.isNegative()) {
+      throw new IllegalArgumentException("Default threshold must not be negative, but was " + defaultThreshold);
+    }
+    this.defaultThreshold = defaultThreshold;
+    return this;
+  }
+
+  /**
+   * The most operations of each service to log in full per reporting interval.  If more are over the threshold, a random
+   * sample of this many is logged, followed by a count of the rest.  Defaults to 10.
+   *
+   * @return the same {@link SlowOperationLogOptions} for chaining purposes.
+   */
+  public SlowOperationLogOptions maxLoggedPerService(int maxLoggedPerService) {
+    if (maxLoggedPerService < 0) {
+      throw new IllegalArgumentException("Max logged per service must not be negative, but was " + maxLoggedPerService);
+    }
+    this.maxLoggedPerService = maxLoggedPerService;
+    return this;
+  }
+
+  @Stability.Internal
+  public Built build() {
+    return new Built();
+  }
+
+  /**
+   * An immutable snapshot of the options at the time {@link #build()} was called.
+   */
+  @Stability.Internal
+  public class Built {
+    private final Map<String, Duration> thresholds = Collections.unmodifiableMap(new HashMap<>(SlowOperationLogOptions.this.thresholds));
+    private final @Nullable Duration defaultThreshold = SlowOperationLogOptions.this.defaultThreshold;
+    private final int maxLoggedPerService = SlowOperationLogOptions.this.maxLoggedPerService;
+
+    public Map<String, Duration> thresholds() {
+      return thresholds;
+    }
+
+    public @Nullable Duration defaultThreshold() {
+      return defaultThreshold;
+    }
+
+    public int maxLoggedPerService() {
+      return maxLoggedPerService;
+    }
+
+    /**
+     * The threshold for the service, or null if its operations are not logged.
+     */
+    public @Nullable Duration threshold(@Nullable String service) {
+      Duration out = service == null ? null : thresholds.get(service);
+      return out == null ? defaultThreshold : out;
+    }
+  }
+}
@@ -0,0 +1,248 @@
+/*
+ * Copyright (c) 2025 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.couchbase.client.recorder;
+
+import com.couchbase.client.Durations;
+import com.couchbase.client.InMemoryRequestTracerHandler;
+import com.couchbase.client.InMemoryRequestTracerHandlerOperations;
+import com.couchbase.client.core.annotation.Stability;
+import com.couchbase.client.operations.Operation;
+import com.couchbase.client.operations.Operations;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.Closeable;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A handler that keeps the most recent operations, in full detail, in a fixed-size ring buffer, and normally outputs nothing.
+ * <p>
+ * The buffer is written to the configured dump handlers only when asked: by {@link #dump()}, over JMX, or automatically when a
+ * reporting interval breaches the configured error rate or p99 latency thresholds.  So it can be left on permanently, and will
+ * capture the minutes leading up to an incident.
+ * <p>
+ * Use it as the tracer's only handler for the flight-recorder behaviour:
+ * <pre>
+ * FlightRecorder recorder = new FlightRecorder(FlightRecorderOptions.flightRecorderOptions()
+ *     .errorRateThreshold(0.05)
+ *     .p99Threshold("kv", Duration.ofMillis(50)));
+ * InMemoryRequestTracer tracer = new InMemoryRequestTracer(InMemoryTracerOptions.inMemoryTracerOptions()
+ *     .handlers(List.of(recorder))
+ *     .interval(Duration.ofSeconds(1)));
+ * </pre>
+ * The interval then only controls how quickly operations reach the buffer and how often the triggers are checked.
+ * <p>
+ * Writes claim a slot with a single atomic increment and overwrite the oldest entry, without locking, so the buffer can also be
+ * fed directly through {@link #record(Operation)}.
+ */
+@Stability.Volatile
+public class FlightRecorder implements InMemoryRequestTracerHandler, FlightRecorderMXBean, Closeable {
+  private static final Logger logger = LoggerFactory.getLogger(FlightRecorder.class);
+  private static final AtomicInteger COUNTER = new AtomicInteger();
+
+  private final FlightRecorderOptions.Built options;
+  private final AtomicReferenceArray<Operation> ring;
+  private final AtomicLong next = new AtomicLong();
+  private final AtomicLong dumps = new AtomicLong();
+  private final AtomicLong lastAutomaticDumpNanos = new AtomicLong();
+  private volatile boolean automaticDumped = false;
+  private volatile String lastDumpReason = "";
+  private final @Nullable ObjectName objectName;
+
+  public FlightRecorder() {
+    this(FlightRecorderOptions.flightRecorderOptions());
+  }
+
+  public FlightRecorder(FlightRecorderOptions options) {
+    this.options = options.build();
+    this.ring = new AtomicReferenceArray<>(this.options.capacity());
+    this.objectName = this.options.jmx() ? register(this) : null;
+  }
+
+  private static @Nullable ObjectName register(FlightRecorder recorder) {
+    String name = "com.couchbase.client:type=FlightRecorder,name=flight-recorder-" + COUNTER.incrementAndGet();
+    try {
+      ObjectName objectName = new ObjectName(name);
+      ManagementFactory.getPlatformMBeanServer().registerMBean(recorder, objectName);
+      return objectName;
+    } catch (JMException | RuntimeException e) {
+      logger.warn("Failed to register JMX MBean {}: ", name, e);
+      return null;
+    }
+  }
+
+  /**
+   * Adds an operation to the ring buffer, overwriting the oldest if it is full.
+   */
+  public void record(Operation operation) {
+    long seq = next.getAndIncrement();
+    ring.set((int) (seq % ring.length()), operation);
+  }
+
+  @Override
+  public void evaluate(InMemoryRequestTracerHandlerOperations operations, Duration sinceLastReport) {
+    Operations ops = operations.operations();
+    for (Operation op : ops.operations()) {
+      record(op);
+    }
+
+    String reason = triggered(ops);
+    if (reason != null && cooledDown()) {
+      logger.info("Flight recorder triggered: {}", reason);
+      dump(reason);
+    }
+  }
+
+  private @Nullable String triggered(Operations ops) {
+    int min = Math.max(1, options.minOperationsForTrigger());
+    Double errorRateThreshold = options.errorRateThreshold();
+    if (errorRateThreshold != null && ops.size() >= min) {
+      long failed = ops.operations().stream().filter(op -> op.exception() != null).count();
+      double errorRate = (double) failed / ops.size();
+      if (errorRate > errorRateThreshold) {
+        return String.format("error rate %.4f exceeded %.4f", errorRate, errorRateThreshold);
+      }
+    }
+
+    if (!options.p99Thresholds().isEmpty()) {
+      for (Map.Entry<String, Operations> e : ops.groupByService().entrySet()) {
+        Duration threshold = options.p99Thresholds().get(e.getKey());
+        if (threshold == null || e.getValue().size() < min) {
+          continue;
+        }
+        Durations durations = e.getValue().durationsMicroseconds();
+        double p99 = durations.percentile(0.99);
+        if (p99 > TimeUnit.NANOSECONDS.toMicros(threshold.toNanos())) {
+          return String.format("%s p99 %.0fus exceeded %dus", e.getKey(), p99, TimeUnit.NANOSECONDS.toMicros(threshold.toNanos()));
+        }
+      }
+    }
+    return null;
+  }
+
+  private boolean cooledDown() {
+    long now = System.nanoTime();
+    long last = lastAutomaticDumpNanos.get();
+    if (automaticDumped && now - last < options.cooldown().toNanos()) {
+      return false;
+    }
+    if (!lastAutomaticDumpNanos.compareAndSet(last, now)) {
+      return false;
+    }
+    automaticDumped = true;
+    return true;
+  }
+
+  /**
+   * Returns the operations currently in the ring buffer and within the configured max age, oldest first, without removing them.
+   */
+  public List<Operation> contents() {
+    long end = next.get();
+    long start = Math.max(0, end - ring.length());
+    Instant oldest = options.maxAge() == null ? Instant.MIN : Instant.now().minus(options.maxAge());
+    List<Operation> out = new ArrayList<>((int) (end - start));
+    for (long seq = start; seq < end; seq++) {
+      Operation op = ring.get((int) (seq % ring.length()));
+      if (op != null && !op.start().isBefore(oldest)) {
+        out.add(op);
+      }
+    }
+    // A concurrent writer can lap the reader, so the order of slots is not quite the order of operations.
+    out.sort(Comparator.comparing(Operation::start));
+    return out;
+  }
+
+  /**
+   * Passes the ring buffer's contents to the dump handlers now.  The buffer is not cleared.
+   * <p>
+   * Dumps are serialised, so an explicit dump (e.g. over JMX) and one triggered on the handler thread never run the dump handlers
+   * concurrently.
+   *
+   * @return how many operations were dumped.
+   */
+  @Override
+  public int dump() {
+    return dump("explicit dump");
+  }
+
+  private synchronized int dump(String reason) {
+    List<Operation> contents = contents();
+    Duration covered = contents.isEmpty() ? Duration.ZERO : Duration.between(contents.get(0).start(), Instant.now());
+    InMemoryRequestTracerHandlerOperations ops = new InMemoryRequestTracerHandlerOperations(new Operations(contents));
+    for (InMemoryRequestTracerHandler handler : options.dumpHandlers()) {
+      try {
+        handler.evaluate(ops, covered);
+      } catch (Exception e) {
+        logger.error("Flight recorder dump handler failed: ", e);
+      }
+    }
+    dumps.incrementAndGet();
+    lastDumpReason = reason;
+    return contents.size();
+  }
+
+  @Override
+  public int getCapacity() {
+    return ring.length();
+  }
+
+  @Override
+  public long getRecordedOperations() {
+    return next.get();
+  }
+
+  @Override
+  public long getDumps() {
+    return dumps.get();
+  }
+
+  @Override
+  public String getLastDumpReason() {
+    return lastDumpReason;
+  }
+
+  /**
+   * Unregisters the MBean, if there is one.
+   */
+  @Override
+  public void close() {
+    if (objectName == null) {
+      return;
+    }
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    try {
+      if (server.isRegistered(objectName)) {
+        server.unregisterMBean(objectName);
+      }
+    } catch (JMException e) {
+      logger.warn("Failed to unregister JMX MBean {}: ", objectName, e);
+    }
+  }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2025 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.couchbase.client.recorder;
+
+import com.couchbase.client.core.annotation.Stability;
+
+/**
+ * The management interface registered for each {@link FlightRecorder}, under
+ * {@code com.couchbase.client:type=FlightRecorder,name=<name>}.
+ */
+@Stability.Volatile
+public interface FlightRecorderMXBean {
+  /**
+   * How many operations the ring buffer holds.
+   */
+  int getCapacity();
+
+  /**
+   * How many operations have been recorded in total, including those since overwritten.
+   */
+  long getRecordedOperations();
+
+  /**
+   * How many dumps have been made, explicit or automatic.
+   */
+  long getDumps();
+
+  /**
+   * The reason for the last dump, or empty if there has not been one.
+   */
+  String getLastDumpReason();
+
+  /**
+   * Dumps the ring buffer's contents to the dump handlers now.
+   *
+   * @return how many operations were dumped.
+   */
+  int dump();
+}
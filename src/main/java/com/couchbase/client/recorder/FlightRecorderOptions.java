@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2025 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.couchbase.client.recorder;
+
+import com.couchbase.client.ExampleHandlers;
+import com.couchbase.client.InMemoryRequestTracerHandler;
+import com.couchbase.client.core.annotation.Stability;
+import com.couchbase.client.core.util.CbCollections;
+import org.jspecify.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Allows customizing options for the {@link FlightRecorder}.
+ */
+@Stability.Volatile
+public class FlightRecorderOptions {
+  private int capacity = 100_000;
+  private @Nullable Duration maxAge = Duration.ofMinutes(5);
+  private List<InMemoryRequestTracerHandler> dumpHandlers = CbCollections.listOf(ExampleHandlers::writeAllOperations);
+  private @Nullable Double errorRateThreshold = null;
+  private final Map<String, Duration> p99Thresholds = new HashMap<>();
+  private int minOperationsForTrigger = 100;
+  private Duration cooldown = Duration.ofMinutes(1);
+  private boolean jmx = true;
+
+  /**
+   * The options should only be instantiated through the {@link #flightRecorderOptions()} static method.
+   */
+  protected FlightRecorderOptions() {
+  }
+
+  /**
+   * Returns an options builder.
+   */
+  public static FlightRecorderOptions flightRecorderOptions() {
+    return new FlightRecorderOptions();
+  }
+
+  /**
+   * How many operations the ring buffer holds.  Once full, the oldest are overwritten.  Defaults to 100,000.
+   *
+   * @return the same {@link FlightRecorderOptions} for chaining purposes.
+   */
+  public FlightRecorderOptions capacity(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Capacity must be positive, but was " + capacity);
+    }
+    this.capacity = capacity;
+    return this;
+  }
+
+  /**
+   * Operations older than this are left out of dumps, even if still in the ring buffer.  Null means only {@link #capacity(int)}
+   * limits what is dumped.  Defaults to 5 minutes.
+   *
+   * @return the same {@link FlightRecorderOptions} for chaining purposes.
+   */
+  public FlightRecorderOptions maxAge(@Nullable Duration maxAge) {
+    this.maxAge = maxAge;
+    return this;
+  }
+
+  /**
+   * The handlers that dumps are passed to.  They are only called from one thread at a time.  Defaults to
+   * {@link ExampleHandlers#writeAllOperations(com.couchbase.client.InMemoryRequestTracerHandlerOperations, Duration)}.
+   *
+   * @return the same {@link FlightRecorderOptions} for chaining purposes.
+   */
+  public FlightRecorderOptions dumpHandlers(List<InMemoryRequestTracerHandler> dumpHandlers) {
+    this.dumpHandlers = new ArrayList<>(dumpHandlers);
+    return this;
+  }
+
+  /**
+   * Automatically dumps when the fraction of failed operations in a reporting interval exceeds this, e.g. 0.05.  Null (the
+   * default) disables this trigger.
+   *
+   * @return the same {@link FlightRecorderOptions} for chaining purposes.
+   */
+  public FlightRecorderOptions errorRateThreshold(@Nullable Double errorRateThreshold) {
+    this.errorRateThreshold = errorRateThreshold;
+    return this;
+  }
+
+  /**
+   * Automatically dumps when the p99 latency of the given service ("kv", "query" etc.) in a reporting interval exceeds this.
+   * Can be called once per service.  By default there are no latency triggers.
+   *
+   * @return the same {@link FlightRecorderOptions} for chaining purposes.
+   */
+  public FlightRecorderOptions p99Threshold(String service, Duration threshold) {
+    this.p99Thresholds.put(service, threshold);
+    return this;
+  }
+
+  /**
+   * The automatic triggers are only evaluated for intervals, or services, with at least this many operations, so that a handful
+   * of operations cannot cause a dump.  Defaults to 100.
+   *
+   * @return the same {@link FlightRecorderOptions} for chaining purposes.
+   */
+  public FlightRecorderOptions minOperationsForTrigger(int minOperationsForTrigger) {
+    this.minOperationsForTrigger = minOperationsForTrigger;
+    return this;
+  }
+
+  /**
+   * After an automatic dump, further automatic triggers are ignored for this long, so a sustained incident produces one dump
+   * rather than one per interval.  Explicit dumps are not affected.  Defaults to 1 minute.
+   *
+   * @return the same {@link FlightRecorderOptions} for chaining purposes.
+   */
+  public FlightRecorderOptions cooldown(Duration cooldown) {
+    this.cooldown = cooldown;
+    return this;
+  }
+
+  /**
+   * Whether a {@link FlightRecorderMXBean} is registered, allowing dumps to be requested over JMX.  Defaults to true.
+   *
+   * @return the same {@link FlightRecorderOptions} for chaining purposes.
+   */
+  public FlightRecorderOptions jmx(boolean jmx) {
+    this.jmx = jmx;
+    return this;
+  }
+
+  @Stability.Internal
+  public Built build() {
+    return new Built();
+  }
+
+  @Stability.Internal
+  public class Built {
+    public int capacity() {
+      return capacity;
+    }
+
+    public @Nullable Duration maxAge() {
+      return maxAge;
+    }
+
+    public List<InMemoryRequestTracerHandler> dumpHandlers() {
+      return dumpHandlers;
+    }
+
+    public @Nullable Double errorRateThreshold() {
+      return errorRateThreshold;
+    }
+
+    public Map<String, Duration> p99Thresholds() {
+      return p99Thresholds;
+    }
+
+    public int minOperationsForTrigger() {
+      return minOperationsForTrigger;
+    }
+
+    public Duration cooldown() {
+      return cooldown;
+    }
+
+    public boolean jmx() {
+      return jmx;
+    }
+  }
+}
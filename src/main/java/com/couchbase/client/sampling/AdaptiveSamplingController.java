@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2025 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.couchbase.client.sampling;
+
+import com.couchbase.client.TracerOverhead;
+import com.couchbase.client.core.annotation.Stability;
+
+import java.time.Duration;
+
+/**
+ * Decides the sampling rate for the next reporting interval from what the last one cost, so the tracer stays within an
+ * {@link AdaptiveSamplingOptions} budget.
+ * <p>
+ * Each cost is assumed to be roughly proportional to the sampling rate, so when over budget the rate is scaled down by the
+ * fraction needed to meet the tightest limit, in a single step.  When under budget it is scaled up towards the limit, but by at
+ * most {@link #MAX_INCREASE} per interval, so that a quiet interval does not immediately open the gates to a burst.
+ */
+@Stability.Internal
+public class AdaptiveSamplingController {
+  static final double MAX_INCREASE = 2.0;
+
+  private AdaptiveSamplingController() {
+  }
+
+  /**
+   * @param currentRate the rate the interval was sampled at
+   * @param maxRate the configured sampling rate, which the adaptive rate never exceeds
+   * @param operations how many operations were captured in the interval
+   */
+  public static double nextRate(AdaptiveSamplingOptions.Built budget,
+                                double currentRate,
+                                double maxRate,
+                                long operations,
+                                TracerOverhead overhead) {
+    double factor = MAX_INCREASE;
+
+    Long maxOperations = budget.maxOperationsPerInterval();
+    if (maxOperations != null) {
+      factor = Math.min(factor, ratio(maxOperations, operations));
+    }
+
+    Long maxBytes = budget.maxRetainedBytes();
+    if (maxBytes != null) {
+      factor = Math.min(factor, ratio(maxBytes, overhead.estimatedRetainedBytes()));
+    }
+
+    Duration maxHandlerTime = budget.maxHandlerTime();
+    if (maxHandlerTime != null && !overhead.handlerNanos().isEmpty()) {
+      long handlerNanos = 0;
+      for (long nanos : overhead.handlerNanos()) {
+        handlerNanos += nanos;
+      }
+      factor = Math.min(factor, ratio(maxHandlerTime.toNanos(), handlerNanos));
+    }
+
+    double next = currentRate * factor;
+    return Math.min(maxRate, Math.max(budget.minSamplingRate(), next));
+  }
+
+  private static double ratio(long limit, long observed) {
+    return observed <= 0 ? MAX_INCREASE : (double) limit / observed;
+  }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2025 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.couchbase.client.sampling;
+
+import com.couchbase.client.core.annotation.Stability;
+import org.jspecify.annotations.Nullable;
+
+import java.time.Duration;
+
+/**
+ * A budget for the tracer's overhead, within which adaptive sampling keeps it.  See
+ * {@link com.couchbase.client.InMemoryTracerOptions#adaptiveSampling(AdaptiveSamplingOptions)}.
+ * <p>
+ * At least one of the limits should be set.  Where several are, the tightest one applies.
+ */
+@Stability.Volatile
+public class AdaptiveSamplingOptions {
+  private @Nullable Long maxOperationsPerInterval = null;
+  private @Nullable Long maxRetainedBytes = null;
+  private @Nullable Duration maxHandlerTime = null;
+  private double minSamplingRate = 0.001;
+
+  /**
+   * The options should only be instantiated through the {@link #adaptiveSamplingOptions()} static method.
+   */
+  protected AdaptiveSamplingOptions() {
+  }
+
+  /**
+   * Returns an options builder.
+   */
+  public static AdaptiveSamplingOptions adaptiveSamplingOptions() {
+    return new AdaptiveSamplingOptions();
+  }
+
+  /**
+   * The most operations to capture in one reporting interval.  Null (the default) means no limit.
+   *
+   * @return the same {@link AdaptiveSamplingOptions} for chaining purposes.
+   */
+  public AdaptiveSamplingOptions maxOperationsPerInterval(@Nullable Long maxOperationsPerInterval) {
+    if (maxOperationsPerInterval != null && maxOperationsPerInterval <= 0) {
+      throw new IllegalArgumentException("Max operations per interval must be positive, but was " + maxOperationsPerInterval);
+    }
+    this.maxOperationsPerInterval = maxOperationsPerInterval;
+    return this;
+  }
+
+  /**
+   * The most heap the spans retained in one reporting interval should take, as estimated by
+   * {@link com.couchbase.client.TracerOverhead#estimatedRetainedBytes()}.  Null (the default) means no limit.
+   *
+   * @return the same {@link AdaptiveSamplingOptions} for chaining purposes.
+   */
+  public AdaptiveSamplingOptions maxRetainedBytes(@Nullable Long maxRetainedBytes) {
+    if (maxRetainedBytes != null && maxRetainedBytes <= 0) {
+      throw new IllegalArgumentException("Max retained bytes must be positive, but was " + maxRetainedBytes);
+    }
+    this.maxRetainedBytes = maxRetainedBytes;
+    return this;
+  }
+
+  /**
+   * The most time all the handlers together should take per reporting interval.  Null (the default) means no limit.
+   * <p>
+   * Only applies to tracers that call their own handlers, not those created by an
+   * {@link com.couchbase.client.InMemoryRequestTracerRegistry}.
+   *
+   * @return the same {@link AdaptiveSamplingOptions} for chaining purposes.
+   */
+  public AdaptiveSamplingOptions maxHandlerTime(@Nullable Duration maxHandlerTime) {
+    if (maxHandlerTime != null && (maxHandlerTime.isNegative() || maxHandlerTime.isZero())) {
+      throw new IllegalArgumentException("Max handler time must be positive, but was " + maxHandlerTime);
+    }
+    this.maxHandlerTime = maxHandlerTime;
+    return this;
+  }
+
+  /**
+   * The sampling rate is never lowered below this, so the tracer always captures something, and can tell when load drops again.
+   * Defaults to 0.001.
+   *
+   * @return the same {@link AdaptiveSamplingOptions} for chaining purposes.
+   */
+  public AdaptiveSamplingOptions minSamplingRate(double minSamplingRate) {
+    if (!(minSamplingRate > 0 && minSamplingRate <= 1)) {
+      throw new IllegalArgumentException("Min sampling rate must be greater than 0 and at most 1, but was " + minSamplingRate);
+    }
+    this.minSamplingRate = minSamplingRate;
+    return this;
+  }
+
+  @Stability.Internal
+  public Built build() {
+    return new Built();
+  }
+
+  /**
+   * An immutable snapshot of the options at the time {@link #build()} was called.
+   */
+  @Stability.Internal
+  public class Built {
+    private final @Nullable Long maxOperationsPerInterval = AdaptiveSamplingOptions.this.maxOperationsPerInterval;
+    private final @Nullable Long maxRetainedBytes = AdaptiveSamplingOptions.this.maxRetainedBytes;
+    private final @Nullable Duration maxHandlerTime = AdaptiveSamplingOptions.this.maxHandlerTime;
+    private final double minSamplingRate = AdaptiveSamplingOptions.this.minSamplingRate;
+
+    public @Nullable Long maxOperationsPerInterval() {
+      return maxOperationsPerInterval;
+    }
+
+    public @Nullable Long maxRetainedBytes() {
+      return maxRetainedBytes;
+    }
+
+    public @Nullable Duration maxHandlerTime() {
+      return maxHandlerTime;
+    }
+
+    public double minSamplingRate() {
+      return minSamplingRate;
+    }
+  }
+}
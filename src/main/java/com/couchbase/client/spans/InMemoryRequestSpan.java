@@ -23,6 +23,7 @@ import org.jspecify.annotations.Nullable;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Used to store everything that would normally be provided to OpenTelemetry for an individual
@@ -35,21 +36,51 @@ import java.util.HashMap;
 public class InMemoryRequestSpan implements RequestSpan {
   private final String name;
   private final @Nullable InMemoryRequestSpan parent;
-  private final long startNanos = System.nanoTime();
-  private long endNanos = System.nanoTime();
-  private final Instant startInstant = Instant.now();
+  private final @Nullable SpanListener listener;
+  private final long startNanos;
+  private long endNanos;
+  private volatile boolean ended = false;
+  private volatile boolean excluded = false;
+  private double samplingRate = 1.0;
+  private final Instant startInstant;
   private final HashMap<String, Object> attributes = new HashMap<>();
   private @Nullable Throwable exception = null;
   private RequestSpan.@Nullable StatusCode status;
 
   public InMemoryRequestSpan(String name, @Nullable InMemoryRequestSpan parent) {
+    this(name, parent, null);
+  }
+
+  public InMemoryRequestSpan(String name, @Nullable InMemoryRequestSpan parent, @Nullable SpanListener listener) {
     this.name = name;
     this.parent = parent;
+    this.listener = listener;
+    this.startNanos = System.nanoTime();
+    this.endNanos = startNanos;
+    this.startInstant = Instant.now();
+  }
+
+  /**
+   * Recreates an already-completed span, e.g. one read back from a capture file.
+   * <p>
+   * The nanosecond timestamps of such spans are based on the epoch rather than {@link System#nanoTime()}.
+   */
+  public InMemoryRequestSpan(String name, @Nullable InMemoryRequestSpan parent, Instant startInstant, Duration duration) {
+    this.name = name;
+    this.parent = parent;
+    this.listener = null;
+    this.startInstant = startInstant;
+    this.startNanos = TimeUnit.SECONDS.toNanos(startInstant.getEpochSecond()) + startInstant.getNano();
+    this.endNanos = startNanos + duration.toNanos();
+    this.ended = true;
   }
 
   @Override
   public void attribute(String key, String value) {
     attributes.put(key, value);
+    if (listener != null) {
+      listener.onAttribute(this, key, value);
+    }
   }
 
   @Override
@@ -76,6 +107,10 @@ public class InMemoryRequestSpan implements RequestSpan {
   @Override
   public void end() {
     endNanos = System.nanoTime();
+    ended = true;
+    if (listener != null) {
+      listener.onEnd(this);
+    }
   }
 
   @Override
@@ -95,6 +130,10 @@ public class InMemoryRequestSpan implements RequestSpan {
     return parent;
   }
 
+  public @Nullable SpanListener listener() {
+    return listener;
+  }
+
   public long startNanos() {
     return startNanos;
   }
@@ -107,10 +146,44 @@ public class InMemoryRequestSpan implements RequestSpan {
     return endNanos;
   }
 
+  /**
+   * Whether {@link #end()} has been called.  Once this returns true, {@link #endNanos()} is safe to read from any thread.
+   */
+  public boolean ended() {
+    return ended;
+  }
+
+  /**
+   * Marks this operation as not of interest, e.g. because it did not pass a {@link com.couchbase.client.CaptureFilter}.  It, and
+   * its children, will not be passed to the handlers.
+   */
+  public void exclude() {
+    excluded = true;
+  }
+
+  public boolean excluded() {
+    return excluded;
+  }
+
+  /**
+   * Records the probability with which this span was captured.  Only set on top-level spans, before they are published.
+   */
+  public void samplingRate(double samplingRate) {
+    this.samplingRate = samplingRate;
+  }
+
+  public double samplingRate() {
+    return samplingRate;
+  }
+
   public HashMap<String, Object> attributes() {
     return new HashMap<>(attributes);
   }
 
+  public int attributeCount() {
+    return attributes.size();
+  }
+
   public @Nullable String attributeString(String key) {
     Object out = attributes.get(key);
     if (out instanceof String) {
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2025 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.couchbase.client.spans;
+
+import com.couchbase.client.core.annotation.Stability;
+
+/**
+ * Stands in for the original exception of an operation that has been read back from a capture file, where only the exception's
+ * class name and {@link Throwable#toString()} text were retained.
+ */
+@Stability.Internal
+public class RecordedException extends RuntimeException {
+  private static final long serialVersionUID = 1L;
+
+  private final String className;
+  private final String text;
+
+  public RecordedException(String className, String text) {
+    super(text, null, false, false);
+    this.className = className;
+    this.text = text;
+  }
+
+  /**
+   * Recreates an exception from its {@link Throwable#toString()} text, which is of the form "ClassName: message".
+   */
+  public static RecordedException fromString(String text) {
+    int colon = text.indexOf(": ");
+    return new RecordedException(colon == -1 ? text : text.substring(0, colon), text);
+  }
+
+  /**
+   * The fully qualified class name of the original exception.
+   */
+  public String className() {
+    return className;
+  }
+
+  /**
+   * The simple class name of the given exception, seeing through any {@link RecordedException}.
+   */
+  public static String simpleName(Throwable err) {
+    if (err instanceof RecordedException) {
+      String className = ((RecordedException) err).className;
+      return className.substring(className.lastIndexOf('.') + 1);
+    }
+    return err.getClass().getSimpleName();
+  }
+
+  @Override
+  public String toString() {
+    return text;
+  }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2025 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.couchbase.client.spans;
+
+import com.couchbase.client.core.annotation.Stability;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Allows the tracer to react to span lifecycle events as they happen on the SDK's threads, rather than waiting for the next
+ * handler interval.
+ * <p>
+ * Implementations are called on the SDK's hot path, so must be cheap and must not block.
+ */
+@Stability.Internal
+public interface SpanListener {
+  /**
+   * Called after a string attribute is set on the span.
+   */
+  default void onAttribute(InMemoryRequestSpan span, String key, String value) {
+  }
+
+  /**
+   * Called when the span ends.
+   */
+  void onEnd(InMemoryRequestSpan span);
+
+  /**
+   * Returns this listener, or the one it delegates to, if it is of the given type.  Listeners can be combined with
+   * {@link #both}, so use this rather than {@code instanceof} to find a particular one.
+   */
+  default <T extends SpanListener> @Nullable T find(Class<T> type) {
+    return type.isInstance(this) ? type.cast(this) : null;
+  }
+
+  /**
+   * Returns a listener calling {@code first} then {@code second}.
+   */
+  static SpanListener both(SpanListener first, SpanListener second) {
+    return new SpanListener() {
+      @Override
+      public void onAttribute(InMemoryRequestSpan span, String key, String value) {
+        first.onAttribute(span, key, value);
+        second.onAttribute(span, key, value);
+      }
+
+      @Override
+      public void onEnd(InMemoryRequestSpan span) {
+        first.onEnd(span);
+        second.onEnd(span);
+      }
+
+      @Override
+      public <T extends SpanListener> @Nullable T find(Class<T> type) {
+        T out = first.find(type);
+        return out != null ? out : second.find(type);
+      }
+    };
+  }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2025 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.couchbase.client.util;
+
+import com.couchbase.client.core.annotation.Stability;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Adapts an {@link Appendable} (such as a StringBuilder) to a {@link Writer}, so JSON can be generated straight into it.
+ */
+@Stability.Internal
+public class AppendableWriter extends Writer {
+  private final Appendable out;
+
+  public AppendableWriter(Appendable out) {
+    this.out = out;
+  }
+
+  @Override
+  public void write(char[] cbuf, int off, int len) throws IOException {
+    if (out instanceof StringBuilder) {
+      ((StringBuilder) out).append(cbuf, off, len);
+      return;
+    }
+    for (int i = off; i < off + len; i++) {
+      out.append(cbuf[i]);
+    }
+  }
+
+  @Override
+  public void write(String str, int off, int len) throws IOException {
+    out.append(str, off, off + len);
+  }
+
+  @Override
+  public Writer append(CharSequence csq) throws IOException {
+    out.append(csq);
+    return this;
+  }
+
+  @Override
+  public void flush() {
+  }
+
+  @Override
+  public void close() {
+  }
+}
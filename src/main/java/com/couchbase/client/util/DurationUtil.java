@@ -18,9 +18,11 @@ package com.couchbase.client.util;
 import com.couchbase.client.core.annotation.Stability;
 
 import java.time.Duration;
+import java.time.Instant;
 
 import static java.util.concurrent.TimeUnit.MICROSECONDS;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
 
 @Stability.Internal
 public class DurationUtil {
@@ -34,4 +36,12 @@ public class DurationUtil {
   public static Duration durationOfMicros(long micros) {
     return Duration.ofNanos(MICROSECONDS.toNanos(micros));
   }
+
+  public static long toEpochMicros(Instant instant) {
+    return SECONDS.toMicros(instant.getEpochSecond()) + NANOSECONDS.toMicros(instant.getNano());
+  }
+
+  public static Instant instantOfEpochMicros(long micros) {
+    return Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000L), MICROSECONDS.toNanos(Math.floorMod(micros, 1_000_000L)));
+  }
 }
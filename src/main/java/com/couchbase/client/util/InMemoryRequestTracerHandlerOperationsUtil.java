@@ -23,7 +23,9 @@ import reactor.util.function.Tuples;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Stability.Internal
@@ -31,12 +33,38 @@ public class InMemoryRequestTracerHandlerOperationsUtil {
   private InMemoryRequestTracerHandlerOperationsUtil() {
   }
 
+  /**
+   * Splits spans into those of operations that have completed, and those of operations still in flight.  A span is judged by its
+   * top-level span, and each top-level span is looked at once, so an operation completing concurrently is never split across the
+   * two.
+   */
+  public static Tuple2<List<InMemoryRequestSpan>, List<InMemoryRequestSpan>> partitionByCompleted(List<InMemoryRequestSpan> spans) {
+    Set<InMemoryRequestSpan> inFlightOperations = new HashSet<>();
+    for (InMemoryRequestSpan span : spans) {
+      if (span.parent() == null && !span.ended()) {
+        inFlightOperations.add(span);
+      }
+    }
+
+    List<InMemoryRequestSpan> completed = new ArrayList<>(spans.size());
+    List<InMemoryRequestSpan> inFlight = new ArrayList<>(inFlightOperations.size() * 2);
+    for (InMemoryRequestSpan span : spans) {
+      InMemoryRequestSpan topLevel = span.parent() == null ? span : span.parent();
+      if (inFlightOperations.contains(topLevel)) {
+        inFlight.add(span);
+      } else {
+        completed.add(span);
+      }
+    }
+    return Tuples.of(completed, inFlight);
+  }
+
   public static Tuple2<List<SpansForOperation>, List<InMemoryRequestSpan>> associateTopLevelSpansWithChildren(List<InMemoryRequestSpan> spans) {
     HashMap<InMemoryRequestSpan, List<InMemoryRequestSpan>> operationSpans = new HashMap<>();
 
     // First-pass: look for the top-level spans (operations)
     for (InMemoryRequestSpan span : spans) {
-      if (span.parent() == null) {
+      if (span.parent() == null && !span.excluded()) {
         operationSpans.put(span, new ArrayList<>());
       }
     }
@@ -47,7 +75,8 @@ public class InMemoryRequestTracerHandlerOperationsUtil {
     // Second-pass: associate children with their parents.
     // The SDK (currently) only has two levels of span, so this is sufficient.
     for (InMemoryRequestSpan span : spans) {
-      if (span.parent() != null) {
+      // Children of excluded operations are dropped along with them.
+      if (span.parent() != null && !span.parent().excluded()) {
         List<InMemoryRequestSpan> operationSpan = operationSpans.get(span.parent());
         if (operationSpan != null) {
           operationSpan.add(span);
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2025 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.couchbase.client.util;
+
+import com.couchbase.client.core.annotation.Stability;
+
+/**
+ * Log-scale latency buckets, a quarter of a power of two wide, so each is within 25% of its lower bound.  Buckets below 4 are
+ * exact.  Finding a value's bucket is a couple of shifts, so fixed-size, mergeable histograms can be kept on these cheaply.
+ */
+@Stability.Internal
+public class LatencyBuckets {
+  private static final int SUB_BUCKET_BITS = 2;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+  /**
+   * How many buckets there are, covering every non-negative long.
+   */
+  public static final int COUNT = bucket(Long.MAX_VALUE) + 1;
+
+  private LatencyBuckets() {
+  }
+
+  /**
+   * Returns the bucket a value falls in.  Negative values fall in the first.
+   */
+  public static int bucket(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) Math.max(0, value);
+    }
+    int octave = 63 - Long.numberOfLeadingZeros(value);
+    int subBucket = (int) (value >>> (octave - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+    return (octave - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+  }
+
+  /**
+   * Returns the smallest value that falls in the bucket.
+   */
+  public static long lowerBound(int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    int octave = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+    long subBucket = bucket % SUB_BUCKETS;
+    return (SUB_BUCKETS + subBucket) << (octave - SUB_BUCKET_BITS);
+  }
+
+  /**
+   * Returns a single value to represent the bucket: the middle of it, or for the exact buckets, their value.
+   */
+  public static double midpoint(int bucket) {
+    long lower = lowerBound(bucket);
+    if (bucket < SUB_BUCKETS) {
+      return lower;
+    }
+    long width = 1L << (bucket / SUB_BUCKETS - 1);
+    return lower + (width - 1) / 2.0;
+  }
+}
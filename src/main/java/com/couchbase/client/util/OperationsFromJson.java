@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2025 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.couchbase.client.util;
+
+import com.couchbase.client.core.annotation.Stability;
+import com.couchbase.client.core.deps.com.fasterxml.jackson.databind.JsonNode;
+import com.couchbase.client.operations.Operation;
+import com.couchbase.client.spans.InMemoryRequestSpan;
+import com.couchbase.client.spans.SpansForOperation;
+import org.jspecify.annotations.Nullable;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.couchbase.client.util.DurationUtil.durationOfMicros;
+
+/**
+ * The inverse of {@link OperationsToJson}: recreates operations from their JSON representation.
+ */
+@Stability.Internal
+public class OperationsFromJson {
+  private OperationsFromJson() {
+  }
+
+  public static Operation fromJson(JsonNode json) {
+    InMemoryRequestSpan span = RecordedSpans.operation(json.path("name").asText(),
+      Instant.parse(json.path("start").asText()),
+      durationOfMicros(json.path("durationUs").asLong()),
+      text(json, "service"),
+      text(json, "statement"),
+      text(json, "documentId"),
+      text(json, "bucket"),
+      text(json, "scope"),
+      text(json, "collection"),
+      text(json, "exception"),
+      number(json, "retries"));
+    JsonNode samplingRate = json.get("samplingRate");
+    if (samplingRate != null && samplingRate.isNumber()) {
+      span.samplingRate(samplingRate.asDouble());
+    }
+
+    List<InMemoryRequestSpan> children = new ArrayList<>();
+    JsonNode requestEncoding = json.get("requestEncoding");
+    if (requestEncoding != null && requestEncoding.isObject()) {
+      children.add(RecordedSpans.requestEncoding(span,
+        Instant.parse(requestEncoding.path("start").asText()),
+        durationOfMicros(requestEncoding.path("durationUs").asLong())));
+    }
+    for (JsonNode call : json.path("networkCalls")) {
+      children.add(RecordedSpans.networkCall(span,
+        Instant.parse(call.path("start").asText()),
+        durationOfMicros(call.path("durationUs").asLong()),
+        text(call, "host"),
+        number(call, "port"),
+        text(call, "durability"),
+        number(call, "serverDurationUs")));
+    }
+
+    return new Operation(new SpansForOperation(span, children), text(json, "cluster"));
+  }
+
+  private static @Nullable String text(JsonNode json, String field) {
+    JsonNode node = json.get(field);
+    return node == null || node.isNull() ? null : node.asText();
+  }
+
+  private static @Nullable Long number(JsonNode json, String field) {
+    JsonNode node = json.get(field);
+    return node == null || node.isNull() ? null : node.asLong();
+  }
+}
@@ -16,6 +16,7 @@
 package com.couchbase.client.util;
 
 import com.couchbase.client.core.annotation.Stability;
+import com.couchbase.client.core.deps.com.fasterxml.jackson.core.JsonGenerator;
 import com.couchbase.client.core.deps.com.fasterxml.jackson.databind.node.ArrayNode;
 import com.couchbase.client.core.deps.com.fasterxml.jackson.databind.node.ObjectNode;
 import com.couchbase.client.core.json.Mapper;
@@ -24,7 +25,9 @@ import com.couchbase.client.operations.NetworkCalls;
 import com.couchbase.client.operations.Operation;
 import com.couchbase.client.operations.Operations;
 import com.couchbase.client.operations.RequestEncoding;
+import com.couchbase.client.spans.InMemoryRequestSpan;
 
+import java.io.IOException;
 import java.time.Duration;
 import java.time.Instant;
 
@@ -73,11 +76,18 @@ public class OperationsToJson {
     if (collection != null) {
       out.put("collection", collection);
     }
+    String cluster = operation.cluster();
+    if (cluster != null) {
+      out.put("cluster", cluster);
+    }
     Throwable exception = operation.exception();
     if (exception != null) {
       out.put("exception", exception.toString());
     }
     out.put("retries", operation.retries());
+    if (operation.samplingRate() < 1.0) {
+      out.put("samplingRate", operation.samplingRate());
+    }
     RequestEncoding re = operation.requestEncoding();
     if (re != null) {
       out.set("requestEncoding", toJson(re));
@@ -117,4 +127,107 @@ public class OperationsToJson {
     }
     return out;
   }
+
+  /**
+   * Streaming equivalent of {@link #toJson(Operation)}, producing the same fields in the same order without building a tree.
+   */
+  public static void write(JsonGenerator gen, Operation operation) throws IOException {
+    gen.writeStartObject();
+    gen.writeStringField("name", operation.name());
+    String service = operation.service();
+    if (service != null) {
+      gen.writeStringField("service", service);
+    } else {
+      gen.writeNullField("service");
+    }
+    gen.writeStringField("start", toJson(operation.start()));
+    gen.writeNumberField("durationUs", toMicros(operation.duration()));
+    String statement = operation.statement();
+    String documentId = operation.documentId();
+    String bucket = operation.bucket();
+    String scope = operation.scope();
+    String collection = operation.collection();
+    if (statement != null) {
+      gen.writeStringField("statement", statement);
+    }
+    if (documentId != null) {
+      gen.writeStringField("documentId", documentId);
+    }
+    if (bucket != null) {
+      gen.writeStringField("bucket", bucket);
+    }
+    if (scope != null) {
+      gen.writeStringField("scope", scope);
+    }
+    if (collection != null) {
+      gen.writeStringField("collection", collection);
+    }
+    String cluster = operation.cluster();
+    if (cluster != null) {
+      gen.writeStringField("cluster", cluster);
+    }
+    Throwable exception = operation.exception();
+    if (exception != null) {
+      gen.writeStringField("exception", exception.toString());
+    }
+    Long retries = operation.retries();
+    if (retries != null) {
+      gen.writeNumberField("retries", retries);
+    } else {
+      gen.writeNullField("retries");
+    }
+    if (operation.samplingRate() < 1.0) {
+      gen.writeNumberField("samplingRate", operation.samplingRate());
+    }
+    RequestEncoding re = operation.requestEncoding();
+    if (re != null) {
+      gen.writeFieldName("requestEncoding");
+      write(gen, re);
+    }
+    gen.writeFieldName("networkCalls");
+    write(gen, operation.networkCalls());
+    gen.writeEndObject();
+  }
+
+  public static void write(JsonGenerator gen, RequestEncoding op) throws IOException {
+    gen.writeStartObject();
+    gen.writeNumberField("durationUs", toMicros(op.duration()));
+    gen.writeStringField("start", toJson(op.start()));
+    gen.writeEndObject();
+  }
+
+  public static void write(JsonGenerator gen, NetworkCall call) throws IOException {
+    gen.writeStartObject();
+    gen.writeNumberField("durationUs", toMicros(call.duration()));
+    gen.writeStringField("start", toJson(call.start()));
+    String host = call.remoteHost();
+    if (host != null) {
+      gen.writeStringField("host", host);
+    } else {
+      gen.writeNullField("host");
+    }
+    Long port = call.remotePort();
+    if (port != null) {
+      gen.writeNumberField("port", port);
+    } else {
+      gen.writeNullField("port");
+    }
+    String durability = call.durability();
+    if (durability != null) {
+      gen.writeStringField("durability", durability);
+    }
+    Duration serverDuration = call.serverDuration();
+    if (serverDuration != null) {
+      gen.writeNumberField("serverDurationUs", toMicros(serverDuration));
+    }
+    gen.writeEndObject();
+  }
+
+  public static void write(JsonGenerator gen, NetworkCalls calls) throws IOException {
+    gen.writeStartArray();
+    for (InMemoryRequestSpan span : calls.spans()) {
+      write(gen, new NetworkCall(span));
+    }
+    gen.writeEndArray();
+  }
 }
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2025 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.couchbase.client.util;
+
+import com.couchbase.client.TracerOverhead;
+import com.couchbase.client.core.annotation.Stability;
+import com.couchbase.client.spans.InMemoryRequestSpan;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Accumulates the tracer's measurements of its own cost on the capture path, to be turned into a {@link TracerOverhead} at the
+ * end of each interval.
+ * <p>
+ * Counting uses {@link LongAdder}s so that concurrent span creations do not contend, and only one in
+ * {@link #CREATION_SAMPLE_EVERY} creations is timed, so that measuring does not itself become a noticeable cost.
+ */
+@Stability.Internal
+public class OverheadRecorder {
+  public static final int CREATION_SAMPLE_EVERY = 64;
+
+  // Rough per-object sizes on a 64-bit JVM with compressed oops.  Only intended to give the right order of magnitude.
+  private static final long BYTES_PER_SPAN = 240;
+  private static final long BYTES_PER_ATTRIBUTE = 48;
+
+  private final LongAdder spansCreated = new LongAdder();
+  private final LongAdder creationSamples = new LongAdder();
+  private final LongAdder creationSampledNanos = new LongAdder();
+  private final AtomicLong creationMaxNanos = new AtomicLong();
+  // The totals as of the previous snapshot.  Only accessed from the thread calling the handlers.
+  private long lastSpansCreated;
+  private long lastCreationSamples;
+  private long lastCreationSampledNanos;
+
+  /**
+   * Whether to time this span creation.
+   */
+  public static boolean sampleCreation() {
+    return ThreadLocalRandom.current().nextInt(CREATION_SAMPLE_EVERY) == 0;
+  }
+
+  public void spanCreated() {
+    spansCreated.increment();
+  }
+
+  public void spanCreated(long creationNanos) {
+    spansCreated.increment();
+    creationSamples.increment();
+    creationSampledNanos.add(creationNanos);
+    creationMaxNanos.accumulateAndGet(creationNanos, Math::max);
+  }
+
+  public static long estimateBytes(List<InMemoryRequestSpan> spans) {
+    long out = 0;
+    for (InMemoryRequestSpan span : spans) {
+      out += BYTES_PER_SPAN + BYTES_PER_ATTRIBUTE * span.attributeCount();
+    }
+    return out;
+  }
+
+  /**
+   * Returns the capture path's measurements since the previous call, together with those made by the handler thread.
+   * <p>
+   * The running totals are never reset, so spans created concurrently with this are counted in one interval or the next, but
+   * never lost.  Must only be called from one thread at a time.
+   */
+  public TracerOverhead snapshotAndReset(double intervalSeconds,
+                                         long retainedSpans,
+                                         long estimatedRetainedBytes,
+                                         long droppedSpans,
+                                         long rotationNanos,
+                                         long associationNanos,
+                                         List<Long> handlerNanos) {
+    long sampledNanos = creationSampledNanos.sum();
+    long samples = creationSamples.sum();
+    long created = spansCreated.sum();
+    TracerOverhead out = new TracerOverhead(intervalSeconds,
+      created - lastSpansCreated,
+      samples - lastCreationSamples,
+      sampledNanos - lastCreationSampledNanos,
+      creationMaxNanos.getAndSet(0),
+      retainedSpans,
+      estimatedRetainedBytes,
+      droppedSpans,
+      rotationNanos,
+      associationNanos,
+      handlerNanos);
+    lastSpansCreated = created;
+    lastCreationSamples = samples;
+    lastCreationSampledNanos = sampledNanos;
+    return out;
+  }
+}
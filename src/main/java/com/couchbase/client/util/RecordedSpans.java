@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2025 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.couchbase.client.util;
+
+import com.couchbase.client.core.annotation.Stability;
+import com.couchbase.client.core.cnc.TracingIdentifiers;
+import com.couchbase.client.spans.InMemoryRequestSpan;
+import com.couchbase.client.spans.RecordedException;
+import org.jspecify.annotations.Nullable;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Recreates the spans of previously captured operations (e.g. read back from a file), with the same names and attributes the SDK
+ * would have used, so they can be consumed through the usual {@link com.couchbase.client.operations.Operation} abstractions.
+ */
+@Stability.Internal
+public class RecordedSpans {
+  private RecordedSpans() {
+  }
+
+  public static InMemoryRequestSpan operation(String name,
+                                              Instant start,
+                                              Duration duration,
+                                              @Nullable String service,
+                                              @Nullable String statement,
+                                              @Nullable String documentId,
+                                              @Nullable String bucket,
+                                              @Nullable String scope,
+                                              @Nullable String collection,
+                                              @Nullable String exception,
+                                              @Nullable Long retries) {
+    InMemoryRequestSpan span = new InMemoryRequestSpan(name, null, start, duration);
+    putIfNonNull(span, TracingIdentifiers.ATTR_SERVICE, service);
+    putIfNonNull(span, TracingIdentifiers.ATTR_STATEMENT, statement);
+    putIfNonNull(span, TracingIdentifiers.ATTR_DOCUMENT_ID, documentId);
+    putIfNonNull(span, TracingIdentifiers.ATTR_NAME, bucket);
+    putIfNonNull(span, TracingIdentifiers.ATTR_SCOPE, scope);
+    putIfNonNull(span, TracingIdentifiers.ATTR_COLLECTION, collection);
+    if (retries != null) {
+      span.attribute(TracingIdentifiers.ATTR_RETRIES, retries);
+    }
+    if (exception != null) {
+      span.recordException(RecordedException.fromString(exception));
+    }
+    return span;
+  }
+
+  public static InMemoryRequestSpan requestEncoding(InMemoryRequestSpan operation, Instant start, Duration duration) {
+    return new InMemoryRequestSpan(TracingIdentifiers.SPAN_REQUEST_ENCODING, operation, start, duration);
+  }
+
+  public static InMemoryRequestSpan networkCall(InMemoryRequestSpan operation,
+                                                Instant start,
+                                                Duration duration,
+                                                @Nullable String host,
+                                                @Nullable Long port,
+                                                @Nullable String durability,
+                                                @Nullable Long serverDurationMicros) {
+    InMemoryRequestSpan span = new InMemoryRequestSpan(TracingIdentifiers.SPAN_DISPATCH, operation, start, duration);
+    putIfNonNull(span, TracingIdentifiers.ATTR_REMOTE_HOSTNAME, host);
+    putIfNonNull(span, TracingIdentifiers.ATTR_DURABILITY, durability);
+    if (port != null) {
+      span.attribute(TracingIdentifiers.ATTR_REMOTE_PORT, port);
+    }
+    if (serverDurationMicros != null) {
+      span.attribute(TracingIdentifiers.ATTR_SERVER_DURATION, serverDurationMicros);
+    }
+    return span;
+  }
+
+  private static void putIfNonNull(InMemoryRequestSpan span, String key, @Nullable String value) {
+    if (value != null) {
+      span.attribute(key, value);
+    }
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2025 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.couchbase.client.util;
+
+import com.couchbase.client.core.annotation.Stability;
+import com.couchbase.client.spans.InMemoryRequestSpan;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the spans captured in one reporting interval (an epoch), without locking.
+ * <p>
+ * Writers add to whichever buffer is current.  At the end of the interval the handler thread swaps in a fresh buffer with
+ * {@link #rotate(AtomicReference, Collection)}, which waits only for writers already part-way through adding to the old one, so
+ * no span is lost.  Readers can copy the current buffer at any time without blocking either.
+ */
+@Stability.Internal
+public class SpanBuffer {
+  private final ConcurrentLinkedQueue<InMemoryRequestSpan> spans = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger writers = new AtomicInteger();
+
+  /**
+   * Adds the span to the current buffer.
+   */
+  public static void add(AtomicReference<SpanBuffer> current, InMemoryRequestSpan span) {
+    while (true) {
+      SpanBuffer buffer = current.get();
+      buffer.writers.incrementAndGet();
+      try {
+        // Re-checking after registering as a writer means rotate() either sees us, or we see the new buffer.
+        if (current.get() == buffer) {
+          buffer.spans.add(span);
+          return;
+        }
+      } finally {
+        buffer.writers.decrementAndGet();
+      }
+    }
+  }
+
+  /**
+   * Replaces the current buffer with a new one, and returns all spans from the old one after {@code carriedOver}.
+   * <p>
+   * Must only be called from one thread at a time.
+   */
+  public static List<InMemoryRequestSpan> rotate(AtomicReference<SpanBuffer> current, Collection<InMemoryRequestSpan> carriedOver) {
+    SpanBuffer previous = current.getAndSet(new SpanBuffer());
+    while (previous.writers.get() != 0) {
+      Thread.yield();
+    }
+    List<InMemoryRequestSpan> out = new ArrayList<>(carriedOver.size() + previous.spans.size());
+    out.addAll(carriedOver);
+    out.addAll(previous.spans);
+    return out;
+  }
+
+  /**
+   * Returns a copy of the spans in this buffer so far.  Spans added concurrently may or may not be included.
+   */
+  public List<InMemoryRequestSpan> copy() {
+    return new ArrayList<>(spans);
+  }
+}
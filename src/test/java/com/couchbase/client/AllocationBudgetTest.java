@@ -0,0 +1,128 @@
+package com.couchbase.client;
+
+import com.couchbase.client.core.cnc.RequestTracer;
+import com.couchbase.client.core.cnc.tracing.NoopRequestTracer;
+import com.couchbase.client.util.SimulatedSdk;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.couchbase.client.InMemoryTracerOptions.inMemoryTracerOptions;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Fails the build if the capture path, or producing the aggregated report, starts allocating more per operation than budgeted.
+ * <p>
+ * Allocation is measured on the calling thread with {@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long)}, after
+ * a warm-up so the JIT has had a chance to eliminate what it can.  The budgets have some headroom over what is measured today:
+ * lower them when allocation is removed, and only raise them deliberately.
+ */
+public class AllocationBudgetTest {
+  // A KV operation with request encoding and one network call: three spans and fourteen attributes.  Measured at ~1070.
+  private static final long CAPTURE_BUDGET_BYTES_PER_OP = 1280;
+  // Measured at ~850.
+  private static final long REPORT_BUDGET_BYTES_PER_OP = 1024;
+
+  private static final int WARMUP = 20_000;
+  private static final int MEASURED = 20_000;
+
+  private static com.sun.management.ThreadMXBean threads;
+
+  @BeforeAll
+  public static void setup() {
+    assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean, "No allocation measurement on this JVM");
+    threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    assumeTrue(threads.isThreadAllocatedMemorySupported(), "No allocation measurement on this JVM");
+    threads.setThreadAllocatedMemoryEnabled(true);
+  }
+
+  private static long allocatedBytes() {
+    return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+
+  private static void awaitCalls(AtomicLong calls, long expected) throws InterruptedException {
+    long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+    while (calls.get() < expected && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    assertEquals(expected, calls.get());
+  }
+
+  private static void kvOperations(RequestTracer tracer, int count) {
+    for (int i = 0; i < count; i++) {
+      SimulatedSdk.kv(tracer, "get", "airline_10", "10.0.0.1", 42);
+    }
+  }
+
+  /**
+   * Bytes allocated per operation by the tracer, over and above what the SDK's calls allocate with tracing disabled.
+   */
+  private static double captureBytesPerOperation(RequestTracer tracer) {
+    kvOperations(tracer, WARMUP);
+    kvOperations(NoopRequestTracer.INSTANCE, WARMUP);
+
+    long start = allocatedBytes();
+    kvOperations(NoopRequestTracer.INSTANCE, MEASURED);
+    long baseline = allocatedBytes() - start;
+
+    start = allocatedBytes();
+    kvOperations(tracer, MEASURED);
+    long traced = allocatedBytes() - start;
+    return (double) (traced - baseline) / MEASURED;
+  }
+
+  @Test
+  public void capturePathStaysWithinBudget() {
+    InMemoryRequestTracer tracer = new InMemoryRequestTracer(inMemoryTracerOptions()
+      .handlers(Collections.emptyList())
+      .jmx(false)
+      .interval(Duration.ofHours(1)));
+    try {
+      double bytesPerOp = captureBytesPerOperation(tracer);
+      assertTrue(bytesPerOp <= CAPTURE_BUDGET_BYTES_PER_OP,
+        "Capturing a KV operation allocated " + bytesPerOp + " bytes, over the budget of " + CAPTURE_BUDGET_BYTES_PER_OP);
+    } finally {
+      tracer.stop(Duration.ofSeconds(1)).block();
+    }
+  }
+
+  @Test
+  public void aggregatedReportStaysWithinBudget() throws Exception {
+    AtomicLong calls = new AtomicLong();
+    AtomicReference<InMemoryRequestTracerHandlerOperations> reported = new AtomicReference<>();
+    InMemoryRequestTracer tracer = new InMemoryRequestTracer(inMemoryTracerOptions()
+      .handlers(Collections.singletonList((ops, since) -> {
+        reported.set(ops);
+        calls.incrementAndGet();
+      }))
+      .jmx(false)
+      .interval(Duration.ofHours(1)));
+    try {
+      // The handlers are first called immediately on creation.
+      awaitCalls(calls, 1);
+      kvOperations(tracer, MEASURED);
+      tracer.reportNow();
+      awaitCalls(calls, 2);
+      InMemoryRequestTracerHandlerOperations ops = reported.get();
+      assertEquals(MEASURED, ops.operations().size());
+
+      for (int i = 0; i < 5; i++) {
+        ExampleReports.writeExampleAggregatedReport(ops, new StringBuilder(), false);
+      }
+      long start = allocatedBytes();
+      ExampleReports.writeExampleAggregatedReport(ops, new StringBuilder(), false);
+      double bytesPerOp = (double) (allocatedBytes() - start) / MEASURED;
+      assertTrue(bytesPerOp <= REPORT_BUDGET_BYTES_PER_OP,
+        "The aggregated report allocated " + bytesPerOp + " bytes per operation, over the budget of " + REPORT_BUDGET_BYTES_PER_OP);
+    } finally {
+      tracer.stop(Duration.ofSeconds(1)).block();
+    }
+  }
+}
@@ -0,0 +1,92 @@
+package com.couchbase.client;
+
+import com.couchbase.client.core.cnc.RequestSpan;
+import com.couchbase.client.core.cnc.TracingIdentifiers;
+import com.couchbase.client.core.cnc.tracing.NoopRequestSpan;
+import com.couchbase.client.operations.Operation;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static com.couchbase.client.InMemoryTracerOptions.inMemoryTracerOptions;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class CaptureFilterTest {
+  private static InMemoryRequestTracer tracer(CaptureFilter filter) throws InterruptedException {
+    CountDownLatch firstCall = new CountDownLatch(1);
+    InMemoryRequestTracer tracer = new InMemoryRequestTracer(inMemoryTracerOptions()
+      .handlers(Collections.singletonList((ops, since) -> firstCall.countDown()))
+      .jmx(false)
+      .interval(Duration.ofHours(1))
+      .captureFilter(filter));
+    // The handlers are first called immediately on creation, so wait for that to avoid it racing with the snapshots.
+    firstCall.await();
+    return tracer;
+  }
+
+  private static RequestSpan operation(InMemoryRequestTracer tracer, String name, String service, String bucket) {
+    RequestSpan op = tracer.requestSpan(name, null);
+    op.attribute(TracingIdentifiers.ATTR_SERVICE, service);
+    op.attribute(TracingIdentifiers.ATTR_NAME, bucket);
+    RequestSpan dispatch = tracer.requestSpan(TracingIdentifiers.SPAN_DISPATCH, op);
+    dispatch.end();
+    op.end();
+    return dispatch;
+  }
+
+  @Test
+  public void rejectedOperationNamesGetNoopSpans() throws InterruptedException {
+    InMemoryRequestTracer tracer = tracer(CaptureFilter.operations("get"));
+    try {
+      RequestSpan upsert = tracer.requestSpan("upsert", null);
+      assertSame(NoopRequestSpan.INSTANCE, upsert);
+      assertSame(NoopRequestSpan.INSTANCE, tracer.requestSpan(TracingIdentifiers.SPAN_DISPATCH, upsert));
+
+      operation(tracer, "get", "kv", "default");
+      List<Operation> ops = tracer.snapshot().operations().operations();
+      assertEquals(1, ops.size());
+      assertEquals("get", ops.get(0).name());
+    } finally {
+      tracer.stop(Duration.ofSeconds(1)).block();
+    }
+  }
+
+  @Test
+  public void rejectedAttributesDropTheOperationAndLaterChildren() throws InterruptedException {
+    InMemoryRequestTracer tracer = tracer(CaptureFilter.all(CaptureFilter.services("kv"), CaptureFilter.buckets("travel")));
+    try {
+      assertSame(NoopRequestSpan.INSTANCE, operation(tracer, "query", "query", "travel"));
+      assertSame(NoopRequestSpan.INSTANCE, operation(tracer, "get", "kv", "default"));
+      operation(tracer, "get", "kv", "travel");
+
+      List<Operation> ops = tracer.snapshot().operations().operations();
+      assertEquals(1, ops.size());
+      assertEquals("travel", ops.get(0).bucket());
+      assertEquals(1, ops.get(0).networkCalls().networkCalls().size());
+    } finally {
+      tracer.stop(Duration.ofSeconds(1)).block();
+    }
+  }
+
+  @Test
+  public void fastOperationsAreDroppedWhenTheyEnd() throws InterruptedException {
+    InMemoryRequestTracer tracer = tracer(CaptureFilter.slowerThan(Duration.ofMillis(20)));
+    try {
+      operation(tracer, "get", "kv", "default");
+
+      RequestSpan slow = tracer.requestSpan("upsert", null);
+      Thread.sleep(30);
+      slow.end();
+
+      List<Operation> ops = tracer.snapshot().operations().operations();
+      assertEquals(1, ops.size());
+      assertEquals("upsert", ops.get(0).name());
+    } finally {
+      tracer.stop(Duration.ofSeconds(1)).block();
+    }
+  }
+}
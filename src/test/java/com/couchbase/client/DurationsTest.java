@@ -0,0 +1,77 @@
+package com.couchbase.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class DurationsTest {
+  // What HdrHistogram's recordValueWithExpectedInterval records.
+  private static Durations correctedByMaterialising(long[] values, long interval) {
+    List<Long> out = new ArrayList<>();
+    for (long value : values) {
+      out.add(value);
+      for (long missing = value - interval; missing >= interval; missing -= interval) {
+        out.add(missing);
+      }
+    }
+    return new Durations(out.stream());
+  }
+
+  private static void assertSameStatistics(Durations expected, Durations actual) {
+    assertEquals(expected.count(), actual.count());
+    assertEquals(expected.min(), actual.min());
+    assertEquals(expected.max(), actual.max());
+    assertEquals(expected.mean(), actual.mean(), 1e-6);
+    assertEquals(expected.median(), actual.median());
+    for (double p : new double[]{0.01, 0.5, 0.9, 0.95, 0.99, 0.999, 1.0}) {
+      assertEquals(expected.percentile(p), actual.percentile(p), "p" + p);
+    }
+  }
+
+  @Test
+  public void correctsForCoordinatedOmissionLikeHdrHistogram() {
+    Random random = new Random(42);
+    long[] values = new long[1000];
+    for (int i = 0; i < values.length; i++) {
+      // Mostly around 100, with occasional stalls of up to 50x the expected interval.
+      values[i] = random.nextInt(10) == 0 ? 1 + random.nextInt(5000) : 50 + random.nextInt(100);
+    }
+    for (long interval : new long[]{1, 7, 100, 1000}) {
+      assertSameStatistics(correctedByMaterialising(values.clone(), interval),
+        new Durations(values.clone()).correctedForCoordinatedOmission(interval));
+    }
+  }
+
+  @Test
+  public void stallIsSampledAtEveryMissedInterval() {
+    // One 1s stall among 99 requests of 1ms, issued every 10ms.
+    long[] values = new long[100];
+    for (int i = 0; i < 99; i++) {
+      values[i] = 1_000;
+    }
+    values[99] = 1_000_000;
+    Durations raw = new Durations(values.clone());
+    Durations corrected = raw.correctedForCoordinatedOmission(10_000);
+
+    assertEquals(100, raw.count());
+    assertEquals(1_000, raw.percentile(0.99));
+    assertEquals(100 + 99, corrected.count());
+    assertEquals(1_000_000, corrected.max());
+    // Half the requests that should have been issued were waiting on the stall.
+    assertEquals(500_000, corrected.percentile(0.75), 10_000);
+  }
+
+  @Test
+  public void emptyAndInvalid() {
+    Durations corrected = new Durations(new long[0]).correctedForCoordinatedOmission(10);
+    assertEquals(0, corrected.count());
+    assertEquals(0, corrected.percentile(0.99));
+    assertEquals(0, corrected.median());
+    assertThrows(IllegalArgumentException.class, () -> new Durations(new long[0]).correctedForCoordinatedOmission(0));
+  }
+}
@@ -0,0 +1,85 @@
+package com.couchbase.client;
+
+import com.couchbase.client.core.deps.com.fasterxml.jackson.databind.JsonNode;
+import com.couchbase.client.core.deps.com.fasterxml.jackson.databind.ObjectMapper;
+import com.couchbase.client.core.deps.com.fasterxml.jackson.databind.SerializationFeature;
+import com.couchbase.client.core.deps.com.fasterxml.jackson.databind.json.JsonMapper;
+import com.couchbase.client.core.deps.com.fasterxml.jackson.databind.node.ObjectNode;
+import com.couchbase.client.core.error.ParsingFailureException;
+import com.couchbase.client.util.SyntheticSpans;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ExampleReportsTest {
+  private static final ObjectMapper mapper = JsonMapper.builder()
+    .enable(SerializationFeature.INDENT_OUTPUT)
+    .build();
+
+  private static InMemoryRequestTracerHandlerOperations operations() {
+    SyntheticSpans spans = new SyntheticSpans();
+    spans.kv("upsert", "id1", "10.0.0.1", 120);
+    spans.kv("upsert", "id2", "10.0.0.2", 80);
+    spans.kv("get", "id2", "10.0.0.2", 60);
+    spans.query("SELECT 1", "10.0.0.3", null);
+    spans.query("BAD", "10.0.0.3", new ParsingFailureException(null));
+    return spans.operations();
+  }
+
+  @Test
+  public void streamedAggregatedReportMatchesTree() throws Exception {
+    InMemoryRequestTracerHandlerOperations ops = operations();
+
+    StringBuilder streamed = new StringBuilder();
+    ExampleReports.writeExampleAggregatedReport(ops, streamed, true);
+
+    assertEquals(mapper.writeValueAsString(ExampleReports.exampleAggregatedReport(ops)), streamed.toString());
+  }
+
+  @Test
+  public void compactAggregatedReportIsOneLine() throws Exception {
+    InMemoryRequestTracerHandlerOperations ops = operations();
+
+    StringBuilder streamed = new StringBuilder();
+    ExampleReports.writeExampleAggregatedReport(ops, streamed, false);
+
+    assertFalse(streamed.toString().contains("\n"));
+    assertEquals(JsonMapper.builder().build().writeValueAsString(ExampleReports.exampleAggregatedReport(ops)), streamed.toString());
+  }
+
+  @Test
+  public void aggregatedReportIncludesTracerOverhead() throws Exception {
+    TracerOverhead overhead = new TracerOverhead(10, 1000, 16, 16_000, 5_000, 400, 96_000, 2, 3_000, 250_000, Arrays.asList(1_500_000L, 20_000L));
+    InMemoryRequestTracerHandlerOperations ops = new InMemoryRequestTracerHandlerOperations(operations().operations(), overhead);
+
+    ObjectNode report = ExampleReports.exampleAggregatedReport(ops);
+    assertEquals(100.0, report.path("_tracer").path("spansCreatedPerSecond").asDouble());
+    assertEquals(1000.0, report.path("_tracer").path("spanCreationMeanNanos").asDouble());
+    assertEquals(1500, report.path("_tracer").path("handlerMicros").path(0).asLong());
+
+    StringBuilder streamed = new StringBuilder();
+    ExampleReports.writeExampleAggregatedReport(ops, streamed, true);
+    assertEquals(mapper.writeValueAsString(report), streamed.toString());
+  }
+
+  @Test
+  public void aggregatedReportIncludesCorrectedDurations() throws Exception {
+    InMemoryRequestTracerHandlerOperations ops = new InMemoryRequestTracerHandlerOperations(operations().operations(), null,
+      Collections.singletonMap("upsert", Duration.ofNanos(10_000)));
+
+    ObjectNode report = ExampleReports.exampleAggregatedReport(ops);
+    JsonNode upsert = report.path("kv").path("upsert").path("successfulOps");
+    assertTrue(upsert.has("correctedOperationDurationsMicros"));
+    assertFalse(report.path("kv").path("get").path("successfulOps").has("correctedOperationDurationsMicros"));
+
+    StringBuilder streamed = new StringBuilder();
+    ExampleReports.writeExampleAggregatedReport(ops, streamed, true);
+    assertEquals(mapper.writeValueAsString(report), streamed.toString());
+  }
+}
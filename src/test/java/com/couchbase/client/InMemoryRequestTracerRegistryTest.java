@@ -0,0 +1,84 @@
+package com.couchbase.client;
+
+import com.couchbase.client.core.cnc.RequestSpan;
+import com.couchbase.client.core.cnc.TracingIdentifiers;
+import com.couchbase.client.core.deps.com.fasterxml.jackson.databind.JsonNode;
+import com.couchbase.client.core.json.Mapper;
+import com.couchbase.client.operations.Operations;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static com.couchbase.client.InMemoryTracerOptions.inMemoryTracerOptions;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class InMemoryRequestTracerRegistryTest {
+  private static void operation(InMemoryRequestTracer tracer, String name) {
+    RequestSpan op = tracer.requestSpan(name, null);
+    op.attribute(TracingIdentifiers.ATTR_SERVICE, TracingIdentifiers.SERVICE_KV);
+    op.end();
+  }
+
+  @Test
+  public void reportsAllClustersTogether() throws Exception {
+    BlockingQueue<InMemoryRequestTracerHandlerOperations> reports = new ArrayBlockingQueue<>(10);
+    try (InMemoryRequestTracerRegistry registry = new InMemoryRequestTracerRegistry(inMemoryTracerOptions()
+      .handlers(Collections.singletonList((ops, since) -> reports.add(ops)))
+      .jmx(false)
+      .interval(Duration.ofHours(1)))) {
+      InMemoryRequestTracer east = registry.tracer("east");
+      InMemoryRequestTracer west = registry.tracer("west");
+      operation(east, "get");
+      operation(east, "get");
+      operation(west, "upsert");
+      assertEquals("east", east.snapshot().operations().operations().get(0).cluster());
+
+      registry.reportNow();
+      InMemoryRequestTracerHandlerOperations ops = reports.poll(10, TimeUnit.SECONDS);
+      assertNotNull(ops);
+      Map<String, Operations> byCluster = ops.operations().groupByCluster();
+      assertEquals(2, byCluster.get("east").size());
+      assertEquals(1, byCluster.get("west").size());
+
+      StringBuilder report = new StringBuilder();
+      ExampleReports.writeExampleClusterReport(ops, report, false);
+      JsonNode json = Mapper.decodeIntoTree(report.toString().getBytes("UTF-8"));
+      assertEquals(2, json.path("east").path("kv").path("get").path("successfulOps").path("counts").path("operations").asInt());
+      assertEquals(1, json.path("west").path("kv").path("upsert").path("successfulOps").path("counts").path("operations").asInt());
+
+      west.stop(Duration.ofSeconds(1)).block();
+      assertEquals(1, registry.tracers().size());
+      operation(east, "get");
+      east.reportNow();
+      ops = reports.poll(10, TimeUnit.SECONDS);
+      assertNotNull(ops);
+      assertEquals(1, ops.operations().size());
+      assertTrue(ops.operations().groupByCluster().containsKey("east"));
+    }
+  }
+
+  @Test
+  public void closeStopsRemainingTracers() {
+    InMemoryRequestTracerRegistry registry = new InMemoryRequestTracerRegistry(inMemoryTracerOptions()
+      .handlers(Collections.emptyList())
+      .interval(Duration.ofHours(1)));
+    InMemoryRequestTracer east = registry.tracer("east");
+    operation(east, "get");
+    registry.close();
+
+    assertTrue(registry.tracers().isEmpty());
+    assertFalse(east.captureEnabled());
+    operation(east, "get");
+    assertEquals(1, east.snapshot().operations().size());
+    assertThrows(IllegalStateException.class, () -> registry.tracer("west"));
+  }
+}
@@ -0,0 +1,279 @@
+package com.couchbase.client;
+
+import com.couchbase.client.core.cnc.RequestSpan;
+import com.couchbase.client.core.cnc.TracingIdentifiers;
+import com.couchbase.client.core.cnc.tracing.NoopRequestSpan;
+import com.couchbase.client.operations.Operations;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.couchbase.client.InMemoryTracerOptions.inMemoryTracerOptions;
+import static com.couchbase.client.sampling.AdaptiveSamplingOptions.adaptiveSamplingOptions;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class InMemoryRequestTracerTest {
+  private static void awaitCount(AtomicLong count, long expected) throws InterruptedException {
+    long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+    while (count.get() < expected && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    assertEquals(expected, count.get());
+  }
+
+  @Test
+  public void snapshotIncludesCompletedOperationsWithoutResettingTheInterval() throws Exception {
+    AtomicLong calls = new AtomicLong();
+    AtomicLong reported = new AtomicLong();
+    InMemoryRequestTracer tracer = new InMemoryRequestTracer(inMemoryTracerOptions()
+      .handlers(Collections.singletonList((ops, since) -> {
+        reported.addAndGet(ops.operations().size());
+        calls.incrementAndGet();
+      }))
+      .jmx(false)
+      .interval(Duration.ofHours(1)));
+    try {
+      // The handlers are first called immediately on creation.
+      awaitCount(calls, 1);
+
+      RequestSpan completed = tracer.requestSpan("get", null);
+      completed.attribute(TracingIdentifiers.ATTR_SERVICE, TracingIdentifiers.SERVICE_KV);
+      tracer.requestSpan(TracingIdentifiers.SPAN_DISPATCH, completed).end();
+      completed.end();
+      RequestSpan inFlight = tracer.requestSpan("upsert", null);
+
+      for (int i = 0; i < 2; i++) {
+        InMemoryRequestTracerHandlerOperations snapshot = tracer.snapshot();
+        assertEquals(1, snapshot.operations().size());
+        assertEquals("get", snapshot.operations().operations().get(0).name());
+        assertEquals(1, snapshot.operations().networkCalls().networkCalls().size());
+      }
+
+      inFlight.end();
+      assertEquals(2, tracer.snapshot().operations().size());
+
+      tracer.reportNow();
+      awaitCount(reported, 2);
+      assertEquals(0, tracer.snapshot().operations().size());
+    } finally {
+      tracer.stop(Duration.ofSeconds(1)).block();
+    }
+  }
+
+  @Test
+  public void doesNotLoseSpansWhileRotating() throws Exception {
+    AtomicLong reported = new AtomicLong();
+    InMemoryRequestTracer tracer = new InMemoryRequestTracer(inMemoryTracerOptions()
+      .handlers(Collections.singletonList((ops, since) -> reported.addAndGet(ops.operations().size())))
+      .jmx(false)
+      .interval(Duration.ofMillis(1)));
+    int threads = 4;
+    int perThread = 20_000;
+    try {
+      List<Thread> writers = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        Thread writer = new Thread(() -> {
+          for (int i = 0; i < perThread; i++) {
+            tracer.requestSpan("get", null).end();
+          }
+        });
+        writers.add(writer);
+        writer.start();
+      }
+      for (Thread writer : writers) {
+        writer.join();
+      }
+
+      tracer.reportNow();
+      awaitCount(reported, (long) threads * perThread);
+    } finally {
+      tracer.stop(Duration.ofSeconds(1)).block();
+    }
+  }
+
+  @Test
+  public void reconfiguresWhileRunning() throws Exception {
+    AtomicLong reported = new AtomicLong();
+    InMemoryRequestTracerHandler counting = (ops, since) ->
+      reported.addAndGet(ops.operations().operations().stream().filter(op -> op.name().equals("counted")).count());
+    InMemoryRequestTracer tracer = new InMemoryRequestTracer(inMemoryTracerOptions()
+      .handlers(Collections.emptyList())
+      .jmx(false)
+      .interval(Duration.ofHours(1)));
+    try {
+      tracer.reconfigure(options -> options.samplingRate(0));
+      assertSame(NoopRequestSpan.INSTANCE, tracer.requestSpan("get", null));
+      tracer.reconfigure(options -> options.samplingRate(1));
+      assertNotSame(NoopRequestSpan.INSTANCE, tracer.requestSpan("get", null));
+
+      tracer.captureEnabled(false);
+      assertSame(NoopRequestSpan.INSTANCE, tracer.requestSpan("get", null));
+      tracer.captureEnabled(true);
+
+      // The interval change reschedules the handlers, which then pick up the added handler.
+      tracer.addHandler(counting);
+      assertEquals(1, tracer.options().handlers().size());
+      tracer.interval(Duration.ofMillis(10));
+      tracer.requestSpan("counted", null).end();
+      awaitCount(reported, 1);
+
+      assertTrue(tracer.removeHandler(counting));
+      assertFalse(tracer.removeHandler(counting));
+      assertTrue(tracer.options().handlers().isEmpty());
+    } finally {
+      tracer.stop(Duration.ofSeconds(1)).block();
+    }
+  }
+
+  @Test
+  public void reportsItsOwnOverhead() throws Exception {
+    AtomicLong calls = new AtomicLong();
+    AtomicReference<TracerOverhead> overhead = new AtomicReference<>();
+    InMemoryRequestTracer tracer = new InMemoryRequestTracer(inMemoryTracerOptions()
+      .handlers(Collections.singletonList((ops, since) -> {
+        overhead.set(ops.overhead());
+        calls.incrementAndGet();
+      }))
+      .jmx(false)
+      .interval(Duration.ofHours(1)));
+    try {
+      awaitCount(calls, 1);
+
+      for (int i = 0; i < 50; i++) {
+        RequestSpan op = tracer.requestSpan("get", null);
+        tracer.requestSpan(TracingIdentifiers.SPAN_DISPATCH, op).end();
+        op.end();
+      }
+      tracer.reportNow();
+      awaitCount(calls, 2);
+
+      TracerOverhead reported = overhead.get();
+      assertEquals(100, reported.spansCreated());
+      assertEquals(100, reported.retainedSpans());
+      assertEquals(0, reported.droppedSpans());
+      assertTrue(reported.estimatedRetainedBytes() > 0);
+      assertTrue(reported.spanCreationSamples() <= 100);
+      // Timed during the first call
+      assertEquals(1, reported.handlerNanos().size());
+    } finally {
+      tracer.stop(Duration.ofSeconds(1)).block();
+    }
+  }
+
+  @Test
+  public void adaptsSamplingRateToBudget() throws Exception {
+    AtomicLong calls = new AtomicLong();
+    AtomicReference<InMemoryRequestTracerHandlerOperations> reported = new AtomicReference<>();
+    InMemoryRequestTracer tracer = new InMemoryRequestTracer(inMemoryTracerOptions()
+      .handlers(Collections.singletonList((ops, since) -> {
+        reported.set(ops);
+        calls.incrementAndGet();
+      }))
+      .adaptiveSampling(adaptiveSamplingOptions().maxOperationsPerInterval(10L))
+      .jmx(false)
+      .interval(Duration.ofHours(1)));
+    try {
+      awaitCount(calls, 1);
+      assertEquals(1.0, tracer.samplingRate());
+
+      for (int i = 0; i < 100; i++) {
+        tracer.requestSpan("get", null).end();
+      }
+      tracer.reportNow();
+      awaitCount(calls, 2);
+      assertEquals(0.1, tracer.samplingRate(), 1e-9);
+
+      for (int i = 0; i < 10_000; i++) {
+        tracer.requestSpan("get", null).end();
+      }
+      tracer.reportNow();
+      awaitCount(calls, 3);
+      Operations ops = reported.get().operations();
+      assertTrue(ops.size() > 500 && ops.size() < 1500, "captured " + ops.size());
+      assertEquals(ops.size() * 10, ops.estimatedCount(), 1e-6);
+    } finally {
+      tracer.stop(Duration.ofSeconds(1)).block();
+    }
+  }
+
+  @Test
+  public void holdsBackOperationsUntilTheyEnd() throws Exception {
+    AtomicLong calls = new AtomicLong();
+    AtomicReference<InMemoryRequestTracerHandlerOperations> reported = new AtomicReference<>();
+    InMemoryRequestTracer tracer = new InMemoryRequestTracer(inMemoryTracerOptions()
+      .handlers(Collections.singletonList((ops, since) -> {
+        reported.set(ops);
+        calls.incrementAndGet();
+      }))
+      .jmx(false)
+      .interval(Duration.ofHours(1)));
+    try {
+      awaitCount(calls, 1);
+
+      RequestSpan op = tracer.requestSpan("get", null);
+      tracer.requestSpan(TracingIdentifiers.SPAN_DISPATCH, op).end();
+      tracer.reportNow();
+      awaitCount(calls, 2);
+      assertEquals(0, reported.get().operations().size());
+
+      tracer.requestSpan(TracingIdentifiers.SPAN_DISPATCH, op).end();
+      op.attribute(TracingIdentifiers.ATTR_RETRIES, 1L);
+      op.end();
+      tracer.reportNow();
+      awaitCount(calls, 3);
+      Operations ops = reported.get().operations();
+      assertEquals(1, ops.size());
+      assertEquals(2, ops.networkCalls().networkCalls().size());
+      assertEquals(1L, ops.operations().get(0).retries());
+    } finally {
+      tracer.stop(Duration.ofSeconds(1)).block();
+    }
+  }
+
+  @Test
+  public void snapshotIncludesOperationsSpanningIntervals() throws Exception {
+    AtomicLong calls = new AtomicLong();
+    AtomicReference<InMemoryRequestTracerHandlerOperations> reported = new AtomicReference<>();
+    InMemoryRequestTracer tracer = new InMemoryRequestTracer(inMemoryTracerOptions()
+      .handlers(Collections.singletonList((ops, since) -> {
+        reported.set(ops);
+        calls.incrementAndGet();
+      }))
+      .jmx(false)
+      .interval(Duration.ofHours(1)));
+    try {
+      awaitCount(calls, 1);
+
+      // Starts in one interval...
+      RequestSpan op = tracer.requestSpan("get", null);
+      tracer.requestSpan(TracingIdentifiers.SPAN_DISPATCH, op).end();
+      tracer.reportNow();
+      awaitCount(calls, 2);
+      assertEquals(0, tracer.snapshot().operations().size());
+
+      // ...and ends in the next, with a child in each.
+      tracer.requestSpan(TracingIdentifiers.SPAN_DISPATCH, op).end();
+      op.end();
+      Operations snapshot = tracer.snapshot().operations();
+      assertEquals(1, snapshot.size());
+      assertEquals(2, snapshot.networkCalls().networkCalls().size());
+
+      tracer.reportNow();
+      awaitCount(calls, 3);
+      assertEquals(1, reported.get().operations().size());
+      assertEquals(2, reported.get().operations().networkCalls().networkCalls().size());
+      assertEquals(0, tracer.snapshot().operations().size());
+    } finally {
+      tracer.stop(Duration.ofSeconds(1)).block();
+    }
+  }
+}
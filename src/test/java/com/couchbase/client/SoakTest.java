@@ -0,0 +1,86 @@
+package com.couchbase.client;
+
+import com.couchbase.client.core.cnc.TracingIdentifiers;
+import com.couchbase.client.operations.Operation;
+import com.couchbase.client.util.SimulatedSdk;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.couchbase.client.InMemoryTracerOptions.inMemoryTracerOptions;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs a simulated workload through the tracer and checks that everything issued is reported, and that memory stays bounded.
+ * Runs for a couple of seconds by default.  For a real soak, run for longer with e.g. {@code -Dsoak.seconds=3600}.
+ */
+public class SoakTest {
+  private static final Duration DURATION = Duration.ofSeconds(Long.getLong("soak.seconds", 2));
+  private static final double RATE = 5_000;
+  private static final Duration INTERVAL = Duration.ofMillis(200);
+
+  @Test
+  public void reportsEverythingIssuedWithBoundedMemory() throws Exception {
+    Map<String, LongAdder> reported = new ConcurrentHashMap<>();
+    Map<String, LongAdder> reportedFailures = new ConcurrentHashMap<>();
+    LongAdder reportedRetries = new LongAdder();
+    AtomicLong total = new AtomicLong();
+    AtomicLong maxRetainedSpans = new AtomicLong();
+    InMemoryRequestTracer tracer = new InMemoryRequestTracer(inMemoryTracerOptions()
+      .handlers(Collections.singletonList((ops, since) -> {
+        for (Operation op : ops.operations().operations()) {
+          reported.computeIfAbsent(op.name(), k -> new LongAdder()).increment();
+          if (op.exception() != null) {
+            reportedFailures.computeIfAbsent(op.name(), k -> new LongAdder()).increment();
+          }
+          Long retries = op.retries();
+          reportedRetries.add(retries == null ? 0 : retries);
+        }
+        TracerOverhead overhead = ops.overhead();
+        if (overhead != null) {
+          maxRetainedSpans.accumulateAndGet(overhead.retainedSpans(), Math::max);
+        }
+        total.addAndGet(ops.operations().size());
+      }))
+      .jmx(false)
+      .interval(INTERVAL));
+    SimulatedSdk sdk = new SimulatedSdk(tracer)
+      .concurrency(8)
+      .operationsPerSecond(RATE)
+      .retryProbability(0.05)
+      .failureProbability(0.02);
+    try {
+      sdk.run(DURATION);
+      tracer.reportNow();
+      long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+      while (total.get() < sdk.totalIssued() && System.nanoTime() < deadline) {
+        Thread.sleep(10);
+      }
+
+      assertTrue(sdk.totalIssued() > 0);
+      assertEquals(sdk.totalIssued(), total.get());
+      for (String name : new String[]{TracingIdentifiers.SPAN_REQUEST_KV_GET, TracingIdentifiers.SPAN_REQUEST_KV_UPSERT, TracingIdentifiers.SPAN_REQUEST_QUERY}) {
+        assertEquals(sdk.issued(name), count(reported, name), name);
+        assertEquals(sdk.failed(name), count(reportedFailures, name), name);
+      }
+      assertEquals(sdk.totalRetries(), reportedRetries.sum());
+
+      // At most one interval's spans, plus any carried over from the one before, at under 5 spans per operation.
+      long opsPerInterval = (long) (RATE * INTERVAL.toNanos() / 1e9);
+      assertTrue(maxRetainedSpans.get() < 2 * 5 * opsPerInterval, "retained " + maxRetainedSpans.get());
+    } finally {
+      tracer.stop(Duration.ofSeconds(1)).block();
+    }
+  }
+
+  private static long count(Map<String, LongAdder> counts, String name) {
+    LongAdder out = counts.get(name);
+    return out == null ? 0 : out.sum();
+  }
+}
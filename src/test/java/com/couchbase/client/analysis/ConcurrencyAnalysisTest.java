@@ -0,0 +1,125 @@
+package com.couchbase.client.analysis;
+
+import com.couchbase.client.InMemoryRequestTracerHandlerOperations;
+import com.couchbase.client.core.deps.com.fasterxml.jackson.databind.JsonNode;
+import com.couchbase.client.core.json.Mapper;
+import com.couchbase.client.util.SyntheticSpans;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ConcurrencyAnalysisTest {
+  private static final Instant START = Instant.parse("2025-01-01T00:00:00Z");
+
+  private static int inFlightAt(long[] starts, long[] durations, long t) {
+    int out = 0;
+    for (int i = 0; i < starts.length; i++) {
+      if (starts[i] <= t && t < starts[i] + durations[i]) {
+        out++;
+      }
+    }
+    return out;
+  }
+
+  @Test
+  public void matchesBruteForce() {
+    Random random = new Random(3);
+    int n = 2000;
+    long[] starts = new long[n];
+    long[] durations = new long[n];
+    for (int i = 0; i < n; i++) {
+      starts[i] = random.nextInt(100_000);
+      durations[i] = random.nextInt(10) == 0 ? 0 : random.nextInt(2_000);
+    }
+    ConcurrencyProfile profile = ConcurrencyAnalysis.profile(starts, durations);
+
+    long first = Long.MAX_VALUE;
+    long last = Long.MIN_VALUE;
+    for (int i = 0; i < n; i++) {
+      first = Math.min(first, starts[i]);
+      last = Math.max(last, starts[i] + durations[i]);
+    }
+    int max = 0;
+    long area = 0;
+    for (long t = first; t < last; t++) {
+      int inFlight = inFlightAt(starts, durations, t);
+      max = Math.max(max, inFlight);
+      area += inFlight;
+    }
+    assertEquals(n, profile.operations());
+    assertEquals(max, profile.maxConcurrency());
+    assertEquals((double) area / (last - first), profile.meanConcurrency(), 1e-9);
+
+    // The time series agrees at every point it changes.
+    for (int p = 0; p < profile.timesEpochMicros().length; p++) {
+      assertEquals(inFlightAt(starts, durations, profile.timesEpochMicros()[p]), profile.concurrency()[p]);
+    }
+
+    long total = 0;
+    for (ConcurrencyProfile.Level level : profile.levels()) {
+      total += level.durationsMicroseconds().count();
+    }
+    assertEquals(n, total);
+  }
+
+  @Test
+  public void groupsLatencyByConcurrencyAtSubmission() {
+    // One operation alone, then a burst of 8 overlapping ones that are slower.
+    long[] starts = {0, 1000, 1001, 1002, 1003, 1004, 1005, 1006, 1007};
+    long[] durations = {100, 500, 500, 500, 500, 500, 500, 500, 500};
+    ConcurrencyProfile profile = ConcurrencyAnalysis.profile(starts, durations);
+
+    assertEquals(8, profile.maxConcurrency());
+    assertEquals(4, profile.levels().size());
+    ConcurrencyProfile.Level alone = profile.levels().get(0);
+    assertEquals(1, alone.minConcurrency());
+    assertEquals(1, alone.maxConcurrency());
+    assertEquals(2, alone.durationsMicroseconds().count());
+    ConcurrencyProfile.Level burst = profile.levels().get(3);
+    assertEquals(5, burst.minConcurrency());
+    assertEquals(8, burst.maxConcurrency());
+    assertEquals(4, burst.durationsMicroseconds().count());
+    assertEquals(500, burst.durationsMicroseconds().median());
+  }
+
+  @Test
+  public void backToBackOperationsAreNotConcurrent() {
+    ConcurrencyProfile profile = ConcurrencyAnalysis.profile(new long[]{0, 100, 200}, new long[]{100, 100, 100});
+    assertEquals(1, profile.maxConcurrency());
+    assertEquals(1.0, profile.meanConcurrency());
+    assertEquals(1, profile.levels().size());
+  }
+
+  @Test
+  public void empty() {
+    ConcurrencyProfile profile = ConcurrencyAnalysis.profile(new long[0], new long[0]);
+    assertEquals(0, profile.maxConcurrency());
+    assertEquals(0, profile.meanConcurrency());
+    assertEquals(0, profile.levels().size());
+  }
+
+  @Test
+  public void analysesByServiceAndNode() throws Exception {
+    SyntheticSpans spans = new SyntheticSpans();
+    for (int i = 0; i < 10; i++) {
+      spans.kv("get", "node1", START.plusMillis(i), Duration.ofMillis(5), null);
+      spans.kv("get", "node2", START.plusMillis(i * 10), Duration.ofMillis(5), null);
+    }
+    Map<String, Map<String, ConcurrencyProfile>> profiles = ConcurrencyAnalysis.analyse(spans.operations().operations());
+    assertEquals(5, profiles.get("kv").get("node1").maxConcurrency());
+    assertEquals(1, profiles.get("kv").get("node2").maxConcurrency());
+
+    StringBuilder out = new StringBuilder();
+    ConcurrencyAnalysis.write(profiles, out);
+    JsonNode json = Mapper.decodeIntoTree(out.toString().getBytes("UTF-8"));
+    assertEquals(10, json.path("kv").path("node2").path("operations").asInt());
+    assertEquals(5000, json.path("kv").path("node2").path("byConcurrencyAtSubmission").get(0).path("p99Us").asDouble());
+
+    new ConcurrencyAnalysis().evaluate(new InMemoryRequestTracerHandlerOperations(spans.operations().operations()), Duration.ofSeconds(10));
+  }
+}
@@ -0,0 +1,176 @@
+package com.couchbase.client.analysis;
+
+import com.couchbase.client.InMemoryRequestTracerHandlerOperations;
+import com.couchbase.client.operations.Operation;
+import com.couchbase.client.operations.Operations;
+import com.couchbase.client.util.SyntheticSpans;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static com.couchbase.client.analysis.RegressionDetectorOptions.regressionDetectorOptions;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RegressionDetectorTest {
+  private static final Duration WINDOW = Duration.ofSeconds(10);
+
+  private final Random random = new Random(7);
+
+  /**
+   * A window of gets against each node, with durations spread around the given median.
+   */
+  private Operations window(int perNode, long medianMicros, double errorRate, String... nodes) {
+    SyntheticSpans spans = new SyntheticSpans();
+    Instant start = Instant.parse("2025-01-01T00:00:00Z");
+    for (String node : nodes) {
+      for (int i = 0; i < perNode; i++) {
+        long micros = (long) (medianMicros * Math.exp(random.nextGaussian() * 0.3));
+        RuntimeException failure = random.nextDouble() < errorRate ? new RuntimeException("failed") : null;
+        spans.kv("get", node, start, Duration.ofNanos(micros * 1000), failure);
+      }
+    }
+    return spans.operations().operations();
+  }
+
+  private static List<RegressionAlert> of(List<RegressionAlert> alerts, RegressionAlert.Metric metric) {
+    List<RegressionAlert> out = new ArrayList<>();
+    for (RegressionAlert alert : alerts) {
+      if (alert.metric() == metric) {
+        out.add(alert);
+      }
+    }
+    return out;
+  }
+
+  private static void warmUp(RegressionDetector detector, Operations ops) {
+    for (int i = 0; i < 5; i++) {
+      assertEquals(0, detector.analyse(ops, WINDOW).size());
+    }
+  }
+
+  @Test
+  public void steadyWorkloadRaisesNoAlerts() {
+    RegressionDetector detector = new RegressionDetector();
+    for (int i = 0; i < 20; i++) {
+      assertEquals(0, detector.analyse(window(500, 1000, 0.01, "node1", "node2"), WINDOW).size());
+    }
+  }
+
+  @Test
+  public void detectsLatencyRegressionOnOneNode() {
+    RegressionDetector detector = new RegressionDetector();
+    warmUp(detector, window(500, 1000, 0, "node1", "node2"));
+
+    List<RegressionAlert> alerts = detector.analyse(merge(window(500, 1000, 0, "node1"), window(500, 3000, 0, "node2")), WINDOW);
+
+    List<RegressionAlert> p50 = of(alerts, RegressionAlert.Metric.P50);
+    assertEquals(1, p50.size());
+    assertEquals("node2", p50.get(0).node());
+    assertEquals("kv", p50.get(0).service());
+    assertEquals("get", p50.get(0).operation());
+    assertEquals(1000, p50.get(0).baseline(), 100);
+    assertEquals(3000, p50.get(0).observed(), 300);
+    assertEquals(500, p50.get(0).samples());
+    assertEquals(1, of(alerts, RegressionAlert.Metric.P99).size());
+  }
+
+  @Test
+  public void detectsSignificantErrorRateIncrease() {
+    RegressionDetector detector = new RegressionDetector();
+    warmUp(detector, window(1000, 1000, 0.01, "node1"));
+
+    List<RegressionAlert> alerts = of(detector.analyse(window(1000, 1000, 0.2, "node1"), WINDOW), RegressionAlert.Metric.ERROR_RATE);
+    assertEquals(1, alerts.size());
+    assertEquals(0.01, alerts.get(0).baseline(), 0.01);
+    assertEquals(0.2, alerts.get(0).observed(), 0.05);
+  }
+
+  @Test
+  public void ignoresWindowsWithTooFewSamples() {
+    RegressionDetector detector = new RegressionDetector();
+    warmUp(detector, window(1000, 1000, 0, "node1"));
+
+    // Every operation slow and failing, but too few of them to judge latency or error rate.
+    List<RegressionAlert> alerts = detector.analyse(window(20, 10_000, 1, "node1"), WINDOW);
+    assertEquals(0, of(alerts, RegressionAlert.Metric.P50).size());
+    assertEquals(0, of(alerts, RegressionAlert.Metric.ERROR_RATE).size());
+    // But the drop in throughput itself is significant.
+    assertEquals(1, of(alerts, RegressionAlert.Metric.THROUGHPUT).size());
+  }
+
+  @Test
+  public void detectsThroughputDropIncludingNodesThatGoSilent() {
+    RegressionDetector detector = new RegressionDetector();
+    warmUp(detector, window(1000, 1000, 0, "node1", "node2"));
+
+    List<RegressionAlert> alerts = of(detector.analyse(window(1000, 1000, 0, "node1"), WINDOW), RegressionAlert.Metric.THROUGHPUT);
+    assertEquals(1, alerts.size());
+    assertEquals("node2", alerts.get(0).node());
+    assertEquals(100, alerts.get(0).baseline(), 1);
+    assertEquals(0, alerts.get(0).observed());
+  }
+
+  @Test
+  public void alertsOncePerAbsence() {
+    RegressionDetector detector = new RegressionDetector(regressionDetectorOptions().smoothing(0.01));
+    warmUp(detector, window(1000, 1000, 0, "node1", "node2"));
+
+    assertEquals(1, of(detector.analyse(window(1000, 1000, 0, "node1"), WINDOW), RegressionAlert.Metric.THROUGHPUT).size());
+    for (int i = 0; i < 3; i++) {
+      assertEquals(0, detector.analyse(window(1000, 1000, 0, "node1"), WINDOW).size());
+    }
+
+    // Once it is back, a later absence is alerted on again.
+    detector.analyse(window(1000, 1000, 0, "node1", "node2"), WINDOW);
+    assertEquals(1, of(detector.analyse(window(1000, 1000, 0, "node1"), WINDOW), RegressionAlert.Metric.THROUGHPUT).size());
+  }
+
+  @Test
+  public void thresholdsAreConfigurable() {
+    RegressionDetector detector = new RegressionDetector(regressionDetectorOptions()
+      .latencyIncreaseRatio(5)
+      .warmupWindows(2)
+      .minSamples(10));
+    for (int i = 0; i < 2; i++) {
+      detector.analyse(window(50, 1000, 0, "node1"), WINDOW);
+    }
+    assertEquals(0, detector.analyse(window(50, 3000, 0, "node1"), WINDOW).size());
+  }
+
+  @Test
+  public void forgetsKeysNotSeenForAWhile() {
+    RegressionDetector detector = new RegressionDetector(regressionDetectorOptions().expireAfterWindows(3));
+    detector.analyse(window(200, 1000, 0, "node1", "node2"), WINDOW);
+    assertEquals(2, detector.trackedKeys());
+    for (int i = 0; i < 3; i++) {
+      detector.analyse(window(200, 1000, 0, "node1"), WINDOW);
+    }
+    assertEquals(1, detector.trackedKeys());
+  }
+
+  @Test
+  public void passesAlertsToHandler() {
+    List<List<RegressionAlert>> handled = new ArrayList<>();
+    RegressionDetector detector = new RegressionDetector(regressionDetectorOptions().alertHandler(handled::add));
+    for (int i = 0; i < 5; i++) {
+      detector.evaluate(new InMemoryRequestTracerHandlerOperations(window(500, 1000, 0, "node1")), WINDOW);
+    }
+    assertTrue(handled.isEmpty());
+    detector.evaluate(new InMemoryRequestTracerHandlerOperations(window(500, 5000, 0, "node1")), WINDOW);
+    assertEquals(1, handled.size());
+    assertEquals(2, handled.get(0).size());
+    // The default handler only logs
+    RegressionDetector.logAlerts(handled.get(0));
+  }
+
+  private static Operations merge(Operations a, Operations b) {
+    List<Operation> out = new ArrayList<>(a.operations());
+    out.addAll(b.operations());
+    return new Operations(out);
+  }
+}
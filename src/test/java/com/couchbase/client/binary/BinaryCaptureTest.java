@@ -0,0 +1,119 @@
+package com.couchbase.client.binary;
+
+import com.couchbase.client.InMemoryRequestTracerHandlerOperations;
+import com.couchbase.client.core.error.ParsingFailureException;
+import com.couchbase.client.operations.NetworkCall;
+import com.couchbase.client.operations.Operation;
+import com.couchbase.client.operations.Operations;
+import com.couchbase.client.util.SyntheticSpans;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.couchbase.client.util.DurationUtil.toEpochMicros;
+import static com.couchbase.client.util.DurationUtil.toMicros;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BinaryCaptureTest {
+  private static InMemoryRequestTracerHandlerOperations operations() {
+    SyntheticSpans spans = new SyntheticSpans();
+    spans.kv("upsert", "id1", "10.0.0.1", 120);
+    spans.kv("get", "id2", "10.0.0.2", 80);
+    spans.query("SELECT 1", "10.0.0.3", null);
+    spans.query("BAD", "10.0.0.3", new ParsingFailureException(null));
+    return spans.operations();
+  }
+
+  private static List<Operation> sorted(Operations operations) {
+    return operations.operations().stream()
+      .sorted(Comparator.comparing(Operation::start))
+      .collect(Collectors.toList());
+  }
+
+  @Test
+  public void roundTrip(@TempDir Path dir) throws Exception {
+    Path file = dir.resolve("ops.cbops");
+    Operations original = operations().operations();
+    try (BinaryCaptureWriter writer = new BinaryCaptureWriter(file)) {
+      writer.append(original);
+      writer.append(original);
+    }
+
+    try (BinaryCaptureReader reader = new BinaryCaptureReader(file)) {
+      int blocks = 0;
+      for (CapturedBlock block : reader) {
+        blocks++;
+        List<Operation> expected = sorted(original);
+        List<Operation> actual = block.toOperations().operations();
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+          Operation e = expected.get(i);
+          Operation a = actual.get(i);
+          assertEquals(e.name(), a.name());
+          assertEquals(e.service(), a.service());
+          assertEquals(toEpochMicros(e.start()), toEpochMicros(a.start()));
+          assertEquals(toMicros(e.duration()), toMicros(a.duration()));
+          assertEquals(e.documentId(), a.documentId());
+          assertEquals(e.statement(), a.statement());
+          assertEquals(e.bucket(), a.bucket());
+          assertEquals(e.retries(), a.retries());
+          assertEquals(e.exception() == null, a.exception() == null);
+          if (e.exception() != null) {
+            assertEquals(e.exception().toString(), a.exception().toString());
+          }
+          assertEquals(e.requestEncoding() == null, a.requestEncoding() == null);
+          List<NetworkCall> eCalls = e.networkCalls().networkCalls();
+          List<NetworkCall> aCalls = a.networkCalls().networkCalls();
+          assertEquals(eCalls.size(), aCalls.size());
+          for (int c = 0; c < eCalls.size(); c++) {
+            assertEquals(eCalls.get(c).remoteHost(), aCalls.get(c).remoteHost());
+            assertEquals(eCalls.get(c).remotePort(), aCalls.get(c).remotePort());
+            assertEquals(eCalls.get(c).serverDuration(), aCalls.get(c).serverDuration());
+            assertEquals(toEpochMicros(eCalls.get(c).start()), toEpochMicros(aCalls.get(c).start()));
+          }
+        }
+        assertEquals(1, block.toOperations().exceptionStats().get("ParsingFailureException").count());
+      }
+      assertEquals(2, blocks);
+    }
+  }
+
+  @Test
+  public void columnAccessWithoutObjects(@TempDir Path dir) throws Exception {
+    Path file = dir.resolve("ops.cbops");
+    BinaryCaptureWriter.write(operations().operations(), file);
+
+    try (BinaryCaptureReader reader = new BinaryCaptureReader(file)) {
+      CapturedBlock block = reader.iterator().next();
+      assertEquals(4, block.size());
+      int failed = 0;
+      for (int i = 0; i < block.size(); i++) {
+        if (!block.succeeded(i)) {
+          failed++;
+          assertEquals("BAD", block.statement(i));
+        }
+        assertEquals(1, block.networkCallCount(i));
+      }
+      assertEquals(1, failed);
+    }
+  }
+
+  @Test
+  public void ignoresTruncatedTrailingBlock(@TempDir Path dir) throws Exception {
+    Path file = dir.resolve("ops.cbops");
+    BinaryCaptureWriter.write(operations().operations(), file);
+    Files.write(file, new byte[]{0, 0, 1, 0, 42}, StandardOpenOption.APPEND);
+
+    assertTrue(BinaryCaptureReader.isBinaryCapture(file));
+    try (BinaryCaptureReader reader = new BinaryCaptureReader(file)) {
+      assertEquals(4, reader.readAll().size());
+    }
+  }
+}
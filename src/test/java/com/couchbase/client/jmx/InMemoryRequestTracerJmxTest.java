@@ -0,0 +1,185 @@
+package com.couchbase.client.jmx;
+
+import com.couchbase.client.InMemoryRequestTracer;
+import com.couchbase.client.core.cnc.tracing.NoopRequestSpan;
+import com.couchbase.client.core.error.DocumentNotFoundException;
+import com.couchbase.client.util.SyntheticSpans;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+
+import static com.couchbase.client.InMemoryTracerOptions.inMemoryTracerOptions;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class InMemoryRequestTracerJmxTest {
+  private static InMemoryRequestTracer tracer() {
+    return new InMemoryRequestTracer(inMemoryTracerOptions()
+      .handlers(Collections.emptyList())
+      .jmx(true)
+      .interval(Duration.ofHours(1)));
+  }
+
+  private static int id(ObjectName name) {
+    return Integer.parseInt(name.getKeyProperty("name").substring("tracer-".length()));
+  }
+
+  @Test
+  public void aggregatesWindowAndRollingStats() {
+    InMemoryRequestTracer tracer = tracer();
+    try {
+      InMemoryRequestTracerJmx jmx = InMemoryRequestTracerJmx.register(tracer);
+      jmx.unregister();
+
+      SyntheticSpans first = new SyntheticSpans();
+      first.kv("get", "a", "10.0.0.1", 10);
+      first.kv("get", "b", "10.0.0.1", 10);
+      first.query("SELECT 1", "10.0.0.2", new DocumentNotFoundException(null));
+      jmx.evaluate(first.operations(), Duration.ofSeconds(2));
+
+      SyntheticSpans second = new SyntheticSpans();
+      second.kv("get", "c", "10.0.0.1", 10);
+      jmx.evaluate(second.operations(), Duration.ofSeconds(2));
+
+      List<OperationStats> stats = jmx.getOperationStats();
+      assertEquals(2, stats.size());
+      OperationStats get = stats.get(0);
+      assertEquals("kv", get.getService());
+      assertEquals("get", get.getOperation());
+      assertEquals(1, get.getWindowCount());
+      assertEquals(0.5, get.getWindowThroughputPerSecond(), 0.0001);
+      assertEquals(3, get.getRollingCount());
+      assertEquals(0.75, get.getRollingThroughputPerSecond(), 0.0001);
+
+      OperationStats query = stats.get(1);
+      assertEquals("query", query.getService());
+      assertEquals(0, query.getWindowCount());
+      assertEquals(0, query.getWindowErrorRate(), 0.0001);
+      assertEquals(1, query.getRollingCount());
+      assertEquals(1.0, query.getRollingErrorRate(), 0.0001);
+
+      // Once an operation type has dropped out of the rolling window, it is no longer reported.
+      for (int i = 0; i < InMemoryRequestTracerJmx.ROLLING_WINDOW_INTERVALS; i++) {
+        jmx.evaluate(new SyntheticSpans().operations(), Duration.ofSeconds(2));
+      }
+      assertTrue(jmx.getOperationStats().isEmpty());
+    } finally {
+      tracer.stop(Duration.ofSeconds(1)).block();
+    }
+  }
+
+  @Test
+  public void exposesTracerOverJmx() throws Exception {
+    InMemoryRequestTracer tracer = tracer();
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName name = null;
+    try {
+      // The most recently registered tracer is this one.
+      for (ObjectName candidate : server.queryNames(new ObjectName("com.couchbase.client:type=InMemoryRequestTracer,*"), null)) {
+        if (name == null || id(candidate) > id(name)) {
+          name = candidate;
+        }
+      }
+      assertNotNull(name);
+
+      assertEquals(Duration.ofHours(1).toMillis(), server.getAttribute(name, "IntervalMillis"));
+      server.invoke(name, "changeIntervalMillis", new Object[]{5000L}, new String[]{long.class.getName()});
+      assertEquals(Duration.ofSeconds(5), tracer.interval());
+
+      server.invoke(name, "disableCapture", new Object[0], new String[0]);
+      assertEquals(false, server.getAttribute(name, "CaptureEnabled"));
+      assertSame(NoopRequestSpan.INSTANCE, tracer.requestSpan("get", null));
+      server.invoke(name, "enableCapture", new Object[0], new String[0]);
+      assertNotSame(NoopRequestSpan.INSTANCE, tracer.requestSpan("get", null));
+
+      CompositeData[] stats = (CompositeData[]) server.getAttribute(name, "OperationStats");
+      assertEquals(0, stats.length);
+    } finally {
+      tracer.stop(Duration.ofSeconds(1)).block();
+    }
+    assertFalse(server.isRegistered(name));
+  }
+
+  @Test
+  public void percentilesComeFromMergedHistograms() {
+    InMemoryRequestTracer tracer = tracer();
+    try {
+      InMemoryRequestTracerJmx jmx = InMemoryRequestTracerJmx.register(tracer);
+      jmx.unregister();
+
+      // 1ms to 100ms in the first interval, then 101ms to 200ms in the second.
+      Instant start = Instant.parse("2025-01-01T00:00:00Z");
+      for (int interval = 0; interval < 2; interval++) {
+        SyntheticSpans spans = new SyntheticSpans();
+        for (int i = 1; i <= 100; i++) {
+          spans.kv("get", "10.0.0.1", start, Duration.ofMillis(interval * 100 + i), null);
+        }
+        jmx.evaluate(spans.operations(), Duration.ofSeconds(1));
+      }
+
+      OperationStats get = jmx.getOperationStats().get(0);
+      assertEquals(100, get.getWindowCount());
+      assertEquals(150_000, get.getWindowP50Micros(), 150_000 * 0.125);
+      assertEquals(199_000, get.getWindowP99Micros(), 199_000 * 0.125);
+      assertEquals(200, get.getRollingCount());
+      assertEquals(100_000, get.getRollingP50Micros(), 100_000 * 0.125);
+      assertEquals(190_000, get.getRollingP95Micros(), 190_000 * 0.125);
+    } finally {
+      tracer.stop(Duration.ofSeconds(1)).block();
+    }
+  }
+
+  @Test
+  public void weightsSampledOperations() {
+    InMemoryRequestTracer tracer = tracer();
+    try {
+      InMemoryRequestTracerJmx jmx = InMemoryRequestTracerJmx.register(tracer);
+      jmx.unregister();
+
+      SyntheticSpans spans = new SyntheticSpans();
+      spans.kv("get", "a", "10.0.0.1", 10).samplingRate(0.1);
+      spans.kv("get", "b", "10.0.0.1", 10);
+      spans.query("SELECT 1", "10.0.0.2", new DocumentNotFoundException(null)).samplingRate(0.5);
+      spans.query("SELECT 1", "10.0.0.2", null).samplingRate(0.5);
+      jmx.evaluate(spans.operations(), Duration.ofSeconds(2));
+
+      List<OperationStats> stats = jmx.getOperationStats();
+      OperationStats get = stats.get(0);
+      assertEquals(11, get.getWindowCount());
+      assertEquals(5.5, get.getWindowThroughputPerSecond(), 0.0001);
+      assertEquals(11, get.getRollingCount());
+
+      OperationStats query = stats.get(1);
+      assertEquals(4, query.getWindowCount());
+      assertEquals(0.5, query.getWindowErrorRate(), 0.0001);
+    } finally {
+      tracer.stop(Duration.ofSeconds(1)).block();
+    }
+  }
+
+  @Test
+  public void notRegisteredByDefault() throws Exception {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName pattern = new ObjectName("com.couchbase.client:type=InMemoryRequestTracer,*");
+    int before = server.queryNames(pattern, null).size();
+    InMemoryRequestTracer tracer = new InMemoryRequestTracer(inMemoryTracerOptions()
+      .handlers(Collections.emptyList())
+      .interval(Duration.ofHours(1)));
+    try {
+      assertEquals(before, server.queryNames(pattern, null).size());
+    } finally {
+      tracer.stop(Duration.ofSeconds(1)).block();
+    }
+  }
+}
@@ -0,0 +1,139 @@
+package com.couchbase.client.metrics;
+
+import com.couchbase.client.CaptureFilter;
+import com.couchbase.client.InMemoryRequestTracer;
+import com.couchbase.client.core.cnc.RequestSpan;
+import com.couchbase.client.core.cnc.TracingIdentifiers;
+import com.couchbase.client.core.error.DocumentNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.couchbase.client.InMemoryTracerOptions.inMemoryTracerOptions;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+public class JfrEventsTest {
+  @TempDir
+  Path dir;
+
+  private static void operation(InMemoryRequestTracer tracer, String host, long serverDurationMicros, boolean fail) {
+    RequestSpan op = tracer.requestSpan("get", null);
+    op.attribute(TracingIdentifiers.ATTR_SERVICE, TracingIdentifiers.SERVICE_KV);
+    op.attribute(TracingIdentifiers.ATTR_NAME, "default");
+    op.attribute(TracingIdentifiers.ATTR_RETRIES, 1L);
+    RequestSpan dispatch = tracer.requestSpan(TracingIdentifiers.SPAN_DISPATCH, op);
+    dispatch.attribute(TracingIdentifiers.ATTR_REMOTE_HOSTNAME, host);
+    dispatch.attribute(TracingIdentifiers.ATTR_REMOTE_PORT, 11210L);
+    dispatch.attribute(TracingIdentifiers.ATTR_SERVER_DURATION, serverDurationMicros);
+    dispatch.end();
+    if (fail) {
+      op.recordException(new DocumentNotFoundException(null));
+    }
+    op.end();
+  }
+
+  // The tests compile against Java 8, so drive jdk.jfr.Recording and jdk.jfr.consumer.RecordingFile reflectively too.
+  private List<Object> record(Runnable body) throws Exception {
+    Class<?> recordingClass = Class.forName("jdk.jfr.Recording");
+    Object recording = recordingClass.getConstructor().newInstance();
+    recordingClass.getMethod("enable", String.class).invoke(recording, JfrEvents.OPERATION_EVENT);
+    recordingClass.getMethod("enable", String.class).invoke(recording, JfrEvents.NETWORK_CALL_EVENT);
+    recordingClass.getMethod("start").invoke(recording);
+    body.run();
+    recordingClass.getMethod("stop").invoke(recording);
+    Path file = dir.resolve("recording.jfr");
+    recordingClass.getMethod("dump", Path.class).invoke(recording, file);
+    recordingClass.getMethod("close").invoke(recording);
+
+    List<?> all = (List<?>) Class.forName("jdk.jfr.consumer.RecordingFile").getMethod("readAllEvents", Path.class).invoke(null, file);
+    List<Object> out = new ArrayList<>();
+    for (Object event : all) {
+      String name = eventName(event);
+      if (name.equals(JfrEvents.OPERATION_EVENT) || name.equals(JfrEvents.NETWORK_CALL_EVENT)) {
+        out.add(event);
+      }
+    }
+    return out;
+  }
+
+  private static String eventName(Object event) throws Exception {
+    Object type = event.getClass().getMethod("getEventType").invoke(event);
+    return (String) type.getClass().getMethod("getName").invoke(type);
+  }
+
+  private static Object value(Object event, String field) throws Exception {
+    return event.getClass().getMethod("getValue", String.class).invoke(event, field);
+  }
+
+  @Test
+  public void emitsOperationAndNetworkCallEvents() throws Exception {
+    InMemoryRequestTracer tracer = new InMemoryRequestTracer(inMemoryTracerOptions()
+      .handlers(Collections.emptyList())
+      .interval(Duration.ofHours(1))
+      .jfrEvents(true)
+      .jfrNetworkCallEvents(true));
+    try {
+      List<Object> events = record(() -> operation(tracer, "10.0.0.1", 42, true));
+
+      assertEquals(2, events.size());
+      Object op = null;
+      Object networkCall = null;
+      for (Object event : events) {
+        if (eventName(event).equals(JfrEvents.OPERATION_EVENT)) {
+          op = event;
+        } else {
+          networkCall = event;
+        }
+      }
+      assertNotNull(op);
+      assertNotNull(networkCall);
+      assertEquals("kv", value(op, "service"));
+      assertEquals("get", value(op, "operation"));
+      assertEquals("default", value(op, "bucket"));
+      assertEquals("10.0.0.1", value(op, "node"));
+      assertEquals(42L, value(op, "serverDuration"));
+      assertEquals(DocumentNotFoundException.class.getName(), value(op, "exception"));
+      assertEquals(1L, value(op, "retries"));
+      assertEquals("10.0.0.1", value(networkCall, "node"));
+      assertEquals(11210L, value(networkCall, "port"));
+    } finally {
+      tracer.stop(Duration.ofSeconds(1)).block();
+    }
+  }
+
+  @Test
+  public void emitsNothingWhenDisabled() throws Exception {
+    InMemoryRequestTracer tracer = new InMemoryRequestTracer(inMemoryTracerOptions()
+      .handlers(Collections.emptyList())
+      .interval(Duration.ofHours(1)));
+    try {
+      assertEquals(0, record(() -> operation(tracer, "10.0.0.1", 42, false)).size());
+    } finally {
+      tracer.stop(Duration.ofSeconds(1)).block();
+    }
+  }
+
+  @Test
+  public void linksNetworkCallsToOperationWithCaptureFilter() throws Exception {
+    InMemoryRequestTracer tracer = new InMemoryRequestTracer(inMemoryTracerOptions()
+      .handlers(Collections.emptyList())
+      .interval(Duration.ofHours(1))
+      .captureFilter(CaptureFilter.services(TracingIdentifiers.SERVICE_KV))
+      .jfrEvents(true));
+    try {
+      List<Object> events = record(() -> operation(tracer, "10.0.0.1", 42, false));
+
+      assertEquals(1, events.size());
+      assertEquals("10.0.0.1", value(events.get(0), "node"));
+      assertEquals(42L, value(events.get(0), "serverDuration"));
+    } finally {
+      tracer.stop(Duration.ofSeconds(1)).block();
+    }
+  }
+}
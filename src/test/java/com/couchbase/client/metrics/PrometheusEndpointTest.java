@@ -0,0 +1,74 @@
+package com.couchbase.client.metrics;
+
+import com.couchbase.client.core.error.ParsingFailureException;
+import com.couchbase.client.util.SyntheticSpans;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PrometheusEndpointTest {
+  private static String scrape(PrometheusEndpoint endpoint) throws Exception {
+    HttpURLConnection connection = (HttpURLConnection) new URL("http://127.0.0.1:" + endpoint.port() + "/metrics").openConnection();
+    try {
+      assertEquals(200, connection.getResponseCode());
+      assertTrue(connection.getContentType().startsWith("application/openmetrics-text"));
+      try (InputStream in = connection.getInputStream()) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+          out.write(buffer, 0, read);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+      }
+    } finally {
+      connection.disconnect();
+    }
+  }
+
+  @Test
+  public void servesCumulativeHistograms() throws Exception {
+    try (PrometheusEndpoint endpoint = new PrometheusEndpoint(new InetSocketAddress("127.0.0.1", 0))) {
+      assertEquals("# EOF\n", scrape(endpoint));
+
+      for (int i = 0; i < 2; i++) {
+        SyntheticSpans spans = new SyntheticSpans();
+        spans.kv("get", "id", "10.0.0.1", 50);
+        spans.query("BAD", "10.0.0.3", new ParsingFailureException(null));
+        endpoint.evaluate(spans.operations(), Duration.ofSeconds(10));
+      }
+
+      String body = scrape(endpoint);
+      assertTrue(body.endsWith("# EOF\n"));
+      assertTrue(body.contains("couchbase_inmemory_operation_duration_seconds_count{service=\"kv\",operation=\"get\",success=\"true\",node=\"10.0.0.1\"} 2\n"));
+      assertTrue(body.contains("couchbase_inmemory_operation_duration_seconds_bucket{service=\"kv\",operation=\"get\",success=\"true\",node=\"10.0.0.1\",le=\"+Inf\"} 2\n"));
+      assertTrue(body.contains("couchbase_inmemory_server_duration_seconds_bucket{service=\"kv\",operation=\"get\",success=\"true\",node=\"10.0.0.1\",le=\"0.0001\"} 2\n"));
+      assertTrue(body.contains("couchbase_inmemory_operation_exceptions_total{service=\"query\",operation=\"query\",success=\"false\",node=\"10.0.0.3\",exception=\"ParsingFailureException\"} 2\n"));
+      assertEquals(body, endpoint.scrape());
+    }
+  }
+
+  @Test
+  public void weightsSampledOperations() throws Exception {
+    try (PrometheusEndpoint endpoint = new PrometheusEndpoint(new InetSocketAddress("127.0.0.1", 0))) {
+      SyntheticSpans spans = new SyntheticSpans();
+      spans.kv("get", "id", "10.0.0.1", 50).samplingRate(0.25);
+      spans.query("BAD", "10.0.0.3", new ParsingFailureException(null)).samplingRate(0.4);
+      endpoint.evaluate(spans.operations(), Duration.ofSeconds(10));
+
+      String body = endpoint.scrape();
+      assertTrue(body.contains("couchbase_inmemory_operation_duration_seconds_count{service=\"kv\",operation=\"get\",success=\"true\",node=\"10.0.0.1\"} 4\n"));
+      assertTrue(body.contains("couchbase_inmemory_server_duration_seconds_bucket{service=\"kv\",operation=\"get\",success=\"true\",node=\"10.0.0.1\",le=\"0.0001\"} 4\n"));
+      assertTrue(body.contains("couchbase_inmemory_operation_exceptions_total{service=\"query\",operation=\"query\",success=\"false\",node=\"10.0.0.3\",exception=\"ParsingFailureException\"} 2.5\n"));
+    }
+  }
+}
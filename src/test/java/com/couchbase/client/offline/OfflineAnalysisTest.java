@@ -0,0 +1,72 @@
+package com.couchbase.client.offline;
+
+import com.couchbase.client.binary.BinaryCaptureWriter;
+import com.couchbase.client.core.deps.com.fasterxml.jackson.databind.JsonNode;
+import com.couchbase.client.core.error.ParsingFailureException;
+import com.couchbase.client.core.json.Mapper;
+import com.couchbase.client.operations.Operations;
+import com.couchbase.client.output.JsonOutputFormat;
+import com.couchbase.client.output.OperationsJsonWriter;
+import com.couchbase.client.util.SyntheticSpans;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class OfflineAnalysisTest {
+  private static Operations operations() {
+    SyntheticSpans spans = new SyntheticSpans();
+    spans.kv("upsert", "id1", "10.0.0.1", 120);
+    spans.kv("get", "id2", "10.0.0.2", 80);
+    spans.query("SELECT 1", "10.0.0.3", null);
+    spans.query("BAD", "10.0.0.3", new ParsingFailureException(null));
+    return spans.operations().operations();
+  }
+
+  private static JsonNode run(String... args) throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    OfflineAnalysis.parse(args).run(out);
+    return Mapper.decodeIntoTree(out.toByteArray());
+  }
+
+  @Test
+  public void aggregatesAcrossFormats(@TempDir Path dir) throws Exception {
+    Path json = dir.resolve("ops.json");
+    OperationsJsonWriter.write(operations(), json, JsonOutputFormat.JSON_ARRAY);
+
+    Path ndjsonGz = dir.resolve("ops.ndjson.gz");
+    try (OperationsJsonWriter writer = new OperationsJsonWriter(new GZIPOutputStream(Files.newOutputStream(ndjsonGz)), JsonOutputFormat.NDJSON)) {
+      writer.write(operations());
+    }
+
+    Path binary = dir.resolve("ops.cbops");
+    BinaryCaptureWriter.write(operations(), binary);
+
+    JsonNode report = run(json.toString(), ndjsonGz.toString(), binary.toString());
+    assertEquals(3, report.path("kv").path("upsert").path("successfulOps").path("counts").path("operations").asInt());
+    assertEquals(3, report.path("query").path("query").path("failedOps").path("exceptions")
+      .path("ParsingFailureException").path("count").asInt());
+  }
+
+  @Test
+  public void filtersOperations(@TempDir Path dir) throws Exception {
+    Path json = dir.resolve("ops.json");
+    OperationsJsonWriter.write(operations(), json, JsonOutputFormat.JSON_ARRAY);
+
+    JsonNode ops = run("--report", "operations", "--service", "query", "--failed-only", json.toString());
+    assertEquals(1, ops.size());
+    assertEquals("BAD", ops.get(0).path("statement").asText());
+  }
+
+  @Test
+  public void rejectsWindowedOperationsReport() {
+    assertThrows(IllegalArgumentException.class,
+      () -> OfflineAnalysis.parse(new String[]{"--report", "operations", "--window", "PT1M", "ops.json"}));
+  }
+}
@@ -0,0 +1,149 @@
+package com.couchbase.client.output;
+
+import com.couchbase.client.core.deps.com.fasterxml.jackson.databind.JsonNode;
+import com.couchbase.client.core.json.Mapper;
+import com.couchbase.client.util.SyntheticSpans;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.couchbase.client.util.DurationUtil.toEpochMicros;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ChromeTraceHandlerTest {
+  private static final Instant START = Instant.parse("2025-01-01T00:00:00Z");
+
+  /**
+   * On node1, "a" and "b" overlap, and "c" starts once "a" has ended.  "d" is on node2 and overlaps all of them.
+   */
+  private static SyntheticSpans spans() {
+    SyntheticSpans spans = new SyntheticSpans();
+    spans.kv("a", "node1", START, Duration.ofMillis(10), null);
+    spans.kv("b", "node1", START.plusMillis(5), Duration.ofMillis(12), null);
+    spans.kv("c", "node1", START.plusMillis(12), Duration.ofMillis(8), null);
+    spans.kv("d", "node2", START.plusMillis(1), Duration.ofMillis(30), null);
+    return spans;
+  }
+
+  private static JsonNode write(SyntheticSpans spans, int topN, ChromeTraceHandler.Layout layout) throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ChromeTraceHandler.write(spans.operations().operations(), out, topN, layout);
+    JsonNode json = Mapper.decodeIntoTree(out.toByteArray());
+    assertEquals("ms", json.path("displayTimeUnit").asText());
+    return json.path("traceEvents");
+  }
+
+  private static Map<String, JsonNode> operationSlices(JsonNode events) {
+    Map<String, JsonNode> out = new HashMap<>();
+    events.forEach(event -> {
+      if (event.path("cat").asText().equals("kv")) {
+        out.put(event.path("name").asText(), event);
+      }
+    });
+    return out;
+  }
+
+  private static List<String> metadata(JsonNode events, String name) {
+    List<String> out = new ArrayList<>();
+    events.forEach(event -> {
+      if (event.path("ph").asText().equals("M") && event.path("name").asText().equals(name)) {
+        out.add(event.path("pid").asInt() + "/" + event.path("tid").asInt() + "=" + event.path("args").path("name").asText());
+      }
+    });
+    return out;
+  }
+
+  @Test
+  public void spreadsOverlappingOperationsOverTracksByNode() throws Exception {
+    JsonNode events = write(spans(), 0, ChromeTraceHandler.Layout.BY_NODE);
+    Map<String, JsonNode> ops = operationSlices(events);
+    assertEquals(4, ops.size());
+
+    JsonNode a = ops.get("a");
+    JsonNode b = ops.get("b");
+    JsonNode c = ops.get("c");
+    JsonNode d = ops.get("d");
+    assertEquals(a.path("pid").asInt(), b.path("pid").asInt());
+    assertEquals(a.path("pid").asInt(), c.path("pid").asInt());
+    assertNotEquals(a.path("pid").asInt(), d.path("pid").asInt());
+
+    // Overlapping operations get different tracks, and a track is reused once it is free.
+    assertEquals(1, a.path("tid").asInt());
+    assertEquals(2, b.path("tid").asInt());
+    assertEquals(1, c.path("tid").asInt());
+    assertEquals(1, d.path("tid").asInt());
+
+    int node1 = a.path("pid").asInt();
+    int node2 = d.path("pid").asInt();
+    List<String> processes = metadata(events, "process_name");
+    assertEquals(2, processes.size());
+    assertTrue(processes.contains(node1 + "/0=node1"));
+    assertTrue(processes.contains(node2 + "/0=node2"));
+    List<String> tracks = metadata(events, "thread_name");
+    assertEquals(3, tracks.size());
+    assertTrue(tracks.contains(node1 + "/1=track 1"));
+    assertTrue(tracks.contains(node1 + "/2=track 2"));
+    assertTrue(tracks.contains(node2 + "/1=track 1"));
+  }
+
+  @Test
+  public void groupsByService() throws Exception {
+    JsonNode events = write(spans(), 0, ChromeTraceHandler.Layout.BY_SERVICE);
+    Map<String, JsonNode> ops = operationSlices(events);
+
+    // All four are KV, so share one process: "d" now overlaps "a" and "b", and "c" takes the track "a" freed.
+    int pid = ops.get("a").path("pid").asInt();
+    ops.values().forEach(op -> assertEquals(pid, op.path("pid").asInt()));
+    assertEquals(1, ops.get("a").path("tid").asInt());
+    assertEquals(2, ops.get("d").path("tid").asInt());
+    assertEquals(3, ops.get("b").path("tid").asInt());
+    assertEquals(1, ops.get("c").path("tid").asInt());
+    assertEquals(1, metadata(events, "process_name").size());
+    assertTrue(metadata(events, "process_name").contains(pid + "/0=kv"));
+    assertEquals(3, metadata(events, "thread_name").size());
+  }
+
+  @Test
+  public void writesCompleteEvents() throws Exception {
+    JsonNode events = write(spans(), 0, ChromeTraceHandler.Layout.BY_NODE);
+    JsonNode b = operationSlices(events).get("b");
+    assertEquals("X", b.path("ph").asText());
+    assertEquals(toEpochMicros(START.plusMillis(5)), b.path("ts").asLong());
+    assertEquals(12_000, b.path("dur").asLong());
+    assertEquals(0, b.path("args").path("retries").asLong());
+
+    // Each network call is a slice on the same track as its operation.
+    List<JsonNode> calls = new ArrayList<>();
+    events.forEach(event -> {
+      if (event.path("name").asText().equals("dispatch_to_server")) {
+        calls.add(event);
+      }
+    });
+    assertEquals(4, calls.size());
+    JsonNode call = calls.stream().filter(e -> e.path("ts").asLong() == b.path("ts").asLong()).findFirst().get();
+    assertEquals("network", call.path("cat").asText());
+    assertEquals("X", call.path("ph").asText());
+    assertEquals(12_000, call.path("dur").asLong());
+    assertEquals(b.path("pid").asInt(), call.path("pid").asInt());
+    assertEquals(b.path("tid").asInt(), call.path("tid").asInt());
+    assertEquals("node1", call.path("args").path("host").asText());
+    assertEquals(11210, call.path("args").path("port").asLong());
+  }
+
+  @Test
+  public void topNKeepsTheSlowest() throws Exception {
+    JsonNode events = write(spans(), 2, ChromeTraceHandler.Layout.BY_NODE);
+    Map<String, JsonNode> ops = operationSlices(events);
+    assertEquals(2, ops.size());
+    assertTrue(ops.containsKey("d"));
+    assertTrue(ops.containsKey("b"));
+  }
+}
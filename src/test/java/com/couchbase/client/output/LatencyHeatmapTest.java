@@ -0,0 +1,112 @@
+package com.couchbase.client.output;
+
+import com.couchbase.client.InMemoryRequestTracerHandlerOperations;
+import com.couchbase.client.core.deps.com.fasterxml.jackson.databind.JsonNode;
+import com.couchbase.client.core.json.Mapper;
+import com.couchbase.client.util.SyntheticSpans;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LatencyHeatmapTest {
+  private static final Instant START = Instant.parse("2025-01-01T00:00:00.050Z");
+
+  @Test
+  public void latencyBucketsAreContiguousAndWithinAQuarterOctave() {
+    for (long micros = 0; micros < 1_000_000; micros++) {
+      int bucket = LatencyHeatmap.latencyBucket(micros);
+      long lower = LatencyHeatmap.latencyBucketLowerBoundMicros(bucket);
+      long nextLower = LatencyHeatmap.latencyBucketLowerBoundMicros(bucket + 1);
+      assertTrue(lower <= micros && micros < nextLower, "" + micros);
+      assertTrue(nextLower - lower <= Math.max(1, lower / 4), "" + micros);
+    }
+    assertEquals(0, LatencyHeatmap.latencyBucket(-5));
+    int max = LatencyHeatmap.latencyBucket(Long.MAX_VALUE);
+    assertTrue(LatencyHeatmap.latencyBucketLowerBoundMicros(max) > 0);
+  }
+
+  @Test
+  public void countsByTimeAndLatency() {
+    LatencyHeatmap heatmap = new LatencyHeatmap(0, Duration.ofMillis(100));
+    heatmap.record(50_000, 1000);
+    heatmap.record(60_000, 1010);
+    heatmap.record(250_000, 100_000);
+    heatmap.record(-10, 1000);
+
+    assertEquals(4, heatmap.count());
+    assertEquals(3, heatmap.timeBuckets());
+    assertEquals(3, heatmap.count(0, LatencyHeatmap.latencyBucket(1000)));
+    assertEquals(0, heatmap.count(1, LatencyHeatmap.latencyBucket(1000)));
+    assertEquals(1, heatmap.count(2, LatencyHeatmap.latencyBucket(100_000)));
+    assertEquals(0, heatmap.count(50, 0));
+    assertThrows(IllegalArgumentException.class, () -> new LatencyHeatmap(0, Duration.ofNanos(10)));
+  }
+
+  @Test
+  public void showsPeriodicBand() throws Exception {
+    // Fast gets throughout a second, but slow ones in every 5th 100ms bucket, as a periodic GC would cause.
+    SyntheticSpans spans = new SyntheticSpans();
+    for (int ms = 50; ms < 1050; ms += 5) {
+      boolean stalled = (ms / 100) % 5 == 0;
+      spans.kv("get", "node1", START.plusMillis(ms - 50), Duration.ofMillis(stalled ? 50 : 1), null);
+    }
+    Map<String, Map<String, LatencyHeatmap>> heatmaps = LatencyHeatmapHandler.heatmaps(spans.operations().operations(), Duration.ofMillis(100));
+    LatencyHeatmap get = heatmaps.get("kv").get("get");
+    assertEquals(200, get.count());
+    // The origin is aligned to the time bucket, so the operations span 11 of them.
+    assertEquals(11, get.timeBuckets());
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    LatencyHeatmapHandler.write(heatmaps, out);
+    JsonNode json = Mapper.decodeIntoTree(out.toByteArray()).path("kv").path("get");
+    assertEquals("2025-01-01T00:00:00Z", json.path("start").asText());
+    assertEquals(100_000, json.path("timeBucketUs").asLong());
+    List<Long> bounds = new ArrayList<>();
+    json.path("latencyBucketsUs").forEach(n -> bounds.add(n.asLong()));
+    assertEquals(LatencyHeatmap.latencyBucketLowerBoundMicros(LatencyHeatmap.latencyBucket(1000)), bounds.get(0));
+    int slowColumn = bounds.indexOf(LatencyHeatmap.latencyBucketLowerBoundMicros(LatencyHeatmap.latencyBucket(50_000)));
+    assertEquals(bounds.size() - 1, slowColumn);
+
+    JsonNode counts = json.path("counts");
+    assertEquals(11, counts.size());
+    long total = 0;
+    for (int t = 0; t < counts.size(); t++) {
+      for (JsonNode c : counts.get(t)) {
+        total += c.asLong();
+      }
+    }
+    assertEquals(200, total);
+    // The first bucket holds just the 10 operations from 50ms, all stalled, and the next stalled bucket is 500ms later.
+    assertEquals(10, counts.get(0).get(slowColumn).asInt());
+    assertEquals(0, counts.get(1).get(slowColumn).asInt());
+    assertEquals(20, counts.get(5).get(slowColumn).asInt());
+  }
+
+  @Test
+  public void handlerWritesFile(@TempDir Path dir) throws Exception {
+    SyntheticSpans spans = new SyntheticSpans();
+    spans.kv("get", "node1", START, Duration.ofMillis(1), null);
+    new LatencyHeatmapHandler(dir, Duration.ofMillis(100))
+      .evaluate(new InMemoryRequestTracerHandlerOperations(spans.operations().operations()), Duration.ofSeconds(10));
+    try (Stream<Path> files = Files.list(dir)) {
+      List<Path> written = files.collect(Collectors.toList());
+      assertEquals(1, written.size());
+      assertTrue(written.get(0).getFileName().toString().endsWith("_heatmap.json"));
+      assertEquals(1, Mapper.decodeIntoTree(Files.readAllBytes(written.get(0))).path("kv").path("get").path("operations").asInt());
+    }
+  }
+}
@@ -0,0 +1,60 @@
+package com.couchbase.client.output;
+
+import com.couchbase.client.ExampleReports;
+import com.couchbase.client.InMemoryRequestTracerHandlerOperations;
+import com.couchbase.client.core.deps.com.fasterxml.jackson.databind.JsonNode;
+import com.couchbase.client.core.deps.com.fasterxml.jackson.databind.node.ArrayNode;
+import com.couchbase.client.core.error.ParsingFailureException;
+import com.couchbase.client.core.json.Mapper;
+import com.couchbase.client.util.SyntheticSpans;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class OperationsJsonWriterTest {
+  private static InMemoryRequestTracerHandlerOperations operations() {
+    SyntheticSpans spans = new SyntheticSpans();
+    spans.kv("upsert", "id1", "10.0.0.1", 120);
+    spans.kv("get", "id2", "10.0.0.2", 80);
+    spans.query("SELECT 1", "10.0.0.3", null);
+    spans.query("BAD", "10.0.0.3", new ParsingFailureException(null));
+    return spans.operations();
+  }
+
+  // Normalises numeric node types, so trees built in-memory compare equal to parsed ones.
+  private static JsonNode reparsed(ArrayNode node) {
+    return Mapper.decodeIntoTree(Mapper.encodeAsBytes(node));
+  }
+
+  @Test
+  public void jsonArrayMatchesTreeOutput() throws Exception {
+    InMemoryRequestTracerHandlerOperations ops = operations();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (OperationsJsonWriter writer = new OperationsJsonWriter(out, JsonOutputFormat.JSON_ARRAY)) {
+      writer.write(ops.operations());
+    }
+
+    JsonNode expected = reparsed(ExampleReports.exampleOperationsOutput(ops));
+    assertEquals(expected, Mapper.decodeIntoTree(out.toByteArray()));
+  }
+
+  @Test
+  public void ndjsonWritesOneOperationPerLine() throws Exception {
+    InMemoryRequestTracerHandlerOperations ops = operations();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (OperationsJsonWriter writer = new OperationsJsonWriter(out, JsonOutputFormat.NDJSON)) {
+      writer.write(ops.operations());
+    }
+
+    String[] lines = new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n");
+    JsonNode expected = reparsed(ExampleReports.exampleOperationsOutput(ops));
+    assertEquals(expected.size(), lines.length);
+    for (int i = 0; i < lines.length; i++) {
+      JsonNode line = Mapper.decodeIntoTree(lines[i]);
+      assertEquals(expected.get(i), line);
+    }
+  }
+}
@@ -0,0 +1,95 @@
+package com.couchbase.client.output;
+
+import com.couchbase.client.util.SyntheticSpans;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RollingFileSinkTest {
+  private static List<Path> files(Path dir) throws Exception {
+    try (Stream<Path> stream = Files.list(dir)) {
+      return stream.sorted().collect(Collectors.toList());
+    }
+  }
+
+  @Test
+  public void rotatesAndCompresses(@TempDir Path dir) throws Exception {
+    RollingFileSink sink = new RollingFileSink(RollingFileSinkOptions.rollingFileSinkOptions()
+      .directory(dir)
+      .maxFileSizeBytes(1));
+
+    for (int i = 0; i < 3; i++) {
+      SyntheticSpans spans = new SyntheticSpans();
+      spans.kv("upsert", "id" + i, "10.0.0.1", 100);
+      sink.evaluate(spans.operations(), Duration.ofSeconds(1));
+    }
+    sink.close();
+
+    List<Path> files = files(dir);
+    assertEquals(3, files.size());
+    long lines = 0;
+    for (Path file : files) {
+      assertTrue(file.getFileName().toString().endsWith(".ndjson.gz"));
+      try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+        new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+        lines += reader.lines().count();
+      }
+    }
+    assertEquals(3, lines);
+  }
+
+  @Test
+  public void retentionDeletesOldestFiles(@TempDir Path dir) throws Exception {
+    RollingFileSink sink = new RollingFileSink(RollingFileSinkOptions.rollingFileSinkOptions()
+      .directory(dir)
+      .compression(RollingFileSinkOptions.Compression.NONE)
+      .maxFileSizeBytes(1)
+      .maxTotalSizeBytes(1));
+
+    for (int i = 0; i < 5; i++) {
+      SyntheticSpans spans = new SyntheticSpans();
+      spans.kv("upsert", "id" + i, "10.0.0.1", 100);
+      sink.evaluate(spans.operations(), Duration.ofSeconds(1));
+    }
+    sink.close();
+
+    assertEquals(0, files(dir).size());
+  }
+
+  @Test
+  public void rotatesOnAgeWhenIdle(@TempDir Path dir) throws Exception {
+    RollingFileSink sink = new RollingFileSink(RollingFileSinkOptions.rollingFileSinkOptions()
+      .directory(dir)
+      .maxFileAge(Duration.ofMillis(200)));
+    try {
+      SyntheticSpans spans = new SyntheticSpans();
+      spans.kv("upsert", "id", "10.0.0.1", 100);
+      sink.evaluate(spans.operations(), Duration.ofSeconds(1));
+      Thread.sleep(300);
+
+      // An empty interval still rotates, and so compresses, the now too-old file.
+      sink.evaluate(new SyntheticSpans().operations(), Duration.ofSeconds(1));
+      long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+      while (!(files(dir).size() == 1 && files(dir).get(0).toString().endsWith(".ndjson.gz")) && System.nanoTime() < deadline) {
+        Thread.sleep(10);
+      }
+      assertEquals(1, files(dir).size());
+      assertTrue(files(dir).get(0).toString().endsWith(".ndjson.gz"));
+    } finally {
+      sink.close();
+    }
+  }
+}
@@ -0,0 +1,102 @@
+package com.couchbase.client.output;
+
+import com.couchbase.client.InMemoryRequestTracerHandlerOperations;
+import com.couchbase.client.core.deps.com.fasterxml.jackson.databind.JsonNode;
+import com.couchbase.client.core.json.Mapper;
+import com.couchbase.client.operations.Operation;
+import com.couchbase.client.operations.Operations;
+import com.couchbase.client.util.SyntheticSpans;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+
+import static com.couchbase.client.output.SlowOperationLogOptions.slowOperationLogOptions;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SlowOperationLogTest {
+  private static final Instant START = Instant.parse("2025-01-01T00:00:00Z");
+
+  @Test
+  public void logsOnlyOperationsOverTheirServiceThreshold() {
+    SyntheticSpans spans = new SyntheticSpans();
+    spans.kv("get", "node1", START, Duration.ofMillis(100), null);
+    spans.kv("get", "node2", START.plusMillis(1), Duration.ofMillis(600), null);
+    spans.query("SELECT 1", "node3", null);
+    SlowOperationLog log = new SlowOperationLog(slowOperationLogOptions()
+      .threshold("query", Duration.ZERO));
+
+    SlowOperationLog.Selection selection = log.select(spans.operations().operations());
+    assertEquals(2, selection.logged().size());
+    assertEquals("node2", selection.logged().get(0).node());
+    assertEquals("query", selection.logged().get(1).service());
+    assertTrue(selection.notLogged().isEmpty());
+  }
+
+  @Test
+  public void capsEachServiceWithASampleAndCountsTheRest() {
+    SyntheticSpans spans = new SyntheticSpans();
+    for (int i = 0; i < 100; i++) {
+      spans.kv("get", "node1", START.plusMillis(i), Duration.ofMillis(1000 + i), null);
+    }
+    for (int i = 0; i < 3; i++) {
+      spans.query("SELECT " + i, "node1", null);
+    }
+    SlowOperationLog log = new SlowOperationLog(slowOperationLogOptions()
+      .threshold("query", Duration.ZERO)
+      .maxLoggedPerService(5));
+
+    SlowOperationLog.Selection selection = log.select(spans.operations().operations());
+    assertEquals(5 + 3, selection.logged().size());
+    assertEquals(95L, selection.notLogged().get("kv"));
+    assertEquals(1, selection.notLogged().size());
+    Set<Instant> kv = new HashSet<>();
+    for (Operation op : selection.logged()) {
+      if ("kv".equals(op.service())) {
+        kv.add(op.start());
+      }
+    }
+    assertEquals(5, kv.size());
+  }
+
+  @Test
+  public void writesFullDetail() throws Exception {
+    SyntheticSpans spans = new SyntheticSpans();
+    spans.kv("upsert", "node1", START, Duration.ofMillis(700), new RuntimeException("timed out"));
+    Operation op = spans.operations().operations().operations().get(0);
+
+    JsonNode json = Mapper.decodeIntoTree(SlowOperationLog.toJson(op, Duration.ofMillis(500)).getBytes("UTF-8"));
+    assertEquals(500_000, json.path("thresholdUs").asLong());
+    assertEquals("node1", json.path("node").asText());
+    assertEquals("upsert", json.path("operation").path("name").asText());
+    assertEquals(700_000, json.path("operation").path("durationUs").asLong());
+    assertEquals(0, json.path("operation").path("retries").asLong());
+    assertEquals("node1", json.path("operation").path("networkCalls").get(0).path("host").asText());
+    assertTrue(json.path("operation").path("exception").asText().contains("timed out"));
+  }
+
+  @Test
+  public void servicesWithoutThresholdAreNotLoggedUnlessDefaultSet() {
+    SyntheticSpans spans = new SyntheticSpans();
+    spans.kv("get", "node1", START, Duration.ofSeconds(1), null);
+    Operations ops = spans.operations().operations();
+
+    assertEquals(0, new SlowOperationLog(slowOperationLogOptions().threshold("kv", null)).select(ops).logged().size());
+    assertEquals(1, new SlowOperationLog(slowOperationLogOptions().threshold("kv", null).defaultThreshold(Duration.ZERO))
+      .select(ops).logged().size());
+    assertThrows(IllegalArgumentException.class, () -> slowOperationLogOptions().threshold("kv", Duration.ofMillis(-1)));
+  }
+
+  @Test
+  public void evaluateLogs() {
+    SyntheticSpans spans = new SyntheticSpans();
+    for (int i = 0; i < 20; i++) {
+      spans.kv("get", "node1", START.plusMillis(i), Duration.ofSeconds(1), null);
+    }
+    new SlowOperationLog().evaluate(new InMemoryRequestTracerHandlerOperations(spans.operations().operations()), Duration.ofSeconds(10));
+  }
+}
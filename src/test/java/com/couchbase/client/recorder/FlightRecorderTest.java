@@ -0,0 +1,150 @@
+package com.couchbase.client.recorder;
+
+import com.couchbase.client.InMemoryRequestTracerHandler;
+import com.couchbase.client.core.error.ParsingFailureException;
+import com.couchbase.client.operations.Operation;
+import com.couchbase.client.util.SyntheticSpans;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static com.couchbase.client.recorder.FlightRecorderOptions.flightRecorderOptions;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FlightRecorderTest {
+  private final List<List<Operation>> dumped = new ArrayList<>();
+  private final InMemoryRequestTracerHandler capture = (ops, since) -> dumped.add(ops.operations().operations());
+
+  @Test
+  public void keepsOnlyTheMostRecentOperations() {
+    try (FlightRecorder recorder = new FlightRecorder(flightRecorderOptions()
+      .capacity(3)
+      .jmx(false)
+      .dumpHandlers(Collections.singletonList(capture)))) {
+      for (int i = 0; i < 5; i++) {
+        SyntheticSpans spans = new SyntheticSpans();
+        spans.kv("get", "id" + i, "10.0.0.1", 10);
+        recorder.evaluate(spans.operations(), Duration.ofSeconds(1));
+      }
+
+      assertTrue(dumped.isEmpty());
+      assertEquals(5, recorder.getRecordedOperations());
+      assertEquals(3, recorder.dump());
+      assertEquals(1, dumped.size());
+      Set<String> ids = dumped.get(0).stream().map(Operation::documentId).collect(Collectors.toSet());
+      assertEquals(new HashSet<>(Arrays.asList("id2", "id3", "id4")), ids);
+
+      // Dumping does not clear the buffer.
+      assertEquals(3, recorder.dump());
+    }
+  }
+
+  @Test
+  public void dumpsWhenErrorRateIsBreachedThenCoolsDown() {
+    try (FlightRecorder recorder = new FlightRecorder(flightRecorderOptions()
+      .jmx(false)
+      .errorRateThreshold(0.4)
+      .minOperationsForTrigger(4)
+      .cooldown(Duration.ofHours(1))
+      .dumpHandlers(Collections.singletonList(capture)))) {
+      SyntheticSpans healthy = new SyntheticSpans();
+      for (int i = 0; i < 4; i++) {
+        healthy.kv("get", "id" + i, "10.0.0.1", 10);
+      }
+      recorder.evaluate(healthy.operations(), Duration.ofSeconds(1));
+      assertTrue(dumped.isEmpty());
+
+      // Too few operations to trigger, even though all failed.
+      SyntheticSpans few = new SyntheticSpans();
+      few.query("BAD", "10.0.0.2", new ParsingFailureException(null));
+      recorder.evaluate(few.operations(), Duration.ofSeconds(1));
+      assertTrue(dumped.isEmpty());
+
+      SyntheticSpans failing = new SyntheticSpans();
+      for (int i = 0; i < 4; i++) {
+        failing.query("BAD", "10.0.0.2", new ParsingFailureException(null));
+      }
+      recorder.evaluate(failing.operations(), Duration.ofSeconds(1));
+      assertEquals(1, dumped.size());
+      assertEquals(9, dumped.get(0).size());
+      assertTrue(recorder.getLastDumpReason().startsWith("error rate"));
+
+      recorder.evaluate(failing.operations(), Duration.ofSeconds(1));
+      assertEquals(1, dumped.size());
+    }
+  }
+
+  @Test
+  public void dumpsWhenP99IsBreached() {
+    try (FlightRecorder recorder = new FlightRecorder(flightRecorderOptions()
+      .jmx(false)
+      .p99Threshold("kv", Duration.ofNanos(1))
+      .minOperationsForTrigger(1)
+      .dumpHandlers(Collections.singletonList(capture)))) {
+      SyntheticSpans spans = new SyntheticSpans();
+      spans.query("SELECT 1", "10.0.0.2", null);
+      recorder.evaluate(spans.operations(), Duration.ofSeconds(1));
+      assertTrue(dumped.isEmpty());
+
+      spans.kv("get", "id", "10.0.0.1", 10);
+      recorder.evaluate(spans.operations(), Duration.ofSeconds(1));
+      assertEquals(1, dumped.size());
+      assertTrue(recorder.getLastDumpReason().startsWith("kv p99"));
+    }
+  }
+
+  @Test
+  public void serialisesDumps() throws Exception {
+    AtomicInteger inside = new AtomicInteger();
+    AtomicInteger overlapped = new AtomicInteger();
+    InMemoryRequestTracerHandler slow = (ops, since) -> {
+      if (inside.incrementAndGet() > 1) {
+        overlapped.incrementAndGet();
+      }
+      try {
+        Thread.sleep(1);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      inside.decrementAndGet();
+    };
+
+    try (FlightRecorder recorder = new FlightRecorder(flightRecorderOptions()
+      .jmx(false)
+      .dumpHandlers(Collections.singletonList(slow)))) {
+      CountDownLatch go = new CountDownLatch(1);
+      List<Thread> threads = new ArrayList<>();
+      for (int t = 0; t < 4; t++) {
+        Thread thread = new Thread(() -> {
+          try {
+            go.await();
+          } catch (InterruptedException e) {
+            return;
+          }
+          for (int i = 0; i < 20; i++) {
+            recorder.dump();
+          }
+        });
+        thread.start();
+        threads.add(thread);
+      }
+      go.countDown();
+      for (Thread thread : threads) {
+        thread.join();
+      }
+
+      assertEquals(80, recorder.getDumps());
+      assertEquals(0, overlapped.get());
+    }
+  }
+}
@@ -0,0 +1,58 @@
+package com.couchbase.client.sampling;
+
+import com.couchbase.client.TracerOverhead;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static com.couchbase.client.sampling.AdaptiveSamplingOptions.adaptiveSamplingOptions;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class AdaptiveSamplingControllerTest {
+  private static TracerOverhead overhead(long retainedBytes, List<Long> handlerNanos) {
+    return new TracerOverhead(10, 0, 0, 0, 0, 0, retainedBytes, 0, 0, 0, handlerNanos);
+  }
+
+  private static TracerOverhead overhead() {
+    return overhead(0, Collections.emptyList());
+  }
+
+  @Test
+  public void lowersRateToMeetOperationsBudgetInOneStep() {
+    AdaptiveSamplingOptions.Built budget = adaptiveSamplingOptions().maxOperationsPerInterval(1000L).build();
+    assertEquals(0.25, AdaptiveSamplingController.nextRate(budget, 1.0, 1.0, 4000, overhead()), 1e-9);
+  }
+
+  @Test
+  public void raisesRateGraduallyWhenUnderBudget() {
+    AdaptiveSamplingOptions.Built budget = adaptiveSamplingOptions().maxOperationsPerInterval(1000L).build();
+    assertEquals(0.2, AdaptiveSamplingController.nextRate(budget, 0.1, 1.0, 10, overhead()), 1e-9);
+    assertEquals(0.2, AdaptiveSamplingController.nextRate(budget, 0.1, 1.0, 0, overhead()), 1e-9);
+    // Never above the configured rate
+    assertEquals(0.5, AdaptiveSamplingController.nextRate(budget, 0.4, 0.5, 10, overhead()), 1e-9);
+  }
+
+  @Test
+  public void tightestLimitApplies() {
+    AdaptiveSamplingOptions.Built budget = adaptiveSamplingOptions()
+      .maxOperationsPerInterval(1000L)
+      .maxRetainedBytes(1_000_000L)
+      .maxHandlerTime(Duration.ofMillis(100))
+      .build();
+    assertEquals(0.5, AdaptiveSamplingController.nextRate(budget, 1.0, 1.0, 500, overhead(2_000_000, Collections.emptyList())), 1e-9);
+    assertEquals(0.1, AdaptiveSamplingController.nextRate(budget, 1.0, 1.0, 500,
+      overhead(0, Arrays.asList(600_000_000L, 400_000_000L))), 1e-9);
+  }
+
+  @Test
+  public void neverGoesBelowMinimum() {
+    AdaptiveSamplingOptions.Built budget = adaptiveSamplingOptions()
+      .maxOperationsPerInterval(1L)
+      .minSamplingRate(0.01)
+      .build();
+    assertEquals(0.01, AdaptiveSamplingController.nextRate(budget, 1.0, 1.0, 1_000_000, overhead()), 1e-9);
+  }
+}
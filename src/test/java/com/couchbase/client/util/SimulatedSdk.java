@@ -0,0 +1,306 @@
+package com.couchbase.client.util;
+
+import com.couchbase.client.core.cnc.RequestSpan;
+import com.couchbase.client.core.cnc.RequestTracer;
+import com.couchbase.client.core.cnc.TracingIdentifiers;
+import com.couchbase.client.core.error.ParsingFailureException;
+import com.couchbase.client.core.error.UnambiguousTimeoutException;
+import org.jspecify.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives a {@link RequestTracer} the way core-io does, without a cluster: operation spans with {@code request_encoding} and
+ * {@code dispatch_to_server} children, carrying the same attributes, retries and exceptions.
+ * <p>
+ * Workers issue a configurable mix of KV gets, upserts and SQL++ queries, optionally at a fixed total rate, with latencies drawn
+ * from configurable distributions.  With {@link #simulateLatency(boolean)} the spans genuinely stay open for those latencies;
+ * without, operations are issued as fast as possible.  {@link #issued(String)} and friends say what was issued, to compare with
+ * what the tracer reported.
+ * <p>
+ * Suitable for soak tests: run for as long as needed, and as often as needed, on the same instance.
+ */
+public class SimulatedSdk {
+  private final RequestTracer tracer;
+  private int concurrency = 4;
+  private double operationsPerSecond = 0;
+  private double getFraction = 0.60;
+  private double upsertFraction = 0.25;
+  private double retryProbability = 0.03;
+  private double failureProbability = 0.01;
+  private Latency kvServerLatency = Latency.logNormal(Duration.ofNanos(30_000), 0.8);
+  private Latency kvNetworkLatency = Latency.logNormal(Duration.ofNanos(150_000), 0.5);
+  private Latency queryLatency = Latency.logNormal(Duration.ofMillis(5), 0.8);
+  private Latency retryBackoff = Latency.fixed(Duration.ofMillis(1));
+  private boolean simulateLatency = true;
+  private long seed = 42;
+
+  private final Map<String, LongAdder> issued = new ConcurrentHashMap<>();
+  private final Map<String, LongAdder> failed = new ConcurrentHashMap<>();
+  private final LongAdder retries = new LongAdder();
+
+  /**
+   * A distribution of latencies to draw from.
+   */
+  public interface Latency {
+    long sampleNanos(SplittableRandom random);
+
+    static Latency fixed(Duration latency) {
+      long nanos = latency.toNanos();
+      return random -> nanos;
+    }
+
+    /**
+     * Log-normally distributed latencies with the given median.  A sigma of around 0.5 to 1 gives the long tail typical of
+     * real services.
+     */
+    static Latency logNormal(Duration median, double sigma) {
+      long medianNanos = median.toNanos();
+      return random -> {
+        // SplittableRandom has no nextGaussian() before Java 17, so use the Box-Muller transform.
+        double gaussian = Math.sqrt(-2 * Math.log(1.0 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+        return Math.max(1, (long) (medianNanos * Math.exp(sigma * gaussian)));
+      };
+    }
+  }
+
+  public SimulatedSdk(RequestTracer tracer) {
+    this.tracer = tracer;
+  }
+
+  public SimulatedSdk concurrency(int concurrency) {
+    this.concurrency = concurrency;
+    return this;
+  }
+
+  /**
+   * The total rate to issue operations at, across all workers.  0, the default, means as fast as possible.
+   */
+  public SimulatedSdk operationsPerSecond(double operationsPerSecond) {
+    this.operationsPerSecond = operationsPerSecond;
+    return this;
+  }
+
+  /**
+   * The fractions of operations that are KV gets and upserts.  The rest are queries.
+   */
+  public SimulatedSdk mix(double getFraction, double upsertFraction) {
+    this.getFraction = getFraction;
+    this.upsertFraction = upsertFraction;
+    return this;
+  }
+
+  public SimulatedSdk retryProbability(double retryProbability) {
+    this.retryProbability = retryProbability;
+    return this;
+  }
+
+  public SimulatedSdk failureProbability(double failureProbability) {
+    this.failureProbability = failureProbability;
+    return this;
+  }
+
+  public SimulatedSdk kvLatency(Latency server, Latency network) {
+    this.kvServerLatency = server;
+    this.kvNetworkLatency = network;
+    return this;
+  }
+
+  public SimulatedSdk queryLatency(Latency queryLatency) {
+    this.queryLatency = queryLatency;
+    return this;
+  }
+
+  public SimulatedSdk retryBackoff(Latency retryBackoff) {
+    this.retryBackoff = retryBackoff;
+    return this;
+  }
+
+  public SimulatedSdk simulateLatency(boolean simulateLatency) {
+    this.simulateLatency = simulateLatency;
+    return this;
+  }
+
+  public SimulatedSdk seed(long seed) {
+    this.seed = seed;
+    return this;
+  }
+
+  /**
+   * Issues operations from {@link #concurrency(int)} threads for the given duration, and waits for them all to complete.
+   */
+  public void run(Duration duration) throws InterruptedException {
+    long deadline = System.nanoTime() + duration.toNanos();
+    long periodNanos = operationsPerSecond <= 0 ? 0 : (long) (1e9 * concurrency / operationsPerSecond);
+    SplittableRandom seeds = new SplittableRandom(seed);
+    List<Thread> workers = new ArrayList<>(concurrency);
+    for (int i = 0; i < concurrency; i++) {
+      SplittableRandom random = seeds.split();
+      Thread worker = new Thread(() -> {
+        long next = System.nanoTime();
+        while (next < deadline) {
+          operation(random);
+          if (periodNanos > 0) {
+            next += periodNanos;
+            pause(next - System.nanoTime());
+          } else {
+            next = System.nanoTime();
+          }
+        }
+      }, "simulated-sdk-" + i);
+      workers.add(worker);
+      worker.start();
+    }
+    for (Thread worker : workers) {
+      worker.join();
+    }
+  }
+
+  private void operation(SplittableRandom random) {
+    double kind = random.nextDouble();
+    int attempts = random.nextDouble() < retryProbability ? 2 + random.nextInt(2) : 1;
+    boolean fails = random.nextDouble() < failureProbability;
+    String host = "10.0.0." + (1 + random.nextInt(6));
+    String name;
+    if (kind < getFraction + upsertFraction) {
+      name = kind < getFraction ? TracingIdentifiers.SPAN_REQUEST_KV_GET : TracingIdentifiers.SPAN_REQUEST_KV_UPSERT;
+      kv(tracer, name, "doc-" + random.nextInt(100_000), host, kvServerLatency.sampleNanos(random) / 1000, attempts,
+        fails ? new UnambiguousTimeoutException("Operation timed out", null) : null,
+        () -> pause(kvNetworkLatency.sampleNanos(random)),
+        () -> pause(retryBackoff.sampleNanos(random)));
+    } else {
+      name = TracingIdentifiers.SPAN_REQUEST_QUERY;
+      query(tracer, "SELECT * FROM `travel-sample` WHERE type = $1", host, attempts,
+        fails ? new ParsingFailureException(null) : null,
+        () -> pause(queryLatency.sampleNanos(random)),
+        () -> pause(retryBackoff.sampleNanos(random)));
+    }
+    issued.computeIfAbsent(name, k -> new LongAdder()).increment();
+    if (fails) {
+      failed.computeIfAbsent(name, k -> new LongAdder()).increment();
+    }
+    retries.add(attempts - 1);
+  }
+
+  private void pause(long nanos) {
+    if (simulateLatency && nanos > 0) {
+      LockSupport.parkNanos(nanos);
+    }
+  }
+
+  /**
+   * Creates the spans of one KV operation, as core-io does, without waiting.
+   */
+  public static RequestSpan kv(RequestTracer tracer, String name, String documentId, String host, long serverDurationMicros) {
+    return kv(tracer, name, documentId, host, serverDurationMicros, 1, null, () -> {}, () -> {});
+  }
+
+  /**
+   * Creates the spans of one KV operation, as core-io does.  {@code onTheWire} is run while each network call is in flight, and
+   * {@code backoff} between attempts.
+   */
+  public static RequestSpan kv(RequestTracer tracer,
+                               String name,
+                               String documentId,
+                               String host,
+                               long serverDurationMicros,
+                               int attempts,
+                               @Nullable Throwable failure,
+                               Runnable onTheWire,
+                               Runnable backoff) {
+    RequestSpan op = tracer.requestSpan(name, null);
+    op.attribute(TracingIdentifiers.ATTR_SYSTEM, TracingIdentifiers.ATTR_SYSTEM_COUCHBASE);
+    op.attribute(TracingIdentifiers.ATTR_SERVICE, TracingIdentifiers.SERVICE_KV);
+    op.attribute(TracingIdentifiers.ATTR_NAME, "travel-sample");
+    op.attribute(TracingIdentifiers.ATTR_SCOPE, "inventory");
+    op.attribute(TracingIdentifiers.ATTR_COLLECTION, "airline");
+    op.attribute(TracingIdentifiers.ATTR_DOCUMENT_ID, documentId);
+    op.attribute(TracingIdentifiers.ATTR_OPERATION, name);
+
+    tracer.requestSpan(TracingIdentifiers.SPAN_REQUEST_ENCODING, op).end();
+
+    for (int attempt = 0; attempt < attempts; attempt++) {
+      if (attempt > 0) {
+        backoff.run();
+      }
+      RequestSpan dispatch = tracer.requestSpan(TracingIdentifiers.SPAN_DISPATCH, op);
+      dispatch.attribute(TracingIdentifiers.ATTR_SYSTEM, TracingIdentifiers.ATTR_SYSTEM_COUCHBASE);
+      dispatch.attribute(TracingIdentifiers.ATTR_REMOTE_HOSTNAME, host);
+      dispatch.attribute(TracingIdentifiers.ATTR_REMOTE_PORT, 11210L);
+      dispatch.attribute(TracingIdentifiers.ATTR_OPERATION_ID, "0x" + Integer.toHexString(attempt + 1));
+      onTheWire.run();
+      dispatch.attribute(TracingIdentifiers.ATTR_SERVER_DURATION, serverDurationMicros);
+      dispatch.end();
+    }
+
+    op.attribute(TracingIdentifiers.ATTR_RETRIES, (long) attempts - 1);
+    if (failure != null) {
+      op.recordException(failure);
+      op.status(RequestSpan.StatusCode.ERROR);
+    }
+    op.end();
+    return op;
+  }
+
+  /**
+   * Creates the spans of one SQL++ query, as core-io does.
+   */
+  public static RequestSpan query(RequestTracer tracer,
+                                  String statement,
+                                  String host,
+                                  int attempts,
+                                  @Nullable Throwable failure,
+                                  Runnable onTheWire,
+                                  Runnable backoff) {
+    RequestSpan op = tracer.requestSpan(TracingIdentifiers.SPAN_REQUEST_QUERY, null);
+    op.attribute(TracingIdentifiers.ATTR_SYSTEM, TracingIdentifiers.ATTR_SYSTEM_COUCHBASE);
+    op.attribute(TracingIdentifiers.ATTR_SERVICE, TracingIdentifiers.SERVICE_QUERY);
+    op.attribute(TracingIdentifiers.ATTR_STATEMENT, statement);
+    op.attribute(TracingIdentifiers.ATTR_OPERATION, TracingIdentifiers.SPAN_REQUEST_QUERY);
+
+    for (int attempt = 0; attempt < attempts; attempt++) {
+      if (attempt > 0) {
+        backoff.run();
+      }
+      RequestSpan dispatch = tracer.requestSpan(TracingIdentifiers.SPAN_DISPATCH, op);
+      dispatch.attribute(TracingIdentifiers.ATTR_SYSTEM, TracingIdentifiers.ATTR_SYSTEM_COUCHBASE);
+      dispatch.attribute(TracingIdentifiers.ATTR_REMOTE_HOSTNAME, host);
+      dispatch.attribute(TracingIdentifiers.ATTR_REMOTE_PORT, 8093L);
+      onTheWire.run();
+      dispatch.end();
+    }
+
+    op.attribute(TracingIdentifiers.ATTR_RETRIES, (long) attempts - 1);
+    if (failure != null) {
+      op.recordException(failure);
+      op.status(RequestSpan.StatusCode.ERROR);
+    }
+    op.end();
+    return op;
+  }
+
+  public long issued(String operationName) {
+    LongAdder out = issued.get(operationName);
+    return out == null ? 0 : out.sum();
+  }
+
+  public long failed(String operationName) {
+    LongAdder out = failed.get(operationName);
+    return out == null ? 0 : out.sum();
+  }
+
+  public long totalIssued() {
+    return issued.values().stream().mapToLong(LongAdder::sum).sum();
+  }
+
+  public long totalRetries() {
+    return retries.sum();
+  }
+}
@@ -0,0 +1,92 @@
+package com.couchbase.client.util;
+
+import com.couchbase.client.InMemoryRequestTracerHandlerOperations;
+import com.couchbase.client.core.cnc.TracingIdentifiers;
+import com.couchbase.client.spans.InMemoryRequestSpan;
+import com.couchbase.client.spans.SpansForOperation;
+import org.jspecify.annotations.Nullable;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds span trees shaped like the ones core-io produces, for tests that do not need a cluster.
+ */
+public class SyntheticSpans {
+  private final List<InMemoryRequestSpan> spans = new ArrayList<>();
+
+  public InMemoryRequestSpan kv(String name, String documentId, String host, long serverDurationMicros) {
+    InMemoryRequestSpan op = new InMemoryRequestSpan(name, null);
+    op.attribute(TracingIdentifiers.ATTR_SERVICE, TracingIdentifiers.SERVICE_KV);
+    op.attribute(TracingIdentifiers.ATTR_DOCUMENT_ID, documentId);
+    op.attribute(TracingIdentifiers.ATTR_NAME, "default");
+    op.attribute(TracingIdentifiers.ATTR_SCOPE, "_default");
+    op.attribute(TracingIdentifiers.ATTR_COLLECTION, "_default");
+    op.attribute(TracingIdentifiers.ATTR_RETRIES, 0L);
+    spans.add(op);
+
+    InMemoryRequestSpan encoding = new InMemoryRequestSpan(TracingIdentifiers.SPAN_REQUEST_ENCODING, op);
+    encoding.end();
+    spans.add(encoding);
+
+    InMemoryRequestSpan dispatch = new InMemoryRequestSpan(TracingIdentifiers.SPAN_DISPATCH, op);
+    dispatch.attribute(TracingIdentifiers.ATTR_REMOTE_HOSTNAME, host);
+    dispatch.attribute(TracingIdentifiers.ATTR_REMOTE_PORT, 11210L);
+    dispatch.attribute(TracingIdentifiers.ATTR_SERVER_DURATION, serverDurationMicros);
+    dispatch.end();
+    spans.add(dispatch);
+
+    op.end();
+    return op;
+  }
+
+  /**
+   * A completed KV operation with the given start and duration, rather than timed by the clock.
+   */
+  public InMemoryRequestSpan kv(String name, String host, Instant start, Duration duration, @Nullable Throwable failure) {
+    InMemoryRequestSpan op = new InMemoryRequestSpan(name, null, start, duration);
+    op.attribute(TracingIdentifiers.ATTR_SERVICE, TracingIdentifiers.SERVICE_KV);
+    op.attribute(TracingIdentifiers.ATTR_RETRIES, 0L);
+    if (failure != null) {
+      op.recordException(failure);
+    }
+    spans.add(op);
+
+    InMemoryRequestSpan dispatch = new InMemoryRequestSpan(TracingIdentifiers.SPAN_DISPATCH, op, start, duration);
+    dispatch.attribute(TracingIdentifiers.ATTR_REMOTE_HOSTNAME, host);
+    dispatch.attribute(TracingIdentifiers.ATTR_REMOTE_PORT, 11210L);
+    spans.add(dispatch);
+    return op;
+  }
+
+  public InMemoryRequestSpan query(String statement, String host, @Nullable Throwable failure) {
+    InMemoryRequestSpan op = new InMemoryRequestSpan(TracingIdentifiers.SPAN_REQUEST_QUERY, null);
+    op.attribute(TracingIdentifiers.ATTR_SERVICE, TracingIdentifiers.SERVICE_QUERY);
+    op.attribute(TracingIdentifiers.ATTR_STATEMENT, statement);
+    op.attribute(TracingIdentifiers.ATTR_RETRIES, 0L);
+    spans.add(op);
+
+    InMemoryRequestSpan dispatch = new InMemoryRequestSpan(TracingIdentifiers.SPAN_DISPATCH, op);
+    dispatch.attribute(TracingIdentifiers.ATTR_REMOTE_HOSTNAME, host);
+    dispatch.attribute(TracingIdentifiers.ATTR_REMOTE_PORT, 8093L);
+    dispatch.end();
+    spans.add(dispatch);
+
+    if (failure != null) {
+      op.recordException(failure);
+    }
+    op.end();
+    return op;
+  }
+
+  public List<InMemoryRequestSpan> spans() {
+    return spans;
+  }
+
+  public InMemoryRequestTracerHandlerOperations operations() {
+    List<SpansForOperation> ops = InMemoryRequestTracerHandlerOperationsUtil.associateTopLevelSpansWithChildren(spans).getT1();
+    return new InMemoryRequestTracerHandlerOperations(ops);
+  }
+}